@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.benchmarks.model.Orders;
+import io.yupiik.fusion.cbor.internal.CborMapperImpl;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// same generated codecs, JSON (UTF-8 bytes) vs CBOR encoding/decoding
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CborBenchmark {
+    @Param({"medium", "huge"})
+    public String document;
+
+    private JsonMapperImpl json;
+    private CborMapperImpl cbor;
+    private Orders orders;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.mapper();
+        cbor = Fixtures.cborMapper();
+        orders = json.fromString(Orders.class, Fixtures.load(document));
+        jsonBytes = json.toBytes(orders);
+        cborBytes = cbor.toBytes(orders);
+    }
+
+    @TearDown
+    public void tearDown() {
+        json.close();
+        cbor.close();
+    }
+
+    @Benchmark
+    public byte[] writeJson() {
+        return json.toBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] writeCbor() {
+        return cbor.toBytes(orders);
+    }
+
+    @Benchmark
+    public Orders readJson() {
+        return json.fromBytes(Orders.class, jsonBytes);
+    }
+
+    @Benchmark
+    public Orders readCbor() {
+        return cbor.fromBytes(Orders.class, cborBytes);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.json.diff.GenericJsonDiff;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.patch.GenericJsonPatch;
+import io.yupiik.fusion.json.patch.JsonPatchOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// reconcile like usage: diff of two close documents and application of the resulting patch
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiffBenchmark {
+    @Param({"medium", "huge"})
+    public String document;
+
+    private JsonMapperImpl mapper;
+    private Object source;
+    private Object target;
+    private GenericJsonPatch patch;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        mapper = Fixtures.mapper();
+        source = mapper.fromString(Object.class, Fixtures.load(document));
+        target = mapper.fromString(Object.class, Fixtures.load(document));
+
+        // a few changes: one item updated, one inserted, one removed and two swapped
+        final var orders = (List<Object>) ((Map<String, Object>) target).get("orders");
+        ((Map<String, Object>) orders.get(1)).put("id", "updated");
+        orders.add(orders.size() / 2, new LinkedHashMap<>(Map.of("id", "inserted")));
+        orders.remove(orders.size() - 2);
+        Collections.swap(orders, 3, 7);
+
+        patch = new GenericJsonPatch(new GenericJsonDiff(source, target).toPatch());
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public List<JsonPatchOperation> diff() {
+        return new GenericJsonDiff(source, target).toPatch();
+    }
+
+    @Benchmark
+    public Object patch() {
+        return patch.apply(source);
+    }
+
+    Object target() {
+        return target;
+    }
+}
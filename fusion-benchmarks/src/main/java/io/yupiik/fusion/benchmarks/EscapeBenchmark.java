@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.internal.io.FastStringWriter;
+import io.yupiik.fusion.json.serialization.ExtendedWriter;
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EscapeBenchmark {
+    @Param({"plain", "escaped", "unicode"})
+    public String kind;
+
+    private String value;
+    private StringBuilder builder;
+    private ExtendedWriter chars;
+    private Utf8BytesWriter bytes;
+    private ExtendedWriter bytesWriter;
+
+    @Setup
+    public void setup() {
+        value = switch (kind) {
+            case "plain" -> "a plain attribute value without anything to escape, the most common case";
+            case "escaped" -> "a \"quoted\" value\twith\ttabs\nand\\backslashes\r\nand control \u0001 chars";
+            case "unicode" -> "café naïve 東京 São Paulo 😀 with some ascii around it";
+            default -> throw new IllegalStateException("Unknown kind '" + kind + "'");
+        };
+        builder = new StringBuilder(256);
+        chars = new ExtendedWriter(new FastStringWriter(builder));
+        bytes = new Utf8BytesWriter(256);
+        bytesWriter = new ExtendedWriter(bytes);
+    }
+
+    @Benchmark
+    public CharBuffer escapeChars() {
+        return JsonStrings.escapeChars(value);
+    }
+
+    @Benchmark
+    public int writeString() throws IOException {
+        builder.setLength(0);
+        chars.writeString(value);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int writeStringUtf8() throws IOException {
+        bytes.reset();
+        bytesWriter.writeString(value);
+        return bytes.size();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.benchmarks.model.Order$Address$FusionJsonCodec;
+import io.yupiik.fusion.benchmarks.model.Order$FusionJsonCodec;
+import io.yupiik.fusion.benchmarks.model.Order$Line$FusionJsonCodec;
+import io.yupiik.fusion.benchmarks.model.Orders$FusionJsonCodec;
+import io.yupiik.fusion.cbor.internal.CborMapperImpl;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// shared fixtures: small and medium documents are bundled, huge one is built from the medium one to not bloat the repository
+public final class Fixtures {
+    private static final int HUGE_REPETITIONS = 50;
+
+    private Fixtures() {
+        // no-op
+    }
+
+    public static String load(final String name) {
+        return switch (name) {
+            case "small", "medium" -> read(name);
+            case "huge" -> huge();
+            default -> throw new IllegalStateException("Unknown fixture '" + name + "'");
+        };
+    }
+
+    public static JsonMapperImpl mapper() {
+        return mapper(Map.of());
+    }
+
+    public static JsonMapperImpl mapper(final Map<String, String> configuration) {
+        return new JsonMapperImpl(
+                List.of(new Order$FusionJsonCodec(), new Order$Address$FusionJsonCodec(), new Order$Line$FusionJsonCodec(), new Orders$FusionJsonCodec()),
+                key -> Optional.ofNullable(configuration.get(key)));
+    }
+
+    public static CborMapperImpl cborMapper() {
+        return new CborMapperImpl(
+                List.of(new Order$FusionJsonCodec(), new Order$Address$FusionJsonCodec(), new Order$Line$FusionJsonCodec(), new Orders$FusionJsonCodec()),
+                key -> Optional.empty());
+    }
+
+    private static String huge() {
+        final var medium = read("medium").strip();
+        // {"orders":[...]} -> {"orders":[...,...]}
+        final int arrayStart = medium.indexOf('[') + 1;
+        final int arrayEnd = medium.lastIndexOf(']');
+        final var items = medium.substring(arrayStart, arrayEnd).strip();
+        final var out = new StringBuilder(medium.length() * HUGE_REPETITIONS).append("{\"orders\":[");
+        for (int i = 0; i < HUGE_REPETITIONS; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(items);
+        }
+        return out.append("]}").toString();
+    }
+
+    private static String read(final String name) {
+        try (final var in = Fixtures.class.getClassLoader().getResourceAsStream("fixtures/" + name + ".json")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture '" + name + "'");
+            }
+            return new String(in.readAllBytes(), UTF_8);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.benchmarks.model.Order;
+import io.yupiik.fusion.benchmarks.model.Orders;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// generated (@JsonModel) codecs through JsonMapperImpl
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+    private JsonMapperImpl mapper;
+    private String smallJson;
+    private String mediumJson;
+    private byte[] mediumBytes;
+    private Order small;
+    private Orders medium;
+
+    @Setup
+    public void setup() {
+        mapper = Fixtures.mapper();
+        smallJson = Fixtures.load("small");
+        mediumJson = Fixtures.load("medium");
+        mediumBytes = mediumJson.getBytes(UTF_8);
+        small = mapper.fromString(Order.class, smallJson);
+        medium = mapper.fromString(Orders.class, mediumJson);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public Order readSmall() {
+        return mapper.fromString(Order.class, smallJson);
+    }
+
+    @Benchmark
+    public Orders readMedium() {
+        return mapper.fromString(Orders.class, mediumJson);
+    }
+
+    @Benchmark
+    public Orders readMediumBytes() {
+        return mapper.fromBytes(Orders.class, mediumBytes);
+    }
+
+    @Benchmark
+    public String writeSmall() {
+        return mapper.toString(small);
+    }
+
+    @Benchmark
+    public String writeMedium() {
+        return mapper.toString(medium);
+    }
+
+    @Benchmark
+    public byte[] writeMediumBytes() {
+        return mapper.toBytes(medium);
+    }
+}
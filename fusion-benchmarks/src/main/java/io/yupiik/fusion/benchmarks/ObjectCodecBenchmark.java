@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// generic trees (ObjectJsonCodec or lazy tree depending the configuration)
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectCodecBenchmark {
+    @Param({"small", "medium"})
+    public String document;
+
+    @Param({"BIG_DECIMAL", "LONG_OR_DOUBLE", "LAZY"})
+    public String numberMode;
+
+    @Param({"false", "true"})
+    public String lazyTree;
+
+    private JsonMapperImpl mapper;
+    private byte[] bytes;
+    private Object tree;
+
+    @Setup
+    public void setup() {
+        mapper = Fixtures.mapper(Map.of("fusion.json.numberMode", numberMode, "fusion.json.lazyTree", lazyTree));
+        bytes = Fixtures.load(document).getBytes(UTF_8);
+        tree = mapper.fromBytes(Object.class, bytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mapper.close();
+    }
+
+    @Benchmark
+    public Object read() {
+        return mapper.fromBytes(Object.class, bytes);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object readOneField() { // typical JWT claims/envelope usage
+        final var root = (Map<String, Object>) mapper.fromBytes(Object.class, bytes);
+        final var orders = (List<Object>) root.get("orders");
+        return orders == null ? root.get("id") : ((Map<String, Object>) orders.get(0)).get("id");
+    }
+
+    @Benchmark
+    public String write() {
+        return mapper.toString(tree);
+    }
+}
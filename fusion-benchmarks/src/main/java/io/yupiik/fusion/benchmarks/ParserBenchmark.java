@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.json.internal.parser.BufferProvider;
+import io.yupiik.fusion.json.internal.parser.JsonParser;
+import io.yupiik.fusion.json.internal.parser.Utf8JsonParser;
+import io.yupiik.fusion.json.spi.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+    @Param({"small", "medium", "huge"})
+    public String document;
+
+    private String json;
+    private byte[] bytes;
+    private BufferProvider bufferProvider;
+
+    @Setup
+    public void setup() {
+        json = Fixtures.load(document);
+        bytes = json.getBytes(UTF_8);
+        bufferProvider = new BufferProvider(8 * 1024, -1);
+    }
+
+    @Benchmark
+    public void reader(final Blackhole blackhole) {
+        try (final var parser = new JsonParser(new StringReader(json), 8 * 1024, bufferProvider, true)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void utf8(final Blackhole blackhole) {
+        try (final var parser = new Utf8JsonParser(bytes, bufferProvider)) {
+            consume(parser, blackhole);
+        }
+    }
+
+    private void consume(final Parser parser, final Blackhole blackhole) {
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case KEY_NAME, VALUE_STRING -> blackhole.consume(parser.getString());
+                case VALUE_NUMBER -> blackhole.consume(parser.getDouble());
+                default -> blackhole.consume(event);
+            }
+        }
+    }
+}
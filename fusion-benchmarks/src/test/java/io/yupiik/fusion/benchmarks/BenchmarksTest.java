@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.benchmarks;
+
+import io.yupiik.fusion.benchmarks.model.Order;
+import io.yupiik.fusion.benchmarks.model.Orders;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ensures fixtures and benchmarks are usable without running JMH (which is slow)
+class BenchmarksTest {
+    private final Blackhole blackhole = new Blackhole("Today's password is swordfish. I understand instantiating Blackholes directly is dangerous.");
+
+    @Test
+    void fixtures() {
+        try (final var mapper = Fixtures.mapper()) {
+            assertEquals("order-000000", mapper.fromString(Order.class, Fixtures.load("small")).id());
+            assertEquals(100, mapper.fromString(Orders.class, Fixtures.load("medium")).orders().size());
+            assertEquals(5_000, mapper.fromString(Orders.class, Fixtures.load("huge")).orders().size());
+        }
+    }
+
+    @Test
+    void parser() {
+        final var benchmark = new ParserBenchmark();
+        benchmark.document = "medium";
+        benchmark.setup();
+        benchmark.reader(blackhole);
+        benchmark.utf8(blackhole);
+    }
+
+    @Test
+    void mapper() {
+        final var benchmark = new MapperBenchmark();
+        benchmark.setup();
+        try {
+            assertEquals(benchmark.readMedium(), benchmark.readMediumBytes());
+            assertEquals(benchmark.readSmall(), Fixtures.mapper().fromString(Order.class, benchmark.writeSmall()));
+            assertEquals(benchmark.writeMedium(), new String(benchmark.writeMediumBytes(), UTF_8));
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void cbor() {
+        final var benchmark = new CborBenchmark();
+        benchmark.document = "medium";
+        benchmark.setup();
+        try {
+            assertEquals(benchmark.readJson(), benchmark.readCbor());
+            assertTrue(benchmark.writeCbor().length < benchmark.writeJson().length);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void objectCodec() {
+        for (final var lazy : new String[]{"false", "true"}) {
+            final var benchmark = new ObjectCodecBenchmark();
+            benchmark.document = "medium";
+            benchmark.numberMode = "LAZY";
+            benchmark.lazyTree = lazy;
+            benchmark.setup();
+            try {
+                assertEquals("order-000001", benchmark.readOneField());
+                assertTrue(benchmark.write().startsWith("{\"orders\":[{"));
+            } finally {
+                benchmark.tearDown();
+            }
+        }
+    }
+
+    @Test
+    void diff() {
+        final var benchmark = new DiffBenchmark();
+        benchmark.document = "medium";
+        benchmark.setup();
+        try {
+            assertEquals(5, benchmark.diff().size());
+            assertEquals(benchmark.target(), benchmark.patch());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void escape() throws IOException {
+        final var benchmark = new EscapeBenchmark();
+        benchmark.kind = "escaped";
+        benchmark.setup();
+        final var expected = benchmark.escapeChars();
+        assertEquals(expected.limit(), benchmark.writeString());
+        assertEquals(expected.limit(), benchmark.writeStringUtf8());
+    }
+
+    @Test
+    void prettyFormatter() {
+        final var benchmark = new PrettyFormatterBenchmark();
+        benchmark.document = "small";
+        benchmark.setup();
+        try {
+            assertTrue(benchmark.format().contains("\n  \"id\": \"order-000000\""));
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.cbor;
+
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Binary (CBOR, RFC 8949) flavor of the JSON mapper, it reuses the JSON codecs (generated ones included).
+ */
+public interface CborMapper extends AutoCloseable {
+    /**
+     * Media type to use in {@code Content-Type}/{@code Accept} headers.
+     */
+    String CONTENT_TYPE = "application/cbor";
+
+    <A> byte[] toBytes(A instance);
+
+    /**
+     * Writes the instance in the stream, it is flushed but not closed.
+     *
+     * @param instance     the value to serialize.
+     * @param outputStream the output.
+     * @param <A>          the instance type.
+     */
+    <A> void write(A instance, OutputStream outputStream);
+
+    <A> A fromBytes(Class<A> type, byte[] bytes);
+
+    <A> A fromBytes(Type type, byte[] bytes);
+
+    <A> A read(Type type, ByteBuffer bytes);
+
+    /**
+     * Reads a value from chunks, they are aggregated before being decoded.
+     *
+     * @param type      the expected type.
+     * @param publisher the chunks.
+     * @param <A>       the instance type.
+     * @return the deserialized value once all chunks are received.
+     */
+    <A> CompletionStage<A> readAsync(Type type, Flow.Publisher<ByteBuffer> publisher);
+
+    @Override
+    void close();
+}
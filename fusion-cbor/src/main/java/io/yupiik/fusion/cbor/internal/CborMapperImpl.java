@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.cbor.internal;
+
+import io.yupiik.fusion.cbor.CborMapper;
+import io.yupiik.fusion.framework.api.configuration.Configuration;
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.serialization.JsonCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+public class CborMapperImpl implements CborMapper {
+    private final JsonMapper delegate;
+
+    public CborMapperImpl(final Collection<JsonCodec<?>> jsonCodecs, final Configuration configuration) {
+        this.delegate = new JsonMapperImpl(jsonCodecs, configuration, reader -> {
+            throw new IllegalStateException("CBOR is a binary format, use byte based methods");
+        }, CborParser::new);
+    }
+
+    @Override
+    public <A> byte[] toBytes(final A instance) {
+        final var out = new ByteArrayOutputStream();
+        write(instance, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public <A> void write(final A instance, final OutputStream outputStream) {
+        final var writer = new CborWriter(outputStream);
+        delegate.write(instance, writer);
+        try {
+            writer.flush();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public <A> A fromBytes(final Class<A> type, final byte[] bytes) {
+        return delegate.fromBytes(type, bytes);
+    }
+
+    @Override
+    public <A> A fromBytes(final Type type, final byte[] bytes) {
+        return delegate.fromBytes(type, bytes);
+    }
+
+    @Override
+    public <A> A read(final Type type, final ByteBuffer bytes) {
+        return delegate.read(type, bytes);
+    }
+
+    @Override
+    public <A> CompletionStage<A> readAsync(final Type type, final Flow.Publisher<ByteBuffer> publisher) {
+        return delegate.readAsync(type, publisher);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
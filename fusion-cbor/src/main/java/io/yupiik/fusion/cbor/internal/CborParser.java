@@ -0,0 +1,553 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.cbor.internal;
+
+import io.yupiik.fusion.json.LazyNumber;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.NoSuchElementException;
+
+import static io.yupiik.fusion.json.spi.Parser.Event.END_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.END_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.KEY_NAME;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_FALSE;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NULL;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NUMBER;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_STRING;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads CBOR (RFC 8949) items as JSON parser events so JSON codecs can deserialize them.
+ * <p>
+ * Maps keys must be text strings or integers, byte strings are read as base64 strings,
+ * bignums (tags 2 and 3) and decimal fractions (tag 4) are numbers and other tags are ignored.
+ */
+public class CborParser implements Parser {
+    private static final int TEXT = 0;
+    private static final int STRING = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int BIG = 4;
+
+    private final byte[] data;
+    private final int origin;
+    private final int end;
+    private int pos;
+
+    private int[] remaining = new int[16]; // items left in the container, -1 when indefinite
+    private boolean[] maps = new boolean[16];
+    private boolean[] keyExpected = new boolean[16];
+    private int depth;
+    private int arrayDepth;
+    private int objectDepth;
+    private boolean started;
+
+    private Event current;
+    private Event rewindedEvent;
+
+    // current value
+    private int kind;
+    private int textStart;
+    private int textLength;
+    private String string;
+    private long longValue;
+    private double doubleValue;
+    private BigDecimal bigValue;
+    private char[] chars = new char[64];
+
+    public CborParser(final ByteBuffer buffer) {
+        this(
+                buffer.hasArray() ? buffer.array() : copy(buffer),
+                buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0,
+                buffer.remaining());
+    }
+
+    public CborParser(final byte[] data, final int offset, final int length) {
+        this.data = data;
+        this.origin = offset;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (rewindedEvent != null || depth > 0) {
+            return true;
+        }
+        if (!started) {
+            return pos < end;
+        }
+        if (pos < end) {
+            throw error(pos, "EOF expected");
+        }
+        return false;
+    }
+
+    @Override
+    public void rewind(final Event event) {
+        rewindedEvent = event;
+    }
+
+    @Override
+    public Event next() {
+        if (rewindedEvent != null) {
+            final var event = rewindedEvent;
+            rewindedEvent = null;
+            return event;
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        started = true;
+        string = null;
+
+        if (depth == 0) {
+            return current = readItem(false);
+        }
+
+        final int level = depth - 1;
+        if (remaining[level] == 0 || (remaining[level] < 0 && pos < end && (data[pos] & 0xFF) == 0xFF)) {
+            if (remaining[level] < 0) {
+                pos++; // break
+            }
+            depth--;
+            if (maps[level]) {
+                objectDepth--;
+                return current = END_OBJECT;
+            }
+            arrayDepth--;
+            return current = END_ARRAY;
+        }
+        if (remaining[level] > 0) {
+            remaining[level]--;
+        }
+        if (maps[level]) {
+            final boolean key = keyExpected[level];
+            keyExpected[level] = !key;
+            if (key) {
+                return current = readKey();
+            }
+        }
+        return current = readItem(false);
+    }
+
+    @Override
+    public String getString() {
+        if (current != KEY_NAME && current != VALUE_STRING && current != VALUE_NUMBER) {
+            throw new IllegalStateException(eventName() + " doesn't support getString()");
+        }
+        if (string == null) {
+            string = switch (kind) {
+                case TEXT -> new String(data, textStart, textLength, UTF_8);
+                case LONG -> Long.toString(longValue);
+                case DOUBLE -> Double.toString(doubleValue);
+                case BIG -> bigValue.toString();
+                default -> throw new IllegalStateException("No string value");
+            };
+        }
+        return string;
+    }
+
+    @Override
+    public CharBuffer getChars() {
+        if (kind == TEXT && string == null && (current == KEY_NAME || current == VALUE_STRING)) {
+            if (chars.length < textLength) {
+                chars = new char[Math.max(textLength, chars.length * 2)];
+            }
+            for (int i = 0; i < textLength; i++) { // ascii fast path, mainly for attribute names
+                final byte b = data[textStart + i];
+                if (b < 0) {
+                    return CharBuffer.wrap(getString());
+                }
+                chars[i] = (char) b;
+            }
+            return CharBuffer.wrap(chars, 0, textLength);
+        }
+        return CharBuffer.wrap(getString());
+    }
+
+    @Override
+    public void enforceNext(final Event event) {
+        if (!hasNext()) {
+            throw new IllegalStateException("Expected " + event + " stream is finished.");
+        }
+        final var next = next();
+        if (next != event) {
+            throw new IllegalStateException("Expected " + event + " but got " + next);
+        }
+    }
+
+    @Override
+    public boolean isInArray() {
+        return arrayDepth > 0;
+    }
+
+    @Override
+    public boolean isInObject() {
+        return objectDepth > 0;
+    }
+
+    @Override
+    public void skipObject() {
+        if (isInObject()) {
+            skip(START_OBJECT, END_OBJECT);
+        }
+    }
+
+    @Override
+    public void skipArray() {
+        if (isInArray()) {
+            skip(START_ARRAY, END_ARRAY);
+        }
+    }
+
+    @Override
+    public int getInt() {
+        ensureNumber("getInt()");
+        return switch (kind) {
+            case LONG -> (int) longValue;
+            case DOUBLE -> (int) doubleValue;
+            default -> bigValue.intValue();
+        };
+    }
+
+    @Override
+    public long getLong() {
+        ensureNumber("getLong()");
+        return switch (kind) {
+            case LONG -> longValue;
+            case DOUBLE -> (long) doubleValue;
+            default -> bigValue.longValue();
+        };
+    }
+
+    @Override
+    public double getDouble() {
+        ensureNumber("getDouble()");
+        return switch (kind) {
+            case LONG -> longValue;
+            case DOUBLE -> doubleValue;
+            default -> bigValue.doubleValue();
+        };
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        ensureNumber("getBigDecimal()");
+        return switch (kind) {
+            case LONG -> BigDecimal.valueOf(longValue);
+            case DOUBLE -> BigDecimal.valueOf(doubleValue);
+            default -> bigValue;
+        };
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        ensureNumber("isIntegralNumber()");
+        return switch (kind) {
+            case LONG -> true;
+            case DOUBLE -> false;
+            default -> bigValue.scale() <= 0;
+        };
+    }
+
+    @Override
+    public Number getNumber(final NumberMode mode) {
+        ensureNumber("getNumber()");
+        if (kind == LONG) {
+            return switch (mode) {
+                case LONG_OR_DOUBLE -> longValue;
+                case LAZY -> new LazyNumber(longValue, 0);
+                default -> BigDecimal.valueOf(longValue);
+            };
+        }
+        if (kind == DOUBLE && mode == NumberMode.LONG_OR_DOUBLE) {
+            return doubleValue;
+        }
+        return Parser.super.getNumber(mode);
+    }
+
+    private Event readKey() {
+        final int initialByte = data[pos] & 0xFF;
+        final int major = initialByte >>> 5;
+        if (major == 0 || major == 1) { // integer keys are tolerated
+            readItem(true);
+            string = kind == LONG ? Long.toString(longValue) : bigValue.toString();
+            kind = STRING;
+            return KEY_NAME;
+        }
+        if (major != 3) {
+            throw error(pos, "Map keys must be text strings");
+        }
+        readItem(true);
+        return KEY_NAME;
+    }
+
+    private Event readItem(final boolean key) {
+        if (pos >= end) {
+            throw error(pos, "End of input hit too early");
+        }
+        final int start = pos;
+        final int initialByte = data[pos++] & 0xFF;
+        final int major = initialByte >>> 5;
+        final int info = initialByte & 0x1F;
+        switch (major) {
+            case 0 -> {
+                final long value = argument(info);
+                if (value < 0) { // > Long.MAX_VALUE
+                    big(new BigDecimal(new BigInteger(Long.toUnsignedString(value))));
+                } else {
+                    kind = LONG;
+                    longValue = value;
+                }
+                return VALUE_NUMBER;
+            }
+            case 1 -> {
+                final long value = argument(info);
+                if (value < 0) {
+                    big(new BigDecimal(new BigInteger(Long.toUnsignedString(value)).negate().subtract(BigInteger.ONE)));
+                } else {
+                    kind = LONG;
+                    longValue = -1 - value;
+                }
+                return VALUE_NUMBER;
+            }
+            case 2 -> {
+                string = Base64.getEncoder().encodeToString(bytes(info));
+                kind = STRING;
+                return VALUE_STRING;
+            }
+            case 3 -> {
+                if (info == 31) { // chunked
+                    final var builder = new StringBuilder();
+                    while (pos < end && (data[pos] & 0xFF) != 0xFF) {
+                        final int chunk = data[pos++] & 0xFF;
+                        if (chunk >>> 5 != 3 || (chunk & 0x1F) == 31) {
+                            throw error(pos - 1, "Invalid text chunk");
+                        }
+                        final int length = length(argument(chunk & 0x1F));
+                        builder.append(new String(data, pos, length, UTF_8));
+                        pos += length;
+                    }
+                    pos++; // break
+                    string = builder.toString();
+                    kind = STRING;
+                } else {
+                    textLength = length(argument(info));
+                    textStart = pos;
+                    pos += textLength;
+                    kind = TEXT;
+                }
+                return VALUE_STRING;
+            }
+            case 4, 5 -> {
+                if (key) {
+                    throw error(start, "Map keys must be text strings");
+                }
+                final boolean map = major == 5;
+                final int items = info == 31 ? -1 : length(argument(info));
+                push(map, map && items > 0 ? items * 2 : items);
+                if (map) {
+                    objectDepth++;
+                    return START_OBJECT;
+                }
+                arrayDepth++;
+                return START_ARRAY;
+            }
+            case 6 -> {
+                final long tag = argument(info);
+                if (tag == 2 || tag == 3) {
+                    final var magnitude = new BigInteger(1, bytes(nextByteStringInfo()));
+                    big(new BigDecimal(tag == 2 ? magnitude : magnitude.negate().subtract(BigInteger.ONE)));
+                    return VALUE_NUMBER;
+                }
+                if (tag == 4) { // [exponent, mantissa]
+                    if (pos >= end || (data[pos++] & 0xFF) != 0x82) {
+                        throw error(pos - 1, "Invalid decimal fraction");
+                    }
+                    if (readItem(false) != VALUE_NUMBER || kind != LONG) {
+                        throw error(pos, "Invalid decimal fraction exponent");
+                    }
+                    final int exponent = (int) longValue;
+                    if (readItem(false) != VALUE_NUMBER) {
+                        throw error(pos, "Invalid decimal fraction mantissa");
+                    }
+                    final var mantissa = kind == LONG ? BigInteger.valueOf(longValue) : bigValue.toBigIntegerExact();
+                    big(new BigDecimal(mantissa, -exponent));
+                    return VALUE_NUMBER;
+                }
+                return readItem(key); // unknown tag, use the tagged item
+            }
+            default -> {
+                if (key) {
+                    throw error(start, "Map keys must be text strings");
+                }
+                return switch (info) {
+                    case 20 -> VALUE_FALSE;
+                    case 21 -> VALUE_TRUE;
+                    case 22, 23 -> VALUE_NULL; // null, undefined
+                    case 25 -> {
+                        ensureAvailable(2);
+                        final int half = ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+                        pos += 2;
+                        yield number(halfToDouble(half));
+                    }
+                    case 26 -> number(Float.intBitsToFloat((int) argument(26)));
+                    case 27 -> number(Double.longBitsToDouble(argument(27)));
+                    default -> throw error(start, "Unsupported simple value: " + info);
+                };
+            }
+        }
+    }
+
+    private Event number(final double value) {
+        kind = DOUBLE;
+        doubleValue = value;
+        return VALUE_NUMBER;
+    }
+
+    private void big(final BigDecimal value) {
+        kind = BIG;
+        bigValue = value;
+    }
+
+    private int nextByteStringInfo() {
+        if (pos >= end || (data[pos] & 0xFF) >>> 5 != 2) {
+            throw error(pos, "Expected a byte string");
+        }
+        return data[pos++] & 0x1F;
+    }
+
+    private byte[] bytes(final int info) {
+        if (info != 31) {
+            final int length = length(argument(info));
+            final var out = Arrays.copyOfRange(data, pos, pos + length);
+            pos += length;
+            return out;
+        }
+        final var out = new java.io.ByteArrayOutputStream();
+        while (pos < end && (data[pos] & 0xFF) != 0xFF) {
+            final int chunk = data[pos++] & 0xFF;
+            if (chunk >>> 5 != 2 || (chunk & 0x1F) == 31) {
+                throw error(pos - 1, "Invalid byte string chunk");
+            }
+            final int length = length(argument(chunk & 0x1F));
+            out.write(data, pos, length);
+            pos += length;
+        }
+        pos++; // break
+        return out.toByteArray();
+    }
+
+    private long argument(final int info) {
+        if (info < 24) {
+            return info;
+        }
+        final int size = switch (info) {
+            case 24 -> 1;
+            case 25 -> 2;
+            case 26 -> 4;
+            case 27 -> 8;
+            default -> throw error(pos - 1, "Invalid additional information: " + info);
+        };
+        ensureAvailable(size);
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value = (value << 8) | (data[pos++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int length(final long length) {
+        if (length < 0 || length > end - pos) {
+            throw error(pos, "Invalid length: " + Long.toUnsignedString(length));
+        }
+        return (int) length;
+    }
+
+    private void ensureAvailable(final int size) {
+        if (pos + size > end) {
+            throw error(end, "End of input hit too early");
+        }
+    }
+
+    private void push(final boolean map, final int items) {
+        if (depth == maps.length) {
+            maps = Arrays.copyOf(maps, depth * 2);
+            keyExpected = Arrays.copyOf(keyExpected, depth * 2);
+            remaining = Arrays.copyOf(remaining, depth * 2);
+        }
+        maps[depth] = map;
+        keyExpected[depth] = map;
+        remaining[depth] = items;
+        depth++;
+    }
+
+    private void skip(final Event start, final Event end) {
+        int level = 1;
+        do {
+            final var event = next();
+            if (event == start) {
+                level++;
+            } else if (event == end) {
+                level--;
+            }
+        } while (level > 0 && hasNext());
+    }
+
+    private void ensureNumber(final String method) {
+        if (current != VALUE_NUMBER) {
+            throw new IllegalStateException(eventName() + " doesn't support " + method);
+        }
+    }
+
+    private String eventName() {
+        return current == null ? "no event" : current.name();
+    }
+
+    private IllegalStateException error(final int index, final String message) {
+        return new IllegalStateException("Invalid CBOR at byteOffset=" + (index - origin) + ": " + message);
+    }
+
+    private static double halfToDouble(final int half) {
+        final int exponent = (half >> 10) & 0x1F;
+        final int mantissa = half & 0x3FF;
+        final double value;
+        if (exponent == 0) {
+            value = mantissa * Math.pow(2, -24);
+        } else if (exponent != 31) {
+            value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+        } else {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private static byte[] copy(final ByteBuffer buffer) {
+        final var out = new byte[buffer.remaining()];
+        buffer.duplicate().get(out);
+        return out;
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.cbor.internal;
+
+import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.serialization.ExtendedWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Encodes in CBOR (RFC 8949) what JSON codecs write.
+ * <p>
+ * Built-in and generated codecs write through the typed {@link ExtendedWriter} methods (structure, strings,
+ * attribute names, numbers, booleans, {@code null}) which are encoded directly.
+ * Raw writes - custom codecs writing JSON text ({@code {}, [], true, 1.5, "..."}, ...) - are still supported,
+ * they are tokenized and transcoded on the fly.
+ * Objects and arrays use indefinite length items since their size is not known when they start.
+ */
+public class CborWriter extends ExtendedWriter {
+    private static final int NONE = 0;
+    private static final int TOKEN = 1;
+    private static final int STRING = 2;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+
+    // raw JSON tokenization state
+    private int state = NONE;
+    private final StringBuilder token = new StringBuilder();
+    private int escape; // 1 after a backslash, 2-5 while reading an unicode escape
+    private int unicode;
+
+    public CborWriter(final OutputStream out) {
+        this(out, 8 * 1024);
+    }
+
+    public CborWriter(final OutputStream out, final int bufferSize) {
+        super(Writer.nullWriter());
+        this.out = out;
+        this.buffer = new byte[Math.max(16, bufferSize)];
+    }
+
+    @Override
+    public void write(final char[] chars, final byte[] utf8) throws IOException {
+        final int length = utf8.length;
+        if (state == NONE && length > 2 && utf8[0] == '"' && utf8[length - 2] == '"' && utf8[length - 1] == ':' && !hasBackslash(utf8)) {
+            head(3, length - 3); // attribute name, already UTF-8 encoded
+            writeBytes(utf8, 1, length - 3);
+            return;
+        }
+        write(chars, 0, chars.length);
+    }
+
+    @Override
+    public void writeString(final CharSequence value) throws IOException {
+        endToken();
+        writeText(value);
+    }
+
+    @Override
+    public void writeString(final char[] json, final String value) throws IOException {
+        endToken();
+        writeText(value);
+    }
+
+    @Override
+    public void writeNumber(final long value) throws IOException {
+        endToken();
+        writeLong(value);
+    }
+
+    @Override
+    public void writeNumber(final double value) throws IOException {
+        endToken();
+        writeDouble(value);
+    }
+
+    @Override
+    public void writeNumber(final Number value) throws IOException {
+        endToken();
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeLong(value.longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(value.doubleValue());
+        } else if (value instanceof BigInteger integer) {
+            writeInteger(integer);
+        } else if (value instanceof BigDecimal decimal) {
+            if (decimal.scale() <= 0) { // integral, keep the integer encoding the JSON text would get
+                writeInteger(decimal.toBigInteger());
+            } else {
+                writeDecimal(decimal, decimal.doubleValue());
+            }
+        } else {
+            writeNumberToken(value.toString());
+        }
+    }
+
+    @Override
+    public void writeBoolean(final boolean value) throws IOException {
+        endToken();
+        writeByte(value ? 0xF5 : 0xF4);
+    }
+
+    @Override
+    public void writeNull() throws IOException {
+        endToken();
+        writeByte(0xF6);
+    }
+
+    @Override
+    public void writeStartObject() throws IOException {
+        endToken();
+        writeByte(0xBF); // indefinite map
+    }
+
+    @Override
+    public void writeStartArray() throws IOException {
+        endToken();
+        writeByte(0x9F); // indefinite array
+    }
+
+    @Override
+    public void writeEndObject() throws IOException {
+        endToken();
+        writeByte(0xFF); // break
+    }
+
+    @Override
+    public void writeEndArray() throws IOException {
+        endToken();
+        writeByte(0xFF); // break
+    }
+
+    @Override
+    public void writeComma() throws IOException {
+        endToken(); // implicit in CBOR
+    }
+
+    @Override
+    public void writeColon() throws IOException {
+        endToken(); // implicit in CBOR
+    }
+
+    @Override
+    public void write(final CharSequence s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            raw(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        raw((char) c);
+    }
+
+    @Override
+    public void write(final char[] cbuf) throws IOException {
+        write(cbuf, 0, cbuf.length);
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            raw(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(final String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            raw(str.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        write(csq == null ? "null" : csq);
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        write(csq == null ? "null" : csq.subSequence(start, end));
+        return this;
+    }
+
+    @Override
+    public Writer append(final char c) throws IOException {
+        raw(c);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        endToken();
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CborWriter[" + out + "]";
+    }
+
+    private void raw(final char c) throws IOException {
+        switch (state) {
+            case STRING -> string(c);
+            case TOKEN -> {
+                if (isDelimiter(c)) {
+                    endToken();
+                    structural(c);
+                } else {
+                    token.append(c);
+                }
+            }
+            default -> structural(c);
+        }
+    }
+
+    private void structural(final char c) throws IOException {
+        switch (c) {
+            case '{' -> writeByte(0xBF); // indefinite map
+            case '[' -> writeByte(0x9F); // indefinite array
+            case '}', ']' -> writeByte(0xFF); // break
+            case ',', ':', ' ', '\n', '\r', '\t' -> {
+                // implicit in CBOR
+            }
+            case '"' -> {
+                state = STRING;
+                token.setLength(0);
+            }
+            default -> {
+                state = TOKEN;
+                token.setLength(0);
+                token.append(c);
+            }
+        }
+    }
+
+    private void string(final char c) throws IOException {
+        switch (escape) {
+            case 0 -> {
+                if (c == '\\') {
+                    escape = 1;
+                } else if (c == '"') {
+                    state = NONE;
+                    writeText(token);
+                } else {
+                    token.append(c);
+                }
+            }
+            case 1 -> {
+                if (c == 'u') {
+                    escape = 2;
+                    unicode = 0;
+                } else {
+                    token.append(JsonStrings.asEscapedChar(c));
+                    escape = 0;
+                }
+            }
+            default -> {
+                unicode = (unicode << 4) | Character.digit(c, 16);
+                if (++escape == 6) {
+                    token.append((char) unicode);
+                    escape = 0;
+                }
+            }
+        }
+    }
+
+    private void endToken() throws IOException {
+        if (state != TOKEN) {
+            return;
+        }
+        state = NONE;
+        final var value = token.toString();
+        switch (value) {
+            case "true" -> writeByte(0xF5);
+            case "false" -> writeByte(0xF4);
+            case "null" -> writeByte(0xF6);
+            default -> writeNumberToken(value);
+        }
+    }
+
+    private void writeNumberToken(final String value) throws IOException {
+        if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+            if (value.length() < 19) { // always fits a long
+                writeLong(Long.parseLong(value));
+                return;
+            }
+            writeInteger(new BigInteger(value));
+            return;
+        }
+
+        final double asDouble = Double.parseDouble(value);
+        if (Double.toString(asDouble).equals(value)) { // common case: the JSON codecs wrote a double
+            writeDouble(asDouble);
+            return;
+        }
+        writeDecimal(new BigDecimal(value), asDouble);
+    }
+
+    private void writeInteger(final BigInteger integer) throws IOException {
+        if (integer.bitLength() < 64) {
+            writeLong(integer.longValue());
+        } else {
+            writeBigInteger(integer);
+        }
+    }
+
+    private void writeDecimal(final BigDecimal decimal, final double asDouble) throws IOException {
+        if (!Double.isInfinite(asDouble) && BigDecimal.valueOf(asDouble).compareTo(decimal) == 0) {
+            writeDouble(asDouble);
+            return;
+        }
+        // decimal fraction (tag 4): [exponent, mantissa]
+        writeByte(0xC4);
+        writeByte(0x82);
+        writeLong(-decimal.scale());
+        final var unscaled = decimal.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            writeLong(unscaled.longValue());
+        } else {
+            writeBigInteger(unscaled);
+        }
+    }
+
+    private void writeDouble(final double value) throws IOException {
+        final float asFloat = (float) value;
+        if (asFloat == value) {
+            writeByte(0xFA);
+            final int bits = Float.floatToIntBits(asFloat);
+            ensureCapacity(4);
+            buffer[count++] = (byte) (bits >>> 24);
+            buffer[count++] = (byte) (bits >>> 16);
+            buffer[count++] = (byte) (bits >>> 8);
+            buffer[count++] = (byte) bits;
+            return;
+        }
+        writeByte(0xFB);
+        final long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[count++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void writeLong(final long value) throws IOException {
+        if (value >= 0) {
+            head(0, value);
+        } else {
+            head(1, -1 - value);
+        }
+    }
+
+    // tag 2 (positive) or 3 (negative) followed by the big endian magnitude
+    private void writeBigInteger(final BigInteger value) throws IOException {
+        final boolean negative = value.signum() < 0;
+        writeByte(negative ? 0xC3 : 0xC2);
+        final var bytes = (negative ? value.negate().subtract(BigInteger.ONE) : value).toByteArray();
+        int offset = 0;
+        if (bytes.length > 1 && bytes[0] == 0) { // sign byte
+            offset = 1;
+        }
+        head(2, bytes.length - offset);
+        writeBytes(bytes, offset, bytes.length - offset);
+    }
+
+    // definite length UTF-8 text, the length is computed first to encode directly in the buffer
+    private void writeText(final CharSequence value) throws IOException {
+        final int length = value.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length++;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length += 3;
+            }
+        }
+        head(3, utf8Length);
+        for (int i = 0; i < length; i++) {
+            ensureCapacity(4);
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) { // malformed, same replacement than the JVM encoder (3 bytes were counted)
+                buffer[count++] = (byte) 0xEF;
+                buffer[count++] = (byte) 0xBF;
+                buffer[count++] = (byte) 0xBD;
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void head(final int major, final long value) throws IOException {
+        ensureCapacity(9);
+        final int type = major << 5;
+        if (value < 24) {
+            buffer[count++] = (byte) (type | value);
+        } else if (value <= 0xFF) {
+            buffer[count++] = (byte) (type | 24);
+            buffer[count++] = (byte) value;
+        } else if (value <= 0xFFFF) {
+            buffer[count++] = (byte) (type | 25);
+            buffer[count++] = (byte) (value >>> 8);
+            buffer[count++] = (byte) value;
+        } else if (value <= 0xFFFFFFFFL) {
+            buffer[count++] = (byte) (type | 26);
+            buffer[count++] = (byte) (value >>> 24);
+            buffer[count++] = (byte) (value >>> 16);
+            buffer[count++] = (byte) (value >>> 8);
+            buffer[count++] = (byte) value;
+        } else {
+            buffer[count++] = (byte) (type | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[count++] = (byte) (value >>> shift);
+            }
+        }
+    }
+
+    private void writeByte(final int value) throws IOException {
+        ensureCapacity(1);
+        buffer[count++] = (byte) value;
+    }
+
+    private void writeBytes(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length > buffer.length) {
+            flushBuffer();
+            out.write(bytes, offset, length);
+            return;
+        }
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    private void ensureCapacity(final int length) throws IOException {
+        if (count + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private static boolean isDelimiter(final char c) {
+        return c == ',' || c == ':' || c == '}' || c == ']' || c == '{' || c == '[' || c == '"' ||
+                c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean hasBackslash(final byte[] utf8) {
+        for (final byte b : utf8) {
+            if (b == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
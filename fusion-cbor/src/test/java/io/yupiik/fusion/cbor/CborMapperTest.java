@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.cbor;
+
+import io.yupiik.fusion.cbor.internal.CborMapperImpl;
+import io.yupiik.fusion.cbor.internal.CborParser;
+import io.yupiik.fusion.framework.build.api.json.JsonModel;
+import io.yupiik.fusion.json.internal.codec.EnumJsonCodec;
+import io.yupiik.fusion.json.spi.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CborMapperTest {
+    @Test
+    void rfcExamples() {
+        try (final var mapper = new CborMapperImpl(List.of(), c -> Optional.empty())) {
+            assertEquals(new BigDecimal("100"), mapper.fromBytes(Object.class, hex("1864")));
+            assertEquals(new BigDecimal("-1000"), mapper.fromBytes(Object.class, hex("3903e7")));
+            assertEquals(new BigDecimal("18446744073709551616"), mapper.fromBytes(Object.class, hex("c249010000000000000000")));
+            assertEquals(new BigDecimal("-18446744073709551617"), mapper.fromBytes(Object.class, hex("c349010000000000000000")));
+            assertEquals(new BigDecimal("273.15"), mapper.fromBytes(Object.class, hex("c48221196ab3")));
+            assertEquals(new BigDecimal("1.5"), mapper.fromBytes(Object.class, hex("f93e00")));
+            assertEquals(new BigDecimal("1.1"), mapper.fromBytes(Object.class, hex("fb3ff199999999999a")));
+            assertEquals("IETF", mapper.fromBytes(Object.class, hex("6449455446")));
+            assertEquals("streaming", mapper.fromBytes(Object.class, hex("7f657374726561646d696e67ff")));
+            assertEquals("AQIDBA==", mapper.fromBytes(Object.class, hex("4401020304")));
+            assertEquals(true, mapper.fromBytes(Object.class, hex("f5")));
+            assertEquals(Map.of("a", new BigDecimal("1"), "b", List.of(new BigDecimal("2"), new BigDecimal("3"))),
+                    mapper.fromBytes(Object.class, hex("a26161016162820203")));
+            assertEquals(List.of("a", Map.of("b", "c")), mapper.fromBytes(Object.class, hex("826161bf61626163ff")));
+        }
+    }
+
+    @Test
+    void writeEncoding() {
+        try (final var mapper = new CborMapperImpl(List.of(), c -> Optional.empty())) {
+            final var map = new LinkedHashMap<String, Object>();
+            map.put("a", 1);
+            map.put("b", List.of(2, 3));
+            assertEquals("bf6161016162" + "9f0203ff" + "ff", HexFormat.of().formatHex(mapper.toBytes(map)));
+            assertEquals("f6", HexFormat.of().formatHex(mapper.toBytes(null)));
+            assertEquals("9f6449455446f5ff", HexFormat.of().formatHex(mapper.toBytes(List.of("IETF", true))));
+        }
+    }
+
+    @Test
+    void roundTrip() {
+        final var data = new LinkedHashMap<String, Object>();
+        data.put("name", "h\"é♨😀");
+        data.put("numbers", List.of(
+                new BigDecimal("0"), new BigDecimal("-24"), new BigDecimal("1234567890123"),
+                new BigDecimal("1.5"), new BigDecimal("0.1"), new BigDecimal("123456789012345678901234567890"),
+                new BigDecimal("-1.000000000000000000001")));
+        data.put("nested", Map.of("flag", false));
+        final var withNull = new ArrayList<>();
+        withNull.add(null);
+        data.put("nulls", withNull);
+        try (final var mapper = new CborMapperImpl(List.of(), c -> Optional.empty())) {
+            final var bytes = mapper.toBytes(data);
+            assertEquals(data, mapper.fromBytes(Object.class, bytes));
+            assertEquals(data, mapper.read(Object.class, ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    @Test
+    void model() {
+        final var model = new Model(
+                "fusion", 42, true, 1.5, Kind.LEAF, List.of(1L, 2L),
+                new Model("nested", -1, false, 0.1, null, List.of(), null));
+        try (final var mapper = new CborMapperImpl(List.of(
+                new CborMapperTest$Model$FusionJsonCodec(),
+                new EnumJsonCodec<>(Kind.class, List.of(Kind.values()), Kind::name)), c -> Optional.empty())) {
+            final var bytes = mapper.toBytes(model);
+            assertEquals(model, mapper.fromBytes(Model.class, bytes));
+            assertEquals( // scalars are written with their CBOR major types, not re-tokenized from JSON text
+                    "bf" +
+                            "66616374697665" + "f5" + // active: true
+                            "646b696e64" + "644c454146" + // kind: "LEAF"
+                            "646e616d65" + "6161" + // name: "a"
+                            "65726174696f" + "fa3fc00000" + // ratio: 1.5
+                            "6576616c7565" + "01" + // value: 1
+                            "ff",
+                    HexFormat.of().formatHex(mapper.toBytes(new Model("a", 1, true, 1.5, Kind.LEAF, null, null))));
+            assertEquals(model, mapper.readAsync(Model.class, subscriber -> {
+                subscriber.onSubscribe(new java.util.concurrent.Flow.Subscription() {
+                    private int index;
+
+                    @Override
+                    public void request(final long n) {
+                        if (index < bytes.length) {
+                            final int from = index;
+                            index += 3;
+                            subscriber.onNext(ByteBuffer.wrap(bytes, from, Math.min(3, bytes.length - from)));
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                        // no-op
+                    }
+                });
+            }).toCompletableFuture().join());
+        }
+    }
+
+    @Test
+    void parserEvents() {
+        try (final var parser = new CborParser(ByteBuffer.wrap(hex("a201020303")))) { // integer keys
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals("1", parser.getString());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(2, parser.getInt());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(Parser.Event.END_OBJECT, parser.next());
+        }
+        try (final var parser = new CborParser(ByteBuffer.wrap(hex("83010203ff")))) { // trailing byte
+            parser.next();
+            parser.skipArray();
+            assertThrows(IllegalStateException.class, parser::hasNext);
+        }
+    }
+
+    @Test
+    void invalid() {
+        try (final var mapper = new CborMapperImpl(List.of(), c -> Optional.empty())) {
+            assertThrows(IllegalStateException.class, () -> mapper.fromBytes(Object.class, hex("6449")));
+            assertThrows(IllegalStateException.class, () -> mapper.fromBytes(Object.class, hex("a1f501")));
+            assertThrows(IllegalStateException.class, () -> mapper.fromBytes(Object.class, hex("1a0001")));
+        }
+    }
+
+    private static byte[] hex(final String value) {
+        return HexFormat.of().parseHex(value);
+    }
+
+    @JsonModel
+    public record Model(String name, int value, boolean active, double ratio, Kind kind, List<Long> ids, Model child) {
+    }
+
+    public enum Kind {
+        LEAF
+    }
+}
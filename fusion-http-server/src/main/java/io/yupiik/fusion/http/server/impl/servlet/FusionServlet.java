@@ -33,6 +33,7 @@ import java.nio.channels.Channels;
 import java.util.List;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import static java.util.Objects.requireNonNull;
@@ -76,11 +77,20 @@ public class FusionServlet extends HttpServlet {
                            final BaseEndpoint matched, final AsyncContext asyncContext) {
         try {
             matched.handle(request).whenComplete((response, ex) -> {
+                // the body can be published asynchronously so the request is completed once it is written
+                final var completed = new AtomicBoolean();
+                final Runnable complete = () -> {
+                    if (completed.compareAndSet(false, true)) {
+                        asyncContext.complete();
+                    }
+                };
+                boolean deferred = false;
                 try {
                     if (ex != null) {
                         onError(resp, ex);
                     } else {
-                        writeResponse(resp, response);
+                        writeResponse(resp, response, complete);
+                        deferred = true;
                     }
                 } catch (final RuntimeException re) {
                     if (!resp.isCommitted()) {
@@ -90,7 +100,9 @@ public class FusionServlet extends HttpServlet {
                     }
                     throw re;
                 } finally {
-                    asyncContext.complete();
+                    if (!deferred) {
+                        complete.run();
+                    }
                 }
             });
         } catch (final RuntimeException re) {
@@ -119,6 +131,19 @@ public class FusionServlet extends HttpServlet {
     }
 
     protected void writeResponse(final HttpServletResponse resp, final Response response) {
+        writeResponse(resp, response, () -> {
+        });
+    }
+
+    /**
+     * Writes the response, {@code onWritten} is called once the body is fully written which can be after
+     * this method returns when the body publisher emits asynchronously.
+     *
+     * @param resp      the servlet response.
+     * @param response  the response to write.
+     * @param onWritten callback called once the body is written (or failed).
+     */
+    protected void writeResponse(final HttpServletResponse resp, final Response response, final Runnable onWritten) {
         resp.setStatus(response.status());
         if (!response.headers().isEmpty()) {
             response.headers().forEach((k, v) -> {
@@ -159,6 +184,7 @@ public class FusionServlet extends HttpServlet {
                     try (final var writer = new CloseOnceWriter(resp.getWriter())) {
                         wp.getDelegate().accept(writer);
                     }
+                    onWritten.run();
                 } else {
                     final var stream = resp.getOutputStream();
                     final var channel = Channels.newChannel(stream);
@@ -209,12 +235,15 @@ public class FusionServlet extends HttpServlet {
                                 logger.log(SEVERE, e, e::getMessage);
                             }
                             closed = true;
+                            onWritten.run();
                         }
                     });
                 }
             } catch (final IOException e) {
                 throw new IllegalStateException(e);
             }
+        } else {
+            onWritten.run();
         }
     }
 }
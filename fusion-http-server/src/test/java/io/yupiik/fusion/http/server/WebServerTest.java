@@ -18,6 +18,7 @@ package io.yupiik.fusion.http.server;
 import io.yupiik.fusion.http.server.api.Request;
 import io.yupiik.fusion.http.server.api.Response;
 import io.yupiik.fusion.http.server.api.WebServer;
+import io.yupiik.fusion.http.server.impl.DefaultEndpoint;
 import io.yupiik.fusion.http.server.impl.tomcat.MonitoringServerConfiguration;
 import io.yupiik.fusion.http.server.impl.tomcat.TomcatWebServerConfiguration;
 import io.yupiik.fusion.http.server.spi.MonitoringEndpoint;
@@ -30,14 +31,19 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static java.lang.Thread.sleep;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.concurrent.CompletableFuture.completedStage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -76,6 +82,33 @@ class WebServerTest {
         }
     }
 
+    @Test
+    void asynchronousBody() throws IOException, InterruptedException {
+        final var configuration = WebServer.Configuration.of().port(0);
+        configuration.unwrap(TomcatWebServerConfiguration.class).setEndpoints(List.of(new DefaultEndpoint(
+                0, r -> "/async".equals(r.path()),
+                r -> completedStage(Response.of()
+                        .body((Flow.Publisher<ByteBuffer>) subscriber -> { // emits once the servlet returned from writeResponse
+                            final var publisher = new SubmissionPublisher<ByteBuffer>();
+                            publisher.subscribe(subscriber);
+                            CompletableFuture.runAsync(() -> {
+                                publisher.submit(ByteBuffer.wrap("first,".getBytes(UTF_8)));
+                                publisher.submit(ByteBuffer.wrap("second".getBytes(UTF_8)));
+                                publisher.close();
+                            }, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+                        })
+                        .build()))));
+        try (final var server = WebServer.of(configuration)) {
+            final var get = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                            .GET()
+                            .uri(URI.create("http://localhost:" + server.configuration().port() + "/async"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, get.statusCode());
+            assertEquals("first,second", get.body());
+        }
+    }
+
     @Test
     void runEmpty() {
         try (final var server = WebServer.of(WebServer.Configuration.of().port(0))) {
@@ -15,9 +15,23 @@
  */
 package io.yupiik.fusion.json;
 
+import io.yupiik.fusion.framework.api.container.Types;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public interface JsonMapper extends AutoCloseable {
     <A> byte[] toBytes(A instance);
@@ -32,12 +46,182 @@ public interface JsonMapper extends AutoCloseable {
 
     <A> String toString(A instance);
 
+    /**
+     * Converts a generic JSON value (as read with {@code Object.class}: maps, lists, strings, numbers, booleans)
+     * to a typed instance. Implementations can bind it directly with the codec of {@code type},
+     * the default implementation serializes it and reads it back.
+     *
+     * @param type  the expected type.
+     * @param value the generic JSON value.
+     * @param <A>   the type of the instance.
+     * @return the typed instance.
+     */
+    default <A> A fromObject(final Type type, final Object value) {
+        return fromString(type, toString(value));
+    }
+
     <A> void write(A instance, Writer writer);
 
     <A> A read(Type type, Reader rawReader);
 
     <A> A read(Class<A> type, Reader reader);
 
+    /**
+     * Reads an UTF-8 JSON payload, implementations can parse it without decoding it first.
+     *
+     * @param type  the expected type.
+     * @param bytes the UTF-8 payload (from its position to its limit), it is not consumed.
+     * @param <A>   the type of the instance.
+     * @return the deserialized instance.
+     */
+    default <A> A read(final Type type, final ByteBuffer bytes) {
+        try (final var reader = new StringReader(UTF_8.decode(bytes.duplicate()).toString())) {
+            return read(type, reader);
+        }
+    }
+
+    /**
+     * Reads an UTF-8 JSON payload received as chunks (an HTTP request body for example).
+     * Implementations can parse the chunks while they arrive instead of aggregating them first,
+     * an invalid payload then fails (and cancels the subscription) as soon as the error is received.
+     * The default implementation aggregates the chunks and delegates to {@link #read(Type, ByteBuffer)}.
+     *
+     * @param type      the expected type.
+     * @param publisher the UTF-8 chunks.
+     * @param <A>       the type of the instance.
+     * @return the deserialized instance once the publisher completed.
+     */
+    default <A> CompletionStage<A> readAsync(final Type type, final Flow.Publisher<ByteBuffer> publisher) {
+        final var result = new CompletableFuture<A>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private final ByteArrayOutputStream aggregated = new ByteArrayOutputStream();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                if (item.hasArray()) {
+                    aggregated.write(item.array(), item.arrayOffset() + item.position(), item.remaining());
+                } else {
+                    final var copy = new byte[item.remaining()];
+                    item.duplicate().get(copy);
+                    aggregated.writeBytes(copy);
+                }
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                try {
+                    result.complete(read(type, ByteBuffer.wrap(aggregated.toByteArray())));
+                } catch (final RuntimeException re) {
+                    result.completeExceptionally(re);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reads a JSON array lazily, elements are decoded one at a time when the stream is consumed
+     * so the whole array is never in memory.
+     * The returned stream must be closed to release the parser if it is not fully consumed.
+     * The default implementation reads the whole array as a {@code List} and streams it.
+     *
+     * @param type   the type of the array items.
+     * @param reader the JSON input.
+     * @param <A>    the type of the items.
+     * @return the stream of items.
+     */
+    default <A> Stream<A> readArray(final Type type, final Reader reader) {
+        final List<A> items;
+        try (reader) {
+            items = read(new Types.ParameterizedTypeImpl(List.class, type), reader);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return items == null ? Stream.empty() : items.stream();
+    }
+
+    default <A> Stream<A> readArray(final Class<A> type, final Reader reader) {
+        return readArray((Type) type, reader);
+    }
+
+    /**
+     * Writes items as a JSON array while iterating over them, the item codec is resolved once from {@code type}.
+     * The default implementation writes each item with {@link #write(Object, Writer)} and flushes {@code writer}
+     * every {@code flushEvery} items.
+     *
+     * @param type       the type of the items.
+     * @param items      the items to write, consumed while writing.
+     * @param writer     the output.
+     * @param flushEvery if positive, items are buffered and written/flushed to {@code writer} every {@code flushEvery} items,
+     *                   else items are written directly and the writer is only flushed at the end.
+     * @param <A>        the type of the items.
+     */
+    default <A> void writeArray(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        writeItems(items, writer, flushEvery, "[", ",", "]");
+    }
+
+    /**
+     * Same as {@link #writeArray(Type, Iterator, Writer, int)} but writes NDJSON (one JSON value per line).
+     *
+     * @param type       the type of the items.
+     * @param items      the items to write, consumed while writing.
+     * @param writer     the output.
+     * @param flushEvery if positive, items are buffered and written/flushed to {@code writer} every {@code flushEvery} items.
+     * @param <A>        the type of the items.
+     */
+    default <A> void writeNdjson(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        writeItems(items, writer, flushEvery, "", "\n", "\n");
+    }
+
+    default <A> void writeArray(final Type type, final Stream<? extends A> items, final Writer writer, final int flushEvery) {
+        try (items) {
+            writeArray(type, items.iterator(), writer, flushEvery);
+        }
+    }
+
+    default <A> void writeNdjson(final Type type, final Stream<? extends A> items, final Writer writer, final int flushEvery) {
+        try (items) {
+            writeNdjson(type, items.iterator(), writer, flushEvery);
+        }
+    }
+
     @Override
     void close();
+
+    private <A> void writeItems(final Iterator<? extends A> items, final Writer writer, final int flushEvery,
+                                final String start, final String separator, final String end) {
+        try {
+            writer.write(start);
+            int count = 0;
+            while (items.hasNext()) {
+                if (count > 0) {
+                    writer.write(separator);
+                }
+                write(items.next(), writer);
+                count++;
+                if (flushEvery > 0 && count % flushEvery == 0) {
+                    writer.flush();
+                }
+            }
+            if (count > 0 || !start.isEmpty()) {
+                writer.write(end);
+            }
+            writer.flush();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
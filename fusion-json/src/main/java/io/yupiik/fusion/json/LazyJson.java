@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json;
+
+import io.yupiik.fusion.json.internal.parser.BufferProvider;
+import io.yupiik.fusion.json.internal.parser.JsonScanner;
+import io.yupiik.fusion.json.internal.parser.Utf8JsonParser;
+import io.yupiik.fusion.json.spi.Parser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Entry point of the lazy JSON tree: objects and arrays are {@link LazyJsonObject} and {@link LazyJsonArray}
+ * which only record the offsets of their values in the source bytes and decode them when they are accessed.
+ * <p>
+ * Untouched subtrees are not validated so an invalid document can only fail when the invalid part is read.
+ * The tree keeps a reference on the source bytes so they must not be modified while it is used.
+ */
+public final class LazyJson {
+    private LazyJson() {
+        // no-op
+    }
+
+    /**
+     * @param data           UTF-8 JSON.
+     * @param offset         start of the JSON document in {@code data}.
+     * @param length         length of the JSON document.
+     * @param bufferProvider buffers used to decode escaped strings.
+     * @param numberMode     how to represent numbers.
+     * @return the root value ({@code null}, {@link String}, {@link Boolean}, {@link Number}, {@link LazyJsonObject} or {@link LazyJsonArray}).
+     */
+    public static Object read(final byte[] data, final int offset, final int length,
+                              final BufferProvider bufferProvider, final Parser.NumberMode numberMode) {
+        final int end = offset + length;
+        final int start = JsonScanner.skipWhitespaces(data, offset, end);
+        if (start == end) { // empty document
+            return null;
+        }
+        final int valueEnd = JsonScanner.skipValue(data, start, end);
+        final int trailing = JsonScanner.skipWhitespaces(data, valueEnd, end);
+        if (trailing != end) {
+            throw JsonScanner.error(data, trailing, end, "EOF expected");
+        }
+        return value(data, start, valueEnd, bufferProvider, numberMode);
+    }
+
+    static Object value(final byte[] data, final int start, final int end,
+                        final BufferProvider bufferProvider, final Parser.NumberMode numberMode) {
+        return switch (data[start]) {
+            case '{' -> new LazyJsonObject(data, start, end, bufferProvider, numberMode);
+            case '[' -> new LazyJsonArray(data, start, end, bufferProvider, numberMode);
+            case '"' -> string(data, start, end, bufferProvider);
+            case 't' -> literal(data, start, end, "true", Boolean.TRUE);
+            case 'f' -> literal(data, start, end, "false", Boolean.FALSE);
+            case 'n' -> literal(data, start, end, "null", null);
+            default -> {
+                try (final var parser = new Utf8JsonParser(data, start, end - start, bufferProvider)) {
+                    parser.enforceNext(Parser.Event.VALUE_NUMBER);
+                    yield parser.getNumber(numberMode);
+                }
+            }
+        };
+    }
+
+    static String string(final byte[] data, final int start, final int end, final BufferProvider bufferProvider) {
+        if (JsonScanner.isRawString(data, start, end)) {
+            return new String(data, start + 1, end - start - 2, UTF_8);
+        }
+        try (final var parser = new Utf8JsonParser(data, start, end - start, bufferProvider)) {
+            parser.enforceNext(Parser.Event.VALUE_STRING);
+            return parser.getString();
+        }
+    }
+
+    private static Object literal(final byte[] data, final int start, final int end, final String expected, final Object value) {
+        if (end - start != expected.length()) {
+            throw JsonScanner.error(data, start, end, "Expected " + expected);
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (data[start + i] != expected.charAt(i)) {
+                throw JsonScanner.error(data, start + i, end, "Expected " + expected);
+            }
+        }
+        return value;
+    }
+}
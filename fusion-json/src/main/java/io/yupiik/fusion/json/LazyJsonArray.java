@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json;
+
+import io.yupiik.fusion.json.internal.parser.BufferProvider;
+import io.yupiik.fusion.json.internal.parser.JsonScanner;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A JSON array decoded on demand: item offsets are indexed on first access
+ * and an item is only decoded when it is read (then cached).
+ * <p>
+ * Reads are thread safe. The first mutation copies the array in an {@link ArrayList} (mutations are not thread safe).
+ */
+public final class LazyJsonArray extends AbstractList<Object> implements RandomAccess {
+    private static final Object UNSET = new Object();
+
+    private final byte[] data;
+    private final int start;
+    private final int end;
+    private final BufferProvider bufferProvider;
+    private final Parser.NumberMode numberMode;
+
+    private volatile Index index;
+    private List<Object> materialized;
+
+    LazyJsonArray(final byte[] data, final int start, final int end,
+                  final BufferProvider bufferProvider, final Parser.NumberMode numberMode) {
+        this.data = data;
+        this.start = start;
+        this.end = end;
+        this.bufferProvider = bufferProvider;
+        this.numberMode = numberMode;
+    }
+
+    @Override
+    public int size() {
+        if (materialized != null) {
+            return materialized.size();
+        }
+        return index().size;
+    }
+
+    @Override
+    public Object get(final int position) {
+        if (materialized != null) {
+            return materialized.get(position);
+        }
+        final var idx = index();
+        if (position < 0 || position >= idx.size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", size: " + idx.size);
+        }
+        var value = idx.values[position];
+        if (value == UNSET) {
+            value = LazyJson.value(data, idx.starts[position], idx.ends[position], bufferProvider, numberMode);
+            idx.values[position] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public Object set(final int position, final Object element) {
+        return materialize().set(position, element);
+    }
+
+    @Override
+    public void add(final int position, final Object element) {
+        materialize().add(position, element);
+        modCount++;
+    }
+
+    @Override
+    public Object remove(final int position) {
+        final var removed = materialize().remove(position);
+        modCount++;
+        return removed;
+    }
+
+    private List<Object> materialize() {
+        if (materialized == null) {
+            final int size = index().size;
+            final var copy = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                copy.add(get(i));
+            }
+            materialized = copy;
+        }
+        return materialized;
+    }
+
+    private Index index() {
+        var idx = index;
+        if (idx == null) {
+            idx = Index.of(data, start, end);
+            index = idx;
+        }
+        return idx;
+    }
+
+    private static final class Index {
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private Object[] values;
+        private int size;
+
+        private static Index of(final byte[] data, final int start, final int end) {
+            final var index = new Index();
+            int i = JsonScanner.skipWhitespaces(data, start + 1, end);
+            if (i < end && data[i] == ']') {
+                index.values = new Object[0];
+                return index;
+            }
+            while (true) {
+                final int valueEnd = JsonScanner.skipValue(data, i, end);
+                if (index.size == index.starts.length) {
+                    index.starts = Arrays.copyOf(index.starts, index.size << 1);
+                    index.ends = Arrays.copyOf(index.ends, index.size << 1);
+                }
+                index.starts[index.size] = i;
+                index.ends[index.size] = valueEnd;
+                index.size++;
+
+                i = JsonScanner.skipWhitespaces(data, valueEnd, end);
+                if (i < end && data[i] == ',') {
+                    i = JsonScanner.skipWhitespaces(data, i + 1, end);
+                } else if (i < end && data[i] == ']') {
+                    break;
+                } else {
+                    throw JsonScanner.error(data, i, end, "Expected ',' or ']'");
+                }
+            }
+            final var values = new Object[index.size];
+            Arrays.fill(values, UNSET);
+            index.values = values;
+            return index;
+        }
+    }
+}
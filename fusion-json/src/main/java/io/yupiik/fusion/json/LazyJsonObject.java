@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json;
+
+import io.yupiik.fusion.json.internal.parser.BufferProvider;
+import io.yupiik.fusion.json.internal.parser.JsonScanner;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A JSON object decoded on demand: keys and value offsets are indexed on first access
+ * and a value is only decoded when it is read (then cached).
+ * <p>
+ * Reads are thread safe. The first mutation copies the object in a {@link LinkedHashMap} (mutations are not thread safe).
+ */
+public final class LazyJsonObject extends AbstractMap<String, Object> {
+    private static final Object UNSET = new Object();
+    private static final int LINEAR_LOOKUP_MAX_SIZE = 8;
+
+    private final byte[] data;
+    private final int start;
+    private final int end;
+    private final BufferProvider bufferProvider;
+    private final Parser.NumberMode numberMode;
+
+    private volatile Index index;
+    private Map<String, Object> materialized;
+
+    LazyJsonObject(final byte[] data, final int start, final int end,
+                   final BufferProvider bufferProvider, final Parser.NumberMode numberMode) {
+        this.data = data;
+        this.start = start;
+        this.end = end;
+        this.bufferProvider = bufferProvider;
+        this.numberMode = numberMode;
+    }
+
+    @Override
+    public int size() {
+        if (materialized != null) {
+            return materialized.size();
+        }
+        return index().size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (materialized != null) {
+            return materialized.containsKey(key);
+        }
+        return key instanceof String k && index().find(k) >= 0;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+        if (!(key instanceof String k)) {
+            return null;
+        }
+        final var idx = index();
+        final int i = idx.find(k);
+        return i < 0 ? null : value(idx, i);
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (materialized != null) {
+            return materialized.entrySet();
+        }
+        final var idx = index();
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return LazyJsonObject.this.size();
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                if (materialized != null) {
+                    return materialized.entrySet().iterator();
+                }
+                return new Iterator<>() {
+                    private int current = 0;
+                    private int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return current < idx.size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        last = current++;
+                        return new LazyEntry(idx, last);
+                    }
+
+                    @Override
+                    public void remove() { // keeps iterating over the index, the removal is applied to the copy
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        materialize().remove(idx.keys[last]);
+                        last = -1;
+                    }
+                };
+            }
+        };
+    }
+
+    private Map<String, Object> materialize() {
+        if (materialized == null) {
+            final var idx = index();
+            final var copy = new LinkedHashMap<String, Object>(idx.size);
+            for (int i = 0; i < idx.size; i++) {
+                copy.put(idx.keys[i], value(idx, i));
+            }
+            materialized = copy;
+        }
+        return materialized;
+    }
+
+    private Object value(final Index idx, final int i) {
+        var value = idx.values[i];
+        if (value == UNSET) {
+            value = LazyJson.value(data, idx.starts[i], idx.ends[i], bufferProvider, numberMode);
+            idx.values[i] = value;
+        }
+        return value;
+    }
+
+    private Index index() {
+        var idx = index;
+        if (idx == null) {
+            idx = Index.of(data, start, end, bufferProvider);
+            index = idx;
+        }
+        return idx;
+    }
+
+    private final class LazyEntry implements Entry<String, Object> {
+        private final Index index;
+        private final int position;
+
+        private LazyEntry(final Index index, final int position) {
+            this.index = index;
+            this.position = position;
+        }
+
+        @Override
+        public String getKey() {
+            return index.keys[position];
+        }
+
+        @Override
+        public Object getValue() {
+            if (materialized != null) {
+                return materialized.get(getKey());
+            }
+            return value(index, position);
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            return materialize().put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Entry<?, ?> e && getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    private static final class Index {
+        private String[] keys = new String[4];
+        private int[] starts = new int[4];
+        private int[] ends = new int[4];
+        private Object[] values;
+        private Map<String, Integer> lookup;
+        private int size;
+
+        private static Index of(final byte[] data, final int start, final int end, final BufferProvider bufferProvider) {
+            final var index = new Index();
+            int i = JsonScanner.skipWhitespaces(data, start + 1, end);
+            if (i < end && data[i] == '}') {
+                index.values = new Object[0];
+                return index;
+            }
+            while (true) {
+                if (i >= end || data[i] != '"') {
+                    throw JsonScanner.error(data, i, end, "Expected a key");
+                }
+                final int keyEnd = JsonScanner.skipString(data, i, end);
+                final var key = LazyJson.string(data, i, keyEnd, bufferProvider);
+
+                i = JsonScanner.skipWhitespaces(data, keyEnd, end);
+                if (i >= end || data[i] != ':') {
+                    throw JsonScanner.error(data, i, end, "Expected ':'");
+                }
+                final int valueStart = JsonScanner.skipWhitespaces(data, i + 1, end);
+                final int valueEnd = JsonScanner.skipValue(data, valueStart, end);
+                index.add(key, valueStart, valueEnd);
+
+                i = JsonScanner.skipWhitespaces(data, valueEnd, end);
+                if (i < end && data[i] == ',') {
+                    i = JsonScanner.skipWhitespaces(data, i + 1, end);
+                } else if (i < end && data[i] == '}') {
+                    break;
+                } else {
+                    throw JsonScanner.error(data, i, end, "Expected ',' or '}'");
+                }
+            }
+            final var values = new Object[index.size];
+            Arrays.fill(values, UNSET);
+            index.values = values;
+            return index;
+        }
+
+        private int find(final String key) {
+            if (lookup != null) {
+                final var i = lookup.get(key);
+                return i == null ? -1 : i;
+            }
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void add(final String key, final int valueStart, final int valueEnd) {
+            final int existing = find(key);
+            if (existing >= 0) { // last value wins but the key keeps its position as with a LinkedHashMap
+                starts[existing] = valueStart;
+                ends[existing] = valueEnd;
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                starts = Arrays.copyOf(starts, size << 1);
+                ends = Arrays.copyOf(ends, size << 1);
+            }
+            keys[size] = key;
+            starts[size] = valueStart;
+            ends[size] = valueEnd;
+            if (lookup != null) {
+                lookup.put(key, size);
+            } else if (size == LINEAR_LOOKUP_MAX_SIZE) {
+                lookup = new HashMap<>();
+                for (int i = 0; i <= size; i++) {
+                    lookup.put(keys[i], i);
+                }
+            }
+            size++;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json;
+
+import io.yupiik.fusion.json.internal.parser.JsonNumbers;
+
+import java.math.BigDecimal;
+
+/**
+ * A JSON number which only creates its {@link BigDecimal} representation when it is requested
+ * ({@link #toBigDecimal()}, {@link #equals(Object)}, {@link #hashCode()}).
+ * Primitive accessors are computed without it when the number is small enough.
+ */
+public final class LazyNumber extends Number {
+    private final String value;
+    private final long unscaled;
+    private final int scale;
+    private transient BigDecimal decimal;
+
+    /**
+     * @param value the JSON number.
+     */
+    public LazyNumber(final String value) {
+        this.value = value;
+        this.unscaled = 0;
+        this.scale = 0;
+    }
+
+    /**
+     * @param unscaled the unscaled value.
+     * @param scale    the scale (value is {@code unscaled * 10^-scale}).
+     */
+    public LazyNumber(final long unscaled, final int scale) {
+        this.value = null;
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        if (decimal == null) {
+            decimal = value != null ? new BigDecimal(value) : BigDecimal.valueOf(unscaled, scale);
+        }
+        return decimal;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        if (value == null && scale == 0) {
+            return unscaled;
+        }
+        return toBigDecimal().longValue();
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        if (value == null) {
+            final double fast = JsonNumbers.toDouble(Math.abs(unscaled), scale, unscaled < 0);
+            if (!Double.isNaN(fast)) {
+                return fast;
+            }
+        }
+        return Double.parseDouble(toString());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || (o instanceof LazyNumber n && toBigDecimal().equals(n.toBigDecimal()));
+    }
+
+    @Override
+    public int hashCode() {
+        return toBigDecimal().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        if (value != null) {
+            return value;
+        }
+        return scale == 0 ? Long.toString(unscaled) : toBigDecimal().toString();
+    }
+}
@@ -17,12 +17,17 @@ package io.yupiik.fusion.json.diff;
 
 import io.yupiik.fusion.json.patch.JsonPatchOperation;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.Objects;
 
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.add;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.move;
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.remove;
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.replace;
 
@@ -32,10 +37,22 @@ import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.replace;
  * The {@code Object} types are the same than in {@link io.yupiik.fusion.json.internal.codec.ObjectJsonCodec}, i.e.
  * {@link Map<String,Object>} with values in this list, {@link List<Object>} with values in this list,
  * {@link java.math.BigDecimal}, {@link String}, {@link Boolean}.
+ * <p>
+ * Each subtree gets a 64 bits structural fingerprint (computed once) so equal branches are skipped without being walked
+ * and arrays are diffed with a longest common subsequence (Myers) on the fingerprints of their items:
+ * removed items are removed, reordered items are moved, added items are added
+ * and items replacing other ones at the same position are diffed recursively.
  */
 public class GenericJsonDiff {
+    private static final long SEED_NULL = 0x9E3779B97F4A7C15L;
+    private static final long SEED_MAP = 0xC2B2AE3D27D4EB4FL;
+    private static final long SEED_LIST = 0x165667B19E3779F9L;
+    private static final long PRIME = 0x100000001B3L;
+    private static final int MAX_EDIT_DISTANCE = 512; // bounds the Myers trace, bigger changes are not diffed item per item
+
     private final Object source;
     private final Object target;
+    private final Map<Object, Long> fingerprints = new IdentityHashMap<>();
 
     public GenericJsonDiff(final Object source, final Object target) {
         this.source = source;
@@ -44,54 +61,318 @@ public class GenericJsonDiff {
 
     public List<JsonPatchOperation> toPatch() {
         final var patches = new ArrayList<JsonPatchOperation>();
-        diff(patches, "", source, target);
+        try {
+            diff(patches, "", source, target);
+        } finally {
+            fingerprints.clear();
+        }
         return patches;
     }
 
     @SuppressWarnings("unchecked")
     private void diff(final List<JsonPatchOperation> patchBuilder, final String basePath, final Object source, final Object target) {
+        if (source == target || (fingerprint(source) == fingerprint(target) && Objects.equals(source, target))) {
+            return;
+        }
         if (source instanceof Map<?, ?> src && target instanceof Map<?, ?> tg) {
             diffJsonObjects(patchBuilder, basePath + "/", (Map<String, ?>) src, (Map<String, ?>) tg);
         } else if (source instanceof List<?> l1 && target instanceof List<?> l2) {
             diffJsonArray(patchBuilder, basePath + "/", l1, l2);
-        } else if (!source.equals(target)) {
+        } else {
             patchBuilder.add(new JsonPatchOperation(replace, basePath, null, target));
         }
     }
 
     private void diffJsonArray(final List<JsonPatchOperation> patchBuilder, final String basePath, final List<?> source, final List<?> target) {
-        for (int i = 0; i < source.size(); i++) {
-            final var sourceValue = source.get(i);
-            if (target.size() <= i) {
+        final int sourceSize = source.size();
+        final int targetSize = target.size();
+
+        // common prefix and suffix are the common case (items appended or modified in place), no need of the LCS there
+        int start = 0;
+        while (start < sourceSize && start < targetSize && fingerprint(source.get(start)) == fingerprint(target.get(start))) {
+            start++;
+        }
+        int sourceEnd = sourceSize;
+        int targetEnd = targetSize;
+        while (sourceEnd > start && targetEnd > start && fingerprint(source.get(sourceEnd - 1)) == fingerprint(target.get(targetEnd - 1))) {
+            sourceEnd--;
+            targetEnd--;
+        }
+
+        // targetOf[sourceIndex] = target index or -1 when removed, sourceOf[targetIndex] = source index or -1 when added
+        final int[] targetOf = new int[sourceSize];
+        final int[] sourceOf = new int[targetSize];
+        Arrays.fill(targetOf, -1);
+        Arrays.fill(sourceOf, -1);
+        for (int i = 0; i < start; i++) {
+            link(targetOf, sourceOf, i, i);
+        }
+        for (int i = 0; i < sourceSize - sourceEnd; i++) {
+            link(targetOf, sourceOf, sourceEnd + i, targetEnd + i);
+        }
+        final boolean[] moved = new boolean[targetSize];
+        if (start < sourceEnd || start < targetEnd) {
+            matchMiddle(source, target, start, sourceEnd, targetEnd, targetOf, sourceOf, moved);
+        }
+
+        // current content of the array, each item is represented by its target index (or -1 when it will be removed)
+        final var current = new ArrayList<Integer>(Math.max(sourceSize, targetSize));
+        for (int i = 0; i < sourceSize; i++) {
+            current.add(targetOf[i]);
+        }
+
+        // removals from the end to keep the indices stable
+        for (int i = sourceSize - 1; i >= 0; i--) {
+            if (targetOf[i] < 0) {
                 patchBuilder.add(new JsonPatchOperation(remove, basePath + i, null, null));
+                current.remove(i);
+            }
+        }
+
+        // moves, other items are already in the target order so each moved item is placed after its target predecessor
+        final boolean[] placed = new boolean[targetSize];
+        for (int t = 0; t < targetSize; t++) {
+            placed[t] = sourceOf[t] >= 0 && !moved[t];
+        }
+        for (int t = 0; t < targetSize; t++) {
+            if (!moved[t]) {
                 continue;
             }
-            diff(patchBuilder, basePath + i, sourceValue, target.get(i));
+            final int from = current.indexOf(t);
+            current.remove(from);
+            int to = 0;
+            for (int i = current.size() - 1; i >= 0; i--) {
+                final int other = current.get(i);
+                if (other < t && placed[other]) {
+                    to = i + 1;
+                    break;
+                }
+            }
+            current.add(to, t);
+            placed[t] = true;
+            if (from != to) {
+                patchBuilder.add(new JsonPatchOperation(move, basePath + to, basePath + from, null));
+            }
         }
 
-        if (target.size() > source.size()) {
-            for (int i = source.size(); i < target.size(); i++) {
-                patchBuilder.add(new JsonPatchOperation(add, basePath + i, null, target.get(i)));
+        // additions, all the items before t are there so t is the right index
+        for (int t = 0; t < targetSize; t++) {
+            if (sourceOf[t] < 0) {
+                patchBuilder.add(new JsonPatchOperation(add, basePath + t, null, target.get(t)));
+            }
+        }
+
+        // finally diff the kept items, they are at their final index
+        for (int t = 0; t < targetSize; t++) {
+            final int s = sourceOf[t];
+            if (s >= 0) {
+                diff(patchBuilder, basePath + t, source.get(s), target.get(t));
             }
         }
     }
 
+    // matches source[start, sourceEnd[ and target[start, targetEnd[ items: LCS, then moves, then positional pairs
+    private void matchMiddle(final List<?> source, final List<?> target,
+                             final int start, final int sourceEnd, final int targetEnd,
+                             final int[] targetOf, final int[] sourceOf, final boolean[] moved) {
+        final int n = sourceEnd - start;
+        final int m = targetEnd - start;
+        final long[] a = new long[n];
+        final long[] b = new long[m];
+        for (int i = 0; i < n; i++) {
+            a[i] = fingerprint(source.get(start + i));
+        }
+        for (int i = 0; i < m; i++) {
+            b[i] = fingerprint(target.get(start + i));
+        }
+
+        final int[] lcs = lcs(a, b);
+        if (lcs != null) {
+            for (int i = 0; i < n; i++) {
+                if (lcs[i] >= 0) {
+                    link(targetOf, sourceOf, start + i, start + lcs[i]);
+                }
+            }
+        }
+
+        // same item removed and added elsewhere: move it
+        final var removed = new HashMap<Long, ArrayDeque<Integer>>();
+        for (int i = 0; i < n; i++) {
+            if (targetOf[start + i] < 0) {
+                removed.computeIfAbsent(a[i], k -> new ArrayDeque<>()).add(start + i);
+            }
+        }
+        for (int j = 0; j < m; j++) {
+            if (sourceOf[start + j] >= 0) {
+                continue;
+            }
+            final var candidates = removed.get(b[j]);
+            if (candidates != null && !candidates.isEmpty()) {
+                link(targetOf, sourceOf, candidates.poll(), start + j);
+                moved[start + j] = true;
+            }
+        }
+
+        // remaining removed and added items between the same common items replace each other
+        int previousSource = start;
+        int previousTarget = start;
+        for (int i = start; i <= sourceEnd; i++) {
+            if (i < sourceEnd && (lcs == null || lcs[i - start] < 0)) {
+                continue;
+            }
+            final int nextTarget = i < sourceEnd ? start + lcs[i - start] : targetEnd;
+            int s = previousSource;
+            int t = previousTarget;
+            while (true) {
+                while (s < i && targetOf[s] >= 0) {
+                    s++;
+                }
+                while (t < nextTarget && sourceOf[t] >= 0) {
+                    t++;
+                }
+                if (s >= i || t >= nextTarget) {
+                    break;
+                }
+                link(targetOf, sourceOf, s++, t++);
+            }
+            previousSource = i + 1;
+            previousTarget = nextTarget + 1;
+        }
+    }
+
     private void diffJsonObjects(final List<JsonPatchOperation> patchBuilder, final String basePath,
                                  final Map<String, ?> source, final Map<String, ?> target) {
-        patchBuilder.addAll(source.entrySet().stream()
-                .flatMap(it -> {
-                    if (target.containsKey(it.getKey())) {
-                        final var agg = new ArrayList<JsonPatchOperation>();
-                        diff(agg, basePath + encode(it.getKey()), it.getValue(), target.get(it.getKey()));
-                        return agg.stream();
-                    }
-                    return Stream.of(new JsonPatchOperation(remove, basePath + encode(it.getKey()), null, null));
-                })
-                .toList());
-        patchBuilder.addAll(target.entrySet().stream()
-                .filter(it -> !source.containsKey(it.getKey()))
-                .map(it -> new JsonPatchOperation(add, basePath + encode(it.getKey()), null, it.getValue()))
-                .toList());
+        for (final var entry : source.entrySet()) {
+            if (target.containsKey(entry.getKey())) {
+                diff(patchBuilder, basePath + encode(entry.getKey()), entry.getValue(), target.get(entry.getKey()));
+            } else {
+                patchBuilder.add(new JsonPatchOperation(remove, basePath + encode(entry.getKey()), null, null));
+            }
+        }
+        for (final var entry : target.entrySet()) {
+            if (!source.containsKey(entry.getKey())) {
+                patchBuilder.add(new JsonPatchOperation(add, basePath + encode(entry.getKey()), null, entry.getValue()));
+            }
+        }
+    }
+
+    private long fingerprint(final Object value) {
+        if (value == null) {
+            return SEED_NULL;
+        }
+        if (value instanceof String s) {
+            return hash(s);
+        }
+        if (value instanceof Map<?, ?> map) {
+            final var cached = fingerprints.get(map);
+            if (cached != null) {
+                return cached;
+            }
+            long hash = 0; // entries order does not matter
+            for (final var entry : map.entrySet()) {
+                hash += mix(hash(String.valueOf(entry.getKey())) * PRIME ^ fingerprint(entry.getValue()));
+            }
+            hash = mix(hash ^ SEED_MAP ^ map.size());
+            fingerprints.put(map, hash);
+            return hash;
+        }
+        if (value instanceof List<?> list) {
+            final var cached = fingerprints.get(list);
+            if (cached != null) {
+                return cached;
+            }
+            long hash = SEED_LIST;
+            for (final var item : list) {
+                hash = (hash ^ fingerprint(item)) * PRIME;
+            }
+            hash = mix(hash ^ list.size());
+            fingerprints.put(list, hash);
+            return hash;
+        }
+        return mix(value.hashCode() ^ ((long) value.getClass().getName().hashCode() << 32));
+    }
+
+    private static void link(final int[] targetOf, final int[] sourceOf, final int sourceIndex, final int targetIndex) {
+        targetOf[sourceIndex] = targetIndex;
+        sourceOf[targetIndex] = sourceIndex;
+    }
+
+    /**
+     * Myers diff (O((N+M)D)) on the fingerprints.
+     *
+     * @return for each item of {@code a} the index of the matching item in {@code b} or -1,
+     * {@code null} if the edit distance is too high.
+     */
+    private static int[] lcs(final long[] a, final long[] b) {
+        final int n = a.length;
+        final int m = b.length;
+        final int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        final var trace = new ArrayList<int[]>();
+        for (int d = 0; d <= max; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, offset, n, m, d);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int[] backtrack(final List<int[]> trace, final int offset, final int n, final int m, final int distance) {
+        final int[] matches = new int[n];
+        Arrays.fill(matches, -1);
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            final int[] v = trace.get(d);
+            final int k = x - y;
+            final int prevK = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? k + 1 : k - 1;
+            final int prevX = v[offset + prevK];
+            final int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                matches[--x] = --y;
+            }
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) {
+            matches[--x] = --y;
+        }
+        return matches;
+    }
+
+    private static long hash(final String value) { // FNV-1a
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(final long value) { // murmur3 finalizer
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
     }
 
     private String encode(final String key) {
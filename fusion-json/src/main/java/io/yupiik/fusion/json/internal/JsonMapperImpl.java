@@ -16,8 +16,8 @@
 package io.yupiik.fusion.json.internal;
 
 import io.yupiik.fusion.framework.api.configuration.Configuration;
-import io.yupiik.fusion.framework.api.container.Types;
 import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.LazyJson;
 import io.yupiik.fusion.json.internal.codec.BigDecimalJsonCodec;
 import io.yupiik.fusion.json.internal.codec.BooleanJsonCodec;
 import io.yupiik.fusion.json.internal.codec.CollectionJsonCodec;
@@ -30,53 +30,106 @@ import io.yupiik.fusion.json.internal.codec.LongJsonCodec;
 import io.yupiik.fusion.json.internal.codec.MapJsonCodec;
 import io.yupiik.fusion.json.internal.codec.ObjectJsonCodec;
 import io.yupiik.fusion.json.internal.codec.OffsetDateTimeJsonCodec;
+import io.yupiik.fusion.json.internal.codec.RuntimeClassJsonCodec;
 import io.yupiik.fusion.json.internal.codec.StringJsonCodec;
 import io.yupiik.fusion.json.internal.codec.ZonedDateTimeJsonCodec;
+import io.yupiik.fusion.json.internal.io.ChunkSubscriber;
 import io.yupiik.fusion.json.internal.io.FastStringWriter;
 import io.yupiik.fusion.json.internal.parser.BufferProvider;
 import io.yupiik.fusion.json.internal.parser.JsonParser;
+import io.yupiik.fusion.json.internal.parser.ObjectTreeParser;
+import io.yupiik.fusion.json.internal.parser.StringCache;
+import io.yupiik.fusion.json.internal.parser.Utf8JsonParser;
+import io.yupiik.fusion.json.internal.parser.Utf8PushParser;
 import io.yupiik.fusion.json.patch.JsonPatchOperation;
 import io.yupiik.fusion.json.serialization.ExtendedWriter;
 import io.yupiik.fusion.json.serialization.JsonCodec;
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
 import io.yupiik.fusion.json.spi.Parser;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
 public class JsonMapperImpl implements JsonMapper {
     private final Map<Type, JsonCodec<?>> codecs;
     private final Function<Reader, Parser> parserFactory;
+    private final Function<ByteBuffer, Parser> bytesParserFactory;
+    private final BufferProvider bufferProvider;
+    private final StringCache stringCache;
+    private final Parser.NumberMode numberMode;
+    private final boolean lazyTree;
+    private final int homogeneitySampling;
+    private final RuntimeClassJsonCodec rootValueCodec;
+    private final MapJsonCodec<Object> rootMapCodec;
+    private final CollectionJsonCodec<Object, Collection<Object>> rootCollectionCodec;
 
     public JsonMapperImpl(final Collection<JsonCodec<?>> jsonCodecs, final Configuration configuration) {
-        this(jsonCodecs, configuration, createReaderParserFunction(configuration));
+        this(jsonCodecs, configuration, ParserFactories.of(configuration));
+    }
+
+    private JsonMapperImpl(final Collection<JsonCodec<?>> jsonCodecs, final Configuration configuration,
+                           final ParserFactories parserFactories) {
+        this(jsonCodecs, configuration, parserFactories.reader(), parserFactories.bytes(), parserFactories.bufferProvider(), parserFactories.stringCache());
     }
 
     public JsonMapperImpl(final Collection<JsonCodec<?>> jsonCodecs, final Configuration configuration,
                           final Function<Reader, Parser> readerParserFunction) {
+        this(jsonCodecs, configuration, readerParserFunction, null);
+    }
+
+    /**
+     * @param bytesParserFunction parser factory for UTF-8 inputs, if {@code null} bytes are decoded and read with {@code readerParserFunction}.
+     */
+    public JsonMapperImpl(final Collection<JsonCodec<?>> jsonCodecs, final Configuration configuration,
+                          final Function<Reader, Parser> readerParserFunction,
+                          final Function<ByteBuffer, Parser> bytesParserFunction) {
+        this(jsonCodecs, configuration, readerParserFunction, bytesParserFunction, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonMapperImpl(final Collection<JsonCodec<?>> jsonCodecs,
+                           final Configuration configuration,
+                           final Function<Reader, Parser> readerParserFunction,
+                           final Function<ByteBuffer, Parser> bytesParserFunction,
+                           final BufferProvider bufferProvider,
+                           final StringCache stringCache) {
         this.parserFactory = readerParserFunction;
+        this.bytesParserFactory = bytesParserFunction;
+        this.bufferProvider = bufferProvider;
+        this.stringCache = stringCache;
+        this.numberMode = configuration.get("fusion.json.numberMode")
+                .map(Parser.NumberMode::valueOf)
+                .orElse(Parser.NumberMode.BIG_DECIMAL);
+        this.lazyTree = bufferProvider != null && configuration.get("fusion.json.lazyTree")
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+        this.homogeneitySampling = configuration.get("fusion.json.rootHomogeneitySampling")
+                .map(Integer::parseInt)
+                .orElse(0);
 
         this.codecs = new ConcurrentHashMap<>();
         this.codecs.putAll(toCodecMap(jsonCodecs.stream()));
@@ -87,6 +140,37 @@ public class JsonMapperImpl implements JsonMapper {
                 this.codecs.put(Map.class, object);
             }
         }
+
+        // untyped roots dispatch their values on the runtime class, resolution is cached per class
+        this.rootValueCodec = new RuntimeClassJsonCodec((JsonCodec<Object>) this.codecs.get(Object.class), this::codecLookup);
+        this.rootMapCodec = new MapJsonCodec<>(rootValueCodec);
+        this.rootCollectionCodec = new CollectionJsonCodec<>(rootValueCodec, List.class, ArrayList::new);
+    }
+
+    /**
+     * Enables to monitor the parser buffers (hits, misses, allocations and retained memory),
+     * for example registering them as gauges in a {@code MetricsRegistry}.
+     *
+     * @return the buffer provider used by the default parsers or {@code null} if custom parser factories are used.
+     */
+    public BufferProvider getBufferProvider() {
+        return bufferProvider;
+    }
+
+    /**
+     * Enables to monitor the string cache (hits and misses) when enabled with {@code fusion.json.stringCache.size}.
+     *
+     * @return the string cache used by the default parsers or {@code null} if disabled or custom parser factories are used.
+     */
+    public StringCache getStringCache() {
+        return stringCache;
+    }
+
+    /**
+     * @return how numbers are read when there is no target type ({@code Object} mapping), see {@code fusion.json.numberMode}.
+     */
+    public Parser.NumberMode getNumberMode() {
+        return numberMode;
     }
 
     protected Stream<JsonCodec<?>> builtInCodecs() {
@@ -101,19 +185,16 @@ public class JsonMapperImpl implements JsonMapper {
                 new LocalDateTimeJsonCodec(),
                 new ZonedDateTimeJsonCodec(),
                 new OffsetDateTimeJsonCodec(),
-                new ObjectJsonCodec(),
+                new ObjectJsonCodec(numberMode),
                 new EnumJsonCodec<>(JsonPatchOperation.Operation.class, List.of(JsonPatchOperation.Operation.add, JsonPatchOperation.Operation.copy, JsonPatchOperation.Operation.move, JsonPatchOperation.Operation.remove, JsonPatchOperation.Operation.replace, JsonPatchOperation.Operation.test), Enum::name),
                 new JsonPatchOperation.Codec());
     }
 
     @Override
     public <A> byte[] toBytes(final A instance) {
-        final var out = new ByteArrayOutputStream();
-        try (final var writer = new OutputStreamWriter(out, UTF_8)) {
-            write(instance, writer);
-        } catch (final IOException e) {
-            throw new IllegalStateException(e);
-        }
+        final var out = new Utf8BytesWriter();
+        write(instance, out);
+        out.close();
         return out.toByteArray();
     }
 
@@ -124,11 +205,7 @@ public class JsonMapperImpl implements JsonMapper {
 
     @Override
     public <A> A fromBytes(final Type type, final byte[] bytes) {
-        try (final var reader = new InputStreamReader(new ByteArrayInputStream(bytes), UTF_8)) {
-            return read(type, reader);
-        } catch (final IOException e) {
-            throw new IllegalStateException(e);
-        }
+        return read(type, ByteBuffer.wrap(bytes));
     }
 
     @Override
@@ -138,11 +215,27 @@ public class JsonMapperImpl implements JsonMapper {
 
     @Override
     public <A> A fromString(final Type type, final String string) {
+        if (lazyTree && type == Object.class) {
+            return fromBytes(type, string.getBytes(UTF_8));
+        }
         try (final var reader = new StringReader(string)) {
             return read(type, reader);
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A fromObject(final Type type, final Object value) {
+        if (type == Object.class) {
+            return (A) value;
+        }
+        try (final var parser = new ObjectTreeParser(value)) {
+            return doRead(type, parser);
+        } catch (final IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
+
     @Override
     public <A> String toString(final A instance) {
         final var writer = new FastStringWriter(new StringBuilder());
@@ -159,92 +252,52 @@ public class JsonMapperImpl implements JsonMapper {
     public <A> void write(final A instance, final Writer writer) {
         try {
             if (instance == null) {
-                writer.write("null");
+                wrap(writer).writeNull();
                 return;
             }
 
             if (instance instanceof Collection<?> collection) {
-                doWriteCollection(writer, collection);
+                if (homogeneitySampling > 0) {
+                    validateHomogeneity(collection);
+                }
+                rootCollectionCodec.write((Collection<Object>) collection, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
                 return;
             }
 
             if (instance instanceof Map<?, ?> map) {
                 if (map.isEmpty()) {
-                    writer.write("{}");
+                    final var wrapped = wrap(writer);
+                    wrapped.writeStartObject();
+                    wrapped.writeEndObject();
                     return;
                 }
 
-                final var entry = map.entrySet().stream()
-                        .filter(it -> it.getValue() != null)
-                        .findFirst()
-                        .orElse(null);
-                if (entry != null && entry.getKey() instanceof String && entry.getValue() != null) {
-                    if (entry.getValue() instanceof Map<?, ?>) { // consider it is just an object
-                        final JsonCodec jsonCodec = codecs.get(Object.class);
-                        jsonCodec.write(map, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-                        return;
+                if (map.keySet().iterator().next() instanceof String) {
+                    if (homogeneitySampling > 0) {
+                        validateHomogeneity(map.values());
                     }
-
-                    final var itemClass = entry.getValue().getClass();
-                    // if at least one element does not match the type of the first item don't optimise it and go through object codec
-                    if (map.values().stream().filter(Objects::nonNull).anyMatch(it -> !itemClass.isInstance(it))) {
-                        final JsonCodec jsonCodec = codecs.get(Object.class);
-                        jsonCodec.write(map, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-                        return;
-                    }
-
-                    final var key = new Types.ParameterizedTypeImpl(Map.class, String.class, itemClass);
-                    final JsonCodec existing = codecs.get(key);
-                    if (existing != null) {
-                        existing.write(map, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-                        return;
-                    }
-
-                    var itemCodec = (JsonCodec<?>) codecs.get(itemClass);
-                    if (itemCodec == null) {
-                        if (entry.getValue() instanceof Collection<?> coll) {
-                            if (coll.isEmpty()) {
-                                itemCodec = new CollectionJsonCodec<>(codecs.get(Object.class), Object.class, ArrayList::new);
-                            } else {
-                                final var type = coll.iterator().next();
-                                if (type == null) {
-                                    itemCodec = new CollectionJsonCodec<>(codecs.get(Object.class), Object.class, ArrayList::new);
-                                } else {
-                                    final var clazz = type.getClass();
-                                    final JsonCodec<?> nestedCodec = codecs.get(clazz);
-                                    if (nestedCodec == null) {
-                                        throw missingCodecException(clazz);
-                                    }
-                                    itemCodec = new CollectionJsonCodec<>(nestedCodec, clazz, ArrayList::new);
-                                }
-                            }
-                        } else {
-                            throw missingCodecException(itemClass);
-                        }
-                    }
-                    final var wrapper = new MapJsonCodec<>(itemCodec);
-                    codecs.putIfAbsent(key, wrapper);
-                    wrapper.write((Map) map, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
+                    rootMapCodec.write((Map<String, Object>) map, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
                     return;
                 }
 
+                // not string keys, use their string representation
                 final var wrapped = wrap(writer);
-                final var keys = map.keySet().iterator();
-                wrapped.write('{');
-                while (keys.hasNext()) {
-                    wrapped.write('"');
-                    wrapped.write(JsonStrings.escapeChars(String.valueOf(keys.hasNext())));
-                    wrapped.write('"');
-                    wrapped.write(':');
-                    wrapped.write('n');
-                    wrapped.write('u');
-                    wrapped.write('l');
-                    wrapped.write('l');
-                    if (keys.hasNext()) {
-                        wrapped.write(',');
+                final var entries = map.entrySet().iterator();
+                wrapped.writeStartObject();
+                while (entries.hasNext()) {
+                    final var entry = entries.next();
+                    wrapped.writeString(String.valueOf(entry.getKey()));
+                    wrapped.writeColon();
+                    if (entry.getValue() == null) {
+                        wrapped.writeNull();
+                    } else {
+                        rootValueCodec.write(entry.getValue(), new JsonCodec.SerializationContext(wrapped, this::codecLookup));
+                    }
+                    if (entries.hasNext()) {
+                        wrapped.writeComma();
                     }
                 }
-                wrapped.write('}');
+                wrapped.writeEndObject();
                 return;
             }
 
@@ -260,88 +313,132 @@ public class JsonMapperImpl implements JsonMapper {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void doWriteCollection(final Writer writer, final Collection<?> collection) throws IOException {
-        if (collection.isEmpty()) {
-            writer.write("[]");
-            return;
-        }
+    @Override
+    public <A> void writeArray(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        doWriteItems(type, items, writer, flushEvery, '[', ',', "]");
+    }
 
-        final var firstItem = collection.stream().filter(Objects::nonNull).findFirst().orElse(null);
-        if (firstItem != null) {
-            if (firstItem instanceof Map<?, ?>) { // consider it is just an object
-                final JsonCodec jsonCodec = codecs.get(Object.class);
-                jsonCodec.write(collection, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-                return;
+    @Override
+    public <A> void writeNdjson(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        doWriteItems(type, items, writer, flushEvery, (char) 0, '\n', "\n");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> void doWriteItems(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery,
+                                  final char start, final char separator, final String end) {
+        final var codec = (JsonCodec<A>) findCodec(type);
+        // when flushing by batch, items are serialized in memory to write a single chunk per batch in the target writer
+        final var buffer = flushEvery > 0 ? new StringBuilder() : null;
+        final var out = buffer != null ? new ExtendedWriter(new FastStringWriter(buffer)) : wrap(writer);
+        final var context = new JsonCodec.SerializationContext(out, this::codecLookup);
+        try {
+            if (start != 0) {
+                out.write(start);
             }
+            int count = 0;
+            while (items.hasNext()) {
+                if (count > 0) {
+                    out.write(separator);
+                }
 
-            final var itemClass = firstItem.getClass();
+                final var item = items.next();
+                if (item == null) {
+                    out.writeNull();
+                } else {
+                    codec.write(item, context);
+                }
 
-            final var key = new Types.ParameterizedTypeImpl(Collection.class, itemClass);
-            final JsonCodec existing = codecs.get(key);
-            if (existing != null) {
-                existing.write(collection, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-                return;
+                count++;
+                if (buffer != null && count % flushEvery == 0) {
+                    writer.write(buffer.toString());
+                    writer.flush();
+                    buffer.setLength(0);
+                }
             }
-
-            final var itemCodec = (JsonCodec<?>) codecs.get(itemClass);
-            if (itemCodec == null) {
-                throw missingCodecException(itemClass);
+            if (count > 0 || start != 0) {
+                out.write(end);
             }
-
-            final var wrapper = new CollectionJsonCodec<>(itemCodec, List.class, () -> (Collection) new ArrayList<>());
-            codecs.putIfAbsent(key, wrapper);
-            wrapper.write(collection, new JsonCodec.SerializationContext(wrap(writer), this::codecLookup));
-            return;
+            if (buffer != null && !buffer.isEmpty()) {
+                writer.write(buffer.toString());
+            }
+            writer.flush();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        writer.write(collection.stream().map(it -> "null").collect(joining(",", "[", "]")));
+    // sampled validation: compares the class of every n-th value with the first non null one
+    private void validateHomogeneity(final Collection<?> values) {
+        Class<?> expected = null;
+        int index = 0;
+        for (final var value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (expected == null) {
+                expected = value.getClass();
+            } else if (index % homogeneitySampling == 0 && value.getClass() != expected) {
+                throw new IllegalStateException("Heterogeneous values: '" + expected.getName() + "' and '" + value.getClass().getName() + "'");
+            }
+            index++;
+        }
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <A> A read(final Type type, final Reader rawReader) {
         try (final var reader = parserFactory.apply(rawReader)) {
-            final var codec = (JsonCodec<A>) codecs.get(type);
-            if (codec == null) {
-                if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> rawClass) {
-                    if (rawClass == Map.class && pt.getActualTypeArguments().length == 2 && pt.getActualTypeArguments()[0] == String.class) {
-                        final var delegate = codecs.get(pt.getActualTypeArguments()[1]);
-                        if (delegate == null) {
-                            throw missingCodecException(pt.getActualTypeArguments()[0]);
-                        }
-                        final var wrapper = new MapJsonCodec<>(delegate);
-                        codecs.putIfAbsent(wrapper.type(), wrapper);
-                        return (A) wrapper.read(new JsonCodec.DeserializationContext(reader, this::codecLookup));
-                    }
-                    if ((rawClass == List.class || rawClass == Collection.class) && pt.getActualTypeArguments().length == 1) {
-                        final var delegate = codecs.get(pt.getActualTypeArguments()[0]);
-                        if (delegate == null) {
-                            throw missingCodecException(pt.getActualTypeArguments()[0]);
-                        }
-                        final var wrapper = new CollectionJsonCodec<>(delegate, List.class, ArrayList::new);
-                        codecs.putIfAbsent(wrapper.type(), wrapper);
-                        return (A) wrapper.read(new JsonCodec.DeserializationContext(reader, this::codecLookup));
-                    }
-                    if (rawClass == Set.class && pt.getActualTypeArguments().length == 2) {
-                        final var delegate = codecs.get(pt.getActualTypeArguments()[0]);
-                        if (delegate == null) {
-                            throw missingCodecException(pt.getActualTypeArguments()[0]);
-                        }
-                        final var wrapper = new CollectionJsonCodec<>(delegate, Set.class, HashSet::new);
-                        codecs.putIfAbsent(wrapper.type(), wrapper);
-                        return (A) wrapper.read(new JsonCodec.DeserializationContext(reader, this::codecLookup));
-                    }
-                }
-                throw missingCodecException(type);
-            }
+            return doRead(type, reader);
+        } catch (final IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
 
-            return codec.read(new JsonCodec.DeserializationContext(reader, this::codecLookup));
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A read(final Type type, final ByteBuffer bytes) {
+        if (bytesParserFactory == null) { // custom reader parser, keep using it
+            return fromString(type, UTF_8.decode(bytes.duplicate()).toString());
+        }
+        if (lazyTree && type == Object.class) {
+            final byte[] data;
+            final int offset;
+            if (bytes.hasArray()) {
+                data = bytes.array();
+                offset = bytes.arrayOffset() + bytes.position();
+            } else {
+                data = new byte[bytes.remaining()];
+                bytes.duplicate().get(data);
+                offset = 0;
+            }
+            return (A) LazyJson.read(data, offset, bytes.remaining(), bufferProvider, numberMode);
+        }
+        try (final var parser = bytesParserFactory.apply(bytes)) {
+            return doRead(type, parser);
         } catch (final IOException ioe) {
             throw new IllegalStateException(ioe);
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> CompletionStage<A> readAsync(final Type type, final Flow.Publisher<ByteBuffer> publisher) {
+        if (bufferProvider == null) { // custom parsers
+            return JsonMapper.super.readAsync(type, publisher);
+        }
+        final var codec = (JsonCodec<A>) findCodec(type);
+        final var parser = new Utf8PushParser(8 * 1024, bufferProvider, stringCache);
+        final var subscriber = new ChunkSubscriber<>(parser::feed, () -> {
+            parser.endOfInput();
+            try {
+                return codec.read(new JsonCodec.DeserializationContext(parser, this::codecLookup));
+            } catch (final IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }, parser::close);
+        publisher.subscribe(subscriber);
+        return subscriber.promise();
+    }
+
     // just a convenient method for typing
     @Override
     @SuppressWarnings("unchecked")
@@ -357,6 +454,21 @@ public class JsonMapperImpl implements JsonMapper {
         }
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> Stream<A> readArray(final Type type, final Reader reader) {
+        final var parser = parserFactory.apply(reader);
+        try {
+            final var iterator = new CollectionJsonCodec<>((JsonCodec<A>) findCodec(type), List.class, ArrayList::new)
+                    .iterator(new JsonCodec.DeserializationContext(parser, this::codecLookup), parser::close);
+            return StreamSupport.stream(spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(parser::close);
+        } catch (final RuntimeException re) {
+            parser.close();
+            throw re;
+        }
+    }
+
     @Override
     public void close() {
         final var error = new IllegalStateException("Can't close some codec");
@@ -375,6 +487,48 @@ public class JsonMapperImpl implements JsonMapper {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private <A> A doRead(final Type type, final Parser reader) throws IOException {
+        return ((JsonCodec<A>) findCodec(type)).read(new JsonCodec.DeserializationContext(reader, this::codecLookup));
+    }
+
+    private JsonCodec<?> findCodec(final Type type) {
+        final var codec = codecs.get(type);
+        if (codec == null) {
+            if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> rawClass) {
+                if (rawClass == Map.class && pt.getActualTypeArguments().length == 2 && pt.getActualTypeArguments()[0] == String.class) {
+                    final var delegate = codecs.get(pt.getActualTypeArguments()[1]);
+                    if (delegate == null) {
+                        throw missingCodecException(pt.getActualTypeArguments()[0]);
+                    }
+                    final var wrapper = new MapJsonCodec<>(delegate);
+                    codecs.putIfAbsent(wrapper.type(), wrapper);
+                    return wrapper;
+                }
+                if ((rawClass == List.class || rawClass == Collection.class) && pt.getActualTypeArguments().length == 1) {
+                    final var delegate = codecs.get(pt.getActualTypeArguments()[0]);
+                    if (delegate == null) {
+                        throw missingCodecException(pt.getActualTypeArguments()[0]);
+                    }
+                    final var wrapper = new CollectionJsonCodec<>(delegate, List.class, ArrayList::new);
+                    codecs.putIfAbsent(wrapper.type(), wrapper);
+                    return wrapper;
+                }
+                if (rawClass == Set.class && pt.getActualTypeArguments().length == 2) {
+                    final var delegate = codecs.get(pt.getActualTypeArguments()[0]);
+                    if (delegate == null) {
+                        throw missingCodecException(pt.getActualTypeArguments()[0]);
+                    }
+                    final var wrapper = new CollectionJsonCodec<>(delegate, Set.class, HashSet::new);
+                    codecs.putIfAbsent(wrapper.type(), wrapper);
+                    return wrapper;
+                }
+            }
+            throw missingCodecException(type);
+        }
+        return codec;
+    }
+
     private Map<Type, JsonCodec<?>> toCodecMap(final Stream<JsonCodec<?>> codecStream) {
         return codecStream.collect(toMap(JsonCodec::type, identity()));
     }
@@ -391,17 +545,34 @@ public class JsonMapperImpl implements JsonMapper {
         return writer instanceof ExtendedWriter ew ? ew : new ExtendedWriter(writer);
     }
 
-    private static Function<Reader, Parser> createReaderParserFunction(final Configuration configuration) {
-        final int maxStringLength = configuration.get("fusion.json.maxStringLength")
-                .map(Integer::parseInt)
-                .orElse(8 * 1024);
-        final boolean autoAdjust = configuration.get("fusion.json.bufferAutoAdjust")
-                .map(Boolean::parseBoolean)
-                .orElse(true);
-        final int maxBuffers = configuration.get("fusion.json.maxBuffers")
-                .map(Integer::parseInt)
-                .orElse(-1);
-        final var bufferFactory = new BufferProvider(maxStringLength, maxBuffers);
-        return reader -> new JsonParser(reader, maxStringLength, bufferFactory, autoAdjust);
+    private record ParserFactories(Function<Reader, Parser> reader, Function<ByteBuffer, Parser> bytes,
+                                   BufferProvider bufferProvider, StringCache stringCache) {
+        private static ParserFactories of(final Configuration configuration) {
+            final int maxStringLength = configuration.get("fusion.json.maxStringLength")
+                    .map(Integer::parseInt)
+                    .orElse(8 * 1024);
+            final boolean autoAdjust = configuration.get("fusion.json.bufferAutoAdjust")
+                    .map(Boolean::parseBoolean)
+                    .orElse(true);
+            final int maxBuffers = configuration.get("fusion.json.maxBuffers")
+                    .map(Integer::parseInt)
+                    .orElse(-1);
+            final long maxRetainedBytes = configuration.get("fusion.json.maxRetainedBufferBytes")
+                    .map(Long::parseLong)
+                    .orElse(-1L);
+            final int stringCacheSize = configuration.get("fusion.json.stringCache.size")
+                    .map(Integer::parseInt)
+                    .orElse(0);
+            final var stringCache = stringCacheSize > 0 ?
+                    new StringCache(stringCacheSize, configuration.get("fusion.json.stringCache.maxLength")
+                            .map(Integer::parseInt)
+                            .orElse(32)) :
+                    null;
+            final var bufferFactory = new BufferProvider(maxStringLength, maxBuffers, maxRetainedBytes);
+            return new ParserFactories(
+                    reader -> new JsonParser(reader, maxStringLength, bufferFactory, autoAdjust, stringCache),
+                    bytes -> new Utf8JsonParser(bytes, bufferFactory, stringCache),
+                    bufferFactory, stringCache);
+        }
     }
 }
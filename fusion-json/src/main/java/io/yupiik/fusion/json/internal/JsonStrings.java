@@ -15,11 +15,29 @@
  */
 package io.yupiik.fusion.json.internal;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.CharBuffer;
 
 public final class JsonStrings {
     private final static char[] HEX_CHARS = "0123456789abcdef".toCharArray();
 
+    // escaped form of the ASCII chars which must be escaped, null for the passthrough ones
+    private final static char[][] ASCII_ESCAPES = new char[128][];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ASCII_ESCAPES[i] = new char[]{'\\', 'u', '0', '0', HEX_CHARS[i >> 4], HEX_CHARS[i & 0xF]};
+        }
+        ASCII_ESCAPES['"'] = new char[]{'\\', '"'};
+        ASCII_ESCAPES['\\'] = new char[]{'\\', '\\'};
+        ASCII_ESCAPES['\b'] = new char[]{'\\', 'b'};
+        ASCII_ESCAPES['\f'] = new char[]{'\\', 'f'};
+        ASCII_ESCAPES['\n'] = new char[]{'\\', 'n'};
+        ASCII_ESCAPES['\r'] = new char[]{'\\', 'r'};
+        ASCII_ESCAPES['\t'] = new char[]{'\\', 't'};
+    }
+
     private JsonStrings() {
         // no-op
     }
@@ -34,6 +52,45 @@ public final class JsonStrings {
     }
     */
 
+    /**
+     * Writes the value as a quoted JSON string in a single pass:
+     * runs of chars which don't need any escaping are written as a slice of the value, without any allocation.
+     *
+     * @param value  the value to write.
+     * @param writer the output.
+     * @throws IOException if the write fails.
+     */
+    public static void writeEscaped(final CharSequence value, final Writer writer) throws IOException {
+        writer.write('"');
+        final int length = value.length();
+        int runStart = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                final var escaped = ASCII_ESCAPES[c];
+                if (escaped != null) {
+                    if (runStart < i) {
+                        writeRun(value, runStart, i, writer);
+                    }
+                    writer.write(escaped);
+                    runStart = i + 1;
+                }
+            }
+        }
+        if (runStart < length) {
+            writeRun(value, runStart, length, writer);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * @param c the char to write.
+     * @return the escaped form of the char or {@code null} if it can be written as is.
+     */
+    public static char[] escaped(final char c) {
+        return c < 128 ? ASCII_ESCAPES[c] : null;
+    }
+
     public static CharBuffer escapeChars(final CharSequence value) {
         var array = CharBuffer.allocate(value.length() + 4 /*2 for quotes + a few margin if there are a few escapes*/);
         array.put(0, '"');
@@ -203,6 +260,14 @@ public final class JsonStrings {
         };
     }
 
+    private static void writeRun(final CharSequence value, final int start, final int end, final Writer writer) throws IOException {
+        if (value instanceof String s) {
+            writer.write(s, start, end - start);
+        } else {
+            writer.append(value, start, end);
+        }
+    }
+
     private static boolean isPassthrough(final char c) {
         return c >= 0x20 && c != 0x22 && c != 0x5c;
     }
@@ -15,12 +15,18 @@
  */
 package io.yupiik.fusion.json.internal.codec;
 
-import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.serialization.ExtendedWriter;
 import io.yupiik.fusion.json.serialization.JsonCodec;
+import io.yupiik.fusion.json.spi.Parser;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 // intended to host utilities for generation if needed (to reduce generated code source size)
 public abstract class BaseJsonCodec<A> implements JsonCodec<A> {
@@ -37,6 +43,27 @@ public abstract class BaseJsonCodec<A> implements JsonCodec<A> {
         return type;
     }
 
+    /**
+     * Compares a key as returned by {@link io.yupiik.fusion.json.spi.Parser#getChars()} to an attribute name
+     * without materializing the key as a {@link String}.
+     *
+     * @param key        the current key.
+     * @param quotedName the attribute name in its serialized form ({@code "<name>":}).
+     * @return {@code true} if the key is the attribute name.
+     */
+    protected static boolean isKey(final CharBuffer key, final char[] quotedName) {
+        final int length = key.length();
+        if (length != quotedName.length - 3) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != quotedName[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void writeJsonOthers(final Map<String, Object> others, final SerializationContext context) throws IOException {
         final var delegate = context.codec(Object.class);
         final var writer = context.writer();
@@ -46,12 +73,266 @@ public abstract class BaseJsonCodec<A> implements JsonCodec<A> {
             if (entry.getValue() == null) {
                 continue;
             }
-            writer.write(JsonStrings.escapeChars(entry.getKey()));
-            writer.write(':');
+            writer.writeString(entry.getKey());
+            writer.writeColon();
             delegate.write(entry.getValue(), context);
             if (it.hasNext()) {
-                writer.write(',');
+                writer.writeComma();
+            }
+        }
+    }
+
+    // primitive arrays and List<Integer>/List<Long>: read in growable primitive arrays and written without boxing,
+    // read methods are called after START_ARRAY and consume the array until its END_ARRAY
+
+    protected static int[] readIntArray(final Parser parser) {
+        int[] values = new int[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = parser.getInt();
+                }
+                case END_ARRAY -> {
+                    return Arrays.copyOf(values, size);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in int[]: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    protected static long[] readLongArray(final Parser parser) {
+        long[] values = new long[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = parser.getLong();
+                }
+                case END_ARRAY -> {
+                    return Arrays.copyOf(values, size);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in long[]: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    protected static double[] readDoubleArray(final Parser parser) {
+        double[] values = new double[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = parser.getDouble();
+                }
+                case END_ARRAY -> {
+                    return Arrays.copyOf(values, size);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in double[]: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    protected static boolean[] readBooleanArray(final Parser parser) {
+        boolean[] values = new boolean[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_TRUE, VALUE_FALSE -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = event == Parser.Event.VALUE_TRUE;
+                }
+                case END_ARRAY -> {
+                    return Arrays.copyOf(values, size);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in boolean[]: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    // a null item switches to a boxed list since it can't be represented in the primitive array
+    protected static List<Integer> readIntList(final Parser parser) {
+        int[] values = new int[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = parser.getInt();
+                }
+                case END_ARRAY -> {
+                    return new IntList(values, size);
+                }
+                case VALUE_NULL -> {
+                    final var boxed = new ArrayList<Integer>(size + 16);
+                    for (int i = 0; i < size; i++) {
+                        boxed.add(values[i]);
+                    }
+                    boxed.add(null);
+                    return readBoxedList(parser, boxed, Parser::getInt);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in List<Integer>: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    protected static List<Long> readLongList(final Parser parser) {
+        long[] values = new long[16];
+        int size = 0;
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size << 1);
+                    }
+                    values[size++] = parser.getLong();
+                }
+                case END_ARRAY -> {
+                    return new LongList(values, size);
+                }
+                case VALUE_NULL -> {
+                    final var boxed = new ArrayList<Long>(size + 16);
+                    for (int i = 0; i < size; i++) {
+                        boxed.add(values[i]);
+                    }
+                    boxed.add(null);
+                    return readBoxedList(parser, boxed, Parser::getLong);
+                }
+                default -> throw new IllegalArgumentException("Unsupported event in List<Long>: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    protected static void writeIntArray(final int[] values, final ExtendedWriter writer) throws IOException {
+        writer.writeStartArray();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.writeComma();
+            }
+            writer.writeNumber(values[i]);
+        }
+        writer.writeEndArray();
+    }
+
+    protected static void writeLongArray(final long[] values, final ExtendedWriter writer) throws IOException {
+        writer.writeStartArray();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.writeComma();
+            }
+            writer.writeNumber(values[i]);
+        }
+        writer.writeEndArray();
+    }
+
+    protected static void writeDoubleArray(final double[] values, final ExtendedWriter writer) throws IOException {
+        writer.writeStartArray();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.writeComma();
+            }
+            writer.writeNumber(values[i]);
+        }
+        writer.writeEndArray();
+    }
+
+    protected static void writeBooleanArray(final boolean[] values, final ExtendedWriter writer) throws IOException {
+        writer.writeStartArray();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.writeComma();
+            }
+            writer.writeBoolean(values[i]);
+        }
+        writer.writeEndArray();
+    }
+
+    protected static void writeIntList(final List<Integer> values, final ExtendedWriter writer) throws IOException {
+        if (values instanceof IntList list && list.array() != null) {
+            writer.writeStartArray();
+            final var array = list.array();
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    writer.writeComma();
+                }
+                writer.writeNumber(array[i]);
+            }
+            writer.writeEndArray();
+            return;
+        }
+        writeBoxedList(values, writer);
+    }
+
+    protected static void writeLongList(final List<Long> values, final ExtendedWriter writer) throws IOException {
+        if (values instanceof LongList list && list.array() != null) {
+            writer.writeStartArray();
+            final var array = list.array();
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    writer.writeComma();
+                }
+                writer.writeNumber(array[i]);
+            }
+            writer.writeEndArray();
+            return;
+        }
+        writeBoxedList(values, writer);
+    }
+
+    private static <N extends Number> List<N> readBoxedList(final Parser parser, final List<N> list, final Function<Parser, N> reader) {
+        while (parser.hasNext()) {
+            final var event = parser.next();
+            switch (event) {
+                case VALUE_NUMBER -> list.add(reader.apply(parser));
+                case VALUE_NULL -> list.add(null);
+                case END_ARRAY -> {
+                    return list;
+                }
+                default -> throw new IllegalArgumentException("Unsupported event: " + event);
+            }
+        }
+        throw new IllegalArgumentException("Array didn't end.");
+    }
+
+    private static void writeBoxedList(final List<? extends Number> values, final ExtendedWriter writer) throws IOException {
+        writer.writeStartArray();
+        final var it = values.iterator();
+        while (it.hasNext()) {
+            final var next = it.next();
+            if (next == null) {
+                writer.writeNull();
+            } else {
+                writer.writeNumber(next.longValue());
+            }
+            if (it.hasNext()) {
+                writer.writeComma();
             }
         }
+        writer.writeEndArray();
     }
 }
@@ -15,7 +15,6 @@
  */
 package io.yupiik.fusion.json.internal.codec;
 
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 
 import java.io.IOException;
@@ -44,6 +43,6 @@ public class BigDecimalJsonCodec implements JsonCodec<BigDecimal> {
 
     @Override
     public void write(final BigDecimal value, final SerializationContext context) throws IOException {
-        context.writer().write(JsonStrings.escapeChars(value.toString()));
+        context.writer().writeString(value.toString());
     }
 }
@@ -42,6 +42,6 @@ public class BooleanJsonCodec implements JsonCodec<Boolean> {
 
     @Override
     public void write(final Boolean value, final SerializationContext context) throws IOException {
-        context.writer().write(String.valueOf(value));
+        context.writer().writeBoolean(value);
     }
 }
@@ -22,6 +22,8 @@ import io.yupiik.fusion.json.serialization.JsonCodec;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.function.Supplier;
 
 import static io.yupiik.fusion.json.spi.Parser.Event.END_ARRAY;
@@ -65,22 +67,79 @@ public class CollectionJsonCodec<A, L extends Collection<A>> implements JsonCode
         return instance;
     }
 
+    /**
+     * Reads the array elements one at a time, the parser must stay open while iterating.
+     *
+     * @param context the deserialization context.
+     * @param onEnd   callback called once the end of the array is reached (to release the parser early for example).
+     * @return an iterator decoding the elements lazily.
+     */
+    public Iterator<A> iterator(final DeserializationContext context, final Runnable onEnd) {
+        final var reader = context.parser();
+        if (!reader.hasNext()) {
+            throw new IllegalStateException("No more element");
+        }
+
+        final var start = reader.next();
+        if (start != START_ARRAY) {
+            throw new IllegalStateException("Expected=START_ARRAY, but got " + start);
+        }
+
+        return new Iterator<>() {
+            private JsonParser.Event next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (done) {
+                    return false;
+                }
+                if (next == null) {
+                    if (!reader.hasNext()) {
+                        throw new IllegalStateException("Array didn't end.");
+                    }
+                    next = reader.next();
+                    if (next == END_ARRAY) {
+                        done = true;
+                        onEnd.run();
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public A next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                reader.rewind(next);
+                next = null;
+                try {
+                    return delegate.read(context);
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
     @Override
     public void write(final L value, final SerializationContext context) throws IOException {
         final var writer = context.writer();
         final var it = value.iterator();
-        writer.write('[');
+        writer.writeStartArray();
         while (it.hasNext()) {
             final var next = it.next();
             if (next == null) {
-                writer.write("null");
+                writer.writeNull();
             } else {
                 delegate.write(next, context);
             }
             if (it.hasNext()) {
-                writer.write(',');
+                writer.writeComma();
             }
         }
-        writer.write(']');
+        writer.writeEndArray();
     }
 }
@@ -31,20 +31,21 @@ import static java.util.stream.Collectors.toMap;
 
 public class EnumJsonCodec<A extends Enum<A>> implements JsonCodec<A> {
     private final Class<A> type;
-    private final Map<A, char[]> toJson;
+    private final Map<A, Constant> toJson;
     private final Map<CharBuffer, A> fromJson;
 
     public EnumJsonCodec(final Class<A> type, final Collection<A> enumValues, final Function<A, String> toJson) {
         this.type = type;
         // must be bijective - but anyway it is needed in practise, or you loose info!
         this.toJson = enumValues.stream().collect(toMap(identity(), it -> {
-            final var chars = JsonStrings.escapeChars(toJson.apply(it));
+            final var value = toJson.apply(it);
+            final var chars = JsonStrings.escapeChars(value);
             if (chars.length() == chars.capacity()) {
-                return chars.array();
+                return new Constant(chars.array(), value);
             }
             final var array = new char[chars.length()];
             chars.get(array, chars.position(), chars.limit());
-            return array;
+            return new Constant(array, value);
         }));
         this.fromJson = enumValues.stream().collect(toMap(e -> CharBuffer.wrap(toJson.apply(e).toCharArray()), identity()));
     }
@@ -70,11 +71,14 @@ public class EnumJsonCodec<A extends Enum<A>> implements JsonCodec<A> {
 
     @Override
     public void write(final A value, final SerializationContext context) throws IOException {
-        final var cbuf = toJson.get(value);
-        if (cbuf == null) {
-            context.writer().write("null"); // todo: fail?
+        final var constant = toJson.get(value);
+        if (constant == null) {
+            context.writer().writeNull(); // todo: fail?
         } else {
-            context.writer().write(cbuf);
+            context.writer().writeString(constant.json(), constant.value());
         }
     }
+
+    private record Constant(char[] json, String value) {
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.codec;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Growable list backed by a {@code int[]}, values are only boxed when accessed through the {@link java.util.List} API.
+ * Used by generated codecs for {@code List<Integer>} attributes, it is mutable as the {@code ArrayList} they used to return.
+ * Storing a {@code null} value switches it to a boxed {@code ArrayList} storage.
+ */
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+    private int[] values;
+    private int size;
+    private List<Integer> boxed;
+
+    public IntList(final int[] values, final int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    public int getInt(final int index) {
+        if (boxed != null) {
+            return boxed.get(index);
+        }
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    @Override
+    public Integer get(final int index) {
+        if (boxed != null) {
+            return boxed.get(index);
+        }
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(final int index, final Integer element) {
+        if (boxed == null && element != null) {
+            checkIndex(index, size);
+            final int previous = values[index];
+            values[index] = element;
+            return previous;
+        }
+        return boxed().set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final Integer element) {
+        modCount++;
+        if (boxed == null && element != null) {
+            checkIndex(index, size + 1);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size << 1));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = element;
+            size++;
+            return;
+        }
+        boxed().add(index, element);
+    }
+
+    @Override
+    public Integer remove(final int index) {
+        modCount++;
+        if (boxed != null) {
+            return boxed.remove(index);
+        }
+        checkIndex(index, size);
+        final int previous = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        if (boxed != null) {
+            boxed = null;
+            values = new int[16];
+        }
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return boxed != null ? boxed.size() : size;
+    }
+
+    /**
+     * @return the backing array, only the {@link #size()} first values are meaningful, do not modify it,
+     * {@code null} if the list contains {@code null} values.
+     */
+    public int[] array() {
+        return boxed != null ? null : values;
+    }
+
+    private List<Integer> boxed() {
+        if (boxed == null) {
+            final var copy = new ArrayList<Integer>(size + 1);
+            for (int i = 0; i < size; i++) {
+                copy.add(values[i]);
+            }
+            boxed = copy;
+            values = null;
+            size = 0;
+        }
+        return boxed;
+    }
+
+    private static void checkIndex(final int index, final int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+    }
+}
@@ -16,7 +16,6 @@
 package io.yupiik.fusion.json.internal.codec;
 
 import io.yupiik.fusion.framework.api.container.Types;
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.internal.parser.JsonParser;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 
@@ -66,24 +65,24 @@ public class MapJsonCodec<A> implements JsonCodec<Map<String, A>> {
     public void write(final Map<String, A> value, final SerializationContext context) throws IOException {
         final var writer = context.writer();
         final var it = value.entrySet().iterator();
-        writer.write('{');
+        writer.writeStartObject();
         while (it.hasNext()) {
             final var entry = it.next();
             if (entry == null) {
                 continue;
             }
 
-            writer.write(JsonStrings.escapeChars(entry.getKey()));
-            writer.write(":");
+            writer.writeString(entry.getKey());
+            writer.writeColon();
             if (entry.getValue() == null) {
-                writer.write("null");
+                writer.writeNull();
             } else {
                 delegate.write(entry.getValue(), context);
             }
             if (it.hasNext()) {
-                writer.write(',');
+                writer.writeComma();
             }
         }
-        writer.write('}');
+        writer.writeEndObject();
     }
 }
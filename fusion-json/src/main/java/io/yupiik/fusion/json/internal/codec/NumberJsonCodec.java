@@ -53,6 +53,6 @@ public abstract class NumberJsonCodec<A> implements JsonCodec<A> {
 
     @Override
     public void write(final A value, final SerializationContext context) throws IOException {
-        context.writer().write(String.valueOf(value));
+        context.writer().writeNumber((Number) value);
     }
 }
@@ -15,8 +15,8 @@
  */
 package io.yupiik.fusion.json.internal.codec;
 
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.serialization.JsonCodec;
+import io.yupiik.fusion.json.spi.Parser;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -27,11 +27,17 @@ import java.util.Map;
 
 // used to handle unknown structures
 public class ObjectJsonCodec implements JsonCodec<Object> {
-    private static final char[] TRUE = "true".toCharArray();
-    private static final char[] FALSE = "false".toCharArray();
-
     private final CollectionJsonCodec<Object, Collection<Object>> collectionCodec = new CollectionJsonCodec<>(this, List.class, ArrayList::new);
     private final MapJsonCodec<Object> mapCodec = new MapJsonCodec<>(this);
+    private final Parser.NumberMode numberMode;
+
+    public ObjectJsonCodec() {
+        this(Parser.NumberMode.BIG_DECIMAL);
+    }
+
+    public ObjectJsonCodec(final Parser.NumberMode numberMode) {
+        this.numberMode = numberMode;
+    }
 
     @Override
     public Type type() {
@@ -52,7 +58,7 @@ public class ObjectJsonCodec implements JsonCodec<Object> {
             case VALUE_TRUE -> true;
             case VALUE_FALSE -> false;
             case VALUE_STRING -> parser.getString();
-            case VALUE_NUMBER -> parser.getBigDecimal();
+            case VALUE_NUMBER -> parser.getNumber(numberMode);
             case START_OBJECT -> {
                 parser.rewind(next);
                 yield mapCodec.read(context);
@@ -65,30 +71,26 @@ public class ObjectJsonCodec implements JsonCodec<Object> {
         };
     }
 
-    // note: this only handles the symmetric types of the read() method so booleans, bigdecimals, strings,
+    // note: this only handles the symmetric types of the read() method so booleans, numbers, strings,
     //        arrays of these types and maps of these types
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
     public void write(final Object value, final SerializationContext context) throws IOException {
         final var writer = context.writer();
         if (value == null) {
-            writer.write("null");
+            writer.writeNull();
             return;
         }
         if (value instanceof String s) {
-            writer.write(JsonStrings.escapeChars(s));
+            writer.writeString(s);
             return;
         }
         if (value instanceof Boolean b) {
-            if (b) {
-                writer.write(TRUE);
-            } else {
-                writer.write(FALSE);
-            }
+            writer.writeBoolean(b);
             return;
         }
-        if (value instanceof Number) {
-            writer.write(String.valueOf(value));
+        if (value instanceof Number n) {
+            writer.writeNumber(n);
             return;
         }
         if (value instanceof Collection<?> list) {
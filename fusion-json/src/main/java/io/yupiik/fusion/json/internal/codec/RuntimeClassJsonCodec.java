@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.codec;
+
+import io.yupiik.fusion.json.serialization.JsonCodec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+// writes values with the codec of their runtime class, resolved once per class, used for untyped Map/Collection roots
+public class RuntimeClassJsonCodec implements JsonCodec<Object> {
+    private final JsonCodec<Object> objectCodec;
+    private final ClassValue<JsonCodec<Object>> codecs;
+
+    @SuppressWarnings("unchecked")
+    public RuntimeClassJsonCodec(final JsonCodec<Object> objectCodec, final Function<Class<?>, JsonCodec<?>> codecLookup) {
+        this.objectCodec = objectCodec;
+        this.codecs = new ClassValue<>() {
+            @Override
+            protected JsonCodec<Object> computeValue(final Class<?> type) {
+                if (Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)) { // generic structures
+                    return objectCodec;
+                }
+                if (type == Object.class) { // no way to serialize it
+                    return null;
+                }
+                final var codec = (JsonCodec<Object>) codecLookup.apply(type);
+                if (codec != null) {
+                    return codec;
+                }
+                if (type == String.class || type == Boolean.class || Number.class.isAssignableFrom(type)) {
+                    return objectCodec;
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public Type type() {
+        return Object.class;
+    }
+
+    @Override
+    public Object read(final DeserializationContext context) throws IOException {
+        return objectCodec.read(context);
+    }
+
+    @Override
+    public void write(final Object value, final SerializationContext context) throws IOException {
+        final var codec = codecs.get(value.getClass());
+        if (codec == null) {
+            throw new IllegalStateException("No codec for '" + value.getClass().getName() + "', did you forget to mark it @JsonModel");
+        }
+        codec.write(value, context);
+    }
+}
@@ -15,7 +15,6 @@
  */
 package io.yupiik.fusion.json.internal.codec;
 
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 
 import java.io.IOException;
@@ -40,6 +39,6 @@ public class StringJsonCodec implements JsonCodec<String> {
 
     @Override
     public void write(final String value, final SerializationContext context) throws IOException {
-        context.writer().write(JsonStrings.escapeChars(value));
+        context.writer().writeString(value);
     }
 }
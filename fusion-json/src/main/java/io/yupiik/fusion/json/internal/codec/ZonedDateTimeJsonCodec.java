@@ -15,7 +15,6 @@
  */
 package io.yupiik.fusion.json.internal.codec;
 
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 
 import java.io.IOException;
@@ -41,6 +40,6 @@ public class ZonedDateTimeJsonCodec implements JsonCodec<ZonedDateTime> {
 
     @Override
     public void write(final ZonedDateTime value, final SerializationContext context) throws IOException {
-        context.writer().write(JsonStrings.escapeChars(value.toString()));
+        context.writer().writeString(value.toString());
     }
 }
@@ -15,33 +15,31 @@
  */
 package io.yupiik.fusion.json.internal.formatter;
 
-import io.yupiik.fusion.framework.api.container.Types;
 import io.yupiik.fusion.json.JsonMapper;
-import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.internal.io.FastStringWriter;
+import io.yupiik.fusion.json.pretty.PrettyWriter;
 
-import java.io.StringReader;
-import java.math.BigDecimal;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
 import java.util.function.Function;
 
-import static java.util.stream.Collectors.joining;
-
 /**
- * This implementation simply loads back the object in memory using generic types
- * then goes through the object in a formatter manner.
+ * Formats a serialized JSON in a single pass through a {@link PrettyWriter}, the JSON is not loaded in memory.
  * <p>
- * This is not efficient but formatting is mainly intended for debug purposes so should be fine.
+ * Input is assumed valid (it is generally the output of a mapper), tokens are kept as they are.
  */
 public class SimplePrettyFormatter implements Function<String, String> {
-    private final JsonMapper mapper;
-
     // config
     private int indentSize = 2;
 
+    public SimplePrettyFormatter() {
+        // no-op
+    }
+
+    /**
+     * @param mapper unused, kept for backward compatibility.
+     */
     public SimplePrettyFormatter(final JsonMapper mapper) {
-        this.mapper = mapper;
+        this();
     }
 
     public SimplePrettyFormatter indentSize(final int indentSize) {
@@ -50,73 +48,13 @@ public class SimplePrettyFormatter implements Function<String, String> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public String apply(final String json) {
-        if (json.startsWith("[")) {
-            final List<Object> data;
-            try (final var reader = new StringReader(json)) {
-                data = mapper.read(new Types.ParameterizedTypeImpl(List.class, Object.class), reader);
-            }
-            return formatList(data, 0);
-        }
-        if (json.startsWith("{")) {
-            final Map<String, Object> map;
-            try (final var reader = new StringReader(json)) {
-                map = (Map<String, Object>) mapper.read(Object.class, reader);
-            }
-            return formatObject(map, 0);
-        }
-        return json; // primitives are already formatted
-    }
-
-    @SuppressWarnings("unchecked")
-    private String format(final Object value, final int level) {
-        if (value instanceof Map<?, ?> map) {
-            return formatObject((Map<String, ?>) map, level);
-        }
-        if (value instanceof Collection<?> list) {
-            return formatList(list, level);
-        }
-
-        // primitives are not intended since "inline" for objects
-
-        if (value instanceof String s) {
-            return JsonStrings.escape(s);
+        final var builder = new StringBuilder(json.length() + (json.length() >> 1));
+        try (final var writer = new PrettyWriter(new FastStringWriter(builder), indentSize)) {
+            writer.write(json);
+        } catch (final IOException e) { // can't happen with a string builder
+            throw new IllegalStateException(e);
         }
-        if (value instanceof BigDecimal bd) {
-            return bd.toString();
-        }
-        if (value instanceof Boolean bool) {
-            return String.valueOf(bool);
-        }
-        if (value == null) {
-            return "null";
-        }
-
-        throw new IllegalArgumentException("Unsupported generic type: '" + value + "'");
-    }
-
-    private String formatObject(final Map<String, ?> map, final int level) {
-        if (map.isEmpty()) {
-            return "{}";
-        }
-
-        final var endIndentPrefix = level == 0 ? "" : " ".repeat(level * indentSize);
-        final var indentPrefix = endIndentPrefix + " ".repeat(indentSize);
-        return map.entrySet().stream()
-                .map(entry -> indentPrefix + JsonStrings.escape(entry.getKey()) + ": " + format(entry.getValue(), level + 1))
-                .collect(joining(",\n", "{\n", '\n' + endIndentPrefix + "}"));
-    }
-
-    private String formatList(final Collection<?> data, final int level) {
-        if (data.isEmpty()) {
-            return "[]";
-        }
-
-        final var endIndentPrefix = level == 0 ? "" : " ".repeat(level * indentSize);
-        final var indentPrefix = endIndentPrefix + " ".repeat(indentSize);
-        return data.stream()
-                .map(it -> indentPrefix + format(it, level + 1))
-                .collect(joining(",\n", "[\n", '\n' + endIndentPrefix + "]"));
+        return builder.toString();
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// requests chunks one by one and hands them to a consumer (a push parser for ex) as they arrive,
+// a consumer failure cancels the subscription so an invalid payload is not read until its end
+public class ChunkSubscriber<A> implements Flow.Subscriber<ByteBuffer> {
+    private final CompletableFuture<A> future = new CompletableFuture<>();
+    private final Consumer<ByteBuffer> onChunk;
+    private final Supplier<A> onEnd;
+    private final Runnable onRelease;
+    private Flow.Subscription subscription;
+
+    public ChunkSubscriber(final Consumer<ByteBuffer> onChunk, final Supplier<A> onEnd, final Runnable onRelease) {
+        this.onChunk = onChunk;
+        this.onEnd = onEnd;
+        this.onRelease = onRelease;
+    }
+
+    public CompletionStage<A> promise() {
+        return future;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(final ByteBuffer item) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            onChunk.accept(item);
+        } catch (final RuntimeException re) {
+            subscription.cancel();
+            fail(re);
+            return;
+        }
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (!future.isDone()) {
+            fail(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            future.complete(onEnd.get());
+        } catch (final RuntimeException re) {
+            future.completeExceptionally(re);
+        } finally {
+            onRelease.run();
+        }
+    }
+
+    private void fail(final Throwable throwable) {
+        try {
+            onRelease.run();
+        } finally {
+            future.completeExceptionally(throwable);
+        }
+    }
+}
@@ -15,40 +15,200 @@
  */
 package io.yupiik.fusion.json.internal.parser;
 
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
+/**
+ * Pool of {@code char[]} buffers used by the parsers.
+ * <p>
+ * Buffers are pooled by size class - the base size times a power of two - in stripes selected from the current thread id.
+ * It limits the contention between concurrent requests without relying on a {@code ThreadLocal} so it is virtual thread friendly.
+ * Retained buffers are bounded by a number of slots per stripe and size class and optionally by a number of retained bytes.
+ * Without a max number of buffers, each stripe and size class uses an unbounded queue (only the retained bytes limit applies).
+ */
 public class BufferProvider {
+    private static final int SIZE_CLASSES = 8;
+
     private final int size;
-    private final int max;
-    private final AtomicInteger counter = new AtomicInteger();
-    private final ConcurrentLinkedQueue<char[]> queue = new ConcurrentLinkedQueue<>();
+    private final int slots; // negative when unbounded
+    private final long maxRetainedBytesPerStripe;
+    private final int stripeMask;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
 
     public BufferProvider(final int size, final int maxBuffers) {
+        this(size, maxBuffers, -1);
+    }
+
+    /**
+     * @param size             base buffer size (returned by {@link #newBuffer()}).
+     * @param maxBuffers       max retained buffers per size class, negative for no limit.
+     * @param maxRetainedBytes max retained bytes, negative for no limit.
+     */
+    public BufferProvider(final int size, final int maxBuffers, final long maxRetainedBytes) {
         this.size = size;
-        this.max = maxBuffers;
+
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1;
+        if (maxBuffers >= 0) {
+            stripeCount = Math.min(stripeCount, Integer.highestOneBit(Math.max(1, maxBuffers)));
+            this.slots = maxBuffers / stripeCount;
+        } else {
+            this.slots = -1;
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxRetainedBytesPerStripe = maxRetainedBytes < 0 ? Long.MAX_VALUE : maxRetainedBytes / stripeCount;
+
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = slots >= 0 ?
+                    new Stripe(new AtomicReferenceArray<>(SIZE_CLASSES * slots), null, new AtomicLong()) :
+                    new Stripe(null, IntStream.range(0, SIZE_CLASSES)
+                            .<Queue<char[]>>mapToObj(it -> new ConcurrentLinkedQueue<>())
+                            .toList(), new AtomicLong());
+        }
     }
 
     public char[] newBuffer() {
-        final var buffer = queue.poll();
-        if (buffer == null) {
-            return new char[size];
-        } else if (max >= 0) {
-            counter.decrementAndGet();
+        return newBuffer(size);
+    }
+
+    /**
+     * @param minSize the minimum length of the buffer.
+     * @return a buffer of at least {@code minSize} chars, its length is the size of the matching size class.
+     */
+    public char[] newBuffer(final int minSize) {
+        final int sizeClass = sizeClass(minSize);
+        if (sizeClass < 0) { // too big to be pooled
+            misses.increment();
+            allocated.increment();
+            return new char[minSize];
         }
-        return buffer;
+
+        final int length = size << sizeClass;
+        if (slots < 0) {
+            final var stripe = stripe();
+            final var buffer = stripe.queues().get(sizeClass).poll();
+            if (buffer != null) {
+                stripe.retainedBytes().addAndGet(-2L * length);
+                hits.increment();
+                return buffer;
+            }
+        } else if (slots > 0) {
+            final var stripe = stripe();
+            final int from = sizeClass * slots;
+            for (int i = from; i < from + slots; i++) {
+                final var buffer = stripe.buffers().get(i);
+                if (buffer != null && stripe.buffers().compareAndSet(i, buffer, null)) {
+                    stripe.retainedBytes().addAndGet(-2L * length);
+                    hits.increment();
+                    return buffer;
+                }
+            }
+        }
+
+        misses.increment();
+        allocated.increment();
+        return new char[length];
     }
 
     public void release(final char[] value) {
-        if (max < 0) {
-            queue.offer(value);
+        if (slots == 0) {
+            return;
+        }
+
+        final int sizeClass = exactSizeClass(value.length);
+        if (sizeClass < 0) { // not a pooled buffer
+            return;
+        }
+
+        final var stripe = stripe();
+        final long bytes = 2L * value.length;
+        if (stripe.retainedBytes().addAndGet(bytes) > maxRetainedBytesPerStripe) {
+            stripe.retainedBytes().addAndGet(-bytes);
+            return;
+        }
+
+        if (slots < 0) {
+            stripe.queues().get(sizeClass).offer(value);
             return;
         }
-        if (counter.getAndUpdate(operand -> {
-            final var incr = operand + 1;
-            return Math.min(max, incr);
-        }) < max) {
-            queue.offer(value);
+
+        final int from = sizeClass * slots;
+        for (int i = from; i < from + slots; i++) {
+            if (stripe.buffers().get(i) == null && stripe.buffers().compareAndSet(i, null, value)) {
+                return;
+            }
+        }
+        stripe.retainedBytes().addAndGet(-bytes); // pool is full, drop it
+    }
+
+    /**
+     * @return number of buffer requests served from the pool.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of buffer requests which required to allocate a buffer.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of buffers allocated by this provider.
+     */
+    public long getAllocated() {
+        return allocated.sum();
+    }
+
+    /**
+     * @return the memory currently retained by the pool (approximated to 2 bytes per char).
+     */
+    public long getRetainedBytes() {
+        long total = 0;
+        for (final var stripe : stripes) {
+            total += stripe.retainedBytes().get();
+        }
+        return total;
+    }
+
+    @SuppressWarnings("deprecation") // threadId() is only available with java >= 19
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & stripeMask];
+    }
+
+    private int sizeClass(final int minSize) {
+        int sizeClass = 0;
+        long length = size;
+        while (length < minSize) {
+            length <<= 1;
+            sizeClass++;
         }
+        return sizeClass < SIZE_CLASSES ? sizeClass : -1;
+    }
+
+    private int exactSizeClass(final int length) {
+        if (length < size || length % size != 0) {
+            return -1;
+        }
+        final int ratio = length / size;
+        if (Integer.bitCount(ratio) != 1) {
+            return -1;
+        }
+        final int sizeClass = Integer.numberOfTrailingZeros(ratio);
+        return sizeClass < SIZE_CLASSES ? sizeClass : -1;
+    }
+
+    private record Stripe(AtomicReferenceArray<char[]> buffers, List<Queue<char[]>> queues, AtomicLong retainedBytes) {
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+// number fast paths shared by the parsers, they accumulate up to MAX_DIGITS significant digits in a long mantissa while scanning
+public final class JsonNumbers {
+    public static final int MAX_DIGITS = 18; // can't overflow a long
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+
+    private JsonNumbers() {
+        // no-op
+    }
+
+    /**
+     * Computes {@code mantissa * 10^-scale} when it is exact with a single floating point operation (Clinger fast path).
+     *
+     * @param mantissa the absolute value of the decimal mantissa.
+     * @param scale    the decimal scale.
+     * @param negative is the number negative.
+     * @return the double value or {@code NaN} if the fast path does not apply.
+     */
+    public static double toDouble(final long mantissa, final int scale, final boolean negative) {
+        if (mantissa > MAX_EXACT_MANTISSA || scale < -22 || scale > 22) {
+            return Double.NaN;
+        }
+        final double value = scale >= 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa * POWERS_OF_TEN[-scale];
+        return negative ? -value : value;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.yupiik.fusion.json.internal.parser;
 
+import io.yupiik.fusion.json.LazyNumber;
 import io.yupiik.fusion.json.deserialization.AvailableCharArrayReader;
 import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.spi.Parser;
@@ -52,6 +53,7 @@ public class JsonParser implements Parser {
     private final Reader in;
 
     private final BufferProvider bufferProvider;
+    private final StringCache stringCache;
 
     private int arrayDepth = 0;
     private int objectDepth = 0;
@@ -66,7 +68,11 @@ public class JsonParser implements Parser {
     private long pastBufferReadCount;
 
     private boolean isCurrentNumberIntegral = true;
-    private int currentIntegralNumber = Integer.MIN_VALUE;
+    // the number as mantissa * 10^-scale when it has at most JsonNumbers.MAX_DIGITS significant digits (exact)
+    private boolean isCurrentNumberExact;
+    private boolean isCurrentNumberNegative;
+    private long currentNumberMantissa;
+    private int currentNumberScale;
 
     private StructureElement currentStructureElement = null;
 
@@ -81,8 +87,19 @@ public class JsonParser implements Parser {
     public JsonParser(final Reader reader, final int maxStringLength,
                       final BufferProvider bufferProvider,
                       final boolean autoAdjust) {
+        this(reader, maxStringLength, bufferProvider, autoAdjust, null);
+    }
+
+    /**
+     * @param stringCache optional cache for short strings (keys and values), can be {@code null}.
+     */
+    public JsonParser(final Reader reader, final int maxStringLength,
+                      final BufferProvider bufferProvider,
+                      final boolean autoAdjust,
+                      final StringCache stringCache) {
         this.autoAdjust = autoAdjust;
         this.bufferProvider = bufferProvider;
+        this.stringCache = stringCache;
         this.in = reader;
         if (reader instanceof AvailableCharArrayReader ar) {
             this.buffer = ar.charArray();
@@ -132,7 +149,8 @@ public class JsonParser implements Parser {
         final var current = new Buffer(fallBackCopyBuffer, fallBackCopyBufferLength);
         buffers.add(current);
         fallBackCopyBufferLength = 0;
-        fallBackCopyBuffer = bufferProvider.newBuffer();
+        // grow by size class to keep the number of chunks low for long strings
+        fallBackCopyBuffer = bufferProvider.newBuffer(Math.max(length + 1, current.value().length << 1));
         System.arraycopy(current.value(), 0, fallBackCopyBuffer, 0, fallBackCopyBufferLength);
         if (startOfValueInBuffer != -1) {
             System.arraycopy(buffer, startOfValueInBuffer, fallBackCopyBuffer, fallBackCopyBufferLength, length);
@@ -299,9 +317,6 @@ public class JsonParser implements Parser {
         if (!isCurrentNumberIntegral) {
             isCurrentNumberIntegral = true;
         }
-        if (currentIntegralNumber != Integer.MIN_VALUE) {
-            currentIntegralNumber = Integer.MIN_VALUE;
-        }
         if (fallBackCopyBufferLength != 0) {
             fallBackCopyBufferLength = 0;
         }
@@ -474,32 +489,50 @@ public class JsonParser implements Parser {
     }
 
     private void readNumber() {
-        char c = buffer[bufferPos];
+        final char c = buffer[bufferPos];
         startOfValueInBuffer = bufferPos;
         endOfValueInBuffer = -1;
 
+        final boolean negative = c == '-';
+        long mantissa = negative ? 0 : c - '0';
+        int digits = negative ? 0 : 1;
+        boolean exact = true;
+
         char y;
-        int cumulatedDigitValue = 0;
         while (isAsciiDigit(y = readNextChar())) {
             if (c == '0') {
                 throw unexpectedChar("Leading zeros not allowed");
             }
-            if (c == '-' && cumulatedDigitValue == 48) {
+            if (negative && digits == 1 && mantissa == 0) {
                 throw unexpectedChar("Leading zeros after minus not allowed");
             }
-            cumulatedDigitValue += y;
+            if (digits < JsonNumbers.MAX_DIGITS) {
+                mantissa = mantissa * 10 + (y - '0');
+            } else {
+                exact = false;
+            }
+            digits++;
         }
-        if (c == '-' && cumulatedDigitValue == 0) {
+        if (negative && digits == 0) {
             throw unexpectedChar("Unexpected premature end of number");
         }
+        final boolean singleDigit = digits == 1;
 
+        int scale = 0;
         if (y == '.') {
             isCurrentNumberIntegral = false;
-            cumulatedDigitValue = 0;
+            int fractionDigits = 0;
             while (isAsciiDigit(y = readNextChar())) {
-                cumulatedDigitValue++;
+                if (exact && digits < JsonNumbers.MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (y - '0');
+                    digits++;
+                    scale++;
+                } else {
+                    exact = false;
+                }
+                fractionDigits++;
             }
-            if (cumulatedDigitValue == 0) {
+            if (fractionDigits == 0) {
                 throw unexpectedChar("Unexpected premature end of number");
             }
         }
@@ -511,6 +544,7 @@ public class JsonParser implements Parser {
                 throw unexpectedChar("Expected DIGIT or + or -");
             }
 
+            final boolean negativeExponent = y == '-';
             if (y == '-' || y == '+') {
                 y = readNextChar();
                 if (!isAsciiDigit(y)) {
@@ -518,21 +552,25 @@ public class JsonParser implements Parser {
                 }
             }
 
+            int exponent = y - '0';
             while (isAsciiDigit(y = readNextChar())) {
-                //no-op
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (y - '0');
+                } else {
+                    exact = false;
+                }
             }
+            scale += negativeExponent ? exponent : -exponent;
         }
 
         endOfValueInBuffer = y == Character.MIN_VALUE && endOfValueInBuffer < 0 ? -1 : bufferPos;
         if (y == ',' || y == ']' || y == '}' || y == '\n' || y == ' ' || y == '\t' || y == '\r' || y == Character.MIN_VALUE) {
             unreadChar();
-            if (isCurrentNumberIntegral && c == '-' && cumulatedDigitValue >= 48 && cumulatedDigitValue <= 57) {
-                currentIntegralNumber = -(cumulatedDigitValue - 48); //optimize -0 till -9
-                return;
-            }
-
-            if (isCurrentNumberIntegral && c != '-' && cumulatedDigitValue == 0) {
-                currentIntegralNumber = (c - 48); //optimize 0 till 9
+            isCurrentNumberExact = exact;
+            isCurrentNumberNegative = negative;
+            currentNumberMantissa = mantissa;
+            currentNumberScale = scale;
+            if (isCurrentNumberIntegral && singleDigit) { // value fully known, no need to copy it
                 return;
             }
 
@@ -639,6 +677,16 @@ public class JsonParser implements Parser {
         if (cachedInternalString != null) {
             return cachedInternalString;
         }
+        if (stringCache != null && buffers == null) { // no copy, the cache reads the chars in place
+            if (fallBackCopyBufferLength > 0) {
+                cachedInternalString = stringCache.get(fallBackCopyBuffer, 0, fallBackCopyBufferLength);
+            } else if (endOfValueInBuffer != startOfValueInBuffer) {
+                cachedInternalString = stringCache.get(buffer, startOfValueInBuffer, endOfValueInBuffer - startOfValueInBuffer);
+            } else {
+                cachedInternalString = "";
+            }
+            return cachedInternalString;
+        }
 
         final var out = new char[
                 (fallBackCopyBufferLength > 0 ? fallBackCopyBufferLength : endOfValueInBuffer - startOfValueInBuffer) +
@@ -672,6 +720,7 @@ public class JsonParser implements Parser {
         } while (level > 0 && hasNext());
     }
 
+    @Override
     public boolean isIntegralNumber() {
         if (previousEvent != VALUE_NUMBER.ordinal()) {
             throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support isIntegralNumber()");
@@ -688,17 +737,8 @@ public class JsonParser implements Parser {
         if (previousEvent != VALUE_NUMBER.ordinal()) {
             throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support getInt()");
         }
-        if (isCurrentNumberIntegral && currentIntegralNumber != Integer.MIN_VALUE) {
-            return currentIntegralNumber;
-        }
-        if (isCurrentNumberIntegral) {
-            final var retVal = fallBackCopyBufferLength > 0 ?
-                    parseIntegerFromChars(fallBackCopyBuffer, 0, fallBackCopyBufferLength) :
-                    parseIntegerFromChars(buffer, startOfValueInBuffer, endOfValueInBuffer);
-            if (retVal == null) {
-                return getBigDecimal().intValue();
-            }
-            return retVal;
+        if (isCurrentNumberIntegral && isCurrentNumberExact) {
+            return (int) currentLong();
         }
         return getBigDecimal().intValue();
     }
@@ -708,17 +748,8 @@ public class JsonParser implements Parser {
         if (previousEvent != VALUE_NUMBER.ordinal()) {
             throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support getLong()");
         }
-        if (isCurrentNumberIntegral && currentIntegralNumber != Integer.MIN_VALUE) {
-            return currentIntegralNumber;
-        }
-        if (isCurrentNumberIntegral) {
-            final var retVal = fallBackCopyBufferLength > 0 ?
-                    parseLongFromChars(fallBackCopyBuffer, 0, fallBackCopyBufferLength) :
-                    parseLongFromChars(buffer, startOfValueInBuffer, endOfValueInBuffer);
-            if (retVal == null) {
-                return getBigDecimal().longValue();
-            }
-            return retVal;
+        if (isCurrentNumberIntegral && isCurrentNumberExact) {
+            return currentLong();
         }
         return getBigDecimal().longValue();
     }
@@ -728,8 +759,8 @@ public class JsonParser implements Parser {
         if (previousEvent != VALUE_NUMBER.ordinal()) {
             throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support getBigDecimal()");
         }
-        if (isCurrentNumberIntegral && currentIntegralNumber != Integer.MIN_VALUE) {
-            return new BigDecimal(currentIntegralNumber);
+        if (isCurrentNumberExact) {
+            return BigDecimal.valueOf(currentLong(), currentNumberScale);
         }
         if (buffers == null) {
             return (fallBackCopyBufferLength > 0 ?
@@ -745,10 +776,38 @@ public class JsonParser implements Parser {
         if (previousEvent != VALUE_NUMBER.ordinal()) {
             throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support getDouble()");
         }
-        if (isCurrentNumberIntegral && currentIntegralNumber != Integer.MIN_VALUE) {
-            return currentIntegralNumber;
+        if (isCurrentNumberExact) {
+            final double value = JsonNumbers.toDouble(currentNumberMantissa, currentNumberScale, isCurrentNumberNegative);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return Double.parseDouble(getInternalString());
+    }
+
+    @Override
+    public Number getNumber(final NumberMode mode) {
+        if (previousEvent != VALUE_NUMBER.ordinal()) {
+            throw new IllegalStateException(EVT_MAP[previousEvent] + " doesn't support getNumber()");
+        }
+        if (isCurrentNumberExact && !(isCurrentNumberNegative && currentNumberMantissa == 0 /* -0 */)) {
+            switch (mode) {
+                case LONG_OR_DOUBLE:
+                    if (isCurrentNumberIntegral) {
+                        return currentLong();
+                    }
+                    return getDouble();
+                case LAZY:
+                    return new LazyNumber(currentLong(), currentNumberScale);
+                default:
+                    return getBigDecimal();
+            }
         }
-        return Double.parseDouble(getInternalString()); // todo: optimize for all the integer or just dotted forms 'fast parser'
+        return Parser.super.getNumber(mode);
+    }
+
+    private long currentLong() {
+        return isCurrentNumberNegative ? -currentNumberMantissa : currentNumberMantissa;
     }
 
     @Override
@@ -782,32 +841,6 @@ public class JsonParser implements Parser {
         cachedInternalString = null;
     }
 
-    private static Long parseLongFromChars(final char[] chars, final int start, final int end) {
-        long retVal = 0;
-        final boolean negative = chars[start] == '-';
-        for (int i = negative ? start + 1 : start; i < end; i++) {
-            final long tmp = retVal * 10 + (chars[i] - '0');
-            if (tmp < retVal) {
-                return null;
-            }
-            retVal = tmp;
-        }
-        return negative ? -retVal : retVal;
-    }
-
-    private static Integer parseIntegerFromChars(final char[] chars, final int start, final int end) {
-        int retVal = 0;
-        final boolean negative = chars[start] == '-';
-        for (int i = negative ? start + 1 : start; i < end; i++) {
-            final int tmp = retVal * 10 + (chars[i] - '0');
-            if (tmp < retVal) { //check overflow
-                return null;
-            }
-            retVal = tmp;
-        }
-        return negative ? -retVal : retVal;
-    }
-
     private IllegalStateException unexpectedChar(final String message) {
         final char c = bufferPos < 0 ? 0 : buffer[bufferPos];
         return new IllegalStateException("Unexpected character '" + c + "' (Codepoint: " + String.valueOf(c).codePointAt(0) + ") on "
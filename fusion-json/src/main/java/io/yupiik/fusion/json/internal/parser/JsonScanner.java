@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+// structural scanning of UTF-8 JSON, it only locates values (no decoding nor full validation), used by the lazy tree
+public final class JsonScanner {
+    private JsonScanner() {
+        // no-op
+    }
+
+    public static int skipWhitespaces(final byte[] data, final int from, final int end) {
+        int i = from;
+        while (i < end) {
+            final byte c = data[i];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @param data  the JSON bytes.
+     * @param start the index of the first byte of the value.
+     * @param end   the end (exclusive) of the data.
+     * @return the index following the value.
+     */
+    public static int skipValue(final byte[] data, final int start, final int end) {
+        if (start >= end) {
+            throw error(data, start, end, "Expected a value");
+        }
+        return switch (data[start]) {
+            case '"' -> skipString(data, start, end);
+            case '{', '[' -> skipStructure(data, start, end);
+            case ',', ':', '}', ']' -> throw error(data, start, end, "Expected a value");
+            default -> {
+                int i = start + 1;
+                while (i < end) {
+                    final byte c = data[i];
+                    if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                        break;
+                    }
+                    i++;
+                }
+                yield i;
+            }
+        };
+    }
+
+    /**
+     * @param data  the JSON bytes.
+     * @param start the index of the opening quote.
+     * @param end   the end (exclusive) of the data.
+     * @return the index following the closing quote.
+     */
+    public static int skipString(final byte[] data, final int start, final int end) {
+        int i = start + 1;
+        while (i < end) {
+            final byte c = data[i];
+            if (c == '"') {
+                return i + 1;
+            }
+            i += c == '\\' ? 2 : 1;
+        }
+        throw error(data, start, end, "Unclosed string");
+    }
+
+    /**
+     * @return {@code true} if the string between {@code start} and {@code end} (quotes included) has no escaping.
+     */
+    public static boolean isRawString(final byte[] data, final int start, final int end) {
+        for (int i = start + 1; i < end - 1; i++) {
+            if (data[i] == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static IllegalStateException error(final byte[] data, final int index, final int end, final String message) {
+        return new IllegalStateException(message + " at offset " + index +
+                (index < end ? " (character '" + (char) (data[index] & 0xFF) + "')" : " (end of data)"));
+    }
+
+    private static int skipStructure(final byte[] data, final int start, final int end) {
+        int depth = 0;
+        int i = start;
+        while (i < end) {
+            switch (data[i]) {
+                case '"' -> {
+                    i = skipString(data, i, end);
+                    continue;
+                }
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+                default -> {
+                    // no-op
+                }
+            }
+            i++;
+        }
+        throw error(data, start, end, "Unclosed structure");
+    }
+}
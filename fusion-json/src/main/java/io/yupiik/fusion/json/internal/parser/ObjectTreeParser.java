@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.LazyNumber;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static io.yupiik.fusion.json.spi.Parser.Event.END_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.END_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.KEY_NAME;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_FALSE;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NULL;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NUMBER;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_STRING;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_TRUE;
+
+/**
+ * Emits the parser events of an already deserialized generic JSON value
+ * ({@code Map<String, ?>}, {@code Collection<?>}, {@code String}, {@code Number}, {@code Boolean} or {@code null}).
+ * <p>
+ * It enables to bind a generic value - a JSON-RPC {@code params} entry for example - to a typed model with its codec
+ * instead of serializing it back to JSON and parsing it again, the generic value itself is still needed.
+ */
+public class ObjectTreeParser implements Parser {
+    private final Object root;
+    private boolean started;
+
+    private Iterator<?>[] iterators = new Iterator<?>[8];
+    private boolean[] maps = new boolean[8];
+    private int depth;
+    private int arrayDepth;
+    private int objectDepth;
+
+    private boolean hasPendingValue; // value of the last emitted key
+    private Object pendingValue;
+
+    private Event current;
+    private Event rewindedEvent;
+    private Object value; // current key, string or number
+
+    public ObjectTreeParser(final Object root) {
+        this.root = root;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rewindedEvent != null || hasPendingValue || depth > 0 || !started;
+    }
+
+    @Override
+    public void rewind(final Event event) {
+        rewindedEvent = event;
+    }
+
+    @Override
+    public Event next() {
+        if (rewindedEvent != null) {
+            final var event = rewindedEvent;
+            rewindedEvent = null;
+            return event;
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        if (hasPendingValue) {
+            final var next = pendingValue;
+            hasPendingValue = false;
+            pendingValue = null;
+            return current = emit(next);
+        }
+        if (depth == 0) {
+            started = true;
+            return current = emit(root);
+        }
+
+        final int level = depth - 1;
+        final var iterator = iterators[level];
+        if (!iterator.hasNext()) {
+            pop();
+            return current = maps[level] ? END_OBJECT : END_ARRAY;
+        }
+        if (maps[level]) {
+            final var entry = (Map.Entry<?, ?>) iterator.next();
+            value = String.valueOf(entry.getKey());
+            pendingValue = entry.getValue();
+            hasPendingValue = true;
+            return current = KEY_NAME;
+        }
+        return current = emit(iterator.next());
+    }
+
+    @Override
+    public String getString() {
+        if (current != KEY_NAME && current != VALUE_STRING && current != VALUE_NUMBER) {
+            throw new IllegalStateException(eventName() + " doesn't support getString()");
+        }
+        return value.toString();
+    }
+
+    @Override
+    public CharBuffer getChars() {
+        return CharBuffer.wrap(getString());
+    }
+
+    @Override
+    public void enforceNext(final Event event) {
+        if (!hasNext()) {
+            throw new IllegalStateException("Expected " + event + " stream is finished.");
+        }
+        final var next = next();
+        if (next != event) {
+            throw new IllegalStateException("Expected " + event + " but got " + next);
+        }
+    }
+
+    @Override
+    public boolean isInArray() {
+        return arrayDepth > 0;
+    }
+
+    @Override
+    public boolean isInObject() {
+        return objectDepth > 0;
+    }
+
+    @Override
+    public void skipObject() {
+        if (isInObject()) {
+            skip(true);
+        }
+    }
+
+    @Override
+    public void skipArray() {
+        if (isInArray()) {
+            skip(false);
+        }
+    }
+
+    @Override
+    public int getInt() {
+        return number("getInt()").intValue();
+    }
+
+    @Override
+    public long getLong() {
+        return number("getLong()").longValue();
+    }
+
+    @Override
+    public double getDouble() {
+        return number("getDouble()").doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        final var number = number("getBigDecimal()");
+        if (number instanceof BigDecimal bigDecimal) {
+            return bigDecimal;
+        }
+        if (number instanceof LazyNumber lazyNumber) {
+            return lazyNumber.toBigDecimal();
+        }
+        if (number instanceof BigInteger bigInteger) {
+            return new BigDecimal(bigInteger);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        final var number = number("isIntegralNumber()");
+        if (number instanceof BigDecimal bigDecimal) {
+            return bigDecimal.scale() <= 0;
+        }
+        return isIntegral(number) || number instanceof BigInteger || (number instanceof LazyNumber && Parser.super.isIntegralNumber());
+    }
+
+    @Override
+    public Number getNumber(final NumberMode mode) {
+        final var number = number("getNumber()");
+        return switch (mode) {
+            case BIG_DECIMAL -> getBigDecimal();
+            case LONG_OR_DOUBLE -> isIntegral(number) ?
+                    (Number) number.longValue() :
+                    number instanceof Double || number instanceof Float ? (Number) number.doubleValue() : Parser.super.getNumber(mode);
+            case LAZY -> number instanceof LazyNumber ? number : Parser.super.getNumber(mode);
+        };
+    }
+
+    private Event emit(final Object item) {
+        if (item == null) {
+            return VALUE_NULL;
+        }
+        if (item instanceof Boolean b) {
+            return b ? VALUE_TRUE : VALUE_FALSE;
+        }
+        if (item instanceof CharSequence || item instanceof Number) {
+            value = item;
+            return item instanceof Number ? VALUE_NUMBER : VALUE_STRING;
+        }
+        if (item instanceof Map<?, ?> map) {
+            push(map.entrySet().iterator(), true);
+            objectDepth++;
+            return START_OBJECT;
+        }
+        if (item instanceof Collection<?> collection) {
+            push(collection.iterator(), false);
+            arrayDepth++;
+            return START_ARRAY;
+        }
+        if (item instanceof Enum<?> e) {
+            value = e.name();
+            return VALUE_STRING;
+        }
+        throw new IllegalStateException("Unsupported JSON value type: '" + item.getClass().getName() + "'");
+    }
+
+    private void push(final Iterator<?> iterator, final boolean map) {
+        if (depth == iterators.length) {
+            iterators = Arrays.copyOf(iterators, depth * 2);
+            maps = Arrays.copyOf(maps, depth * 2);
+        }
+        iterators[depth] = iterator;
+        maps[depth++] = map;
+    }
+
+    private void pop() {
+        iterators[--depth] = null;
+        if (maps[depth]) {
+            objectDepth--;
+        } else {
+            arrayDepth--;
+        }
+    }
+
+    // no need to iterate, the frames up to the enclosing container of the requested type are just dropped
+    private void skip(final boolean map) {
+        hasPendingValue = false;
+        pendingValue = null;
+        while (depth > 0) {
+            final boolean isMap = maps[depth - 1];
+            pop();
+            if (isMap == map) {
+                current = map ? END_OBJECT : END_ARRAY;
+                return;
+            }
+        }
+    }
+
+    private Number number(final String method) {
+        if (current != VALUE_NUMBER) {
+            throw new IllegalStateException(eventName() + " doesn't support " + method);
+        }
+        return (Number) value;
+    }
+
+    private String eventName() {
+        return current == null ? "no event" : current.name();
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * Cache of short strings shared by the parsers so repeated keys and values (kinds, namespaces, enum like values...)
+ * return the same instance instead of allocating a new string each time.
+ * <p>
+ * It is a direct mapped table indexed by the hash of the characters: a slot keeps the last string seen for its hash
+ * and lookups/updates are plain volatile reads/writes (no lock, racing writers just overwrite each other).
+ * Memory is bounded by the number of slots times the max cached string length.
+ */
+public class StringCache {
+    private final AtomicReferenceArray<String> table;
+    private final int mask;
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param size      number of slots, rounded to a power of two.
+     * @param maxLength max length of the cached strings, longer ones are not cached.
+     */
+    public StringCache(final int size, final int maxLength) {
+        final int slots = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.table = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+        this.maxLength = maxLength;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * @return number of lookups served from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which created a string.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public String get(final char[] chars, final int offset, final int length) {
+        if (length > maxLength) {
+            return new String(chars, offset, length);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        final int index = spread(hash);
+        final var cached = table.get(index);
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == chars[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        final var value = new String(chars, offset, length);
+        table.lazySet(index, value);
+        return value;
+    }
+
+    /**
+     * @param ascii  bytes in the ASCII range only.
+     * @param offset first byte.
+     * @param length number of bytes.
+     * @return the string for these bytes.
+     */
+    public String getAscii(final byte[] ascii, final int offset, final int length) {
+        if (length > maxLength) {
+            return new String(ascii, offset, length, ISO_8859_1);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + ascii[i];
+        }
+        final int index = spread(hash);
+        final var cached = table.get(index);
+        if (cached != null && cached.length() == length) {
+            int i = 0;
+            while (i < length && cached.charAt(i) == ascii[offset + i]) {
+                i++;
+            }
+            if (i == length) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        final var value = new String(ascii, offset, length, ISO_8859_1);
+        table.lazySet(index, value);
+        return value;
+    }
+
+    private int spread(final int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,697 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.LazyNumber;
+import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static io.yupiik.fusion.json.spi.Parser.Event.END_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.END_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.KEY_NAME;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_FALSE;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NULL;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NUMBER;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_STRING;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_TRUE;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// same contract than JsonParser but works on UTF-8 bytes (no Reader/char decoding),
+// values are only located during the scan and strings are decoded when requested
+public class Utf8JsonParser implements Parser {
+    private static final byte COMMA = Byte.MAX_VALUE;
+    private static final byte COLON = Byte.MIN_VALUE;
+
+    private byte[] data;
+    private int origin;
+    private int end;
+    private final BufferProvider bufferProvider;
+    private final StringCache stringCache;
+    private int pos;
+
+    private byte previousEvent = -1;
+    private boolean[] structures = new boolean[16]; // true for arrays
+    private int depth = 0;
+    private int arrayDepth = 0;
+    private int objectDepth = 0;
+
+    private int startOfValue = -1;
+    private int endOfValue = -1;
+    private boolean escapedValue;
+    private boolean asciiValue;
+    private boolean isCurrentNumberIntegral;
+    // the number as mantissa * 10^-scale when it has at most JsonNumbers.MAX_DIGITS significant digits (exact)
+    private boolean isCurrentNumberExact;
+    private boolean isCurrentNumberNegative;
+    private long currentNumberMantissa;
+    private int currentNumberScale;
+    private String cachedString;
+
+    private char[] chars;
+    private boolean releaseChars;
+    private boolean closed;
+
+    // for wrappers mainly
+    private Event rewindedEvent;
+
+    public Utf8JsonParser(final ByteBuffer buffer, final BufferProvider bufferProvider) {
+        this(buffer, bufferProvider, null);
+    }
+
+    public Utf8JsonParser(final ByteBuffer buffer, final BufferProvider bufferProvider, final StringCache stringCache) {
+        this(
+                buffer.hasArray() ? buffer.array() : copy(buffer),
+                buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0,
+                buffer.remaining(),
+                bufferProvider,
+                stringCache);
+    }
+
+    public Utf8JsonParser(final byte[] data, final BufferProvider bufferProvider) {
+        this(data, 0, data.length, bufferProvider);
+    }
+
+    public Utf8JsonParser(final byte[] data, final int offset, final int length, final BufferProvider bufferProvider) {
+        this(data, offset, length, bufferProvider, null);
+    }
+
+    /**
+     * @param stringCache optional cache for short strings (keys and values), can be {@code null}.
+     */
+    public Utf8JsonParser(final byte[] data, final int offset, final int length, final BufferProvider bufferProvider,
+                          final StringCache stringCache) {
+        this.data = data;
+        this.origin = offset;
+        this.pos = offset;
+        this.end = offset + length;
+        this.bufferProvider = bufferProvider;
+        this.stringCache = stringCache;
+    }
+
+    // enables to reuse the instance (and its buffer) on another slice, used by Utf8PushParser to decode its values
+    void reset(final byte[] data, final int offset, final int length) {
+        this.data = data;
+        this.origin = offset;
+        this.pos = offset;
+        this.end = offset + length;
+        this.previousEvent = -1;
+        this.depth = 0;
+        this.arrayDepth = 0;
+        this.objectDepth = 0;
+        this.cachedString = null;
+        this.rewindedEvent = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (rewindedEvent != null || depth > 0) {
+            return true;
+        }
+        if (previousEvent == -1) { // check we don't have an empty document
+            return skipWhitespaces() < end;
+        }
+
+        // detect garbage at the end of the document after last value is closed
+        if (skipWhitespaces() < end) {
+            throw unexpectedChar(pos, "EOF expected");
+        }
+        return false;
+    }
+
+    @Override
+    public void rewind(final Event event) {
+        rewindedEvent = event;
+    }
+
+    @Override
+    public Event next() {
+        if (rewindedEvent != null) {
+            final var event = rewindedEvent;
+            rewindedEvent = null;
+            return event;
+        }
+
+        if (depth == 0 && !hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        cachedString = null;
+        while (true) {
+            if (skipWhitespaces() >= end) {
+                throw unexpectedChar(end, "End of file hit too early");
+            }
+
+            final int c = data[pos++];
+            switch (c) {
+                case ',' -> {
+                    if (depth == 0 || previousEvent == COMMA || previousEvent == COLON ||
+                            previousEvent == START_ARRAY.ordinal() || previousEvent == START_OBJECT.ordinal() ||
+                            previousEvent == KEY_NAME.ordinal()) {
+                        throw unexpectedChar(pos - 1, "Expected \" ] } LITERAL");
+                    }
+                    previousEvent = COMMA;
+                }
+                case ':' -> {
+                    if (previousEvent != KEY_NAME.ordinal()) {
+                        throw unexpectedChar(pos - 1, "A : can only follow a key name");
+                    }
+                    previousEvent = COLON;
+                }
+                case '{' -> {
+                    return handleStartStructure(false);
+                }
+                case '[' -> {
+                    return handleStartStructure(true);
+                }
+                case '}' -> {
+                    return handleEndStructure(false);
+                }
+                case ']' -> {
+                    return handleEndStructure(true);
+                }
+                case '"' -> {
+                    return handleQuote();
+                }
+                case 't' -> {
+                    return handleLiteral("true", VALUE_TRUE);
+                }
+                case 'f' -> {
+                    return handleLiteral("false", VALUE_FALSE);
+                }
+                case 'n' -> {
+                    return handleLiteral("null", VALUE_NULL);
+                }
+                case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    ensureValueAllowed();
+                    readNumber();
+                    return EVT_MAP[previousEvent = (byte) VALUE_NUMBER.ordinal()];
+                }
+                default -> throw unexpectedChar(pos - 1, "Expected structural character or digit or 't' or 'n' or 'f' or '-'");
+            }
+        }
+    }
+
+    @Override
+    public String getString() {
+        if (previousEvent != KEY_NAME.ordinal() && previousEvent != VALUE_STRING.ordinal() && previousEvent != VALUE_NUMBER.ordinal()) {
+            throw new IllegalStateException(eventName() + " doesn't support getString()");
+        }
+        if (cachedString != null) {
+            return cachedString;
+        }
+        if (!escapedValue) {
+            cachedString = stringCache != null && asciiValue ?
+                    stringCache.getAscii(data, startOfValue, endOfValue - startOfValue) :
+                    new String(data, startOfValue, endOfValue - startOfValue, asciiValue ? ISO_8859_1 : UTF_8);
+        } else {
+            final var out = chars(endOfValue - startOfValue);
+            final int length = decode(out);
+            cachedString = stringCache != null ? stringCache.get(out, 0, length) : new String(out, 0, length);
+        }
+        return cachedString;
+    }
+
+    @Override
+    public CharBuffer getChars() {
+        if (previousEvent != KEY_NAME.ordinal() && previousEvent != VALUE_STRING.ordinal() && previousEvent != VALUE_NUMBER.ordinal()) {
+            throw new IllegalStateException(eventName() + " doesn't support getChars()");
+        }
+        final int length = endOfValue - startOfValue;
+        final var out = chars(length);
+        if (asciiValue && !escapedValue) {
+            for (int i = 0; i < length; i++) {
+                out[i] = (char) data[startOfValue + i];
+            }
+            return CharBuffer.wrap(out, 0, length);
+        }
+        return CharBuffer.wrap(out, 0, decode(out));
+    }
+
+    @Override
+    public void enforceNext(final Event event) {
+        if (!hasNext()) {
+            throw new IllegalStateException("Expected " + event + " stream is finished.");
+        }
+        final var next = next();
+        if (next != event) {
+            throw new IllegalStateException("Expected " + event + " but got " + next);
+        }
+    }
+
+    @Override
+    public boolean isInArray() {
+        return arrayDepth > 0;
+    }
+
+    @Override
+    public boolean isInObject() {
+        return objectDepth > 0;
+    }
+
+    @Override
+    public void skipObject() {
+        if (isInObject()) {
+            skip(START_OBJECT, END_OBJECT);
+        }
+    }
+
+    @Override
+    public void skipArray() {
+        if (isInArray()) {
+            skip(START_ARRAY, END_ARRAY);
+        }
+    }
+
+    @Override
+    public int getInt() {
+        ensureNumber("getInt()");
+        if (isCurrentNumberIntegral && isCurrentNumberExact) {
+            return (int) currentLong();
+        }
+        return getBigDecimal().intValue();
+    }
+
+    @Override
+    public long getLong() {
+        ensureNumber("getLong()");
+        if (isCurrentNumberIntegral && isCurrentNumberExact) {
+            return currentLong();
+        }
+        return getBigDecimal().longValue();
+    }
+
+    @Override
+    public double getDouble() {
+        ensureNumber("getDouble()");
+        if (isCurrentNumberExact) {
+            final double value = JsonNumbers.toDouble(currentNumberMantissa, currentNumberScale, isCurrentNumberNegative);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return Double.parseDouble(getString());
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        ensureNumber("getBigDecimal()");
+        if (isCurrentNumberExact) {
+            return BigDecimal.valueOf(currentLong(), currentNumberScale);
+        }
+        final var value = getChars();
+        return new BigDecimal(value.array(), 0, value.limit(), MathContext.UNLIMITED);
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        ensureNumber("isIntegralNumber()");
+        return isCurrentNumberIntegral;
+    }
+
+    @Override
+    public Number getNumber(final NumberMode mode) {
+        ensureNumber("getNumber()");
+        if (isCurrentNumberExact && !(isCurrentNumberNegative && currentNumberMantissa == 0 /* -0 */)) {
+            switch (mode) {
+                case LONG_OR_DOUBLE:
+                    if (isCurrentNumberIntegral) {
+                        return currentLong();
+                    }
+                    return getDouble();
+                case LAZY:
+                    return new LazyNumber(currentLong(), currentNumberScale);
+                default:
+                    return getBigDecimal();
+            }
+        }
+        return Parser.super.getNumber(mode);
+    }
+
+    private long currentLong() {
+        return isCurrentNumberNegative ? -currentNumberMantissa : currentNumberMantissa;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (releaseChars) {
+            bufferProvider.release(chars);
+        }
+        chars = null;
+        cachedString = null;
+    }
+
+    private Event handleStartStructure(final boolean array) {
+        ensureValueAllowed();
+        if (depth == structures.length) {
+            structures = Arrays.copyOf(structures, depth * 2);
+        }
+        structures[depth++] = array;
+        if (array) {
+            arrayDepth++;
+            return EVT_MAP[previousEvent = (byte) START_ARRAY.ordinal()];
+        }
+        objectDepth++;
+        return EVT_MAP[previousEvent = (byte) START_OBJECT.ordinal()];
+    }
+
+    private Event handleEndStructure(final boolean array) {
+        if (depth == 0 || structures[depth - 1] != array ||
+                previousEvent == COMMA || previousEvent == COLON || previousEvent == KEY_NAME.ordinal()) {
+            throw unexpectedChar(pos - 1, array ? "Expected [ ] } \" LITERAL" : "Expected \" ] { } LITERAL");
+        }
+        depth--;
+        if (array) {
+            arrayDepth--;
+            return EVT_MAP[previousEvent = (byte) END_ARRAY.ordinal()];
+        }
+        objectDepth--;
+        return EVT_MAP[previousEvent = (byte) END_OBJECT.ordinal()];
+    }
+
+    private Event handleQuote() {
+        if (depth > 0 && !structures[depth - 1] && (previousEvent == START_OBJECT.ordinal() || previousEvent == COMMA)) {
+            readString();
+            return EVT_MAP[previousEvent = (byte) KEY_NAME.ordinal()];
+        }
+        ensureValueAllowed();
+        readString();
+        return EVT_MAP[previousEvent = (byte) VALUE_STRING.ordinal()];
+    }
+
+    private Event handleLiteral(final String literal, final Event event) {
+        ensureValueAllowed();
+        final int length = literal.length();
+        if (pos - 1 + length > end) {
+            throw unexpectedChar(end, "Expected LITERAL: " + literal);
+        }
+        for (int i = 1; i < length; i++) {
+            if (data[pos - 1 + i] != literal.charAt(i)) {
+                throw unexpectedChar(pos - 1 + i, "Expected LITERAL: " + literal);
+            }
+        }
+        pos += length - 1;
+        return EVT_MAP[previousEvent = (byte) event.ordinal()];
+    }
+
+    private void ensureValueAllowed() {
+        if (previousEvent == -1 || previousEvent == COLON || previousEvent == START_ARRAY.ordinal() ||
+                (previousEvent == COMMA && structures[depth - 1])) {
+            return;
+        }
+        throw unexpectedChar(pos - 1, depth > 0 && !structures[depth - 1] ? "Expected :" : "Expected : , [");
+    }
+
+    private void readString() {
+        final int start = pos;
+        boolean escaped = false;
+        boolean ascii = true;
+        int i = pos;
+        while (true) {
+            if (i >= end) {
+                throw unexpectedChar(end, "End of file hit too early");
+            }
+            final int b = data[i];
+            if (b == '"') {
+                break;
+            }
+            if (b < 0) { // multi-bytes UTF-8 character, decoded lazily
+                ascii = false;
+            } else if (b <= '\u001F') {
+                throw unexpectedChar(i, b == '\n' ? "Unexpected linebreak" : "Unescaped control character");
+            } else if (b == '\\') {
+                escaped = true;
+                if (++i >= end) {
+                    throw unexpectedChar(end, "End of file hit too early");
+                }
+                if (data[i] == 'u') {
+                    if (i + 4 >= end) {
+                        throw unexpectedChar(end, "End of file hit too early");
+                    }
+                    for (int h = 1; h <= 4; h++) {
+                        parseHexDigit(i + h);
+                    }
+                    i += 4;
+                } else {
+                    JsonStrings.asEscapedChar((char) (data[i] & 0xFF)); // validates it
+                }
+            }
+            i++;
+        }
+        startOfValue = start;
+        endOfValue = i;
+        escapedValue = escaped;
+        asciiValue = ascii;
+        pos = i + 1;
+    }
+
+    private void readNumber() {
+        final int start = pos - 1;
+        int i = start;
+        final boolean negative = data[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i >= end || !isAsciiDigit(data[i])) {
+            throw unexpectedChar(Math.min(i, end), "Unexpected premature end of number");
+        }
+
+        final int integerStart = i;
+        long mantissa = 0;
+        int scale = 0;
+        boolean exact = true;
+        while (i < end && isAsciiDigit(data[i])) {
+            if (i - integerStart < JsonNumbers.MAX_DIGITS) {
+                mantissa = mantissa * 10 + (data[i] - '0');
+            } else {
+                exact = false;
+            }
+            i++;
+        }
+        final int integerDigits = i - integerStart;
+        if (integerDigits > 1 && data[integerStart] == '0') {
+            throw unexpectedChar(integerStart + 1, negative ? "Leading zeros after minus not allowed" : "Leading zeros not allowed");
+        }
+
+        boolean integral = true;
+        if (i < end && data[i] == '.') {
+            integral = false;
+            final int fractionStart = ++i;
+            int digits = integerDigits;
+            while (i < end && isAsciiDigit(data[i])) {
+                if (exact && digits < JsonNumbers.MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (data[i] - '0');
+                    digits++;
+                    scale++;
+                } else {
+                    exact = false;
+                }
+                i++;
+            }
+            if (i == fractionStart) {
+                throw unexpectedChar(Math.min(i, end), "Unexpected premature end of number");
+            }
+        }
+        if (i < end && (data[i] == 'e' || data[i] == 'E')) {
+            integral = false;
+            i++;
+            final boolean negativeExponent = i < end && data[i] == '-';
+            if (i < end && (data[i] == '-' || data[i] == '+')) {
+                i++;
+            }
+            final int exponentStart = i;
+            int exponent = 0;
+            while (i < end && isAsciiDigit(data[i])) {
+                if (exponent < 100_000) {
+                    exponent = exponent * 10 + (data[i] - '0');
+                } else {
+                    exact = false;
+                }
+                i++;
+            }
+            if (i == exponentStart) {
+                throw unexpectedChar(Math.min(i, end), "Unexpected premature end of number");
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+        if (i < end) {
+            final int next = data[i];
+            if (next != ',' && next != ']' && next != '}' && next != ' ' && next != '\n' && next != '\t' && next != '\r') {
+                throw unexpectedChar(i, "Unexpected premature end of number");
+            }
+        }
+
+        startOfValue = start;
+        endOfValue = i;
+        escapedValue = false;
+        asciiValue = true;
+        isCurrentNumberIntegral = integral;
+        isCurrentNumberExact = exact;
+        isCurrentNumberNegative = negative;
+        currentNumberMantissa = mantissa;
+        currentNumberScale = scale;
+        pos = i;
+    }
+
+    // decodes current value (escaping + UTF-8) in out which must be at least of the byte length of the value
+    private int decode(final char[] out) {
+        int o = 0;
+        int i = startOfValue;
+        while (i < endOfValue) {
+            final int b = data[i];
+            if (b >= 0) {
+                if (b == '\\') {
+                    final char escaped = (char) data[i + 1];
+                    if (escaped == 'u') {
+                        out[o++] = (char) ((parseHexDigit(i + 2) << 12) + (parseHexDigit(i + 3) << 8) +
+                                (parseHexDigit(i + 4) << 4) + parseHexDigit(i + 5));
+                        i += 6;
+                    } else {
+                        out[o++] = JsonStrings.asEscapedChar(escaped);
+                        i += 2;
+                    }
+                } else {
+                    out[o++] = (char) b;
+                    i++;
+                }
+                continue;
+            }
+
+            final int b0 = b & 0xFF;
+            if ((b0 & 0xE0) == 0xC0 && isContinuation(i + 1)) {
+                out[o++] = (char) (((b0 & 0x1F) << 6) | (data[i + 1] & 0x3F));
+                i += 2;
+            } else if ((b0 & 0xF0) == 0xE0 && isContinuation(i + 1) && isContinuation(i + 2)) {
+                out[o++] = (char) (((b0 & 0x0F) << 12) | ((data[i + 1] & 0x3F) << 6) | (data[i + 2] & 0x3F));
+                i += 3;
+            } else if ((b0 & 0xF8) == 0xF0 && isContinuation(i + 1) && isContinuation(i + 2) && isContinuation(i + 3)) {
+                final int codePoint = ((b0 & 0x07) << 18) | ((data[i + 1] & 0x3F) << 12) |
+                        ((data[i + 2] & 0x3F) << 6) | (data[i + 3] & 0x3F);
+                out[o++] = Character.highSurrogate(codePoint);
+                out[o++] = Character.lowSurrogate(codePoint);
+                i += 4;
+            } else { // malformed, same as a decoder with REPLACE action
+                out[o++] = '\uFFFD';
+                i++;
+            }
+        }
+        return o;
+    }
+
+    private boolean isContinuation(final int index) {
+        return index < endOfValue && (data[index] & 0xC0) == 0x80;
+    }
+
+    private char[] chars(final int length) {
+        if (chars == null) {
+            chars = bufferProvider.newBuffer();
+            releaseChars = true;
+        }
+        if (chars.length < length) {
+            if (releaseChars) {
+                bufferProvider.release(chars);
+            }
+            chars = bufferProvider.newBuffer(Math.max(length, chars.length * 2));
+            releaseChars = true;
+        }
+        return chars;
+    }
+
+    private int skipWhitespaces() {
+        while (pos < end) {
+            final byte c = data[pos];
+            if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private void skip(final Event start, final Event end) {
+        int level = 1;
+        do {
+            final var event = next();
+            if (event == start) {
+                level++;
+            } else if (event == end) {
+                level--;
+            }
+        } while (level > 0 && hasNext());
+    }
+
+    private void ensureNumber(final String method) {
+        if (previousEvent != VALUE_NUMBER.ordinal()) {
+            throw new IllegalStateException(eventName() + " doesn't support " + method);
+        }
+    }
+
+    private String eventName() {
+        return previousEvent >= 0 && previousEvent < EVT_MAP.length ? EVT_MAP[previousEvent].name() : "no event";
+    }
+
+    private int parseHexDigit(final int index) {
+        final int value = data[index];
+        if (isAsciiDigit(value)) {
+            return value - 48;
+        }
+        if (value <= 'f' && value >= 'a') {
+            return value - 87;
+        }
+        if (value <= 'F' && value >= 'A') {
+            return value - 55;
+        }
+        throw unexpectedChar(index, "Invalid hex character");
+    }
+
+    private static boolean isAsciiDigit(final int value) {
+        return value <= '9' && value >= '0';
+    }
+
+    private IllegalStateException unexpectedChar(final int index, final String message) {
+        final char c = index < end ? (char) (data[index] & 0xFF) : 0;
+        long line = 1;
+        int lastLineBreak = origin - 1;
+        for (int i = origin; i < index && i < end; i++) { // only computed in error case
+            if (data[i] == '\n') {
+                line++;
+                lastLineBreak = i;
+            }
+        }
+        return new IllegalStateException("Unexpected character '" + c + "' (Codepoint: " + (int) c + ") on " +
+                "currentLine=" + line + ",column=" + (index - lastLineBreak) + ",byteOffset=" + (index - origin) +
+                ". Reason is [[" + message + "]]");
+    }
+
+    private static byte[] copy(final ByteBuffer buffer) {
+        final var out = new byte[buffer.remaining()];
+        buffer.duplicate().get(out);
+        return out;
+    }
+}
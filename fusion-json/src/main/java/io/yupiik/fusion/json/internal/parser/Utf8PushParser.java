@@ -0,0 +1,566 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.json.spi.Parser;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static io.yupiik.fusion.json.spi.Parser.Event.END_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.END_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.KEY_NAME;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_ARRAY;
+import static io.yupiik.fusion.json.spi.Parser.Event.START_OBJECT;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_FALSE;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NULL;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_NUMBER;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_STRING;
+import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_TRUE;
+
+/**
+ * A push parser: UTF-8 chunks are given with {@link #feed(ByteBuffer)} as they arrive and {@link #endOfInput()} ends the document.
+ * <p>
+ * Each chunk is tokenized and validated when fed - a token split between two chunks is resumed when the next one arrives -
+ * and the resulting events are queued, they are then read with the {@link Parser} methods.
+ * Bytes are compacted on feed so only the bytes of the not yet consumed events are retained,
+ * strings and numbers are decoded when requested as with {@link Utf8JsonParser}.
+ * <p>
+ * {@link #needsInput()} tells if a new chunk is required to get the next event, calling {@link #next()} in this state fails.
+ * The instance is not thread safe.
+ */
+public class Utf8PushParser implements Parser {
+    private static final byte COMMA = Byte.MAX_VALUE;
+    private static final byte COLON = Byte.MIN_VALUE;
+
+    private final Utf8JsonParser values;
+    private byte[] buffer;
+    private int length;
+    private long discarded; // bytes dropped by compactions, for error messages
+
+    // tokenizer state
+    private int scan;
+    private int pendingStart = -1; // start of a token split between chunks
+    private int pendingScan; // where to resume a pending string
+    private byte previousToken = -1;
+    private boolean[] structures = new boolean[16]; // true for arrays
+    private int depth;
+    private boolean complete;
+    private boolean ended;
+
+    // queued events
+    private byte[] events = new byte[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int head;
+    private int tail;
+
+    // current event
+    private Event current;
+    private int currentStart = -1;
+    private int currentEnd;
+    private boolean valueLoaded;
+    private int arrayDepth;
+    private int objectDepth;
+    private Event rewindedEvent;
+
+    public Utf8PushParser(final BufferProvider bufferProvider) {
+        this(8 * 1024, bufferProvider);
+    }
+
+    public Utf8PushParser(final int initialCapacity, final BufferProvider bufferProvider) {
+        this(initialCapacity, bufferProvider, null);
+    }
+
+    public Utf8PushParser(final int initialCapacity, final BufferProvider bufferProvider, final StringCache stringCache) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+        this.values = new Utf8JsonParser(buffer, 0, 0, bufferProvider, stringCache);
+    }
+
+    /**
+     * Appends a chunk of the document and tokenizes it.
+     *
+     * @param chunk the bytes to append (from its position to its limit), it is consumed.
+     */
+    public void feed(final ByteBuffer chunk) {
+        if (ended) {
+            throw new IllegalStateException("Input already ended");
+        }
+        final int size = chunk.remaining();
+        if (length + size > buffer.length) {
+            compact();
+            if (length + size > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(length + size, buffer.length << 1));
+                valueLoaded = false;
+            }
+        }
+        chunk.get(buffer, length, size);
+        length += size;
+        tokenize();
+    }
+
+    /**
+     * Marks the end of the document, it fails if the document is incomplete.
+     */
+    public void endOfInput() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        tokenize();
+        if (!complete && previousToken != -1) {
+            throw unexpectedChar(length, "End of file hit too early");
+        }
+    }
+
+    /**
+     * @return {@code true} if there is no queued event and the document is not complete so a chunk must be fed.
+     */
+    public boolean needsInput() {
+        return rewindedEvent == null && head == tail && !complete && !ended;
+    }
+
+    /**
+     * @return {@code true} when the root value is fully tokenized, i.e. all its events are queued.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rewindedEvent != null || head < tail || (!complete && !ended);
+    }
+
+    @Override
+    public void rewind(final Event event) {
+        rewindedEvent = event;
+    }
+
+    @Override
+    public Event next() {
+        if (rewindedEvent != null) {
+            final var event = rewindedEvent;
+            rewindedEvent = null;
+            return event;
+        }
+        if (head == tail) {
+            if (needsInput()) {
+                throw new IllegalStateException("No event available, more input must be fed");
+            }
+            throw new NoSuchElementException();
+        }
+
+        current = EVT_MAP[events[head]];
+        valueLoaded = false;
+        switch (current) {
+            case KEY_NAME, VALUE_STRING, VALUE_NUMBER -> {
+                currentStart = starts[head];
+                currentEnd = ends[head];
+            }
+            case START_ARRAY -> {
+                arrayDepth++;
+                currentStart = -1;
+            }
+            case START_OBJECT -> {
+                objectDepth++;
+                currentStart = -1;
+            }
+            case END_ARRAY -> {
+                arrayDepth--;
+                currentStart = -1;
+            }
+            case END_OBJECT -> {
+                objectDepth--;
+                currentStart = -1;
+            }
+            default -> currentStart = -1;
+        }
+        if (++head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return current;
+    }
+
+    @Override
+    public String getString() {
+        return value("getString()").getString();
+    }
+
+    @Override
+    public CharBuffer getChars() {
+        return value("getChars()").getChars();
+    }
+
+    @Override
+    public void enforceNext(final Event event) {
+        if (!hasNext()) {
+            throw new IllegalStateException("Expected " + event + " stream is finished.");
+        }
+        final var next = next();
+        if (next != event) {
+            throw new IllegalStateException("Expected " + event + " but got " + next);
+        }
+    }
+
+    @Override
+    public boolean isInArray() {
+        return arrayDepth > 0;
+    }
+
+    @Override
+    public boolean isInObject() {
+        return objectDepth > 0;
+    }
+
+    @Override
+    public void skipObject() {
+        if (isInObject()) {
+            skip(START_OBJECT, END_OBJECT);
+        }
+    }
+
+    @Override
+    public void skipArray() {
+        if (isInArray()) {
+            skip(START_ARRAY, END_ARRAY);
+        }
+    }
+
+    @Override
+    public int getInt() {
+        return value("getInt()").getInt();
+    }
+
+    @Override
+    public long getLong() {
+        return value("getLong()").getLong();
+    }
+
+    @Override
+    public double getDouble() {
+        return value("getDouble()").getDouble();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal() {
+        return value("getBigDecimal()").getBigDecimal();
+    }
+
+    @Override
+    public boolean isIntegralNumber() {
+        return value("isIntegralNumber()").isIntegralNumber();
+    }
+
+    @Override
+    public Number getNumber(final NumberMode mode) {
+        return value("getNumber()").getNumber(mode);
+    }
+
+    @Override
+    public void close() {
+        values.close();
+    }
+
+    private Utf8JsonParser value(final String method) {
+        if (currentStart < 0) {
+            throw new IllegalStateException((current == null ? "no event" : current.name()) + " doesn't support " + method);
+        }
+        if (!valueLoaded) {
+            values.reset(buffer, currentStart, currentEnd - currentStart);
+            values.next();
+            valueLoaded = true;
+        }
+        return values;
+    }
+
+    private void skip(final Event start, final Event end) {
+        int level = 1;
+        do {
+            final var event = next();
+            if (event == start) {
+                level++;
+            } else if (event == end) {
+                level--;
+            }
+        } while (level > 0 && hasNext());
+    }
+
+    private void tokenize() {
+        while (true) {
+            while (scan < length) {
+                final byte c = buffer[scan];
+                if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+                    break;
+                }
+                scan++;
+            }
+            if (scan >= length) {
+                return;
+            }
+            if (complete) {
+                throw unexpectedChar(scan, "EOF expected");
+            }
+
+            final int start = scan;
+            switch (buffer[start]) {
+                case ',' -> {
+                    if (depth == 0 || previousToken == COMMA || previousToken == COLON ||
+                            previousToken == START_ARRAY.ordinal() || previousToken == START_OBJECT.ordinal() ||
+                            previousToken == KEY_NAME.ordinal()) {
+                        throw unexpectedChar(start, "Expected \" ] } LITERAL");
+                    }
+                    previousToken = COMMA;
+                    scan++;
+                }
+                case ':' -> {
+                    if (previousToken != KEY_NAME.ordinal()) {
+                        throw unexpectedChar(start, "A : can only follow a key name");
+                    }
+                    previousToken = COLON;
+                    scan++;
+                }
+                case '{' -> startStructure(start, false);
+                case '[' -> startStructure(start, true);
+                case '}' -> endStructure(start, false);
+                case ']' -> endStructure(start, true);
+                case '"' -> {
+                    if (!readString(start)) {
+                        return;
+                    }
+                }
+                case 't' -> {
+                    if (!readLiteral(start, "true", VALUE_TRUE)) {
+                        return;
+                    }
+                }
+                case 'f' -> {
+                    if (!readLiteral(start, "false", VALUE_FALSE)) {
+                        return;
+                    }
+                }
+                case 'n' -> {
+                    if (!readLiteral(start, "null", VALUE_NULL)) {
+                        return;
+                    }
+                }
+                case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    if (!readNumber(start)) {
+                        return;
+                    }
+                }
+                default -> throw unexpectedChar(start, "Expected structural character or digit or 't' or 'n' or 'f' or '-'");
+            }
+        }
+    }
+
+    private void startStructure(final int start, final boolean array) {
+        ensureValueAllowed(start);
+        if (depth == structures.length) {
+            structures = Arrays.copyOf(structures, depth * 2);
+        }
+        structures[depth++] = array;
+        emit(array ? START_ARRAY : START_OBJECT, start, start + 1);
+    }
+
+    private void endStructure(final int start, final boolean array) {
+        if (depth == 0 || structures[depth - 1] != array ||
+                previousToken == COMMA || previousToken == COLON || previousToken == KEY_NAME.ordinal()) {
+            throw unexpectedChar(start, array ? "Expected [ ] } \" LITERAL" : "Expected \" ] { } LITERAL");
+        }
+        depth--;
+        emit(array ? END_ARRAY : END_OBJECT, start, start + 1);
+    }
+
+    // returns false if the string is not yet complete, scanning is then resumed where it stopped
+    private boolean readString(final int start) {
+        final boolean key = depth > 0 && !structures[depth - 1] &&
+                (previousToken == START_OBJECT.ordinal() || previousToken == COMMA);
+        if (!key) {
+            ensureValueAllowed(start);
+        }
+
+        int i = pendingStart == start ? pendingScan : start + 1;
+        while (true) {
+            if (i >= length) {
+                return incomplete(start, i);
+            }
+            final int b = buffer[i];
+            if (b == '"') {
+                break;
+            }
+            if (b >= 0 && b <= '\u001F') {
+                throw unexpectedChar(i, b == '\n' ? "Unexpected linebreak" : "Unescaped control character");
+            }
+            if (b == '\\') {
+                if (i + 1 >= length) {
+                    return incomplete(start, i);
+                }
+                if (buffer[i + 1] == 'u') {
+                    if (i + 5 >= length) {
+                        return incomplete(start, i);
+                    }
+                    for (int h = 2; h <= 5; h++) {
+                        ensureHexDigit(i + h);
+                    }
+                    i += 6;
+                } else {
+                    JsonStrings.asEscapedChar((char) (buffer[i + 1] & 0xFF)); // validates it
+                    i += 2;
+                }
+                continue;
+            }
+            i++;
+        }
+        emit(key ? KEY_NAME : VALUE_STRING, start, i + 1);
+        return true;
+    }
+
+    private boolean readLiteral(final int start, final String literal, final Event event) {
+        ensureValueAllowed(start);
+        final int literalLength = literal.length();
+        final int available = Math.min(length - start, literalLength);
+        for (int i = 1; i < available; i++) { // fail fast even if the literal is split
+            if (buffer[start + i] != literal.charAt(i)) {
+                throw unexpectedChar(start + i, "Expected LITERAL: " + literal);
+            }
+        }
+        if (available < literalLength) {
+            return incomplete(start, start);
+        }
+        emit(event, start, start + literalLength);
+        return true;
+    }
+
+    // a number is only complete when followed by another byte or the end of input
+    private boolean readNumber(final int start) {
+        ensureValueAllowed(start);
+        int i = start;
+        while (i < length) {
+            final byte b = buffer[i];
+            if (!((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E')) {
+                break;
+            }
+            i++;
+        }
+        if (i == length && !ended) {
+            return incomplete(start, start);
+        }
+
+        values.reset(buffer, start, i - start); // validates the number
+        values.next();
+        valueLoaded = false;
+        emit(VALUE_NUMBER, start, i);
+        return true;
+    }
+
+    private boolean incomplete(final int start, final int resumeAt) {
+        if (ended) {
+            throw unexpectedChar(length, "End of file hit too early");
+        }
+        pendingStart = start;
+        pendingScan = resumeAt;
+        return false;
+    }
+
+    private void ensureValueAllowed(final int index) {
+        if (previousToken == -1 || previousToken == COLON || previousToken == START_ARRAY.ordinal() ||
+                (previousToken == COMMA && structures[depth - 1])) {
+            return;
+        }
+        throw unexpectedChar(index, depth > 0 && !structures[depth - 1] ? "Expected :" : "Expected : , [");
+    }
+
+    private void emit(final Event event, final int start, final int end) {
+        if (tail == events.length) {
+            if (head > 0) {
+                System.arraycopy(events, head, events, 0, tail - head);
+                System.arraycopy(starts, head, starts, 0, tail - head);
+                System.arraycopy(ends, head, ends, 0, tail - head);
+                tail -= head;
+                head = 0;
+            } else {
+                events = Arrays.copyOf(events, tail * 2);
+                starts = Arrays.copyOf(starts, tail * 2);
+                ends = Arrays.copyOf(ends, tail * 2);
+            }
+        }
+        events[tail] = (byte) event.ordinal();
+        starts[tail] = start;
+        ends[tail] = end;
+        tail++;
+
+        previousToken = (byte) event.ordinal();
+        pendingStart = -1;
+        scan = end;
+        if (depth == 0) {
+            complete = true;
+        }
+    }
+
+    // drops the bytes before the current value, the queued events and the pending token
+    private void compact() {
+        final int keep;
+        if (currentStart >= 0) {
+            keep = currentStart;
+        } else if (head < tail) {
+            keep = starts[head];
+        } else if (pendingStart >= 0) {
+            keep = pendingStart;
+        } else {
+            keep = scan;
+        }
+        if (keep == 0) {
+            return;
+        }
+
+        System.arraycopy(buffer, keep, buffer, 0, length - keep);
+        length -= keep;
+        scan -= keep;
+        discarded += keep;
+        if (pendingStart >= 0) {
+            pendingStart -= keep;
+            pendingScan -= keep;
+        }
+        for (int i = head; i < tail; i++) {
+            starts[i] -= keep;
+            ends[i] -= keep;
+        }
+        if (currentStart >= 0) {
+            currentStart -= keep;
+            currentEnd -= keep;
+        }
+        valueLoaded = false;
+    }
+
+    private void ensureHexDigit(final int index) {
+        final int value = buffer[index];
+        if (!((value >= '0' && value <= '9') || (value >= 'a' && value <= 'f') || (value >= 'A' && value <= 'F'))) {
+            throw unexpectedChar(index, "Invalid hex character");
+        }
+    }
+
+    private IllegalStateException unexpectedChar(final int index, final String message) {
+        final char c = index < length ? (char) (buffer[index] & 0xFF) : 0;
+        return new IllegalStateException("Unexpected character '" + c + "' (Codepoint: " + (int) c + ") on " +
+                "byteOffset=" + (discarded + index) + ". Reason is [[" + message + "]]");
+    }
+}
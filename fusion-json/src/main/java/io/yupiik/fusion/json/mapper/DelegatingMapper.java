@@ -20,6 +20,11 @@ import io.yupiik.fusion.json.JsonMapper;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 public class DelegatingMapper implements JsonMapper {
     private final JsonMapper mapper;
@@ -53,6 +58,11 @@ public class DelegatingMapper implements JsonMapper {
         return mapper.fromString(type, string);
     }
 
+    @Override
+    public <A> A fromObject(final Type type, final Object value) {
+        return mapper.fromObject(type, value);
+    }
+
     @Override
     public <A> String toString(final A instance) {
         return mapper.toString(instance);
@@ -73,6 +83,31 @@ public class DelegatingMapper implements JsonMapper {
         return mapper.read(type, reader);
     }
 
+    @Override
+    public <A> A read(final Type type, final ByteBuffer bytes) {
+        return mapper.read(type, bytes);
+    }
+
+    @Override
+    public <A> CompletionStage<A> readAsync(final Type type, final Flow.Publisher<ByteBuffer> publisher) {
+        return mapper.readAsync(type, publisher);
+    }
+
+    @Override
+    public <A> Stream<A> readArray(final Type type, final Reader reader) {
+        return mapper.readArray(type, reader);
+    }
+
+    @Override
+    public <A> void writeArray(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        mapper.writeArray(type, items, writer, flushEvery);
+    }
+
+    @Override
+    public <A> void writeNdjson(final Type type, final Iterator<? extends A> items, final Writer writer, final int flushEvery) {
+        mapper.writeNdjson(type, items, writer, flushEvery);
+    }
+
     @Override
     public void close() {
         mapper.close();
@@ -17,8 +17,12 @@ package io.yupiik.fusion.json.patch;
 
 import io.yupiik.fusion.json.pointer.GenericJsonPointer;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * JSON-Patch implementation intended to work with generic types
@@ -33,22 +37,49 @@ public class GenericJsonPatch implements Function<Object, Object> {
                 .toList();
     }
 
+    /**
+     * Applies the patch without modifying {@code o}: containers touched by the operations are copied once
+     * (whatever the number of operations) and untouched subtrees are shared with the returned document.
+     *
+     * @param o the document to patch.
+     * @return the patched document.
+     */
     @Override
     public Object apply(final Object o) {
+        final var writable = GenericJsonPointer.copyOnWrite();
         Object current = o;
         for (final var operation : operations) {
-            current = doApply(operation, current);
+            current = doApply(operation, current, writable, false);
         }
         return current;
     }
 
-    private Object doApply(final Patch op, final Object current) {
+    /**
+     * Applies the patch modifying {@code o} directly, all the containers (maps and lists) touched by the operations must be mutable.
+     *
+     * @param o the document to patch.
+     * @return the patched document, {@code o} except when the root is replaced.
+     */
+    public Object applyInPlace(final Object o) {
+        final UnaryOperator<Object> writable = UnaryOperator.identity();
+        Object current = o;
+        for (final var operation : operations) {
+            current = doApply(operation, current, writable, true);
+        }
+        return current;
+    }
+
+    private Object doApply(final Patch op, final Object current, final UnaryOperator<Object> writable, final boolean inPlace) {
         return switch (op.spec.op()) {
-            case add -> op.pathPointer.add(current, op.spec.value());
-            case remove -> op.pathPointer.remove(current);
-            case copy -> op.pathPointer.add(op.fromPointer.remove(current), op.fromPointer.apply(current));
-            case move -> op.pathPointer.add(current, op.fromPointer.apply(current));
-            case replace -> op.pathPointer.add(op.pathPointer.remove(current), op.spec.value());
+            // in place, values are copied to not share the patch values with the document
+            case add -> op.pathPointer.add(current, inPlace ? deepCopy(op.spec.value()) : op.spec.value(), writable);
+            case remove -> op.pathPointer.remove(current, writable);
+            case copy -> op.pathPointer.add(current, deepCopy(op.fromPointer.apply(current)), writable);
+            case move -> {
+                final var value = op.fromPointer.apply(current);
+                yield op.pathPointer.add(op.fromPointer.remove(current, writable), value, writable);
+            }
+            case replace -> op.pathPointer.replace(current, inPlace ? deepCopy(op.spec.value()) : op.spec.value(), writable);
             case test -> doTest(op, current);
         };
     }
@@ -61,6 +92,24 @@ public class GenericJsonPatch implements Function<Object, Object> {
         return current;
     }
 
+    private static Object deepCopy(final Object value) {
+        if (value instanceof Map<?, ?> map) {
+            final var copy = new LinkedHashMap<String, Object>(map.size());
+            for (final var entry : map.entrySet()) {
+                copy.put(entry.getKey().toString(), deepCopy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            final var copy = new ArrayList<>(list.size());
+            for (final var item : list) {
+                copy.add(deepCopy(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+
     private static class Patch {
         private final JsonPatchOperation spec;
         private final GenericJsonPointer pathPointer;
@@ -147,17 +147,17 @@ public record JsonPatchOperation(Operation op, String path, String from, Object
         public void write(final JsonPatchOperation instance, final SerializationContext context) throws IOException {
             final var writer = context.writer();
             boolean firstAttribute = true;
-            writer.write('{');
+            writer.writeStartObject();
             if (instance.from() != null) {
                 firstAttribute = false;
                 writer.write(from__CHAR_ARRAY);
-                writer.write(io.yupiik.fusion.json.internal.JsonStrings.escapeChars(instance.from()));
+                writer.writeString(instance.from());
             }
             if (instance.op() != null) {
                 if (firstAttribute) {
                     firstAttribute = false;
                 } else {
-                    writer.write(',');
+                    writer.writeComma();
                 }
                 writer.write(op__CHAR_ARRAY);
                 context.codec(JsonPatchOperation.Operation.class).write(instance.op(), context);
@@ -166,20 +166,20 @@ public record JsonPatchOperation(Operation op, String path, String from, Object
                 if (firstAttribute) {
                     firstAttribute = false;
                 } else {
-                    writer.write(',');
+                    writer.writeComma();
                 }
                 writer.write(path__CHAR_ARRAY);
-                writer.write(io.yupiik.fusion.json.internal.JsonStrings.escapeChars(instance.path()));
+                writer.writeString(instance.path());
             }
             if (instance.value() != null) {
                 if (!firstAttribute) {
-                    writer.write(',');
+                    writer.writeComma();
                 }
                 final var codec = context.codec(Object.class);
                 writer.write(value__CHAR_ARRAY);
                 codec.write(instance.value(), context);
             }
-            writer.write('}');
+            writer.writeEndObject();
         }
     }
 
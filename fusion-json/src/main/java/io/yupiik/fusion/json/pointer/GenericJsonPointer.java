@@ -16,11 +16,13 @@
 package io.yupiik.fusion.json.pointer;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
@@ -68,116 +70,187 @@ public class GenericJsonPointer implements Function<Object, Object> {
         return jsonValue;
     }
 
+    /**
+     * Adds (or replaces for an object member) {@code value} at this pointer location.
+     * The target is not modified, only the containers along the path are copied, other subtrees are shared with the returned value.
+     *
+     * @param target the document to patch.
+     * @param value  the value to add.
+     * @return the patched document.
+     */
     public Object add(final Object target, final Object value) {
+        return add(target, value, copyOnWrite());
+    }
+
+    /**
+     * Same as {@link #add(Object, Object)} but mutates {@code target}, containers along the path must be mutable.
+     *
+     * @param target the document to patch.
+     * @param value  the value to add.
+     * @return the patched document ({@code target} except for the root pointer).
+     */
+    public Object addInPlace(final Object target, final Object value) {
+        return add(target, value, UnaryOperator.identity());
+    }
+
+    /**
+     * @param target   the document to patch.
+     * @param value    the value to add.
+     * @param writable returns the mutable version of a container of the path (itself for an in place update or a copy).
+     * @return the patched document.
+     */
+    @SuppressWarnings("unchecked")
+    public Object add(final Object target, final Object value, final UnaryOperator<Object> writable) {
         if (jsonPointer.isEmpty()) {
             return value;
         }
 
-        final var currentPath = new ArrayList<String>();
-        currentPath.add("");
-        return doAdd(target, value, currentPath, true);
-    }
-
-    public Object remove(final Object target) {
-        return doRemove(target, 1);
+        final var root = writable.apply(target);
+        final var parent = parent(root, writable);
+        final var token = tokens.get(tokens.size() - 1);
+        if (parent instanceof Map<?, ?> map) {
+            ((Map<String, Object>) map).put(token, value);
+        } else if (parent instanceof List<?> list) {
+            ((List<Object>) list).add(mapArrayIndex(token, list, true), value);
+        } else {
+            throw new IllegalStateException("'" + parent + "' contains no element for '" + token + "'");
+        }
+        return root;
     }
 
-    private Object doRemove(final Object obj, final int pos) {
-        if (tokens.size() <= pos) { // unlikely
-            return obj;
+    /**
+     * Replaces the existing value at this pointer location.
+     *
+     * @param target   the document to patch.
+     * @param value    the new value.
+     * @param writable returns the mutable version of a container of the path (itself for an in place update or a copy).
+     * @return the patched document.
+     */
+    @SuppressWarnings("unchecked")
+    public Object replace(final Object target, final Object value, final UnaryOperator<Object> writable) {
+        if (jsonPointer.isEmpty()) {
+            return value;
         }
 
-        final var token = tokens.get(pos);
-        if (obj instanceof Map<?, ?> jsonObejct) {
-            final var output = new LinkedHashMap<String, Object>();
-            for (final var entry : jsonObejct.entrySet()) {
-                final boolean matchesToken = token.equals(entry.getKey());
-                if (matchesToken && pos == tokens.size() - 1) {
-                    continue;
-                }
-                if (matchesToken) {
-                    output.put(entry.getKey().toString(), doRemove(entry.getValue(), pos + 1));
-                } else {
-                    output.put(entry.getKey().toString(), entry.getValue());
-                }
+        final var root = writable.apply(target);
+        final var parent = parent(root, writable);
+        final var token = tokens.get(tokens.size() - 1);
+        if (parent instanceof Map<?, ?> map) {
+            if (!map.containsKey(token)) {
+                throw new IllegalStateException("'" + map + "' contains no value for name '" + token + "'");
             }
-            return output;
-        }
-        if (obj instanceof List<?> jsonArray) {
-            if ("-".equals(token) || IS_NUMBER.matcher(token).matches()) {
-                final int arrayIndex = mapArrayIndex(token, jsonArray, false);
-                final var output = new ArrayList<>();
-                final int jsonArraySize = jsonArray.size();
-                for (int i = 0; i < jsonArraySize; i++) {
-                    final boolean matchesIndex = i == arrayIndex;
-                    if (matchesIndex && pos != tokens.size() - 1) {
-                        output.add(doRemove(jsonArray.get(i), pos + 1));
-                    } else if (!matchesIndex) {
-                        output.add(jsonArray.get(i));
-                    }
-                }
-                return output;
-            }
-            return jsonArray;
+            ((Map<String, Object>) map).put(token, value);
+        } else if (parent instanceof List<?> list) {
+            validateArrayIndex(token);
+            ((List<Object>) list).set(mapArrayIndex(token, list, false), value);
+        } else {
+            throw new IllegalStateException("'" + parent + "' contains no element for '" + token + "'");
         }
-        return obj;
+        return root;
     }
 
-    @SuppressWarnings("unchecked")
-    private Object doAdd(final Object jsonValue, final Object newValue,
-                         final List<String> currentPath, final boolean check) {
-        if (jsonValue instanceof Map<?, ?> obj) {
-            if (!check) {
-                return obj;
-            }
+    /**
+     * Removes the value at this pointer location.
+     * The target is not modified, only the containers along the path are copied, other subtrees are shared with the returned value.
+     *
+     * @param target the document to patch.
+     * @return the patched document.
+     */
+    public Object remove(final Object target) {
+        return remove(target, copyOnWrite());
+    }
 
-            final var output = new LinkedHashMap<String, Object>();
-            if (obj.isEmpty() && isPositionToAdd(currentPath)) {
-                output.put(tokens.get(tokens.size() - 1), newValue);
-            } else {
-                final var jsonObject = (Map<String, Object>) obj;
-                for (final var entry : jsonObject.entrySet()) {
-                    currentPath.add(entry.getKey());
-                    output.put(entry.getKey(), doAdd(entry.getValue(), newValue, currentPath, canMatch(currentPath)));
-                    currentPath.remove(entry.getKey());
-                    if (isPositionToAdd(currentPath)) {
-                        output.put(tokens.get(tokens.size() - 1), newValue);
-                    }
-                }
-            }
-            return output;
+    /**
+     * Same as {@link #remove(Object)} but mutates {@code target}, containers along the path must be mutable.
+     *
+     * @param target the document to patch.
+     * @return {@code target}.
+     */
+    public Object removeInPlace(final Object target) {
+        return remove(target, UnaryOperator.identity());
+    }
+
+    /**
+     * @param target   the document to patch.
+     * @param writable returns the mutable version of a container of the path (itself for an in place update or a copy).
+     * @return the patched document.
+     */
+    public Object remove(final Object target, final UnaryOperator<Object> writable) {
+        if (tokens.size() <= 1) { // unlikely
+            return target;
         }
-        if (jsonValue instanceof List<?> jsonArray) {
-            if (!check) {
-                return jsonArray;
-            }
 
-            final var output = new ArrayList<>();
+        final var root = writable.apply(target);
+        final var parent = parent(root, writable);
+        final var token = tokens.get(tokens.size() - 1);
+        if (parent instanceof Map<?, ?> map) {
+            if (!map.containsKey(token)) {
+                throw new IllegalStateException("'" + map + "' contains no value for name '" + token + "'");
+            }
+            map.remove(token);
+        } else if (parent instanceof List<?> list) {
+            validateArrayIndex(token);
+            list.remove(mapArrayIndex(token, list, false));
+        } else {
+            throw new IllegalStateException("'" + parent + "' contains no element for '" + token + "'");
+        }
+        return root;
+    }
 
-            final int arrayIndex;
-            if (isPositionToAdd(currentPath)) {
-                arrayIndex = mapArrayIndex(tokens.get(tokens.size() - 1), jsonArray, canMatch(currentPath));
+    /**
+     * @return a copy-on-write strategy for {@link #add(Object, Object, UnaryOperator)} and related methods,
+     * it copies a container the first time it is seen and reuses it then
+     * so it can be shared between multiple operations on the same document.
+     */
+    public static UnaryOperator<Object> copyOnWrite() {
+        final var owned = Collections.newSetFromMap(new IdentityHashMap<>());
+        return value -> {
+            if (owned.contains(value)) {
+                return value;
+            }
+            final Object copy;
+            if (value instanceof Map<?, ?> map) {
+                copy = new LinkedHashMap<>(map);
+            } else if (value instanceof List<?> list) {
+                copy = new ArrayList<>(list);
             } else {
-                arrayIndex = -1;
+                return value;
             }
+            owned.add(copy);
+            return copy;
+        };
+    }
 
-            final int jsonArraySize = jsonArray.size();
-            for (int i = 0; i <= jsonArraySize; i++) {
-                if (i == arrayIndex) {
-                    output.add(newValue);
+    // navigates to the container of the last token making the path writable
+    @SuppressWarnings("unchecked")
+    private Object parent(final Object root, final UnaryOperator<Object> writable) {
+        Object current = root;
+        for (int i = 1; i < tokens.size() - 1; i++) {
+            final var token = tokens.get(i);
+            if (current instanceof Map<?, ?> map) {
+                final var child = map.get(token);
+                if (child == null) {
+                    throw new IllegalStateException("'" + map + "' contains no value for name '" + token + "'");
                 }
-                if (i == jsonArraySize) {
-                    break;
+                final var writableChild = writable.apply(child);
+                if (writableChild != child) {
+                    ((Map<String, Object>) map).put(token, writableChild);
                 }
-
-                final var path = String.valueOf(i);
-                currentPath.add(path);
-                output.add(doAdd(jsonArray.get(i), newValue, currentPath, canMatch(currentPath)));
-                currentPath.remove(path);
+                current = writableChild;
+            } else if (current instanceof List<?> list) {
+                validateArrayIndex(token);
+                final int index = mapArrayIndex(token, list, false);
+                final var child = list.get(index);
+                final var writableChild = writable.apply(child);
+                if (writableChild != child) {
+                    ((List<Object>) list).set(index, writableChild);
+                }
+                current = writableChild;
+            } else {
+                throw new IllegalStateException("'" + current + "' contains no element for '" + token + "'");
             }
-            return output;
         }
-        return jsonValue;
+        return current;
     }
 
     private Object find(final Object jsonValue, final String token, final int currentPosition, final int referencePosition) {
@@ -244,14 +317,4 @@ public class GenericJsonPointer implements Function<Object, Object> {
             throw new IllegalStateException("An array index must not start with a leading '0'");
         }
     }
-
-    private boolean isPositionToAdd(final List<String> currentPath) {
-        return currentPath.size() == tokens.size() - 1 &&
-                currentPath.get(currentPath.size() - 1).equals(tokens.get(tokens.size() - 2));
-    }
-
-    private boolean canMatch(final List<String> currentPath) {
-        return currentPath.size() <= tokens.size() &&
-                Objects.equals(currentPath.get(currentPath.size() - 1), tokens.get(currentPath.size() - 1));
-    }
 }
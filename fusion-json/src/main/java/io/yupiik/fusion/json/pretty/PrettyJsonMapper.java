@@ -16,19 +16,22 @@
 package io.yupiik.fusion.json.pretty;
 
 import io.yupiik.fusion.json.JsonMapper;
-import io.yupiik.fusion.json.internal.formatter.SimplePrettyFormatter;
 import io.yupiik.fusion.json.internal.io.FastStringWriter;
 import io.yupiik.fusion.json.mapper.DelegatingMapper;
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.function.Function;
 
+/**
+ * Mapper writing indented JSON, formatting is done while serializing through a {@link PrettyWriter}.
+ */
 public class PrettyJsonMapper extends DelegatingMapper {
     private final Charset charset;
-    private final Function<String, String> prettifier;
 
     public PrettyJsonMapper(final JsonMapper mapper) {
         this(mapper, StandardCharsets.UTF_8);
@@ -37,33 +40,41 @@ public class PrettyJsonMapper extends DelegatingMapper {
     public PrettyJsonMapper(final JsonMapper mapper, final Charset charset) {
         super(mapper);
         this.charset = charset;
-        this.prettifier = new SimplePrettyFormatter(mapper);
-    }
-
-    private String prettify(final String json) {
-        return prettifier.apply(json);
     }
 
     @Override
     public <A> byte[] toBytes(final A instance) {
-        return prettify(new String(super.toBytes(instance), charset)).getBytes(charset);
+        if (charset == StandardCharsets.UTF_8) {
+            final var out = new Utf8BytesWriter();
+            write(instance, out);
+            return out.toByteArray();
+        }
+        final var out = new ByteArrayOutputStream();
+        try (final var writer = new OutputStreamWriter(out, charset)) {
+            write(instance, writer);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
     }
 
     @Override
     public <A> String toString(final A instance) {
-        return prettify(super.toString(instance));
-    }
-
-    @Override
-    public <A> void write(final A instance, final Writer out) {
         final var writer = new FastStringWriter(new StringBuilder());
         try (writer) {
-            super.write(instance, writer);
+            write(instance, writer);
         } catch (final IOException e) {
             throw new IllegalStateException(e);
         }
+        return writer.toString();
+    }
+
+    @Override
+    public <A> void write(final A instance, final Writer out) {
+        final var writer = new PrettyWriter(out);
+        super.write(instance, writer);
         try {
-            out.write(prettify(writer.toString()));
+            writer.flush();
         } catch (final IOException e) {
             throw new IllegalStateException(e);
         }
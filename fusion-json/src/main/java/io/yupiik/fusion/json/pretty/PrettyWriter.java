@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.pretty;
+
+import io.yupiik.fusion.json.serialization.ExtendedWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * An {@link ExtendedWriter} indenting the JSON written by codecs on the fly (no intermediate serialization).
+ * <p>
+ * Strings, numbers and attribute names go straight to the underlying writer,
+ * other writes are scanned to insert new lines and indentation after structural characters,
+ * empty objects and arrays stay on a single line ({@code {}}, {@code []}).
+ * Whitespaces outside of strings are dropped so it can also reformat already serialized JSON.
+ * It is not thread safe.
+ */
+public class PrettyWriter extends ExtendedWriter {
+    private final int indentSize;
+
+    private char[] newLine; // '\n' followed by spaces, grown with the depth
+    private int level;
+    private boolean pendingNewLine; // after '{', '[' and ',', written when the next value comes (not for empty containers)
+    private boolean inString;
+    private boolean escaped;
+
+    public PrettyWriter(final Writer writer) {
+        this(writer, 2);
+    }
+
+    public PrettyWriter(final Writer writer, final int indentSize) {
+        super(writer);
+        this.indentSize = Math.max(0, indentSize);
+        this.newLine = new char[1 + 8 * this.indentSize];
+        Arrays.fill(newLine, ' ');
+        newLine[0] = '\n';
+    }
+
+    @Override
+    public void write(final char[] chars, final byte[] utf8) throws IOException {
+        final int length = chars.length;
+        if (!inString && length > 2 && chars[0] == '"' && chars[length - 2] == '"' && chars[length - 1] == ':') { // attribute name
+            beforeValue();
+            super.write(chars, utf8);
+            super.write(' ');
+            return;
+        }
+        write(chars, 0, length);
+    }
+
+    @Override
+    public void writeString(final CharSequence value) throws IOException {
+        if (inString) {
+            super.writeString(value);
+            return;
+        }
+        beforeValue();
+        super.writeString(value);
+    }
+
+    @Override
+    public void writeNumber(final long value) throws IOException {
+        beforeValue();
+        super.writeNumber(value);
+    }
+
+    @Override
+    public void write(final CharSequence s) throws IOException {
+        write(s.toString());
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        if (inString) {
+            super.write(c);
+            onStringChar((char) c);
+            return;
+        }
+        switch (c) {
+            case '{', '[' -> {
+                beforeValue();
+                super.write(c);
+                level++;
+                pendingNewLine = true;
+            }
+            case '}', ']' -> {
+                level--;
+                if (pendingNewLine) { // empty
+                    pendingNewLine = false;
+                } else {
+                    newLine(level);
+                }
+                super.write(c);
+            }
+            case ',' -> {
+                super.write(c);
+                pendingNewLine = true;
+            }
+            case ':' -> {
+                super.write(':');
+                super.write(' ');
+            }
+            case ' ', '\n', '\r', '\t' -> {
+                // formatting is ours
+            }
+            case '"' -> {
+                beforeValue();
+                super.write(c);
+                inString = true;
+            }
+            default -> {
+                beforeValue();
+                super.write(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf) throws IOException {
+        write(cbuf, 0, cbuf.length);
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (inString) { // write the string content at once
+                final int start = i;
+                while (i < end && inString) {
+                    onStringChar(cbuf[i++]);
+                }
+                super.write(cbuf, start, i - start);
+            } else {
+                write(cbuf[i++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(final String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (inString) {
+                final int start = i;
+                while (i < end && inString) {
+                    onStringChar(str.charAt(i++));
+                }
+                super.write(str, start, i - start);
+            } else {
+                write(str.charAt(i++));
+            }
+        }
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) throws IOException {
+        write(String.valueOf(csq));
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) throws IOException {
+        write(String.valueOf(csq).substring(start, end));
+        return this;
+    }
+
+    @Override
+    public Writer append(final char c) throws IOException {
+        write(c);
+        return this;
+    }
+
+    private void onStringChar(final char c) {
+        if (escaped) {
+            escaped = false;
+        } else if (c == '\\') {
+            escaped = true;
+        } else if (c == '"') {
+            inString = false;
+        }
+    }
+
+    private void beforeValue() throws IOException {
+        if (pendingNewLine) {
+            pendingNewLine = false;
+            newLine(level);
+        }
+    }
+
+    private void newLine(final int depth) throws IOException {
+        final int length = 1 + depth * indentSize;
+        if (length > newLine.length) {
+            final int previous = newLine.length;
+            newLine = Arrays.copyOf(newLine, Math.max(length, previous * 2));
+            Arrays.fill(newLine, previous, newLine.length, ' ');
+        }
+        super.write(newLine, 0, length);
+    }
+}
@@ -15,15 +15,142 @@
  */
 package io.yupiik.fusion.json.serialization;
 
+import io.yupiik.fusion.json.internal.JsonStrings;
+
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.CharBuffer;
 
 public class ExtendedWriter extends Writer {
     private final Writer writer;
+    private final Utf8BytesWriter bytes;
+    private char[] digits;
 
     public ExtendedWriter(final Writer writer) {
         this.writer = writer;
+        this.bytes = writer instanceof Utf8BytesWriter b ? b : null;
+    }
+
+    /**
+     * Writes a constant token (attribute name for example) which has a precomputed UTF-8 form.
+     * It enables byte based outputs to skip the encoding of the token.
+     *
+     * @param chars the token.
+     * @param utf8  the UTF-8 bytes of the token.
+     * @throws IOException if the write fails.
+     */
+    public void write(final char[] chars, final byte[] utf8) throws IOException {
+        if (bytes != null) {
+            bytes.writeBytes(utf8);
+        } else {
+            writer.write(chars);
+        }
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string without intermediate buffer.
+     *
+     * @param value the string value (not null).
+     * @throws IOException if the write fails.
+     */
+    public void writeString(final CharSequence value) throws IOException {
+        if (bytes != null) {
+            bytes.writeJsonString(value);
+        } else {
+            JsonStrings.writeEscaped(value, writer);
+        }
+    }
+
+    /**
+     * Writes an integral number without creating its {@link String} representation.
+     *
+     * @param value the number.
+     * @throws IOException if the write fails.
+     */
+    public void writeNumber(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) { // can't be negated
+            writer.write(Long.toString(value));
+            return;
+        }
+        if (digits == null) {
+            digits = new char[20];
+        }
+        long remaining = Math.abs(value);
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--start] = '-';
+        }
+        writer.write(digits, start, digits.length - start);
+    }
+
+    /**
+     * Writes a number with the most specific method for its type,
+     * other types than {@code Integer}, {@code Long} and {@code Double} are written with their {@code toString()}.
+     *
+     * @param value the number (not null).
+     * @throws IOException if the write fails.
+     */
+    public void writeNumber(final Number value) throws IOException {
+        if (value instanceof Integer || value instanceof Long) {
+            writeNumber(value.longValue());
+        } else if (value instanceof Double d) {
+            writeNumber(d.doubleValue());
+        } else {
+            write(value.toString());
+        }
+    }
+
+    public void writeNumber(final double value) throws IOException {
+        write(Double.toString(value));
+    }
+
+    public void writeBoolean(final boolean value) throws IOException {
+        write(value ? "true" : "false");
+    }
+
+    public void writeNull() throws IOException {
+        write("null");
+    }
+
+    /**
+     * Writes a string value which has a precomputed JSON form (quoted and escaped), an enum constant for example.
+     *
+     * @param json  the JSON form of the value.
+     * @param value the raw value.
+     * @throws IOException if the write fails.
+     */
+    public void writeString(final char[] json, final String value) throws IOException {
+        write(json);
+    }
+
+    // structure hooks, non JSON outputs (CBOR) override them to not have to parse JSON punctuation
+
+    public void writeStartObject() throws IOException {
+        write('{');
+    }
+
+    public void writeEndObject() throws IOException {
+        write('}');
+    }
+
+    public void writeStartArray() throws IOException {
+        write('[');
+    }
+
+    public void writeEndArray() throws IOException {
+        write(']');
+    }
+
+    public void writeComma() throws IOException {
+        write(',');
+    }
+
+    public void writeColon() throws IOException {
+        write(':');
     }
 
     public void write(final CharSequence s) throws IOException {
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.serialization;
+
+import io.yupiik.fusion.json.internal.JsonStrings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A writer encoding characters in UTF-8 directly in a growable byte array
+ * (no intermediate encoder and buffers as with an {@code OutputStreamWriter} on a {@code ByteArrayOutputStream}).
+ * <p>
+ * When passed to {@code JsonMapper#write} the serialization also writes the pre-encoded tokens of the codecs as bytes.
+ * The instance can be reused calling {@link #reset()}, it is not thread safe.
+ */
+public class Utf8BytesWriter extends Writer {
+    private byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    public Utf8BytesWriter() {
+        this(1024);
+    }
+
+    public Utf8BytesWriter(final int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeBytes(final byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(final byte[] bytes, final int off, final int len) {
+        if (highSurrogate != 0) {
+            flushHighSurrogate();
+        }
+        ensureCapacity(len);
+        System.arraycopy(bytes, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Writes a quoted and escaped JSON string, escaping and UTF-8 encoding are done in the same pass.
+     *
+     * @param value the string value.
+     */
+    public void writeJsonString(final CharSequence value) {
+        if (highSurrogate != 0) {
+            flushHighSurrogate();
+        }
+        final int length = value.length();
+        ensureCapacity(length + 2);
+        buffer[count++] = '"';
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80 && highSurrogate == 0) {
+                final var escaped = JsonStrings.escaped(c);
+                if (escaped == null) { // capacity is ensured for all remaining chars when they are plain ascii
+                    buffer[count++] = (byte) c;
+                    continue;
+                }
+                ensureCapacity(length - i + escaped.length + 1);
+                for (final char e : escaped) {
+                    buffer[count++] = (byte) e;
+                }
+            } else {
+                ensureCapacity(length - i + 8);
+                if (c < 0x80) { // after a dangling high surrogate
+                    flushHighSurrogate();
+                    i--;
+                    continue;
+                }
+                encode(c);
+            }
+        }
+        if (highSurrogate != 0) {
+            flushHighSurrogate();
+        }
+        ensureCapacity(1);
+        buffer[count++] = '"';
+    }
+
+    @Override
+    public void write(final int c) {
+        ensureCapacity(4);
+        if (c < 0x80 && highSurrogate == 0) {
+            buffer[count++] = (byte) c;
+        } else {
+            encode((char) c);
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) {
+        ensureCapacity(len);
+        final int end = off + len;
+        int i = off;
+        if (highSurrogate == 0) { // ascii fast path
+            while (i < end) {
+                final char c = cbuf[i];
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer[count++] = (byte) c;
+                i++;
+            }
+        }
+        if (i < end) {
+            ensureCapacity((end - i) * 3 + 1);
+            while (i < end) {
+                encode(cbuf[i++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) {
+        ensureCapacity(len);
+        final int end = off + len;
+        int i = off;
+        if (highSurrogate == 0) { // ascii fast path
+            while (i < end) {
+                final char c = str.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer[count++] = (byte) c;
+                i++;
+            }
+        }
+        if (i < end) {
+            ensureCapacity((end - i) * 3 + 1);
+            while (i < end) {
+                encode(str.charAt(i++));
+            }
+        }
+    }
+
+    @Override
+    public void write(final String str) {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public Writer append(final CharSequence csq) {
+        if (csq == null) {
+            write("null");
+        } else {
+            append(csq, 0, csq.length());
+        }
+        return this;
+    }
+
+    @Override
+    public Writer append(final CharSequence csq, final int start, final int end) {
+        if (csq instanceof String s) {
+            write(s, start, end - start);
+            return this;
+        }
+        ensureCapacity((end - start) * 3 + 1);
+        for (int i = start; i < end; i++) {
+            encode(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Writer append(final char c) {
+        write(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        // no-op
+    }
+
+    @Override
+    public void close() {
+        if (highSurrogate != 0) {
+            flushHighSurrogate();
+        }
+    }
+
+    /**
+     * @return the number of bytes written.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the underlying array, only the {@link #size()} first bytes are meaningful.
+     */
+    public byte[] array() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * @return a buffer wrapping the written bytes without copying them.
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buffer, 0, count);
+    }
+
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, count);
+    }
+
+    public void reset() {
+        count = 0;
+        highSurrogate = 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, count, UTF_8);
+    }
+
+    // capacity is ensured by callers (4 bytes max per char)
+    private void encode(final char c) {
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(high, c);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buffer[count++] = '?'; // malformed, same replacement than the JVM encoder
+        }
+        if (c < 0x80) {
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void flushHighSurrogate() {
+        ensureCapacity(1);
+        highSurrogate = 0;
+        buffer[count++] = '?';
+    }
+
+    private void ensureCapacity(final int additional) {
+        final int required = count + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.yupiik.fusion.json.spi;
 
+import io.yupiik.fusion.json.LazyNumber;
+
 import java.math.BigDecimal;
 import java.nio.CharBuffer;
 
@@ -54,6 +56,56 @@ public interface Parser extends AutoCloseable {
 
     BigDecimal getBigDecimal();
 
+    /**
+     * @return {@code true} if the current number has no fraction nor exponent.
+     */
+    default boolean isIntegralNumber() {
+        final var value = getString();
+        return value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0;
+    }
+
+    /**
+     * @param mode the representation to use.
+     * @return the current number in the requested representation.
+     */
+    default Number getNumber(final NumberMode mode) {
+        switch (mode) {
+            case LONG_OR_DOUBLE:
+                if (isIntegralNumber()) {
+                    final var value = getBigDecimal().unscaledValue();
+                    if (value.bitLength() < 64) {
+                        return value.longValue();
+                    }
+                    return value.doubleValue();
+                }
+                return getDouble();
+            case LAZY:
+                return new LazyNumber(getString());
+            default:
+                return getBigDecimal();
+        }
+    }
+
+    /**
+     * How numbers are represented when there is no target type (generic {@code Object} mapping).
+     */
+    enum NumberMode {
+        /**
+         * Exact {@link BigDecimal} (default).
+         */
+        BIG_DECIMAL,
+
+        /**
+         * {@link Long} for integral numbers fitting a long, {@link Double} otherwise (can lose precision).
+         */
+        LONG_OR_DOUBLE,
+
+        /**
+         * {@link LazyNumber} which only creates a {@link BigDecimal} when needed.
+         */
+        LAZY
+    }
+
     enum Event {
         START_ARRAY,
         START_OBJECT,
@@ -23,18 +23,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.yupiik.fusion.json.spi.Parser.Event.END_OBJECT;
 import static io.yupiik.fusion.json.spi.Parser.Event.KEY_NAME;
 import static io.yupiik.fusion.json.spi.Parser.Event.START_OBJECT;
 import static io.yupiik.fusion.json.spi.Parser.Event.VALUE_STRING;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 
 @TestInstance(PER_CLASS)
@@ -117,6 +128,104 @@ class JsonMapperTest {
         }
     }
 
+    @Test
+    void fromObject() {
+        try (final var mapper = new JsonMapperImpl(jsonCodecs, key -> Optional.empty())) {
+            assertEquals(new Simple("direct"), mapper.fromObject(Simple.class, Map.of("name", "direct")));
+            assertEquals(
+                    List.of(new Simple("a"), new Simple("b")),
+                    mapper.fromObject(new Types.ParameterizedTypeImpl(List.class, Simple.class), List.of(Map.of("name", "a"), Map.of("name", "b"))));
+            assertEquals(
+                    Map.of("a", 1, "b", 2),
+                    mapper.fromObject(new Types.ParameterizedTypeImpl(Map.class, String.class, Integer.class), Map.of("a", BigDecimal.ONE, "b", 2L)));
+
+            final var generic = Map.of("name", "same");
+            assertSame(generic, mapper.fromObject(Object.class, generic));
+        }
+    }
+
+    @Test
+    void readArray() {
+        final var json = "[{\"name\":\"hello\"},{\"name\":\"second\"},{\"name\":\"third\"}]";
+        try (final var mapper = new JsonMapperImpl(jsonCodecs, key -> Optional.empty())) {
+            try (final var stream = mapper.readArray(Simple.class, new StringReader(json))) {
+                assertEquals(List.of("hello", "second", "third"), stream.map(Simple::name).toList());
+            }
+
+            final var closed = new AtomicBoolean();
+            try (final var stream = mapper.readArray(Simple.class, new StringReader(json) {
+                @Override
+                public void close() {
+                    closed.set(true);
+                    super.close();
+                }
+            })) {
+                assertEquals(List.of("hello"), stream.limit(1).map(Simple::name).toList());
+                assertFalse(closed.get());
+            }
+            assertTrue(closed.get());
+
+            assertThrows(IllegalStateException.class, () -> mapper.readArray(Simple.class, new StringReader("{}")));
+        }
+    }
+
+    @Test
+    void streamingDefaults() {
+        try (final var mapper = new MinimalMapper(new JsonMapperImpl(jsonCodecs, key -> Optional.empty()))) {
+            try (final var stream = mapper.readArray(Simple.class, new StringReader("[{\"name\":\"hello\"},{\"name\":\"second\"}]"))) {
+                assertEquals(List.of("hello", "second"), stream.map(Simple::name).toList());
+            }
+
+            final var items = List.of(new Simple("hello"), new Simple("second"));
+            final var array = new StringWriter();
+            mapper.writeArray(Simple.class, items.iterator(), array, 1);
+            assertEquals("[{\"name\":\"hello\"},{\"name\":\"second\"}]", array.toString());
+
+            final var ndjson = new StringWriter();
+            mapper.writeNdjson(Simple.class, items.iterator(), ndjson, 0);
+            assertEquals("{\"name\":\"hello\"}\n{\"name\":\"second\"}\n", ndjson.toString());
+        }
+    }
+
+    @Test
+    void writeArray() {
+        final var items = List.of(new Simple("hello"), new Simple("second"), new Simple("third"));
+        final var chunks = new ArrayList<String>();
+        final var writer = new Writer() {
+            private final StringBuilder pending = new StringBuilder();
+
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) {
+                pending.append(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+                if (!pending.isEmpty()) {
+                    chunks.add(pending.toString());
+                    pending.setLength(0);
+                }
+            }
+
+            @Override
+            public void close() {
+                flush();
+            }
+        };
+        try (final var mapper = new JsonMapperImpl(jsonCodecs, key -> Optional.empty())) {
+            mapper.writeArray(Simple.class, items.iterator(), writer, 2);
+            assertEquals(List.of("[{\"name\":\"hello\"},{\"name\":\"second\"}", ",{\"name\":\"third\"}]"), chunks);
+
+            chunks.clear();
+            mapper.writeNdjson(Simple.class, items.stream(), writer, 0);
+            assertEquals(List.of("{\"name\":\"hello\"}\n{\"name\":\"second\"}\n{\"name\":\"third\"}\n"), chunks);
+
+            chunks.clear();
+            mapper.writeArray(Simple.class, List.<Simple>of().iterator(), writer, 1);
+            assertEquals(List.of("[]"), chunks);
+        }
+    }
+
     @Test
     void mapCodec() throws IOException {
         final var json = "{\"first\":{\"name\":\"hello\"},\"second\":{\"name\":\"2\"}}";
@@ -151,6 +260,79 @@ class JsonMapperTest {
         }
     }
 
+    @Test
+    void untypedRoots() {
+        final var map = new LinkedHashMap<String, Object>();
+        map.put("simple", new Simple("s"));
+        map.put("list", List.of(Map.of("name", "nested"), new Simple("in list")));
+        map.put("number", 1);
+        map.put("nothing", null);
+        try (final var mapper = new JsonMapperImpl(jsonCodecs, key -> Optional.empty())) {
+            assertEquals("{\"simple\":{\"name\":\"s\"},\"list\":[{\"name\":\"nested\"},{\"name\":\"in list\"}],\"number\":1,\"nothing\":null}",
+                    mapper.toString(map));
+            assertEquals("[{\"name\":\"s\"},\"str\",null,true]", mapper.toString(Arrays.asList(new Simple("s"), "str", null, true)));
+            assertEquals("{\"1\":\"one\"}", mapper.toString(Map.of(1, "one")));
+            assertThrows(IllegalStateException.class, () -> mapper.toString(List.of(new Object())));
+        }
+        try (final var mapper = new JsonMapperImpl(jsonCodecs, key -> Optional.ofNullable("fusion.json.rootHomogeneitySampling".equals(key) ? "1" : null))) {
+            assertEquals("[{\"name\":\"a\"},{\"name\":\"b\"}]", mapper.toString(List.of(new Simple("a"), new Simple("b"))));
+            assertThrows(IllegalStateException.class, () -> mapper.toString(List.of(new Simple("a"), "b")));
+        }
+    }
+
     public record Simple(String name) {
     }
+
+    // only implements the abstract methods to test the default ones
+    private record MinimalMapper(JsonMapper delegate) implements JsonMapper {
+        @Override
+        public <A> byte[] toBytes(final A instance) {
+            return delegate.toBytes(instance);
+        }
+
+        @Override
+        public <A> A fromBytes(final Class<A> type, final byte[] bytes) {
+            return delegate.fromBytes(type, bytes);
+        }
+
+        @Override
+        public <A> A fromBytes(final Type type, final byte[] bytes) {
+            return delegate.fromBytes(type, bytes);
+        }
+
+        @Override
+        public <A> A fromString(final Class<A> type, final String string) {
+            return delegate.fromString(type, string);
+        }
+
+        @Override
+        public <A> A fromString(final Type type, final String string) {
+            return delegate.fromString(type, string);
+        }
+
+        @Override
+        public <A> String toString(final A instance) {
+            return delegate.toString(instance);
+        }
+
+        @Override
+        public <A> void write(final A instance, final Writer writer) {
+            delegate.write(instance, writer);
+        }
+
+        @Override
+        public <A> A read(final Type type, final Reader rawReader) {
+            return delegate.read(type, rawReader);
+        }
+
+        @Override
+        public <A> A read(final Class<A> type, final Reader reader) {
+            return delegate.read(type, reader);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyJsonTest {
+    private static final String JSON = "{\"alg\":\"RS256\",\"n\":12.5,\"ok\":true,\"nothing\":null," +
+            "\"esc\\\"aped\":\"a\\nb\\u00e9\",\"nested\":{\"list\":[1,\"two\",[],{}]},\"alg\":\"HS256\"}";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void read() {
+        try (final var eager = new JsonMapperImpl(List.of(), k -> Optional.empty());
+             final var lazy = lazyMapper()) {
+            final var tree = (Map<String, Object>) lazy.fromBytes(Object.class, JSON.getBytes(UTF_8));
+            assertInstanceOf(LazyJsonObject.class, tree);
+            assertEquals("HS256", tree.get("alg")); // last wins
+            assertEquals(new BigDecimal("12.5"), tree.get("n"));
+            assertEquals(true, tree.get("ok"));
+            assertTrue(tree.containsKey("nothing"));
+            assertNull(tree.get("nothing"));
+            assertFalse(tree.containsKey("missing"));
+            assertEquals("a\nbé", tree.get("esc\"aped"));
+
+            final var list = (List<Object>) ((Map<String, Object>) tree.get("nested")).get("list");
+            assertInstanceOf(LazyJsonArray.class, list);
+            assertEquals(4, list.size());
+            assertEquals("two", list.get(1));
+
+            // same structure and serialization than the eager tree
+            final var expected = eager.fromString(Object.class, JSON);
+            assertEquals(expected, tree);
+            assertEquals(expected, lazy.fromString(Object.class, JSON));
+            assertEquals(eager.toString(expected), lazy.toString(tree));
+            assertEquals(List.of("alg", "n", "ok", "nothing", "esc\"aped", "nested"), List.copyOf(tree.keySet()));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mutations() {
+        try (final var mapper = lazyMapper()) {
+            final var tree = (Map<String, Object>) mapper.fromString(Object.class, "{\"a\":1,\"b\":[1,2]}");
+            tree.put("c", "new");
+            tree.remove("a");
+            ((List<Object>) tree.get("b")).add(3);
+            assertEquals("{\"b\":[1,2,3],\"c\":\"new\"}", mapper.toString(tree));
+        }
+
+        // views and entries are writable too
+        try (final var mapper = lazyMapper()) {
+            final var tree = (Map<String, Object>) mapper.fromString(Object.class, "{\"a\":1,\"b\":2,\"c\":3,\"d\":4}");
+            tree.entrySet().iterator().next().setValue("one");
+            assertTrue(tree.keySet().remove("b"));
+            assertTrue(tree.values().removeIf(new BigDecimal("3")::equals));
+            assertEquals(List.of("a", "d"), List.copyOf(tree.keySet()));
+            assertEquals(Map.of("a", "one", "d", new BigDecimal("4")), tree);
+
+            final var other = (Map<String, Object>) mapper.fromString(Object.class, "{\"a\":1,\"b\":2}");
+            assertTrue(other.entrySet().removeIf(e -> e.getKey().equals("a")));
+            assertEquals(Map.of("b", new BigDecimal("2")), other);
+        }
+    }
+
+    @Test
+    void scalarsAndErrors() {
+        try (final var mapper = lazyMapper()) {
+            assertEquals("s", mapper.fromString(Object.class, " \"s\" "));
+            assertEquals(new BigDecimal("-1e3"), mapper.fromString(Object.class, "-1e3"));
+            assertNull(mapper.fromString(Object.class, ""));
+            assertThrows(IllegalStateException.class, () -> mapper.fromString(Object.class, "{\"a\":1} x"));
+            assertThrows(IllegalStateException.class, () -> mapper.fromString(Object.class, "{\"a\" 1}").hashCode());
+            assertThrows(IllegalStateException.class, () -> ((Map<?, ?>) mapper.fromString(Object.class, "{\"a\":tru}")).get("a"));
+        }
+    }
+
+    private JsonMapperImpl lazyMapper() {
+        return new JsonMapperImpl(List.of(), k -> Optional.ofNullable("fusion.json.lazyTree".equals(k) ? "true" : null));
+    }
+}
@@ -20,14 +20,19 @@ import io.yupiik.fusion.json.patch.JsonPatchOperation;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.add;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.move;
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.remove;
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.replace;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GenericJsonDiffTest {
     @Test
@@ -138,9 +143,7 @@ class GenericJsonDiffTest {
         assertDiff(
                 List.of("a", "b"),
                 List.of("b"),
-                List.of(
-                        new JsonPatchOperation(replace, "/0", null, "b"),
-                        new JsonPatchOperation(remove, "/1", null, null)));
+                List.of(new JsonPatchOperation(remove, "/0", null, null)));
     }
 
     @Test
@@ -168,11 +171,77 @@ class GenericJsonDiffTest {
                 List.of(
                         new JsonPatchOperation(remove, "/b", null, null),
                         new JsonPatchOperation(add, "/c/d2", null, "xd2"),
-                        new JsonPatchOperation(replace, "/e/1", null, BigDecimal.valueOf(3)),
-                        new JsonPatchOperation(remove, "/e/2", null, null),
+                        new JsonPatchOperation(remove, "/e/1", null, null),
                         new JsonPatchOperation(add, "/f", null, "xf")));
     }
 
+    @Test
+    public void insertInArray() {
+        assertDiff(
+                List.of("a", "b", "c", "d"),
+                List.of("a", "b", "x", "c", "d"),
+                List.of(new JsonPatchOperation(add, "/2", null, "x")));
+    }
+
+    @Test
+    public void moveInArray() {
+        assertDiff(
+                List.of("a", "b", "c", "d"),
+                List.of("b", "c", "d", "a"),
+                List.of(new JsonPatchOperation(move, "/3", "/0", null)));
+        assertDiff(
+                List.of("a", "b", "c", "d"),
+                List.of("d", "b", "c", "a"),
+                List.of(
+                        new JsonPatchOperation(move, "/0", "/3", null),
+                        new JsonPatchOperation(move, "/3", "/1", null)));
+    }
+
+    @Test
+    public void modifiedItemInArray() {
+        assertDiff(
+                Map.of("containers", List.of(
+                        Map.of("name", "a", "image", "a:1"),
+                        Map.of("name", "b", "image", "b:1"))),
+                Map.of("containers", List.of(
+                        Map.of("name", "a", "image", "a:1"),
+                        Map.of("name", "b", "image", "b:2"),
+                        Map.of("name", "c", "image", "c:1"))),
+                List.of(
+                        new JsonPatchOperation(add, "/containers/2", null, Map.of("name", "c", "image", "c:1")),
+                        new JsonPatchOperation(replace, "/containers/1/image", null, "b:2")));
+    }
+
+    @Test
+    public void randomArrays() {
+        final var random = new Random(1234);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            final var from = randomList(random);
+            final var to = random.nextBoolean() ? randomList(random) : shuffle(random, from);
+            final var diff = new GenericJsonDiff(Map.of("items", from), Map.of("items", to)).toPatch();
+            assertEquals(Map.of("items", to), new GenericJsonPatch(diff).apply(Map.of("items", from)), () -> from + " -> " + to + ": " + diff);
+            assertTrue(diff.size() <= from.size() + to.size(), () -> from + " -> " + to + ": " + diff);
+        }
+    }
+
+    private List<Object> randomList(final Random random) {
+        final var list = new ArrayList<>();
+        final int size = random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt(4) == 0 ? Map.of("k", String.valueOf(random.nextInt(3))) : String.valueOf((char) ('a' + random.nextInt(6))));
+        }
+        return list;
+    }
+
+    private List<Object> shuffle(final Random random, final List<Object> list) {
+        final var copy = new ArrayList<>(list);
+        Collections.shuffle(copy, random);
+        if (!copy.isEmpty() && random.nextBoolean()) {
+            copy.remove(random.nextInt(copy.size()));
+        }
+        return copy;
+    }
+
     private void assertDiff(final Object from, final Object to, final List<JsonPatchOperation> expected) {
         final var diff = new GenericJsonDiff(from, to).toPatch();
         assertEquals(expected, diff);
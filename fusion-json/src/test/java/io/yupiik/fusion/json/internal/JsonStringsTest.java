@@ -15,8 +15,13 @@
  */
 package io.yupiik.fusion.json.internal;
 
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class JsonStringsTest {
@@ -40,6 +45,19 @@ class JsonStringsTest {
         assertEquals("\"\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\\t\"", escape("\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t"));
     }
 
+    @Test
+    void writeEscaped() throws IOException {
+        for (final var value : List.of("", "ok", "\t", "a\"b\\c\u0001d", "é♨\uD83D\uDE00\n", "\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t\t")) {
+            final var writer = new StringWriter();
+            JsonStrings.writeEscaped(value, writer);
+            assertEquals(escape(value), writer.toString());
+
+            final var bytes = new Utf8BytesWriter(16);
+            bytes.writeJsonString(value);
+            assertEquals(escape(value), bytes.toString());
+        }
+    }
+
     private String escape(final String value) {
         final var chars = JsonStrings.escapeChars(value);
         return new String(chars.array(), 0, chars.limit());
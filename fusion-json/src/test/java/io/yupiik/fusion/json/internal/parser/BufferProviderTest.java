@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BufferProviderTest {
+    @Test
+    void sizeClasses() {
+        final var provider = new BufferProvider(16, -1);
+        assertEquals(16, provider.newBuffer().length);
+        assertEquals(16, provider.newBuffer(3).length);
+        assertEquals(32, provider.newBuffer(17).length);
+        assertEquals(128, provider.newBuffer(100).length);
+        assertEquals(100_000, provider.newBuffer(100_000).length); // too big to be pooled
+        assertEquals(0, provider.getHits());
+        assertEquals(5, provider.getMisses());
+        assertEquals(5, provider.getAllocated());
+    }
+
+    @Test
+    void reuse() {
+        final var provider = new BufferProvider(16, -1);
+        final var buffer = provider.newBuffer(20);
+        provider.release(buffer);
+        assertEquals(64, provider.getRetainedBytes());
+        assertNotSame(buffer, provider.newBuffer()); // other size class
+        assertSame(buffer, provider.newBuffer(32));
+        assertEquals(0, provider.getRetainedBytes());
+        assertEquals(1, provider.getHits());
+        assertEquals(2, provider.getAllocated());
+
+        provider.release(new char[17]); // not a size class, ignored
+        assertEquals(0, provider.getRetainedBytes());
+    }
+
+    @Test
+    void limits() {
+        final var noPool = new BufferProvider(16, 0);
+        noPool.release(noPool.newBuffer());
+        assertEquals(0, noPool.getRetainedBytes());
+        noPool.newBuffer();
+        assertEquals(0, noPool.getHits());
+
+        final var unbounded = new BufferProvider(16, -1);
+        final var buffers = IntStream.range(0, 10).mapToObj(i -> unbounded.newBuffer()).toList();
+        buffers.forEach(unbounded::release);
+        assertEquals(320, unbounded.getRetainedBytes());
+
+        final var bounded = new BufferProvider(16, 1);
+        bounded.release(bounded.newBuffer());
+        bounded.release(new char[16]);
+        assertEquals(32, bounded.getRetainedBytes());
+
+        final var bytesLimit = new BufferProvider(16, -1, 0);
+        bytesLimit.release(bytesLimit.newBuffer());
+        assertEquals(0, bytesLimit.getRetainedBytes());
+    }
+}
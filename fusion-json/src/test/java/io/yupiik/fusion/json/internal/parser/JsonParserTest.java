@@ -15,8 +15,10 @@
  */
 package io.yupiik.fusion.json.internal.parser;
 
+import io.yupiik.fusion.json.LazyNumber;
 import io.yupiik.fusion.json.deserialization.AvailableCharArrayReader;
 import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.spi.Parser;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -131,6 +133,46 @@ class JsonParserTest {
         }
     }
 
+    @Test
+    void numbers() {
+        final var values = List.of(
+                "0", "-0", "7", "-7", "123", "-5", "123.56", "-0.001", "1e3", "1E-3", "2.5e+2", "0.1", "3.141592653589793",
+                "9007199254740993", "123456789012345678", "1234567890123456789", "12345678901234567890", "1.7976931348623157e308",
+                "4.9e-324", "1e23", "0.30000000000000004", "-123456789.123456789123");
+        try (final var reader = parser(values.stream().collect(joining(",", "[", "]")))) {
+            assertEquals(JsonParser.Event.START_ARRAY, reader.next());
+            for (final var value : values) {
+                assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+                final var expected = new BigDecimal(value);
+                assertEquals(expected, reader.getBigDecimal(), value);
+                assertEquals(Double.parseDouble(value), reader.getDouble(), value);
+                assertEquals(expected.longValue(), reader.getLong(), value);
+                assertEquals(expected, ((LazyNumber) reader.getNumber(Parser.NumberMode.LAZY)).toBigDecimal(), value);
+                assertEquals(Double.parseDouble(value), reader.getNumber(Parser.NumberMode.LAZY).doubleValue(), value);
+            }
+            assertEquals(JsonParser.Event.END_ARRAY, reader.next());
+        }
+    }
+
+    @Test
+    void numberModes() {
+        try (final var reader = parser("[12,-3.5,12345678901234567890]")) {
+            assertEquals(JsonParser.Event.START_ARRAY, reader.next());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(12L, reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE));
+            assertEquals(new BigDecimal("12"), reader.getNumber(Parser.NumberMode.BIG_DECIMAL));
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(-3.5, reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE));
+            assertEquals("-3.5", reader.getNumber(Parser.NumberMode.LAZY).toString());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(1.2345678901234567E19, reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE));
+            assertEquals(JsonParser.Event.END_ARRAY, reader.next());
+        }
+        try (final var mapper = new JsonMapperImpl(List.of(), k -> Optional.ofNullable("fusion.json.numberMode".equals(k) ? "LONG_OR_DOUBLE" : null))) {
+            assertEquals(List.of(1L, 2.5), mapper.fromString(Object.class, "[1,2.5]"));
+        }
+    }
+
     @Test
     void stringValue() {
         Stream.of(true, false).forEach(b -> {
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.spi.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectTreeParserTest {
+    @Test
+    void events() {
+        final var tree = new LinkedHashMap<String, Object>();
+        tree.put("name", "fusion");
+        tree.put("values", List.of(1L, new BigDecimal("2.5"), true, false));
+        tree.put("nested", new LinkedHashMap<>());
+        tree.put("missing", null);
+        try (final var parser = new ObjectTreeParser(tree)) {
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertTrue(parser.isInObject());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals("name", parser.getString());
+            assertEquals(Parser.Event.VALUE_STRING, parser.next());
+            assertEquals("fusion", parser.getChars().toString());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals(Parser.Event.START_ARRAY, parser.next());
+            assertTrue(parser.isInArray());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertTrue(parser.isIntegralNumber());
+            assertEquals(1, parser.getInt());
+            assertEquals(BigDecimal.ONE, parser.getBigDecimal());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertFalse(parser.isIntegralNumber());
+            assertEquals(2.5, parser.getDouble());
+            assertEquals(Parser.Event.VALUE_TRUE, parser.next());
+            assertEquals(Parser.Event.VALUE_FALSE, parser.next());
+            assertEquals(Parser.Event.END_ARRAY, parser.next());
+            assertFalse(parser.isInArray());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertEquals(Parser.Event.END_OBJECT, parser.next());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals("missing", parser.getString());
+            assertEquals(Parser.Event.VALUE_NULL, parser.next());
+            assertEquals(Parser.Event.END_OBJECT, parser.next());
+            assertFalse(parser.hasNext());
+            assertThrows(NoSuchElementException.class, parser::next);
+        }
+    }
+
+    @Test
+    void skip() {
+        final var tree = new LinkedHashMap<String, Object>();
+        tree.put("ignored", new LinkedHashMap<>(Map.of("nested", List.of(1, List.of(2)))));
+        tree.put("kept", 1);
+        try (final var parser = new ObjectTreeParser(tree)) {
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals(Parser.Event.START_ARRAY, parser.next());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(Parser.Event.START_ARRAY, parser.next());
+            parser.skipObject();
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals("kept", parser.getString());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(1L, parser.getLong());
+            assertEquals(Parser.Event.END_OBJECT, parser.next());
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void scalar() {
+        try (final var parser = new ObjectTreeParser("root")) {
+            assertTrue(parser.hasNext());
+            assertEquals(Parser.Event.VALUE_STRING, parser.next());
+            assertEquals("root", parser.getString());
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void unsupported() {
+        try (final var parser = new ObjectTreeParser(List.of(new Object()))) {
+            assertEquals(Parser.Event.START_ARRAY, parser.next());
+            assertThrows(IllegalStateException.class, parser::next);
+        }
+    }
+}
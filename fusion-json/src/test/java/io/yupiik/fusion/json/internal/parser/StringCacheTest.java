@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.spi.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StringCacheTest {
+    @Test
+    void cache() {
+        final var cache = new StringCache(16, 8);
+        final var first = cache.get("kind".toCharArray(), 0, 4);
+        assertSame(first, cache.get("a kind".toCharArray(), 2, 4));
+        assertSame(first, cache.getAscii("kind".getBytes(UTF_8), 0, 4));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        final var tooLong = cache.get("too long value".toCharArray(), 0, 14);
+        assertEquals("too long value", tooLong);
+        assertNotSame(tooLong, cache.get("too long value".toCharArray(), 0, 14));
+    }
+
+    @Test
+    void parsers() {
+        final var cache = new StringCache(64, 32);
+        final var json = "[{\"kind\":\"Pod\",\"namespace\":\"default\"},{\"kind\":\"Pod\",\"namespace\":\"d\\u0065fault\"}]";
+        for (int i = 0; i < 2; i++) {
+            final var values = i == 0 ?
+                    strings(new JsonParser(new StringReader(json), 16, new BufferProvider(16, -1), true, cache)) :
+                    strings(new Utf8JsonParser(json.getBytes(UTF_8), 0, json.length(), new BufferProvider(16, -1), cache));
+            assertEquals(List.of("kind", "Pod", "namespace", "default", "kind", "Pod", "namespace", "default"), values);
+            assertSame(values.get(0), values.get(4));
+            assertSame(values.get(1), values.get(5));
+            assertSame(values.get(3), values.get(7)); // escaped
+        }
+    }
+
+    @Test
+    void mapper() {
+        final var conf = Map.of("fusion.json.stringCache.size", "128");
+        try (final var mapper = new JsonMapperImpl(List.of(), k -> Optional.ofNullable(conf.get(k)))) {
+            final List<?> list = (List<?>) mapper.fromString(Object.class, "[\"value\",\"value\"]");
+            assertSame(list.get(0), list.get(1));
+            assertEquals(1, mapper.getStringCache().getHits());
+        }
+        try (final var mapper = new JsonMapperImpl(List.of(), k -> Optional.empty())) {
+            assertNull(mapper.getStringCache());
+        }
+    }
+
+    private List<String> strings(final Parser parser) {
+        try (parser) {
+            final var out = new ArrayList<String>();
+            while (parser.hasNext()) {
+                switch (parser.next()) {
+                    case KEY_NAME, VALUE_STRING -> out.add(parser.getString());
+                    default -> {
+                    }
+                }
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.LazyNumber;
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.spi.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Utf8JsonParserTest {
+    @Test
+    void literals() {
+        try (final var reader = parser("[true,false, null]")) {
+            assertEquals(JsonParser.Event.START_ARRAY, reader.next());
+            assertEquals(JsonParser.Event.VALUE_TRUE, reader.next());
+            assertEquals(JsonParser.Event.VALUE_FALSE, reader.next());
+            assertEquals(JsonParser.Event.VALUE_NULL, reader.next());
+            assertEquals(JsonParser.Event.END_ARRAY, reader.next());
+            assertFalse(reader.hasNext());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    void numbers() {
+        try (final var reader = parser("[123,-5,123.56,1e3,12345678901234567890]")) {
+            assertEquals(JsonParser.Event.START_ARRAY, reader.next());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(123, reader.getInt());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(-5L, reader.getLong());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(123.56, reader.getDouble());
+            assertEquals(new BigDecimal("123.56"), reader.getBigDecimal());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(1000., reader.getDouble());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(new BigDecimal("12345678901234567890"), reader.getBigDecimal());
+            assertEquals(1.2345678901234567E19, reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE));
+            assertEquals(JsonParser.Event.END_ARRAY, reader.next());
+        }
+    }
+
+    @Test
+    void numberModes() {
+        final var values = List.of(
+                "0", "-0", "123", "-5", "123.56", "-0.001", "1e3", "1E-3", "2.5e+2", "9007199254740993",
+                "123456789012345678", "1.7976931348623157e308", "4.9e-324", "1e23", "-123456789.123456789123");
+        try (final var reader = parser(values.stream().collect(joining(",", "[", "]")))) {
+            assertEquals(JsonParser.Event.START_ARRAY, reader.next());
+            for (final var value : values) {
+                assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+                final var expected = new BigDecimal(value);
+                assertEquals(expected, reader.getBigDecimal(), value);
+                assertEquals(Double.parseDouble(value), reader.getDouble(), value);
+                assertEquals(expected, ((LazyNumber) reader.getNumber(Parser.NumberMode.LAZY)).toBigDecimal(), value);
+                if (reader.isIntegralNumber()) {
+                    assertEquals(expected.longValue(), reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE), value);
+                } else {
+                    assertEquals(Double.parseDouble(value), reader.getNumber(Parser.NumberMode.LONG_OR_DOUBLE), value);
+                }
+            }
+            assertEquals(JsonParser.Event.END_ARRAY, reader.next());
+        }
+    }
+
+    @Test
+    void strings() {
+        try (final var reader = parser("{\"a\\\"b\":\"h\\\\ello\",\"unicode\":\"\\u0039é♨\uD83D\uDE00\"}")) {
+            assertEquals(JsonParser.Event.START_OBJECT, reader.next());
+            assertEquals(JsonParser.Event.KEY_NAME, reader.next());
+            assertEquals("a\"b", reader.getString());
+            assertEquals(JsonParser.Event.VALUE_STRING, reader.next());
+            assertEquals("h\\ello", reader.getString());
+            assertEquals(JsonParser.Event.KEY_NAME, reader.next());
+            assertEquals("unicode", reader.getChars().toString());
+            assertEquals(JsonParser.Event.VALUE_STRING, reader.next());
+            assertEquals("9é♨\uD83D\uDE00", reader.getString());
+            assertEquals("9é♨\uD83D\uDE00", reader.getChars().toString());
+            assertEquals(JsonParser.Event.END_OBJECT, reader.next());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void skip() {
+        try (final var reader = parser("{\"ignored\":{\"nested\":[1,{\"a\":true}]},\"kept\":1}")) {
+            assertEquals(JsonParser.Event.START_OBJECT, reader.next());
+            assertEquals(JsonParser.Event.KEY_NAME, reader.next());
+            assertEquals(JsonParser.Event.START_OBJECT, reader.next());
+            reader.skipObject();
+            assertEquals(JsonParser.Event.KEY_NAME, reader.next());
+            assertEquals("kept", reader.getString());
+            assertEquals(JsonParser.Event.VALUE_NUMBER, reader.next());
+            assertEquals(JsonParser.Event.END_OBJECT, reader.next());
+        }
+    }
+
+    @Test
+    void invalid() {
+        assertThrows(IllegalStateException.class, () -> consume("{\"a\":1,}"));
+        assertThrows(IllegalStateException.class, () -> consume("[01]"));
+        assertThrows(IllegalStateException.class, () -> consume("{\"a\" 1}"));
+        assertThrows(IllegalStateException.class, () -> consume("[1]]"));
+        assertThrows(IllegalStateException.class, () -> consume("[\"a\nb\"]"));
+        assertThrows(IllegalStateException.class, () -> consume("[1.]"));
+        assertThrows(IllegalStateException.class, () -> consume("[tru]"));
+        assertThrows(IllegalStateException.class, () -> consume("{\"a\":1"));
+    }
+
+    @Test
+    void mapper() {
+        final var longString = IntStream.range(0, 64 * 1024)
+                .mapToObj(i -> Character.toString('a' + (i % 26))).collect(joining()) + "$ù^*°~²~#é♨\uFE0Fjava";
+        final var json = "{\"first\":true,\"data\":\"" + longString + "\",\"number\":1234,\"list\":[\"a\",null]}";
+        try (final var mapper = new JsonMapperImpl(List.of(), c -> Optional.empty())) {
+            final var expected = mapper.fromString(Object.class, json);
+            assertEquals(expected, mapper.fromBytes(Object.class, json.getBytes(UTF_8)));
+
+            final var direct = ByteBuffer.allocateDirect(json.getBytes(UTF_8).length);
+            direct.put(json.getBytes(UTF_8)).flip();
+            @SuppressWarnings("unchecked") final var res = (Map<String, Object>) mapper.read(Object.class, direct);
+            assertEquals(expected, res);
+            assertEquals(BigDecimal.valueOf(1234L), res.get("number"));
+            assertEquals(longString, res.get("data"));
+            assertTrue(direct.hasRemaining());
+        }
+    }
+
+    private void consume(final String json) {
+        try (final var reader = parser(json)) {
+            while (reader.hasNext()) {
+                reader.next();
+            }
+        }
+    }
+
+    private Utf8JsonParser parser(final String string) {
+        return new Utf8JsonParser(string.getBytes(UTF_8), new BufferProvider(16, -1));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.internal.parser;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.spi.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Utf8PushParserTest {
+    private static final String JSON = "{\"a\\\"b\":\"h\\\\ello\",\"unicode\":\"\\u0039é♨\uD83D\uDE00\"," +
+            "\"numbers\":[0,-5,123.56,1e3,-2.5E-2,12345678901234567890]," +
+            "\"literals\":[true,false,null],\"nested\":{\"empty\":{},\"list\":[[],{\"x\":\"y\"}]}}";
+
+    @Test
+    void chunks() {
+        final var expected = events(new Utf8JsonParser(JSON.getBytes(UTF_8), new BufferProvider(16, -1)));
+        final var bytes = JSON.getBytes(UTF_8);
+        for (int chunkSize = 1; chunkSize <= 8; chunkSize++) { // boundaries in strings, escapes, numbers, literals and UTF-8 chars
+            try (final var parser = new Utf8PushParser(16, new BufferProvider(16, -1))) {
+                final var actual = new ArrayList<String>();
+                for (int i = 0; i < bytes.length; i += chunkSize) {
+                    parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+                    while (!parser.needsInput() && parser.hasNext()) {
+                        actual.add(event(parser));
+                    }
+                }
+                parser.endOfInput();
+                while (parser.hasNext()) {
+                    actual.add(event(parser));
+                }
+                assertEquals(expected, actual, "chunkSize=" + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    void needsInput() {
+        try (final var parser = new Utf8PushParser(new BufferProvider(16, -1))) {
+            assertTrue(parser.needsInput());
+            parser.feed(UTF_8.encode("{\"key\":12"));
+            assertEquals(Parser.Event.START_OBJECT, parser.next());
+            assertEquals(Parser.Event.KEY_NAME, parser.next());
+            assertEquals("key", parser.getString());
+            assertTrue(parser.needsInput()); // 12 can be the start of 123
+            assertThrows(IllegalStateException.class, parser::next);
+
+            parser.feed(UTF_8.encode("3}"));
+            assertTrue(parser.isComplete());
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(123, parser.getInt());
+            assertEquals(Parser.Event.END_OBJECT, parser.next());
+            parser.endOfInput();
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void scalarRoot() {
+        try (final var parser = new Utf8PushParser(new BufferProvider(16, -1))) {
+            parser.feed(UTF_8.encode("-1"));
+            parser.feed(UTF_8.encode("2.5"));
+            assertTrue(parser.needsInput());
+            parser.endOfInput();
+            assertEquals(Parser.Event.VALUE_NUMBER, parser.next());
+            assertEquals(new BigDecimal("-12.5"), parser.getBigDecimal());
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Test
+    void invalid() {
+        // errors are detected in the chunk containing them
+        assertThrows(IllegalStateException.class, () -> feed("[1,}"));
+        assertThrows(IllegalStateException.class, () -> feed("[tru", "x]"));
+        assertThrows(IllegalStateException.class, () -> feed("{\"a\" 1}"));
+        assertThrows(IllegalStateException.class, () -> feed("[\"a\nb\"]"));
+        assertThrows(IllegalStateException.class, () -> feed("[\"\\u00", "zz\"]"));
+        assertThrows(IllegalStateException.class, () -> feed("[01]"));
+        assertThrows(IllegalStateException.class, () -> feed("[1]", "]"));
+
+        // incomplete documents fail on end of input
+        assertThrows(IllegalStateException.class, () -> feed("{\"a\":1").endOfInput());
+        assertThrows(IllegalStateException.class, () -> feed("[\"abc").endOfInput());
+        assertThrows(IllegalStateException.class, () -> feed("[1.").endOfInput());
+    }
+
+    @Test
+    void readAsync() {
+        final var longString = IntStream.range(0, 64 * 1024)
+                .mapToObj(i -> Character.toString('a' + (i % 26))).collect(joining()) + "é♨";
+        final var json = "{\"first\":true,\"data\":\"" + longString + "\",\"number\":1234,\"list\":[\"a\",null]}";
+        final var bytes = json.getBytes(UTF_8);
+        try (final var mapper = new JsonMapperImpl(List.of(), c -> Optional.empty())) {
+            final var expected = mapper.fromString(Object.class, json);
+
+            @SuppressWarnings("unchecked") final var result = (Map<String, Object>) publish(mapper, Object.class, bytes, 1000);
+            assertEquals(expected, result);
+            assertEquals(longString, result.get("data"));
+
+            final var error = assertThrows(CompletionException.class, () -> publish(
+                    mapper, Object.class, "{\"first\":true,,\"data\":\"...\"}".getBytes(UTF_8), 4));
+            assertTrue(error.getCause() instanceof IllegalStateException, error::getMessage);
+        }
+    }
+
+    private Object publish(final JsonMapperImpl mapper, final Class<?> type, final byte[] bytes, final int chunkSize) {
+        try (final var publisher = new SubmissionPublisher<ByteBuffer>()) {
+            final var result = mapper.readAsync(type, publisher);
+            for (int i = 0; i < bytes.length && !result.toCompletableFuture().isDone(); i += chunkSize) {
+                publisher.submit(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+            }
+            publisher.close();
+            return result.toCompletableFuture().join();
+        }
+    }
+
+    private Utf8PushParser feed(final String... chunks) {
+        final var parser = new Utf8PushParser(new BufferProvider(16, -1));
+        for (final var chunk : chunks) {
+            parser.feed(UTF_8.encode(chunk));
+        }
+        return parser;
+    }
+
+    private List<String> events(final Parser parser) {
+        try (parser) {
+            final var out = new ArrayList<String>();
+            while (parser.hasNext()) {
+                out.add(event(parser));
+            }
+            return out;
+        }
+    }
+
+    private String event(final Parser parser) {
+        final var event = parser.next();
+        return switch (event) {
+            case KEY_NAME, VALUE_STRING -> event + "=" + parser.getString();
+            case VALUE_NUMBER -> event + "=" + parser.getBigDecimal() + "/" + parser.getDouble();
+            default -> event.name();
+        };
+    }
+}
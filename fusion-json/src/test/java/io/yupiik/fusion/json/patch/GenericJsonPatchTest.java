@@ -18,13 +18,21 @@ package io.yupiik.fusion.json.patch;
 import io.yupiik.fusion.json.internal.JsonMapperImpl;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.add;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.copy;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.move;
 import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.remove;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.replace;
+import static io.yupiik.fusion.json.patch.JsonPatchOperation.Operation.test;
 import static java.util.Optional.empty;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class GenericJsonPatchTest {
     @Test
@@ -62,6 +70,54 @@ class GenericJsonPatchTest {
         assertJson("{\"foo\":[\"bar\",\"baz\"]}", patched);
     }
 
+    @Test
+    void copyAndMove() {
+        final var object = Map.of("a", Map.of("b", "c"), "d", List.of());
+        final var patched = new GenericJsonPatch(List.of(
+                new JsonPatchOperation(copy, "/d/-", "/a", null),
+                new JsonPatchOperation(move, "/e", "/a/b", null),
+                new JsonPatchOperation(replace, "/d/0/b", null, "f"))).apply(object);
+        assertJson("{\"a\":{},\"d\":[{\"b\":\"f\"}],\"e\":\"c\"}", patched);
+        assertEquals(Map.of("a", Map.of("b", "c"), "d", List.of()), object);
+    }
+
+    @Test
+    void copyOnWriteSharesUntouchedSubtrees() {
+        final var untouched = Map.of("big", List.of(1, 2, 3));
+        final var object = Map.of("untouched", untouched, "spec", Map.of("replicas", 1, "labels", Map.of()));
+        final var patched = (Map<?, ?>) new GenericJsonPatch(List.of(
+                new JsonPatchOperation(replace, "/spec/replicas", null, 2),
+                new JsonPatchOperation(add, "/spec/labels/app", null, "demo"),
+                new JsonPatchOperation(add, "/spec/labels/tier", null, "web"),
+                new JsonPatchOperation(test, "/spec/replicas", null, 2))).apply(object);
+        assertSame(untouched, patched.get("untouched"));
+        assertEquals(Map.of("replicas", 2, "labels", Map.of("app", "demo", "tier", "web")), patched.get("spec"));
+        assertEquals(Map.of("replicas", 1, "labels", Map.of()), object.get("spec"));
+    }
+
+    @Test
+    void inPlace() {
+        final var value = new LinkedHashMap<String, Object>();
+        value.put("name", "a");
+        final var object = new LinkedHashMap<String, Object>();
+        object.put("items", new ArrayList<>(List.of(value)));
+        final var patch = new GenericJsonPatch(List.of(
+                new JsonPatchOperation(add, "/items/-", null, Map.of("name", "b")),
+                new JsonPatchOperation(replace, "/items/0/name", null, "c"),
+                new JsonPatchOperation(remove, "/items/1/name", null, null)));
+        assertSame(object, patch.applyInPlace(object));
+        assertJson("{\"items\":[{\"name\":\"c\"},{}]}", object);
+        assertSame(value, ((List<?>) object.get("items")).get(0));
+    }
+
+    @Test
+    void missingPath() {
+        assertThrows(IllegalStateException.class, () -> new GenericJsonPatch(List.of(
+                new JsonPatchOperation(add, "/missing/child", null, "x"))).apply(Map.of()));
+        assertThrows(IllegalStateException.class, () -> new GenericJsonPatch(List.of(
+                new JsonPatchOperation(replace, "/missing", null, "x"))).apply(Map.of()));
+    }
+
     private void assertJson(final String json, final Object value) {
         try (final var mapper = new JsonMapperImpl(List.of(), c -> empty())) {
             assertEquals(mapper.fromString(Object.class, json), value);
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.pretty;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrettyWriterTest {
+    @Test
+    void codecWrites() throws IOException {
+        final var bytes = new Utf8BytesWriter();
+        try (final var writer = new PrettyWriter(bytes)) {
+            writer.write('{');
+            writer.write("\"é\":".toCharArray(), "\"é\":".getBytes(UTF_8));
+            writer.writeString("a\"{,}[]\\");
+            writer.write(',');
+            writer.write("\"n\":".toCharArray(), "\"n\":".getBytes(UTF_8));
+            writer.writeNumber(-12);
+            writer.write(',');
+            writer.write("\"list\":[");
+            writer.write("{}");
+            writer.write(",[],true]}");
+        }
+        assertEquals("""
+                {
+                  "é": "a\\"{,}[]\\\\",
+                  "n": -12,
+                  "list": [
+                    {},
+                    [],
+                    true
+                  ]
+                }""", bytes.toString());
+    }
+
+    @Test
+    void reformat() throws IOException {
+        final var out = new StringWriter();
+        try (final var writer = new PrettyWriter(out, 4)) {
+            writer.write(" { \"a b\" : [ 1 , \"x\\\" ]\" ] } ");
+        }
+        assertEquals("""
+                {
+                    "a b": [
+                        1,
+                        "x\\" ]"
+                    ]
+                }""", out.toString());
+    }
+
+    @Test
+    void mapper() {
+        final var data = new LinkedHashMap<String, Object>();
+        data.put("name", "pretty");
+        data.put("nested", Map.of("items", List.of(1, 2)));
+        data.put("empty", Map.of());
+        try (final var mapper = new PrettyJsonMapper(new JsonMapperImpl(List.of(), c -> Optional.empty()))) {
+            final var expected = """
+                    {
+                      "name": "pretty",
+                      "nested": {
+                        "items": [
+                          1,
+                          2
+                        ]
+                      },
+                      "empty": {}
+                    }""";
+            assertEquals(expected, mapper.toString(data));
+            assertEquals(expected, new String(mapper.toBytes(data), UTF_8));
+            assertEquals("null", mapper.toString(null));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.json.serialization;
+
+import io.yupiik.fusion.json.internal.JsonMapperImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Utf8BytesWriterTest {
+    @Test
+    void encode() {
+        final var value = "ascii é ♨ 😀 end";
+        final var writer = new Utf8BytesWriter(16);
+        writer.write(value.toCharArray(), 0, 3);
+        writer.write(value, 3, value.length() - 3);
+        writer.append('!');
+        assertArrayEquals((value + '!').getBytes(UTF_8), writer.toByteArray());
+
+        writer.reset();
+        for (final char c : value.toCharArray()) { // surrogates split between writes
+            writer.write(c);
+        }
+        assertEquals(value, writer.toString());
+    }
+
+    @Test
+    void preEncodedTokens() throws IOException {
+        final var bytes = new Utf8BytesWriter();
+        final var chars = new StringBuilder();
+        for (final var writer : List.of(new ExtendedWriter(bytes), new ExtendedWriter(new java.io.Writer() {
+            @Override
+            public void write(final char[] cbuf, final int off, final int len) {
+                chars.append(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+                // no-op
+            }
+
+            @Override
+            public void close() {
+                // no-op
+            }
+        }))) {
+            writer.write("\"é\":".toCharArray(), "\"é\":".getBytes(UTF_8));
+            writer.write('1');
+        }
+        assertEquals("\"é\":1", bytes.toString());
+        assertEquals("\"é\":1", chars.toString());
+    }
+
+    @Test
+    void mapper() {
+        final var data = new LinkedHashMap<String, Object>();
+        data.put("name", "h\"é♨");
+        data.put("list", List.of("😀", true));
+        try (final var mapper = new JsonMapperImpl(List.of(), c -> Optional.empty())) {
+            final var bytes = mapper.toBytes(data);
+            assertArrayEquals(mapper.toString(data).getBytes(UTF_8), bytes);
+            assertEquals(Map.of("name", "h\"é♨", "list", List.of("😀", true)), mapper.fromBytes(Object.class, bytes));
+        }
+    }
+}
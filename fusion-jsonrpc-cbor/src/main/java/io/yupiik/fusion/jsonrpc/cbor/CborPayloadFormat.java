@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cbor;
+
+import io.yupiik.fusion.cbor.CborMapper;
+import io.yupiik.fusion.http.server.impl.flow.BytesPublisher;
+import io.yupiik.fusion.jsonrpc.JsonRpcEndpoint;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Enables {@code application/cbor} requests and responses on the JSON-RPC endpoint.
+ * The payload is the CBOR encoding of the JSON-RPC request/response, the protocol itself is unchanged.
+ */
+public class CborPayloadFormat implements JsonRpcEndpoint.PayloadFormat {
+    private final CborMapper mapper;
+
+    public CborPayloadFormat(final CborMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public String contentType() {
+        return CborMapper.CONTENT_TYPE;
+    }
+
+    @Override
+    public CompletionStage<Object> read(final Flow.Publisher<ByteBuffer> body) {
+        return mapper.readAsync(Object.class, body);
+    }
+
+    @Override
+    public Flow.Publisher<ByteBuffer> write(final Object payload) {
+        return new BytesPublisher(mapper.toBytes(payload));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cbor;
+
+import io.yupiik.fusion.cbor.CborMapper;
+import io.yupiik.fusion.cbor.internal.framework.CborModule;
+import io.yupiik.fusion.framework.api.ConfiguringContainer;
+import io.yupiik.fusion.framework.api.Instance;
+import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.ConfigurationSource;
+import io.yupiik.fusion.framework.api.container.bean.BaseBean;
+import io.yupiik.fusion.framework.api.scope.DefaultScoped;
+import io.yupiik.fusion.http.server.api.WebServer;
+import io.yupiik.fusion.http.server.impl.bean.FusionWebServerModule;
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.internal.framework.JsonModule;
+import io.yupiik.fusion.jsonrpc.cbor.impl.bean.JsonRpcCborModule;
+import io.yupiik.fusion.jsonrpc.impl.DefaultJsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.bean.JsonRpcModule;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CborPayloadFormatTest {
+    @Test
+    void negotiation() throws Exception {
+        try (final var container = start();
+             final var configuration = container.lookup(WebServer.Configuration.class);
+             final var cbor = container.lookup(CborMapper.class);
+             final var json = container.lookup(JsonMapper.class)) {
+            final var client = HttpClient.newHttpClient();
+            final var uri = URI.create("http://localhost:" + configuration.instance().port() + "/jsonrpc");
+            final var request = Map.of("jsonrpc", "2.0", "method", "test", "params", Map.of("name", "fusion"), "id", 1);
+
+            // CBOR in, CBOR out
+            final var cborResponse = client.send(HttpRequest.newBuilder(uri)
+                    .header("content-type", CborMapper.CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(cbor.instance().toBytes(request)))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, cborResponse.statusCode());
+            assertEquals(CborMapper.CONTENT_TYPE, cborResponse.headers().firstValue("content-type").orElseThrow());
+            assertResponse(cbor.instance().fromBytes(Object.class, cborResponse.body()));
+
+            // CBOR batch in, JSON out
+            final var jsonResponse = client.send(HttpRequest.newBuilder(uri)
+                    .header("content-type", CborMapper.CONTENT_TYPE)
+                    .header("accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(cbor.instance().toBytes(List.of(request))))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals("application/json;charset=utf-8", jsonResponse.headers().firstValue("content-type").orElseThrow());
+            assertEquals("[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"hello fusion\"}]", jsonResponse.body());
+
+            // JSON in, CBOR out
+            final var acceptResponse = client.send(HttpRequest.newBuilder(uri)
+                    .header("content-type", "application/json")
+                    .header("accept", CborMapper.CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofString(json.instance().toString(request)))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(CborMapper.CONTENT_TYPE, acceptResponse.headers().firstValue("content-type").orElseThrow());
+            assertResponse(cbor.instance().fromBytes(Object.class, acceptResponse.body()));
+        }
+    }
+
+    private void assertResponse(final Object payload) {
+        final var response = (Map<?, ?>) payload;
+        assertEquals("2.0", response.get("jsonrpc"));
+        assertEquals("1", response.get("id")); // ids are echoed as strings
+        assertEquals("hello fusion", response.get("result"));
+    }
+
+    private RuntimeContainer start() {
+        return ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new CborModule(), new JsonRpcModule(), new JsonRpcCborModule(), new FusionWebServerModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> "fusion.http-server.port".equals(key) ? "0" : null;
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "test", ctx -> completedFuture(
+                                "hello " + ((Map<?, ?>) ctx.params()).get("name")));
+                    }
+                })
+                .start();
+    }
+}
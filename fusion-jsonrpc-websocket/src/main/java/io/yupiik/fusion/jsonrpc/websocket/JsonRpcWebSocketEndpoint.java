@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.websocket;
+
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.JsonRpcHandler;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.apache.tomcat.websocket.WsSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * A JSON-RPC WebSocket connection, see {@link JsonRpcWebSocketServlet}.
+ * <p>
+ * The framing, UTF-8 validation and control frames are handled by the container (JSR 356),
+ * requests are executed as soon as their message is read and responses are sent in completion order.
+ * Notifications get no response.
+ * When {@code maxInFlight} requests are waiting for their response to be written, the reading is suspended
+ * (the client gets TCP backpressure) until one is written. If the container can't suspend the reading
+ * (not Tomcat), the requests above the limit are not executed and get a {@code -32603} error instead.
+ */
+public class JsonRpcWebSocketEndpoint extends Endpoint {
+    private final Logger logger = Logger.getLogger(getClass().getName());
+
+    private final JsonRpcHandler handler;
+    private final JsonMapper mapper;
+    private final WebSocketRequest request;
+    private final int maxMessageSize;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    // the async remote accepts a single message at a time, guarded by this
+    private final Queue<String> outgoing = new ArrayDeque<>(); // bounded by maxInFlight (twice without suspension)
+    private boolean sending;
+    private boolean closed;
+    private int inFlight;
+    private boolean suspended;
+
+    private Session session;
+    private WsSession suspendable; // null if the reading can't be suspended
+
+    JsonRpcWebSocketEndpoint(final JsonRpcHandler handler, final JsonMapper mapper, final WebSocketRequest request,
+                             final int maxMessageSize, final Executor executor, final int maxInFlight) {
+        this.handler = handler;
+        this.mapper = mapper;
+        this.request = request;
+        this.maxMessageSize = maxMessageSize;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void onOpen(final Session session, final EndpointConfig config) {
+        this.session = session;
+        this.suspendable = session instanceof WsSession wsSession ? wsSession : null;
+        session.setMaxTextMessageBufferSize(maxMessageSize);
+        session.setMaxBinaryMessageBufferSize(maxMessageSize);
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) message ->
+                onMessage(message, it -> mapper.fromString(Object.class, it)));
+        session.addMessageHandler(ByteBuffer.class, (MessageHandler.Whole<ByteBuffer>) message -> {
+            final var bytes = new byte[message.remaining()];
+            message.get(bytes);
+            onMessage(bytes, it -> mapper.fromBytes(Object.class, it));
+        });
+    }
+
+    @Override
+    public void onClose(final Session session, final CloseReason closeReason) {
+        synchronized (this) {
+            closed = true;
+            outgoing.clear();
+        }
+    }
+
+    @Override
+    public void onError(final Session session, final Throwable error) {
+        logger.log(Level.FINE, error, () -> "WebSocket connection failure: " + error.getMessage());
+    }
+
+    private <T> void onMessage(final T message, final Function<T, Object> reader) {
+        final boolean reject;
+        final boolean overflow;
+        final boolean suspend;
+        synchronized (this) {
+            // without suspension support the limit is enforced by rejecting the requests, the error is in flight too
+            reject = suspendable == null && maxInFlight > 0 && inFlight >= maxInFlight;
+            overflow = reject && inFlight >= 2 * maxInFlight; // the client does not even read the errors
+            inFlight++;
+            suspend = suspendable != null && maxInFlight > 0 && inFlight >= maxInFlight && !suspended;
+            if (suspend) {
+                suspended = true;
+            }
+        }
+        if (overflow) {
+            close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Too many requests in flight"));
+            return;
+        }
+        if (reject) {
+            send(handler.createResponse(null, -32603, "Too many requests in flight, max=" + maxInFlight));
+            return;
+        }
+        if (suspend) { // the current message is still processed, next ones are read once a response is written
+            suspendable.suspend();
+        }
+
+        if (executor == null) {
+            execute(message, reader);
+            return;
+        }
+        try {
+            executor.execute(() -> execute(message, reader));
+        } catch (final RejectedExecutionException ree) {
+            send(handler.createResponse(null, -32603, "Server is overloaded"));
+        }
+    }
+
+    private <T> void execute(final T message, final Function<T, Object> reader) {
+        final Object jsonRpcRequest;
+        try {
+            jsonRpcRequest = reader.apply(message);
+        } catch (final RuntimeException re) {
+            send(handler.createResponse(null, -32700, re.getMessage()));
+            return;
+        }
+
+        try {
+            handler.execute(jsonRpcRequest, request.forMessage()).whenComplete((response, error) -> {
+                if (error != null) {
+                    logger.log(Level.SEVERE, error, error::getMessage);
+                    send(handler.createResponse(null, -32603, error.getMessage()));
+                } else {
+                    send(withoutNotifications(jsonRpcRequest, response));
+                }
+            });
+        } catch (final RuntimeException re) {
+            logger.log(Level.SEVERE, re, re::getMessage);
+            send(handler.createResponse(null, -32603, re.getMessage()));
+        }
+    }
+
+    private void send(final Object response) {
+        if (response == null) { // nothing to write but the request is no more in flight
+            release();
+            return;
+        }
+
+        String payload;
+        try {
+            payload = mapper.toString(response);
+        } catch (final RuntimeException re) {
+            logger.log(Level.SEVERE, re, re::getMessage);
+            payload = mapper.toString(handler.createResponse(null, -32603, re.getMessage()));
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (sending) {
+                outgoing.add(payload);
+                return;
+            }
+            sending = true;
+        }
+        doSend(payload);
+    }
+
+    private void doSend(final String payload) {
+        try {
+            session.getAsyncRemote().sendText(payload, result -> {
+                if (result.isOK()) {
+                    release();
+                    sendNext();
+                } else {
+                    onWriteFailure(result.getException());
+                }
+            });
+        } catch (final RuntimeException re) { // session closed concurrently
+            onWriteFailure(re);
+        }
+    }
+
+    private void release() {
+        final boolean resume;
+        synchronized (this) {
+            inFlight--;
+            resume = suspended && inFlight < maxInFlight && !closed;
+            if (resume) {
+                suspended = false;
+            }
+        }
+        if (resume) {
+            suspendable.resume();
+        }
+    }
+
+    private void sendNext() {
+        final String next;
+        synchronized (this) {
+            next = closed ? null : outgoing.poll();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        doSend(next);
+    }
+
+    // the server must not reply to notifications, even within a batch
+    private Object withoutNotifications(final Object request, final Object response) {
+        if (request instanceof Map<?, ?> map) {
+            return isNotification(map) ? null : response;
+        }
+        if (request instanceof List<?> requests && response instanceof List<?> responses && requests.size() == responses.size()) {
+            final var filtered = IntStream.range(0, requests.size())
+                    .filter(i -> !(requests.get(i) instanceof Map<?, ?> map && isNotification(map)))
+                    .mapToObj(responses::get)
+                    .toList();
+            return filtered.isEmpty() ? null : filtered;
+        }
+        return response;
+    }
+
+    // invalid requests without id still get an error (with a null id)
+    private boolean isNotification(final Map<?, ?> request) {
+        return !request.containsKey("id") && "2.0".equals(request.get("jsonrpc")) && request.get("method") instanceof String;
+    }
+
+    private void onWriteFailure(final Throwable error) {
+        onError(session, error);
+        synchronized (this) {
+            closed = true;
+            outgoing.clear();
+        }
+        close(new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "Write failure"));
+    }
+
+    private void close(final CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (final IOException | RuntimeException e) {
+            logger.log(Level.FINEST, e, e::getMessage);
+        }
+    }
+}
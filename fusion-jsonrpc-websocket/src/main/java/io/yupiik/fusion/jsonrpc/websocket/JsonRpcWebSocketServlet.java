@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.websocket;
+
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.JsonRpcHandler;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Upgrades {@code GET} requests to WebSocket connections carrying JSON-RPC messages, the protocol itself is handled
+ * by the container (JSR 356, {@link JsonRpcWebSocketEndpoint}).
+ * Each text or binary message is a JSON-RPC request (or batch) and each response is sent as a text message
+ * as soon as it is available so a client can pipeline its requests and match the responses with their {@code id}.
+ */
+public class JsonRpcWebSocketServlet extends HttpServlet {
+    private final transient JsonRpcHandler handler;
+    private final transient JsonMapper mapper;
+    private final int maxMessageSize;
+    private final transient Executor executor;
+    private final List<String> allowedOrigins;
+    private final int maxInFlight;
+    private transient ServerContainer container;
+
+    /**
+     * @param handler        the JSON-RPC handler.
+     * @param mapper         the mapper to read the requests and write the responses.
+     * @param maxMessageSize max size of a message in bytes.
+     * @param executor       executor to execute the requests, {@code null} to execute them on the reading thread.
+     * @param allowedOrigins the browser origins ({@code scheme://host[:port]}) allowed to connect,
+     *                       empty to only allow the server origin, {@code *} to allow any origin.
+     * @param maxInFlight    max requests of a connection waiting for their response to be written before the reading
+     *                       of the connection is suspended (or the next requests rejected if the container can't
+     *                       suspend it), negative or zero for no limit.
+     */
+    public JsonRpcWebSocketServlet(final JsonRpcHandler handler, final JsonMapper mapper,
+                                   final int maxMessageSize, final Executor executor,
+                                   final List<String> allowedOrigins, final int maxInFlight) {
+        this.handler = handler;
+        this.mapper = mapper;
+        this.maxMessageSize = maxMessageSize;
+        this.executor = executor;
+        this.allowedOrigins = allowedOrigins;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void init() throws ServletException {
+        container = (ServerContainer) getServletContext().getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            throw new ServletException("No WebSocket container, ensure tomcat-websocket is initialized");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ExecutorService es) {
+            es.shutdownNow();
+        }
+    }
+
+    @Override
+    protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws IOException, ServletException {
+        if (!"websocket".equalsIgnoreCase(req.getHeader("Upgrade"))) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "WebSocket upgrade expected");
+            return;
+        }
+        if (!isAllowedOrigin(req)) { // else any website can open a connection with the user cookies
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN, "Origin not allowed");
+            return;
+        }
+
+        // the servlet request is recycled once upgraded so the endpoint gets a snapshot of it
+        final var endpoint = new JsonRpcWebSocketEndpoint(handler, mapper, WebSocketRequest.of(req), maxMessageSize, executor, maxInFlight);
+        final var config = ServerEndpointConfig.Builder
+                .create(JsonRpcWebSocketEndpoint.class, req.getServletPath())
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(final Class<T> endpointClass) {
+                        return endpointClass.cast(endpoint);
+                    }
+                })
+                .build();
+        try { // validates the handshake headers (400/426 on errors) and switches the protocol
+            container.upgradeHttpToWebSocket(req, resp, config, Map.of());
+        } catch (final DeploymentException e) {
+            throw new ServletException(e);
+        }
+    }
+
+    // browsers always send an Origin header, other clients are not subject to cross-site hijacking
+    private boolean isAllowedOrigin(final HttpServletRequest req) {
+        final var origin = req.getHeader("Origin");
+        if (origin == null || allowedOrigins.contains("*")) {
+            return true;
+        }
+        if (!allowedOrigins.isEmpty()) {
+            return allowedOrigins.stream().anyMatch(origin::equalsIgnoreCase);
+        }
+        try { // same origin
+            final var uri = URI.create(origin);
+            final var scheme = uri.getScheme();
+            if (scheme == null || uri.getHost() == null) {
+                return false;
+            }
+            final int port = uri.getPort() > 0 ? uri.getPort() : "https".equalsIgnoreCase(scheme) ? 443 : 80;
+            return scheme.equalsIgnoreCase(req.getScheme()) &&
+                    uri.getHost().equalsIgnoreCase(req.getServerName()) &&
+                    port == req.getServerPort();
+        } catch (final IllegalArgumentException iae) {
+            return false;
+        }
+    }
+}
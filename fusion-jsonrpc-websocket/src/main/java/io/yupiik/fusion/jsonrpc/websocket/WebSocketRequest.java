@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.websocket;
+
+import io.yupiik.fusion.http.server.api.Body;
+import io.yupiik.fusion.http.server.api.Cookie;
+import io.yupiik.fusion.http.server.api.Request;
+import io.yupiik.fusion.http.server.impl.servlet.ServletCookie;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Request passed to the JSON-RPC methods for a WebSocket message.
+ * It exposes the data of the handshake request, the servlet request being recycled once the connection is upgraded,
+ * and has its own attributes (each message is a JSON-RPC call).
+ */
+final class WebSocketRequest implements Request {
+    private final String scheme;
+    private final String path;
+    private final String query;
+    private final Map<String, List<String>> headers;
+    private final Map<String, String[]> parameters;
+    private final List<Cookie> cookies;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private WebSocketRequest(final String scheme, final String path, final String query,
+                             final Map<String, List<String>> headers, final Map<String, String[]> parameters,
+                             final List<Cookie> cookies) {
+        this.scheme = scheme;
+        this.path = path;
+        this.query = query;
+        this.headers = headers;
+        this.parameters = parameters;
+        this.cookies = cookies;
+    }
+
+    static WebSocketRequest of(final HttpServletRequest request) {
+        final var headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (final var name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, List.copyOf(Collections.list(request.getHeaders(name))));
+        }
+        return new WebSocketRequest(
+                request.getScheme(), request.getRequestURI(), request.getQueryString(),
+                Collections.unmodifiableMap(headers), Map.copyOf(new HashMap<>(request.getParameterMap())),
+                Stream.ofNullable(request.getCookies()).flatMap(Stream::of).<Cookie>map(ServletCookie::new).toList());
+    }
+
+    /**
+     * @return a request sharing the handshake data with empty attributes.
+     */
+    WebSocketRequest forMessage() {
+        return new WebSocketRequest(scheme, path, query, headers, parameters, cookies);
+    }
+
+    @Override
+    public String scheme() {
+        return scheme;
+    }
+
+    @Override
+    public String method() {
+        return "GET";
+    }
+
+    @Override
+    public String path() {
+        return path;
+    }
+
+    @Override
+    public String query() {
+        return query;
+    }
+
+    @Override
+    public Body fullBody() {
+        throw new IllegalStateException("The body of a WebSocket request is the JSON-RPC message");
+    }
+
+    @Override
+    public Stream<Cookie> cookies() {
+        return cookies.stream();
+    }
+
+    @Override
+    public String parameter(final String name) {
+        final var values = parameters.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public Map<String, String[]> parameters() {
+        return parameters;
+    }
+
+    @Override
+    public String header(final String name) {
+        final var values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    @Override
+    public <T> T attribute(final String key, final Class<T> type) {
+        return type.cast(attributes.get(key));
+    }
+
+    @Override
+    public <T> void setAttribute(final String key, final T value) {
+        if (value == null) {
+            attributes.remove(key);
+        } else {
+            attributes.put(key, value);
+        }
+    }
+}
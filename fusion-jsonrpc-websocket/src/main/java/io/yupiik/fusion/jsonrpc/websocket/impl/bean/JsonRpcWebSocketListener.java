@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.websocket.impl.bean;
+
+import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.Configuration;
+import io.yupiik.fusion.framework.api.container.FusionListener;
+import io.yupiik.fusion.http.server.api.WebServer;
+import io.yupiik.fusion.http.server.impl.tomcat.TomcatWebServerConfiguration;
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.JsonRpcHandler;
+import io.yupiik.fusion.jsonrpc.websocket.JsonRpcWebSocketServlet;
+import jakarta.servlet.ServletContainerInitializer;
+import org.apache.tomcat.websocket.server.WsSci;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+// registers the JSON-RPC WebSocket transport when enabled
+public class JsonRpcWebSocketListener implements FusionListener<WebServer.Configuration> {
+    @Override
+    public Class<WebServer.Configuration> eventType() {
+        return WebServer.Configuration.class;
+    }
+
+    @Override
+    public void onEvent(final RuntimeContainer container, final WebServer.Configuration event) {
+        final String binding;
+        final int maxMessageSize;
+        final int threads;
+        final int queueSize;
+        final int maxInFlight;
+        final List<String> allowedOrigins;
+        try (final var config = container.lookup(Configuration.class)) {
+            final var configuration = config.instance();
+            if (!configuration.get("fusion.jsonrpc.websocket.enabled").map(Boolean::parseBoolean).orElse(false)) {
+                return;
+            }
+            binding = configuration.get("fusion.jsonrpc.websocket.binding").orElse("/jsonrpc/websocket");
+            maxMessageSize = configuration.get("fusion.jsonrpc.websocket.maxMessageSize").map(Integer::parseInt).orElse(1024 * 1024);
+            threads = configuration.get("fusion.jsonrpc.websocket.threads").map(Integer::parseInt).orElse(0);
+            queueSize = configuration.get("fusion.jsonrpc.websocket.queueSize").map(Integer::parseInt).orElse(1024);
+            maxInFlight = configuration.get("fusion.jsonrpc.websocket.maxInFlight").map(Integer::parseInt).orElse(64);
+            allowedOrigins = configuration.get("fusion.jsonrpc.websocket.allowedOrigins")
+                    .map(it -> Stream.of(it.split(",")).map(String::strip).filter(o -> !o.isBlank()).toList())
+                    .orElse(List.of());
+        }
+
+        final ServletContainerInitializer initializer = (ignored, servletContext) -> {
+            try (final var handler = container.lookup(JsonRpcHandler.class);
+                 final var mapper = container.lookup(JsonMapper.class)) {
+                final var servlet = servletContext.addServlet("fusion-jsonrpc-websocket", new JsonRpcWebSocketServlet(
+                        handler.instance(), mapper.instance(), maxMessageSize, createExecutor(threads, queueSize), allowedOrigins, maxInFlight));
+                servlet.setLoadOnStartup(1);
+                servlet.addMapping(binding);
+            }
+        };
+
+        // embedded tomcat does not scan the initializers so the JSR 356 container is initialized there
+        final var tomcat = event.unwrap(TomcatWebServerConfiguration.class);
+        tomcat.setInitializers(Stream.concat(
+                        tomcat.getInitializers().stream().filter(it -> !(it instanceof WsSci)),
+                        Stream.of(new WsSci(), initializer))
+                .toList());
+    }
+
+    private Executor createExecutor(final int threads, final int queueSize) {
+        if (threads <= 0) { // reading thread
+            return null;
+        }
+        // bounded queue: when full the requests get a "Server is overloaded" error instead of piling up
+        return new ThreadPoolExecutor(threads, threads, 0, MILLISECONDS, new ArrayBlockingQueue<>(queueSize), new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final var thread = new Thread(r, "fusion-jsonrpc-websocket-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.websocket;
+
+import io.yupiik.fusion.framework.api.ConfiguringContainer;
+import io.yupiik.fusion.framework.api.Instance;
+import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.ConfigurationSource;
+import io.yupiik.fusion.framework.api.container.bean.BaseBean;
+import io.yupiik.fusion.framework.api.scope.DefaultScoped;
+import io.yupiik.fusion.http.server.api.Request;
+import io.yupiik.fusion.http.server.api.WebServer;
+import io.yupiik.fusion.http.server.impl.bean.FusionWebServerModule;
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.internal.framework.JsonModule;
+import io.yupiik.fusion.jsonrpc.impl.DefaultJsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.bean.JsonRpcModule;
+import io.yupiik.fusion.jsonrpc.websocket.impl.bean.JsonRpcWebSocketModule;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonRpcWebSocketTest {
+    @Test
+    @SuppressWarnings("unchecked")
+    void pipelining() throws Exception {
+        final var slow = new CompletableFuture<Object>();
+        try (final var container = start(slow);
+             final var configuration = container.lookup(WebServer.Configuration.class);
+             final var mapper = container.lookup(JsonMapper.class)) {
+            final var messages = new LinkedBlockingQueue<String>();
+            final var pongs = new LinkedBlockingQueue<ByteBuffer>();
+            final var webSocket = HttpClient.newHttpClient()
+                    .newWebSocketBuilder()
+                    .buildAsync(URI.create("ws://localhost:" + configuration.instance().port() + "/jsonrpc/websocket"), listener(messages, pongs))
+                    .get(1, TimeUnit.MINUTES);
+
+            // responses are sent as soon as available
+            send(webSocket, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"slow\",\"id\":\"1\"}");
+            send(webSocket, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"fast\",\"id\":\"2\"}");
+            assertEquals(
+                    Map.of("jsonrpc", "2.0", "id", "2", "result", "fast@/jsonrpc/websocket"),
+                    mapper.instance().fromString(Object.class, next(messages)));
+
+            slow.complete("done");
+            assertEquals(Map.of("jsonrpc", "2.0", "id", "1", "result", "done"), mapper.instance().fromString(Object.class, next(messages)));
+
+            // notifications get no response, even in a batch
+            send(webSocket, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"notification\"}");
+            send(webSocket, "[{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"notification\"}]");
+
+            // batch
+            send(webSocket, "[" +
+                    "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"a\",\"id\":\"3\"}," +
+                    "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"notification\"}," +
+                    "{\"jsonrpc\":\"2.0\",\"method\":\"missing\",\"id\":\"4\"}" +
+                    "]");
+            final var batch = (List<Map<String, Object>>) mapper.instance().fromString(Object.class, next(messages));
+            assertEquals(List.of("3", "4"), batch.stream().map(it -> it.get("id")).toList());
+            assertEquals("a@/jsonrpc/websocket", batch.get(0).get("result"));
+
+            // invalid payload
+            send(webSocket, "{");
+            final var error = (Map<String, Object>) mapper.instance().fromString(Object.class, next(messages));
+            assertEquals("-32700", ((Map<String, Object>) error.get("error")).get("code").toString());
+
+            webSocket.sendPing(ByteBuffer.wrap(new byte[]{1, 2})).get(1, TimeUnit.MINUTES);
+            assertEquals(ByteBuffer.wrap(new byte[]{1, 2}), pongs.poll(1, TimeUnit.MINUTES));
+
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "bye").get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    void origin() throws Exception {
+        try (final var container = start(new CompletableFuture<>());
+             final var configuration = container.lookup(WebServer.Configuration.class)) {
+            final var uri = URI.create("ws://localhost:" + configuration.instance().port() + "/jsonrpc/websocket");
+            final var client = HttpClient.newHttpClient();
+
+            final var error = assertThrows(ExecutionException.class, () -> client.newWebSocketBuilder()
+                    .header("Origin", "https://attacker.example.com")
+                    .buildAsync(uri, listener(new LinkedBlockingQueue<>(), new LinkedBlockingQueue<>()))
+                    .get(1, TimeUnit.MINUTES));
+            assertEquals(403, assertInstanceOf(WebSocketHandshakeException.class, error.getCause()).getResponse().statusCode());
+
+            client.newWebSocketBuilder()
+                    .header("Origin", "http://localhost:" + configuration.instance().port())
+                    .buildAsync(uri, listener(new LinkedBlockingQueue<>(), new LinkedBlockingQueue<>()))
+                    .get(1, TimeUnit.MINUTES)
+                    .sendClose(WebSocket.NORMAL_CLOSURE, "bye")
+                    .get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    void maxInFlight() throws Exception {
+        final var slow = new CompletableFuture<Object>();
+        try (final var container = start(slow, Map.of("fusion.jsonrpc.websocket.maxInFlight", "1"));
+             final var configuration = container.lookup(WebServer.Configuration.class);
+             final var mapper = container.lookup(JsonMapper.class)) {
+            final var messages = new LinkedBlockingQueue<String>();
+            final var webSocket = HttpClient.newHttpClient()
+                    .newWebSocketBuilder()
+                    .buildAsync(URI.create("ws://localhost:" + configuration.instance().port() + "/jsonrpc/websocket"),
+                            listener(messages, new LinkedBlockingQueue<>()))
+                    .get(1, TimeUnit.MINUTES);
+
+            send(webSocket, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"slow\",\"id\":\"1\"}");
+            send(webSocket, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"fast\",\"id\":\"2\"}");
+            assertNull(messages.poll(500, TimeUnit.MILLISECONDS)); // second request is not read while the first one is in flight
+
+            slow.complete("done");
+            assertEquals(Map.of("jsonrpc", "2.0", "id", "1", "result", "done"), mapper.instance().fromString(Object.class, next(messages)));
+            assertEquals(
+                    Map.of("jsonrpc", "2.0", "id", "2", "result", "fast@/jsonrpc/websocket"),
+                    mapper.instance().fromString(Object.class, next(messages)));
+
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "bye").get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private RuntimeContainer start(final CompletableFuture<Object> slow) {
+        return start(slow, Map.of());
+    }
+
+    private RuntimeContainer start(final CompletableFuture<Object> slow, final Map<String, String> configuration) {
+        return ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule(), new JsonRpcWebSocketModule(), new FusionWebServerModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> switch (key) {
+                            case "fusion.http-server.port" -> "0";
+                            case "fusion.jsonrpc.websocket.enabled" -> "true";
+                            default -> configuration.get(key);
+                        };
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "test", ctx -> "slow".equals(ctx.params()) ?
+                                slow : completedFuture(ctx.params() + "@" + ctx.request().path()));
+                    }
+                })
+                .start();
+    }
+
+    private void send(final WebSocket webSocket, final String message) throws Exception {
+        webSocket.sendText(message, true).get(1, TimeUnit.MINUTES);
+    }
+
+    private String next(final BlockingQueue<String> messages) throws InterruptedException {
+        final var message = messages.poll(1, TimeUnit.MINUTES);
+        assertNotNull(message);
+        return message;
+    }
+
+    private WebSocket.Listener listener(final BlockingQueue<String> messages, final BlockingQueue<ByteBuffer> pongs) {
+        return new WebSocket.Listener() {
+            private final StringBuilder current = new StringBuilder();
+
+            @Override
+            public CompletionStage<?> onText(final WebSocket webSocket, final CharSequence data, final boolean last) {
+                current.append(data);
+                if (last) {
+                    messages.add(current.toString());
+                    current.setLength(0);
+                }
+                webSocket.request(1);
+                return null;
+            }
+
+            @Override
+            public CompletionStage<?> onPong(final WebSocket webSocket, final ByteBuffer message) {
+                final var copy = ByteBuffer.allocate(message.remaining());
+                copy.put(message).flip();
+                pongs.add(copy);
+                webSocket.request(1);
+                return null;
+            }
+        };
+    }
+}
@@ -23,11 +23,20 @@ import io.yupiik.fusion.json.JsonMapper;
 
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 import java.util.logging.Logger;
 
 import static io.yupiik.fusion.jsonrpc.JsonRpcHandler.RESPONSE_HEADERS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ROOT;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.logging.Level.FINEST;
 import static java.util.logging.Level.SEVERE;
@@ -38,8 +47,27 @@ public class JsonRpcEndpoint extends DefaultEndpoint {
     private final JsonRpcHandler handler;
     private final JsonMapper mapper;
     private final boolean useInputStream;
+    private final BatchStreaming batchStreaming;
+    private final List<PayloadFormat> formats;
 
     public JsonRpcEndpoint(final JsonRpcHandler handler, final JsonMapper mapper, final String path, final boolean useInputStream) {
+        this(handler, mapper, path, useInputStream, BatchStreaming.NONE);
+    }
+
+    /**
+     * @param batchStreaming how batch responses are written.
+     */
+    public JsonRpcEndpoint(final JsonRpcHandler handler, final JsonMapper mapper, final String path, final boolean useInputStream,
+                           final BatchStreaming batchStreaming) {
+        this(handler, mapper, path, useInputStream, batchStreaming, List.of());
+    }
+
+    /**
+     * @param batchStreaming how batch responses are written.
+     * @param formats        payload formats negotiated with {@code Content-Type}/{@code Accept} headers in place of JSON.
+     */
+    public JsonRpcEndpoint(final JsonRpcHandler handler, final JsonMapper mapper, final String path, final boolean useInputStream,
+                           final BatchStreaming batchStreaming, final List<PayloadFormat> formats) {
         super(
                 1000,
                 r -> "POST".equals(r.method()) && path.equals(r.path()),
@@ -47,27 +75,69 @@ public class JsonRpcEndpoint extends DefaultEndpoint {
         this.useInputStream = useInputStream;
         this.handler = handler;
         this.mapper = mapper;
+        this.batchStreaming = batchStreaming;
+        this.formats = formats;
     }
 
     @Override
     public CompletionStage<Response> handle(final Request request) {
+        final var requestFormat = formats.isEmpty() ? null : findFormat(request.header("content-type"));
+        final var responseFormat = formats.isEmpty() ? null : responseFormat(request, requestFormat);
         final CompletionStage<Object> req;
         try { // deserialization error
-            req = readRequest(request);
+            req = requestFormat != null ? requestFormat.read(request.body()) : readRequest(request);
         } catch (final RuntimeException ex) {
-            return completedFuture(jsonRpcError(-32700, ex, request));
+            return completedFuture(jsonRpcError(-32700, ex, request, responseFormat));
         }
         // todo: add Before event using the bus to enable security validation -
         //  can be done wrapping the endpoint + overriding (priority) it in the IoC as of today?
         return req
-                .thenCompose(in -> handler
-                        .execute(in, request)
-                        .thenApply(it -> response(it, request))
-                        .exceptionally(ex -> {
-                            logger.log(SEVERE, ex, ex::getMessage);
-                            return jsonRpcError(-32603, ex, request);
-                        }))
-                .exceptionally(error -> jsonRpcError(-32700, error, request));
+                .thenCompose(in -> {
+                    if (batchStreaming != BatchStreaming.NONE && responseFormat == null && in instanceof List<?> batch) {
+                        return completedFuture(streamingResponse(batch, request));
+                    }
+                    return handler
+                            .execute(in, request)
+                            .thenApply(it -> response(it, request, responseFormat))
+                            .exceptionally(ex -> {
+                                logger.log(SEVERE, ex, ex::getMessage);
+                                return jsonRpcError(-32603, ex, request, responseFormat);
+                            });
+                })
+                .exceptionally(error -> jsonRpcError(-32700, error, request, responseFormat));
+    }
+
+    // explicitly accepted format, else the request one unless JSON is explicitly accepted
+    private PayloadFormat responseFormat(final Request request, final PayloadFormat requestFormat) {
+        final var accept = request.header("accept");
+        final var accepted = findFormat(accept);
+        if (accepted != null) {
+            return accepted;
+        }
+        if (requestFormat != null && (accept == null || !accept.toLowerCase(ROOT).contains("application/json"))) {
+            return requestFormat;
+        }
+        return null;
+    }
+
+    private PayloadFormat findFormat(final String header) {
+        if (header == null) {
+            return null;
+        }
+        final var value = header.toLowerCase(ROOT);
+        return formats.stream()
+                .filter(it -> value.contains(it.contentType()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // the batch is executed when the body is subscribed and each response is published from its completion callback
+    private Response streamingResponse(final List<?> batch, final Request request) {
+        return Response.of()
+                .status(200)
+                .header("content-type", "application/json;charset=utf-8")
+                .body(new BatchPublisher(batch, request))
+                .build();
     }
 
     private CompletionStage<Object> readRequest(final Request request) {
@@ -85,19 +155,22 @@ public class JsonRpcEndpoint extends DefaultEndpoint {
         }
     }
 
-    private Response jsonRpcError(final int code, final Throwable error, final Request request) {
-        return response(handler.createResponse(null, code, error.getMessage()), request);
+    private Response jsonRpcError(final int code, final Throwable error, final Request request, final PayloadFormat format) {
+        return response(handler.createResponse(null, code, error.getMessage()), request, format);
     }
 
     @SuppressWarnings("unchecked")
-    private Response response(final Object payload, final Request request) {
+    private Response response(final Object payload, final Request request, final PayloadFormat format) {
         final var attribute = request.attribute(RESPONSE_HEADERS, Map.class);
         final var res = Response.of()
                 .status(200)
-                .header("content-type", "application/json;charset=utf-8");
+                .header("content-type", format != null ? format.contentType() : "application/json;charset=utf-8");
         if (attribute != null) {
             ((Map<String, String>) attribute).forEach(res::header);
         }
+        if (format != null) {
+            return res.body(format.write(payload)).build();
+        }
         return res.body((IOConsumer<Writer>) writer -> {
                     try (writer) {
                         mapper.write(payload, writer);
@@ -105,4 +178,211 @@ public class JsonRpcEndpoint extends DefaultEndpoint {
                 })
                 .build();
     }
+
+    /**
+     * A payload format used in place of JSON when the request {@code Content-Type} or {@code Accept} header
+     * contains its content type (CBOR for example).
+     */
+    public interface PayloadFormat {
+        /**
+         * @return the lowercase media type of the format ({@code application/cbor} for example).
+         */
+        String contentType();
+
+        /**
+         * @param body the request body.
+         * @return the generic request ({@code Map} or {@code List}) as it would be read from JSON.
+         */
+        CompletionStage<Object> read(Flow.Publisher<ByteBuffer> body);
+
+        /**
+         * @param payload the JSON-RPC response(s).
+         * @return the response body.
+         */
+        Flow.Publisher<ByteBuffer> write(Object payload);
+    }
+
+    /**
+     * How batch responses are written.
+     */
+    public enum BatchStreaming {
+        /**
+         * The responses array is written once all the requests completed.
+         */
+        NONE,
+
+        /**
+         * Each response is written as soon as it and all the previous responses of the batch are available.
+         */
+        ORDERED,
+
+        /**
+         * Each response is written as soon as it is available, the array is not in the order of the batch
+         * (clients match responses with the request {@code id}).
+         */
+        UNORDERED
+    }
+
+    /**
+     * Publishes the batch responses as they complete, nothing blocks waiting for them:
+     * the chunks are emitted by the thread completing a response (or requesting more data).
+     */
+    private class BatchPublisher implements Flow.Publisher<ByteBuffer>, Flow.Subscription {
+        private final List<?> batch;
+        private final Request request;
+        private final Queue<ByteBuffer> chunks = new ArrayDeque<>();
+        private final io.yupiik.fusion.jsonrpc.Response[] pending; // ordered mode only
+        private final boolean[] written;
+        private Flow.Subscriber<? super ByteBuffer> subscriber;
+        private int next; // next index to write in ordered mode
+        private boolean received;
+        private boolean started;
+        private boolean ended;
+        private boolean completed;
+        private boolean cancelled;
+        private boolean draining;
+        private long demand;
+
+        private BatchPublisher(final List<?> batch, final Request request) {
+            this.batch = batch;
+            this.request = request;
+            this.pending = batchStreaming == BatchStreaming.ORDERED ? new io.yupiik.fusion.jsonrpc.Response[batch.size()] : null;
+            this.written = new boolean[batch.size()];
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            synchronized (this) {
+                if (this.subscriber != null) {
+                    subscriber.onSubscribe(this);
+                    subscriber.onError(new IllegalStateException("Batch response can only be subscribed once"));
+                    return;
+                }
+                this.subscriber = subscriber;
+            }
+            subscriber.onSubscribe(this);
+            handler
+                    .execute(batch, request, this::onResponse)
+                    .whenComplete((result, error) -> onEnd(
+                            result, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Invalid request: " + n + ", should be > 0"));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            chunks.clear();
+        }
+
+        private void onResponse(final io.yupiik.fusion.jsonrpc.Response response, final int index) {
+            synchronized (this) {
+                if (ended) { // batch already failed and the array was closed
+                    return;
+                }
+                received = true;
+                final var out = new StringBuilder();
+                if (pending == null) {
+                    writeItem(out, response);
+                    written[index] = true;
+                } else {
+                    pending[index] = response;
+                    while (next < pending.length && pending[next] != null) {
+                        writeItem(out, pending[next]);
+                        written[next] = true;
+                        pending[next++] = null;
+                    }
+                }
+                push(out);
+            }
+            drain();
+        }
+
+        private void onEnd(final Object result, final Throwable error) {
+            synchronized (this) {
+                ended = true;
+                final var out = new StringBuilder();
+                if (received) {
+                    if (error != null) { // unlikely since each response is already handled but don't hang the client
+                        logger.log(SEVERE, error, error::getMessage);
+                    }
+                    // a failed request has no response (and blocks the ordered ones after it), complete the array anyway
+                    for (int i = 0; i < written.length; i++) {
+                        if (written[i]) {
+                            continue;
+                        }
+                        writeItem(out, pending != null && pending[i] != null ?
+                                pending[i] :
+                                handler.createResponse(batch.get(i), -32603, error != null ?
+                                        error.getMessage() : "No response for request #" + i));
+                    }
+                    out.append(']');
+                } else if (error != null) {
+                    logger.log(SEVERE, error, error::getMessage);
+                    out.append(mapper.toString(handler.createResponse(null, -32603, error.getMessage())));
+                } else { // batch rejected as a whole (too much requests, before event)
+                    out.append(mapper.toString(result));
+                }
+                push(out);
+            }
+            drain();
+        }
+
+        private void writeItem(final StringBuilder out, final io.yupiik.fusion.jsonrpc.Response response) {
+            out.append(started ? ',' : '[').append(mapper.toString(response));
+            started = true;
+        }
+
+        private void push(final StringBuilder out) {
+            if (!out.isEmpty() && !cancelled) {
+                chunks.add(UTF_8.encode(CharBuffer.wrap(out)));
+            }
+        }
+
+        // emits the available chunks, the subscriber can request more from onNext so this is not reentrant
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                final ByteBuffer chunk;
+                synchronized (this) {
+                    if (cancelled || completed) {
+                        draining = false;
+                        return;
+                    }
+                    if (demand == 0 || chunks.isEmpty()) {
+                        draining = false;
+                        if (!ended || !chunks.isEmpty()) {
+                            return;
+                        }
+                        completed = true;
+                        chunk = null;
+                    } else {
+                        demand--;
+                        chunk = chunks.poll();
+                    }
+                }
+                if (chunk == null) {
+                    subscriber.onComplete();
+                    return;
+                }
+                subscriber.onNext(chunk);
+            }
+        }
+    }
 }
@@ -22,6 +22,9 @@ import io.yupiik.fusion.http.server.impl.io.RequestBodyAggregator;
 import io.yupiik.fusion.json.JsonMapper;
 import io.yupiik.fusion.json.deserialization.AvailableCharArrayReader;
 import io.yupiik.fusion.jsonrpc.api.PartialResponse;
+import io.yupiik.fusion.jsonrpc.batch.BatchExecutionStrategy;
+import io.yupiik.fusion.jsonrpc.batch.BatchMetrics;
+import io.yupiik.fusion.jsonrpc.batch.ParallelBatchExecutionStrategy;
 import io.yupiik.fusion.jsonrpc.event.BeforeRequest;
 import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
 
@@ -36,12 +39,13 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.CompletableFuture.completedFuture;
@@ -56,51 +60,151 @@ public class JsonRpcHandler {
     private final Emitter emitter;
     private final JsonMapper mapper;
     private final JsonRpcRegistry registry;
+    private final BatchExecutionStrategy batchExecutionStrategy;
+    private final int maxBulkRequests;
+    private final boolean readAsync;
+    private final BatchMetrics batchMetrics = new BatchMetrics();
 
     public JsonRpcHandler(final RuntimeContainer emitter, final JsonMapper mapper, final JsonRpcRegistry registry) {
+        this(emitter, mapper, registry, new ParallelBatchExecutionStrategy(null, -1), 50);
+    }
+
+    /**
+     * @param batchExecutionStrategy how batch requests are executed.
+     * @param maxBulkRequests        max number of requests in a batch.
+     */
+    public JsonRpcHandler(final RuntimeContainer emitter, final JsonMapper mapper, final JsonRpcRegistry registry,
+                          final BatchExecutionStrategy batchExecutionStrategy, final int maxBulkRequests) {
+        this(emitter, mapper, registry, batchExecutionStrategy, maxBulkRequests, false);
+    }
+
+    /**
+     * @param batchExecutionStrategy how batch requests are executed.
+     * @param maxBulkRequests        max number of requests in a batch.
+     * @param readAsync              if {@code true} the request body is parsed while received with {@link JsonMapper#readAsync},
+     *                               else it is aggregated then parsed.
+     */
+    public JsonRpcHandler(final RuntimeContainer emitter, final JsonMapper mapper, final JsonRpcRegistry registry,
+                          final BatchExecutionStrategy batchExecutionStrategy, final int maxBulkRequests,
+                          final boolean readAsync) {
         this.emitter = emitter.getListeners().hasDirectListener(BeforeRequest.class) ? emitter : null;
         this.mapper = mapper;
         this.registry = registry;
+        this.batchExecutionStrategy = batchExecutionStrategy;
+        this.maxBulkRequests = maxBulkRequests;
+        this.readAsync = readAsync;
+    }
+
+    public BatchExecutionStrategy getBatchExecutionStrategy() {
+        return batchExecutionStrategy;
+    }
+
+    /**
+     * @return batches timing counters.
+     */
+    public BatchMetrics getBatchMetrics() {
+        return batchMetrics;
     }
 
     public CompletionStage<Object> readRequest(final Flow.Publisher<ByteBuffer> payload) {
+        if (readAsync) {
+            return mapper.readAsync(Object.class, payload);
+        }
         return new RequestBodyAggregator(payload, UTF_8)
                 .promise()
                 .thenApply(chars -> mapper.read(Object.class, new AvailableCharArrayReader(chars)));
     }
 
     public CompletionStage<Response> handleRequest(final Map<String, Object> request, final Request httpRequest) {
-        return doValidate(request)
-                .map(CompletableFuture::completedFuture)
-                .orElseGet(() -> doHandle(request, httpRequest));
+        final var envelope = envelope(request);
+        if (envelope.error() != null) {
+            return completedFuture(envelope.error());
+        }
+        if (httpRequest != null) {
+            httpRequest.setAttribute(REQUEST_METHOD_ATTRIBUTE, envelope.method());
+        }
+        return invoke(envelope, httpRequest);
     }
 
-    public CompletableFuture<Response> doHandle(final Map<String, Object> request, final Request httpRequest) {
-        final var method = request.get("method").toString();
-        final var fn = registry.methods().get(method);
-        final var id = request.get("id");
-        final var params = request.get("params");
+    /**
+     * Validates a request and resolves its method in a single pass.
+     *
+     * @param request the raw JSON-RPC request.
+     * @return the decoded envelope, {@link Envelope#error()} is set if the request is invalid.
+     */
+    public Envelope envelope(final Map<String, Object> request) {
+        final var rawId = request.get("id");
+        final var id = rawId == null ? null : rawId.toString();
 
-        if (httpRequest != null) {
-            appendJsonRpcMethod(httpRequest, method);
+        final var rawVersion = request.get("jsonrpc");
+        if (rawVersion == null) {
+            return invalid(id, request, -32600, "Missing jsonrpc");
+        }
+        final var version = String.valueOf(rawVersion);
+        if (version.isEmpty()) {
+            return invalid(id, request, -32600, "Empty jsonrpc");
         }
+        if (!"2.0".equals(version)) {
+            return invalid(id, request, -32600, "invalid jsonrpc version");
+        }
+
+        final var rawMethod = request.get("method");
+        if (rawMethod == null) {
+            return invalid(id, request, -32601, "Missing method");
+        }
+        final var method = String.valueOf(rawMethod);
+        if (method.isEmpty()) {
+            return invalid(id, request, -32601, "Empty method");
+        }
+
+        final var invoker = registry.find(method);
+        if (invoker == null) {
+            return invalid(id, request, -32601, "Unknown method (" + method + ")");
+        }
+        return new Envelope(id, method, request.get("params"), invoker, request, null);
+    }
 
+    /**
+     * Invokes a valid envelope (see {@link #envelope(Map)}), it does not set the HTTP request attributes.
+     *
+     * @param envelope    the request to execute.
+     * @param httpRequest the HTTP request if any.
+     * @return the JSON-RPC response.
+     */
+    public CompletableFuture<Response> invoke(final Envelope envelope, final Request httpRequest) {
         try {
-            return fn
-                    .invoke(new JsonRpcMethod.Context(httpRequest, params))
+            return envelope.invoker()
+                    .invoke(new JsonRpcMethod.Context(httpRequest, envelope.params()))
                     .handle((result, error) -> {
-                        final var reqId = id != null ? id.toString() : null;
                         if (error != null) {
                             return toErrorResponse(
-                                    reqId,
+                                    envelope.id(),
                                     error instanceof CompletionException && error.getCause() != null ? error.getCause() : error,
-                                    request);
+                                    envelope.request());
                         }
-                        return new Response("2.0", reqId, unwrapResult(result, httpRequest), null);
+                        return new Response("2.0", envelope.id(), unwrapResult(result, httpRequest), null);
                     }).toCompletableFuture();
         } catch (final RuntimeException re) {
-            return completedFuture(toErrorResponse(id == null ? null : id.toString(), re, request));
+            return completedFuture(toErrorResponse(envelope.id(), re, envelope.request()));
+        }
+    }
+
+    /**
+     * Executes an already validated request (see {@link #doValidate(Map)}), unlike {@link #handleRequest(Map, Request)}
+     * it does not validate it again.
+     *
+     * @param request     the valid JSON-RPC request.
+     * @param httpRequest the HTTP request if any.
+     * @return the JSON-RPC response.
+     */
+    public CompletableFuture<Response> doHandle(final Map<String, Object> request, final Request httpRequest) {
+        final var method = request.get("method").toString();
+        final var rawId = request.get("id");
+        if (httpRequest != null) {
+            httpRequest.setAttribute(REQUEST_METHOD_ATTRIBUTE, method);
         }
+        return invoke(new Envelope(
+                rawId == null ? null : rawId.toString(), method, request.get("params"), registry.find(method), request, null), httpRequest);
     }
 
     @SuppressWarnings("unchecked")
@@ -121,15 +225,6 @@ public class JsonRpcHandler {
         return result;
     }
 
-    private void appendJsonRpcMethod(final Request httpRequest, final String method) {
-        final var existing = httpRequest.attribute(REQUEST_METHOD_ATTRIBUTE, String.class);
-        if (existing == null) {
-            httpRequest.setAttribute(REQUEST_METHOD_ATTRIBUTE, method);
-        } else {
-            httpRequest.setAttribute(REQUEST_METHOD_ATTRIBUTE, existing + "," + method);
-        }
-    }
-
     public Response toErrorResponse(final String id, final Throwable re, final Object request) {
         final Response.ErrorResponse errorResponse;
         if (re instanceof JsonRpcException jre) {
@@ -149,33 +244,11 @@ public class JsonRpcHandler {
     }
 
     public Optional<Response> doValidate(final Map<String, Object> request) {
-        final var pair = ensurePresent(request, "jsonrpc", -32600);
-        if (pair.second() != null) {
-            return of(pair.second());
-        }
-        if (!"2.0".equals(pair.first())) {
-            return of(createResponse(request, -32600, "invalid jsonrpc version"));
-        }
-        final var method = ensurePresent(request, "method", -32601);
-        if (method.second() != null) {
-            return of(method.second());
-        }
-        if (!registry.methods().containsKey(method.first())) {
-            return of(createResponse(request, -32601, "Unknown method (" + method.first() + ")"));
-        }
-        return empty();
+        return ofNullable(envelope(request).error());
     }
 
-    private Tuple2<String, Response> ensurePresent(final Map<String, Object> request, final String key, final int code) {
-        final var methodJson = request.get(key);
-        if (methodJson == null) {
-            return new Tuple2<>(null, createResponse(request, code, "Missing " + key));
-        }
-        final var method = String.valueOf(methodJson);
-        if (method.isEmpty()) {
-            return new Tuple2<>(null, createResponse(request, code, "Empty " + key));
-        }
-        return new Tuple2<>(method, null);
+    private Envelope invalid(final String id, final Map<String, Object> request, final int code, final String message) {
+        return new Envelope(id, null, null, null, request, new Response("2.0", id, null, new Response.ErrorResponse(code, message, null)));
     }
 
     public Response createResponse(final Object request, final int code, final String message) {
@@ -183,8 +256,22 @@ public class JsonRpcHandler {
         return new Response("2.0", id, null, new Response.ErrorResponse(code, message, null));
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public CompletionStage<?> execute(final Object request, final Request httpRequest) {
+        return execute(request, httpRequest, null);
+    }
+
+    /**
+     * Same as {@link #execute(Object, Request)} but for a batch each response is also passed to {@code onBatchResponse}
+     * with its index in the batch as soon as it is available (it enables to stream the responses).
+     * If the batch is rejected as a whole (too much requests, {@link BeforeRequest} failure) the callback is not called.
+     *
+     * @param request         the JSON-RPC request.
+     * @param httpRequest     the HTTP request if any.
+     * @param onBatchResponse the batch responses callback, can be {@code null}.
+     * @return the JSON-RPC response(s).
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public CompletionStage<?> execute(final Object request, final Request httpRequest, final ObjIntConsumer<Response> onBatchResponse) {
         if (request instanceof Map obj) {
             if (emitter != null) {
                 return onBefore(new BeforeRequest(List.of(obj), httpRequest, new ArrayList<>()))
@@ -211,26 +298,81 @@ public class JsonRpcHandler {
                 return onBefore(new BeforeRequest(maps.stream().map(Tuple2::first).filter(Objects::nonNull).toList(), httpRequest, new ArrayList<>()))
                         .thenCompose(ok -> ok
                                 .map(CompletableFuture::completedFuture)
-                                .orElseGet(() -> handleRequests(maps, httpRequest)));
+                                .orElseGet(() -> onBatchResponse == null ?
+                                        handleRequests(maps, httpRequest) :
+                                        handleRequests(maps, httpRequest, onBatchResponse)));
             }
-            return handleRequests(maps, httpRequest);
+            return onBatchResponse == null ? handleRequests(maps, httpRequest) : handleRequests(maps, httpRequest, onBatchResponse);
         }
         return completedFuture(createResponse(null, -32600, "Unknown request type: " + request.getClass()));
     }
 
     protected CompletableFuture<List<Response>> handleRequests(final List<Tuple2<Map<String, Object>, Object>> requests,
                                                                final Request httpRequest) {
-        final CompletableFuture<?>[] futures = requests.stream()
-                .map(it -> it.first() != null ?
-                        handleRequest(it.first(), httpRequest) :
-                        completedFuture(createResponse(it.second(), -32600, "Batch requests must be JSON objects")))
-                .map(CompletionStage::toCompletableFuture)
-                .toArray(CompletableFuture[]::new);
-        return CompletableFuture
-                .allOf(futures)
-                .thenApply(ignored -> Stream.of(futures)
-                        .map(f -> (Response) f.getNow(null))
-                        .toList());
+        return handleRequests(requests, httpRequest, null);
+    }
+
+    /**
+     * Executes a batch notifying each response to {@code onResponse} as soon as it is available.
+     * {@link #execute(Object, Request, ObjIntConsumer)} only calls it when there is a callback (streaming),
+     * else it calls {@link #handleRequests(List, Request)} so overriding one of them does not bypass the other.
+     *
+     * @param requests    the batch requests.
+     * @param httpRequest the HTTP request if any.
+     * @param onResponse  the response callback (with the index of the request in the batch), can be {@code null}.
+     * @return the batch responses.
+     */
+    protected CompletableFuture<List<Response>> handleRequests(final List<Tuple2<Map<String, Object>, Object>> requests,
+                                                               final Request httpRequest,
+                                                               final ObjIntConsumer<Response> onResponse) {
+        final long start = System.nanoTime();
+
+        // decode all the envelopes upfront to set the request attribute once (tasks can run concurrently)
+        final var envelopes = new ArrayList<Envelope>(requests.size());
+        StringBuilder methods = null;
+        for (final var it : requests) {
+            final var envelope = it.first() != null ? envelope(it.first()) : null;
+            envelopes.add(envelope);
+            if (httpRequest != null && envelope != null && envelope.error() == null) {
+                if (methods == null) {
+                    methods = new StringBuilder(envelope.method());
+                } else {
+                    methods.append(',').append(envelope.method());
+                }
+            }
+        }
+        if (methods != null) {
+            httpRequest.setAttribute(REQUEST_METHOD_ATTRIBUTE, methods.toString());
+        }
+
+        final var tasks = new ArrayList<BatchExecutionStrategy.Task>(requests.size());
+        for (final var it : requests) {
+            final int index = tasks.size();
+            final var envelope = envelopes.get(index);
+            final Supplier<CompletionStage<Response>> invocation;
+            if (envelope == null) {
+                invocation = () -> completedFuture(createResponse(it.second(), -32600, "Batch requests must be JSON objects"));
+            } else if (envelope.error() != null) {
+                invocation = () -> completedFuture(envelope.error());
+            } else {
+                invocation = () -> invoke(envelope, httpRequest);
+            }
+            tasks.add(new BatchExecutionStrategy.Task(index, it.first(), onResponse == null ?
+                    invocation :
+                    () -> invocation.get().thenApply(response -> { // strategies see the completion once the callback ran
+                        onResponse.accept(response, index);
+                        return response;
+                    })));
+        }
+        return batchExecutionStrategy.execute(tasks)
+                .toCompletableFuture()
+                .whenComplete((responses, error) -> {
+                    final long duration = System.nanoTime() - start;
+                    batchMetrics.onBatch(tasks.size(), duration);
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.fine("Executed a batch of " + tasks.size() + " requests in " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms");
+                    }
+                });
     }
 
     protected CompletionStage<Optional<List<Response>>> onBefore(final BeforeRequest event) {
@@ -257,9 +399,23 @@ public class JsonRpcHandler {
     }
 
     protected int getMaxBulkRequests() {
-        return 50;
+        return maxBulkRequests;
     }
 
     protected record Tuple2<A, B>(A first, B second) {
     }
+
+    /**
+     * Typed JSON-RPC request envelope.
+     *
+     * @param id      the request identifier (as a string), {@code null} for notifications.
+     * @param method  the method name, {@code null} if the request is invalid.
+     * @param params  the raw parameters.
+     * @param invoker the resolved method, {@code null} if the request is invalid.
+     * @param request the raw request.
+     * @param error   the validation error response, {@code null} if the request is valid.
+     */
+    public record Envelope(String id, String method, Object params, JsonRpcMethod invoker,
+                           Map<String, Object> request, Response error) {
+    }
 }
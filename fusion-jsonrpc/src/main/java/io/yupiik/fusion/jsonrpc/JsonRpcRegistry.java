@@ -15,6 +15,7 @@
  */
 package io.yupiik.fusion.jsonrpc;
 
+import io.yupiik.fusion.jsonrpc.impl.DispatchTable;
 import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
 
 import java.util.List;
@@ -23,18 +24,36 @@ import java.util.Map;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toMap;
 
+/**
+ * Immutable registry of the JSON-RPC methods: the methods are the ones passed at construction time
+ * (the {@link JsonRpcMethod} beans) and are indexed once in a dispatch table.
+ * To add methods, register {@link JsonRpcMethod} beans (or provide another {@link JsonRpcRegistry} bean).
+ */
 public class JsonRpcRegistry {
     private final Map<String, JsonRpcMethod> methods;
+    private final DispatchTable dispatchTable;
 
     public JsonRpcRegistry(final List<JsonRpcMethod> methods) {
-        this.methods = methods.stream().collect(toMap(JsonRpcMethod::name, identity(), (a, b) -> {
+        this.methods = Map.copyOf(methods.stream().collect(toMap(JsonRpcMethod::name, identity(), (a, b) -> {
             if (a.priority() - b.priority() >= 0) {
                 return a;
             }
             return b;
-        }));
+        })));
+        this.dispatchTable = new DispatchTable(this.methods);
+    }
+
+    /**
+     * @param name the method name.
+     * @return the method registered for this name or {@code null}.
+     */
+    public JsonRpcMethod find(final String name) {
+        return dispatchTable.get(name);
     }
 
+    /**
+     * @return the registered methods, the map is read-only.
+     */
     public Map<String, JsonRpcMethod> methods() {
         return methods;
     }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Defines how the requests of a JSON-RPC batch are executed.
+ * Implementations must return the responses in the order of the tasks.
+ */
+public interface BatchExecutionStrategy extends AutoCloseable {
+    /**
+     * @param tasks the batch items, in the order of the batch.
+     * @return the responses, one per task and in the same order.
+     */
+    CompletionStage<List<Response>> execute(List<Task> tasks);
+
+    @Override
+    default void close() {
+        // no-op
+    }
+
+    /**
+     * A batch item.
+     *
+     * @param index      position in the batch.
+     * @param request    the JSON-RPC request or {@code null} if the item is not a JSON object.
+     * @param invocation executes the request (it already handles errors and returns an error response).
+     */
+    record Task(int index, Map<String, Object> request, Supplier<CompletionStage<Response>> invocation) {
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timing counters of the executed batches (the duration includes the asynchronous completion of all the requests).
+ * They can be registered as gauges in a metrics registry.
+ */
+public class BatchMetrics {
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder totalDuration = new LongAdder();
+    private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+
+    public void onBatch(final int size, final long durationNanos) {
+        batches.increment();
+        requests.add(size);
+        totalDuration.add(durationNanos);
+        maxDuration.accumulate(durationNanos);
+    }
+
+    /**
+     * @return number of executed batches.
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return number of requests executed in batches.
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return cumulated duration of the batches in nanoseconds.
+     */
+    public long getTotalDurationNanos() {
+        return totalDuration.sum();
+    }
+
+    /**
+     * @return the duration of the slowest batch in nanoseconds.
+     */
+    public long getMaxDurationNanos() {
+        return maxDuration.get();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.function.Function.identity;
+
+/**
+ * Starts the tasks of a batch with at most {@code maxConcurrency} of them in flight.
+ * Queued tasks are started by a single drainer at a time so synchronous completions do not recurse.
+ */
+class ConcurrencyLimiter {
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    ConcurrencyLimiter(final Executor executor, final int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency <= 0 ? Integer.MAX_VALUE : maxConcurrency;
+    }
+
+    CompletableFuture<Response> submit(final BatchExecutionStrategy.Task task) {
+        final var pending = new Pending(task, new CompletableFuture<>());
+        queue.add(pending);
+        drain();
+        return pending.result();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (inFlight.get() < maxConcurrency) {
+                final var next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                inFlight.incrementAndGet();
+                invoke(next.task(), executor).whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    if (error != null) {
+                        next.result().completeExceptionally(error);
+                    } else {
+                        next.result().complete(response);
+                    }
+                    drain();
+                });
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    static CompletionStage<Response> invoke(final BatchExecutionStrategy.Task task, final Executor executor) {
+        try {
+            if (executor == null) {
+                return task.invocation().get();
+            }
+            return CompletableFuture.supplyAsync(task.invocation(), executor).thenCompose(identity());
+        } catch (final RuntimeException re) { // rejected execution for example
+            return failedFuture(re);
+        }
+    }
+
+    private record Pending(BatchExecutionStrategy.Task task, CompletableFuture<Response> result) {
+    }
+}
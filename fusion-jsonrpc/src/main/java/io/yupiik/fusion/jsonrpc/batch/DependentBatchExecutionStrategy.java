@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Same as {@link ParallelBatchExecutionStrategy} but a request can declare it must run after other requests of the batch
+ * with a {@code dependsOn} member: the id (or list of ids) of previous requests of the batch.
+ * <p>
+ * Only the ordering is guaranteed, a request still runs when one of its dependencies returned an error.
+ */
+public class DependentBatchExecutionStrategy implements BatchExecutionStrategy {
+    public static final String DEPENDS_ON = "dependsOn";
+
+    private final Executor executor;
+    private final int maxConcurrency;
+
+    /**
+     * @param executor       the executor to start requests in, {@code null} to start them on the calling/completing thread.
+     * @param maxConcurrency max requests in flight for a batch, negative or zero for no limit.
+     */
+    public DependentBatchExecutionStrategy(final Executor executor, final int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public CompletionStage<List<Response>> execute(final List<Task> tasks) {
+        final var limiter = new ConcurrencyLimiter(executor, maxConcurrency);
+        final var byId = new HashMap<String, CompletableFuture<Response>>();
+        final var futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            final var task = tasks.get(i);
+            final var request = task.request();
+            final var future = request == null ? limiter.submit(task) : submit(limiter, task, request, byId);
+            futures[i] = future;
+
+            final var id = request == null ? null : request.get("id");
+            if (id != null) {
+                byId.putIfAbsent(String.valueOf(id), future);
+            }
+        }
+        return ParallelBatchExecutionStrategy.collect(futures);
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService es) {
+            es.shutdown();
+        }
+    }
+
+    private CompletableFuture<Response> submit(final ConcurrencyLimiter limiter, final Task task,
+                                               final Map<String, Object> request,
+                                               final Map<String, CompletableFuture<Response>> byId) {
+        final var dependsOn = request.get(DEPENDS_ON);
+        if (dependsOn == null) {
+            return limiter.submit(task);
+        }
+
+        final var ids = dependsOn instanceof Collection<?> c ? c : List.of(dependsOn);
+        final var dependencies = new CompletableFuture<?>[ids.size()];
+        int index = 0;
+        for (final var id : ids) {
+            final var dependency = byId.get(String.valueOf(id));
+            if (dependency == null) {
+                final var requestId = request.get("id");
+                return completedFuture(new Response("2.0", requestId == null ? null : requestId.toString(), null, new Response.ErrorResponse(
+                        -32600, "Unknown dependency '" + id + "', it must be the id of a previous request of the batch", null)));
+            }
+            dependencies[index++] = dependency;
+        }
+        return CompletableFuture.allOf(dependencies).thenCompose(ignored -> limiter.submit(task));
+    }
+}
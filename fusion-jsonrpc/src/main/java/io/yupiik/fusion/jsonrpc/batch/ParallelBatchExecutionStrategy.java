@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Executes the batch requests concurrently.
+ * <p>
+ * Without executor the requests are started on the calling thread (synchronous methods then run one after the other)
+ * else each request is started in the executor (a thread pool or virtual threads).
+ * If the executor is an {@link ExecutorService} it is shut down when the strategy is closed.
+ */
+public class ParallelBatchExecutionStrategy implements BatchExecutionStrategy {
+    private final Executor executor;
+    private final int maxConcurrency;
+
+    /**
+     * @param executor       the executor to start requests in, {@code null} to start them on the calling thread.
+     * @param maxConcurrency max requests in flight for a batch, negative or zero for no limit.
+     */
+    public ParallelBatchExecutionStrategy(final Executor executor, final int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public CompletionStage<List<Response>> execute(final List<Task> tasks) {
+        final CompletableFuture<?>[] futures;
+        if (executor == null && maxConcurrency <= 0) { // no need of a limiter
+            futures = tasks.stream()
+                    .map(it -> ConcurrencyLimiter.invoke(it, null).toCompletableFuture())
+                    .toArray(CompletableFuture[]::new);
+        } else {
+            final var limiter = new ConcurrencyLimiter(executor, maxConcurrency);
+            futures = tasks.stream()
+                    .map(limiter::submit)
+                    .toArray(CompletableFuture[]::new);
+        }
+        return collect(futures);
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService es) {
+            es.shutdown();
+        }
+    }
+
+    static CompletableFuture<List<Response>> collect(final CompletableFuture<?>[] futures) {
+        return CompletableFuture
+                .allOf(futures)
+                .thenApply(ignored -> Stream.of(futures)
+                        .map(f -> (Response) f.getNow(null))
+                        .toList());
+    }
+}
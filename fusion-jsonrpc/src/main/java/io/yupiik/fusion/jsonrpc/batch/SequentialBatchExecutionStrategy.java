@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Executes the batch requests one after the other, a request starts when the previous one completed.
+ */
+public class SequentialBatchExecutionStrategy implements BatchExecutionStrategy {
+    @Override
+    public CompletionStage<List<Response>> execute(final List<Task> tasks) {
+        final List<Response> responses = new ArrayList<>(tasks.size());
+        CompletionStage<?> chain = completedFuture(null);
+        for (final var task : tasks) {
+            chain = chain
+                    .thenCompose(ignored -> ConcurrencyLimiter.invoke(task, null))
+                    .thenAccept(responses::add);
+        }
+        return chain.thenApply(ignored -> responses);
+    }
+}
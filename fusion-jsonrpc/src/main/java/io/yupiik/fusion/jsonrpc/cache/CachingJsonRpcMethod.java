@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.api.PartialResponse;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Wraps a side effect free method to serve its results from a {@link ResponseCache}.
+ * <p>
+ * The key is the method name and the canonical form of the parameters (object members are sorted)
+ * and the result is stored serialized so a cached value can't be mutated by a caller.
+ * The key does not depend on the request so only methods whose result does not depend on the caller can be cached
+ * unless a {@link CallKeyExtension} adds the request dependent part of the key.
+ * {@code null} results and {@link PartialResponse} are not cached since they are not written as a plain {@code result}.
+ */
+public class CachingJsonRpcMethod implements JsonRpcMethod {
+    private final JsonRpcMethod delegate;
+    private final JsonMapper mapper;
+    private final ResponseCache cache;
+    private final long ttl;
+    private final CallKeyExtension keyExtension;
+
+    public CachingJsonRpcMethod(final JsonRpcMethod delegate, final JsonMapper mapper, final ResponseCache cache, final long ttl) {
+        this(delegate, mapper, cache, ttl, null);
+    }
+
+    /**
+     * @param delegate     the actual method.
+     * @param mapper       the mapper used to serialize the results.
+     * @param cache        the cache to use.
+     * @param ttl          time to live of the results in milliseconds.
+     * @param keyExtension the request dependent part of the key, can be {@code null}.
+     */
+    public CachingJsonRpcMethod(final JsonRpcMethod delegate, final JsonMapper mapper, final ResponseCache cache, final long ttl,
+                                final CallKeyExtension keyExtension) {
+        this.delegate = delegate;
+        this.mapper = mapper;
+        this.cache = cache;
+        this.ttl = ttl;
+        this.keyExtension = keyExtension;
+    }
+
+    @Override
+    public int priority() {
+        return delegate.priority();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public CompletionStage<?> invoke(final Context context) {
+        return cache.get(CallKeys.of(delegate.name(), context, keyExtension), ttl, () -> delegate.invoke(context)
+                .thenApply(result -> SerializedResult.of(mapper, result)));
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+
+/**
+ * Adds the request dependent part of the key of cached and coalesced calls, by default calls are only identified
+ * by their method and parameters so a method reading request scoped data (the user, a header, ...) would share
+ * the result of a caller with another one.
+ * <p>
+ * Register it as a bean, for example to return the authenticated user identifier.
+ */
+@FunctionalInterface
+public interface CallKeyExtension {
+    /**
+     * @param context the call context, {@link JsonRpcMethod.Context#request()} can be {@code null}.
+     * @return the request dependent part of the key, {@code null} if the call does not depend on the request.
+     */
+    String key(JsonRpcMethod.Context context);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import io.yupiik.fusion.json.internal.JsonStrings;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+final class CallKeys {
+    private CallKeys() {
+        // no-op
+    }
+
+    /**
+     * @param method    the JSON-RPC method name.
+     * @param context   the call context.
+     * @param extension the request dependent part of the key, can be {@code null}.
+     * @return a key identifying the call, object members order is ignored.
+     */
+    static String of(final String method, final JsonRpcMethod.Context context, final CallKeyExtension extension) {
+        final var key = new StringBuilder(method).append('\0');
+        if (extension != null) {
+            final var requestKey = extension.key(context);
+            if (requestKey != null) {
+                key.append(requestKey);
+            }
+            key.append('\0');
+        }
+        appendCanonical(key, context.params());
+        return key.toString();
+    }
+
+    private static void appendCanonical(final StringBuilder builder, final Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof Map<?, ?> map) {
+            builder.append('{');
+            boolean first = true;
+            for (final var entry : (map.size() > 1 ? new TreeMap<>(map) : map).entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                } else {
+                    first = false;
+                }
+                builder.append(JsonStrings.escape(String.valueOf(entry.getKey()))).append(':');
+                appendCanonical(builder, entry.getValue());
+            }
+            builder.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            builder.append('[');
+            boolean first = true;
+            for (final var item : collection) {
+                if (!first) {
+                    builder.append(',');
+                } else {
+                    first = false;
+                }
+                appendCanonical(builder, item);
+            }
+            builder.append(']');
+        } else if (value instanceof CharSequence string) {
+            builder.append(JsonStrings.escape(string.toString()));
+        } else {
+            builder.append(value);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Wraps a method so identical concurrent calls (same method and parameters) execute it once and share its result.
+ * <p>
+ * The HTTP request of the call actually executing the method is the one visible in the method context
+ * so only methods whose result does not depend on the caller can be coalesced
+ * unless a {@link CallKeyExtension} adds the request dependent part of the key.
+ */
+public class CoalescingJsonRpcMethod implements JsonRpcMethod {
+    private final JsonRpcMethod delegate;
+    private final JsonMapper mapper;
+    private final SingleFlight singleFlight;
+    private final CallKeyExtension keyExtension;
+
+    public CoalescingJsonRpcMethod(final JsonRpcMethod delegate, final JsonMapper mapper, final SingleFlight singleFlight) {
+        this(delegate, mapper, singleFlight, null);
+    }
+
+    /**
+     * @param delegate     the actual method.
+     * @param mapper       if not {@code null} the shared result is serialized once, else the result instance is shared.
+     * @param singleFlight the in-flight calls registry.
+     * @param keyExtension the request dependent part of the key, can be {@code null}.
+     */
+    public CoalescingJsonRpcMethod(final JsonRpcMethod delegate, final JsonMapper mapper, final SingleFlight singleFlight,
+                                   final CallKeyExtension keyExtension) {
+        this.delegate = delegate;
+        this.mapper = mapper;
+        this.singleFlight = singleFlight;
+        this.keyExtension = keyExtension;
+    }
+
+    @Override
+    public int priority() {
+        return delegate.priority();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public CompletionStage<?> invoke(final Context context) {
+        return singleFlight.execute(CallKeys.of(delegate.name(), context, keyExtension), mapper == null ?
+                () -> delegate.invoke(context) :
+                () -> delegate.invoke(context).thenApply(result -> SerializedResult.of(mapper, result)));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Size bounded (least recently used eviction) cache of {@link SerializedResult} with a time to live per entry.
+ * <p>
+ * Concurrent misses on the same key share the same loading (single-flight): the loader is called once
+ * and all callers get its result. Only {@link SerializedResult} values are stored, other values and failures
+ * are shared with the concurrent callers but not cached.
+ */
+public class ResponseCache {
+    private final int maxEntries;
+    private final long defaultTtl;
+
+    private final ReentrantLock lock = new ReentrantLock(); // not synchronized to stay virtual thread friendly
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, .75f, true);
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries max number of cached results.
+     * @param defaultTtl default time to live of an entry in milliseconds.
+     */
+    public ResponseCache(final int maxEntries, final long defaultTtl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtl = defaultTtl;
+    }
+
+    public long getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    /**
+     * @param key    the cache key.
+     * @param ttl    time to live of the result in milliseconds.
+     * @param loader computes the value on a miss.
+     * @return the cached value or the one computed by the loader.
+     */
+    public CompletionStage<Object> get(final String key, final long ttl, final Supplier<CompletionStage<?>> loader) {
+        final var cached = find(key);
+        if (cached != null) {
+            hits.increment();
+            return completedFuture(cached);
+        }
+
+        return singleFlight.execute(key, () -> {
+            final var loaded = find(key); // a concurrent loading can have completed in between
+            if (loaded != null) {
+                hits.increment();
+                return completedFuture(loaded);
+            }
+
+            misses.increment();
+            return loader.get().thenApply(value -> { // stored before the flight lands to not miss it
+                if (value instanceof SerializedResult result) {
+                    put(key, result, ttl);
+                }
+                return value;
+            });
+        });
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of requests served from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of requests which executed the method.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of requests which waited for an identical in-flight request instead of executing the method.
+     */
+    public long getCoalesced() {
+        return singleFlight.getCoalesced();
+    }
+
+    /**
+     * @return number of entries evicted because the cache was full.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return current number of entries (including expired ones not yet removed).
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SerializedResult find(final String key) {
+        lock.lock();
+        try {
+            final var entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(final String key, final SerializedResult value, final long ttl) {
+        final var entry = new Entry(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl));
+        lock.lock();
+        try {
+            entries.put(key, entry);
+            if (entries.size() > maxEntries) {
+                final var eldest = entries.entrySet().iterator();
+                while (entries.size() > maxEntries) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(SerializedResult value, long expiresAt) {
+    }
+}
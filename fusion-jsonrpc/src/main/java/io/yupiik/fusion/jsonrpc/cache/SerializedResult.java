@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.jsonrpc.api.PartialResponse;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A JSON-RPC result already serialized in JSON, it is written as is in the response.
+ * <p>
+ * The UTF-8 form is precomputed so byte based outputs do not re-encode it.
+ */
+public final class SerializedResult {
+    private final char[] json;
+    private final byte[] utf8;
+
+    public SerializedResult(final String json) {
+        this.json = json.toCharArray();
+        this.utf8 = json.getBytes(UTF_8);
+    }
+
+    /**
+     * @param mapper the mapper to serialize the result with.
+     * @param result a method result.
+     * @return the serialized result or the result itself for {@code null} and {@link PartialResponse}
+     * which are not written as a plain {@code result}.
+     */
+    public static Object of(final JsonMapper mapper, final Object result) {
+        if (result == null || result instanceof PartialResponse<?> || result instanceof SerializedResult) {
+            return result;
+        }
+        return new SerializedResult(mapper.toString(result));
+    }
+
+    public char[] json() {
+        return json;
+    }
+
+    public byte[] utf8() {
+        return utf8;
+    }
+
+    @Override
+    public String toString() {
+        return new String(json);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.impl;
+
+import java.util.Map;
+
+/**
+ * Immutable method name to {@link JsonRpcMethod} table.
+ * <p>
+ * The table size is selected when it is built so that all the names land in a different slot (perfect hashing)
+ * then a lookup is a single slot read and string comparison.
+ * If no size up to eight times the number of methods avoids collisions, the table falls back on linear probing.
+ */
+public final class DispatchTable {
+    private static final int MAX_GROWTH = 3; // up to 8 times the minimum size
+
+    private final String[] names;
+    private final JsonRpcMethod[] methods;
+    private final int mask;
+    private final boolean perfect;
+
+    public DispatchTable(final Map<String, JsonRpcMethod> methods) {
+        final int minSize = Integer.highestOneBit(Math.max(2, methods.size() * 2 - 1)) << 1; // load factor <= 0.5
+        final var keys = methods.keySet().toArray(String[]::new);
+
+        int size = minSize;
+        boolean collisionFree = false;
+        for (int i = 0; i <= MAX_GROWTH && !collisionFree; i++) {
+            size = minSize << i;
+            collisionFree = isCollisionFree(keys, size - 1);
+        }
+
+        this.perfect = collisionFree;
+        this.mask = size - 1;
+        this.names = new String[size];
+        this.methods = new JsonRpcMethod[size];
+        for (final var key : keys) {
+            int slot = slot(key, mask);
+            while (names[slot] != null) { // only when not perfect
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = key;
+            this.methods[slot] = methods.get(key);
+        }
+    }
+
+    /**
+     * @param name the JSON-RPC method name.
+     * @return the method or {@code null} if not registered.
+     */
+    public JsonRpcMethod get(final String name) {
+        int slot = slot(name, mask);
+        if (perfect) {
+            return name.equals(names[slot]) ? methods[slot] : null;
+        }
+
+        String candidate;
+        while ((candidate = names[slot]) != null) {
+            if (candidate.equals(name)) {
+                return methods[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return {@code true} if all the names have their own slot.
+     */
+    public boolean isPerfect() {
+        return perfect;
+    }
+
+    private static boolean isCollisionFree(final String[] keys, final int mask) {
+        final var used = new boolean[mask + 1];
+        for (final var key : keys) {
+            final int slot = slot(key, mask);
+            if (used[slot]) {
+                return false;
+            }
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    private static int slot(final String name, final int mask) {
+        final int hash = name.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
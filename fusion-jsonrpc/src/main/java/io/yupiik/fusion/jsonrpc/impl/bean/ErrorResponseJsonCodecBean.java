@@ -19,7 +19,6 @@ import io.yupiik.fusion.framework.api.Instance;
 import io.yupiik.fusion.framework.api.RuntimeContainer;
 import io.yupiik.fusion.framework.api.container.bean.BaseBean;
 import io.yupiik.fusion.framework.api.scope.DefaultScoped;
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.internal.codec.BaseJsonCodec;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 import io.yupiik.fusion.jsonrpc.Response;
@@ -29,6 +28,8 @@ import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class ErrorResponseJsonCodecBean extends BaseBean<ErrorResponseJsonCodecBean.Impl> {
     public ErrorResponseJsonCodecBean() {
         super(Impl.class, DefaultScoped.class, 1000, Map.of());
@@ -40,6 +41,13 @@ public class ErrorResponseJsonCodecBean extends BaseBean<ErrorResponseJsonCodecB
     }
 
     public static class Impl extends BaseJsonCodec<Response.ErrorResponse> {
+        private static final char[] CODE_CHARS = "\"code\":".toCharArray();
+        private static final byte[] CODE_BYTES = "\"code\":".getBytes(UTF_8);
+        private static final char[] MESSAGE_CHARS = "\"message\":".toCharArray();
+        private static final byte[] MESSAGE_BYTES = "\"message\":".getBytes(UTF_8);
+        private static final char[] DATA_CHARS = "\"data\":".toCharArray();
+        private static final byte[] DATA_BYTES = "\"data\":".getBytes(UTF_8);
+
         public Impl() {
             super(Response.ErrorResponse.class);
         }
@@ -53,14 +61,17 @@ public class ErrorResponseJsonCodecBean extends BaseBean<ErrorResponseJsonCodecB
         @SuppressWarnings({"unchecked", "rawtypes"})
         public void write(final Response.ErrorResponse value, final SerializationContext ctx) throws IOException {
             final var out = ctx.writer();
-            out.write("{\"code\":");
-            out.write(String.valueOf(value.code()));
+            out.writeStartObject();
+            out.write(CODE_CHARS, CODE_BYTES);
+            out.writeNumber(value.code());
             if (value.message() != null) {
-                out.write(",\"message\":");
-                out.write(JsonStrings.escape(value.message()));
+                out.writeComma();
+                out.write(MESSAGE_CHARS, MESSAGE_BYTES);
+                out.writeString(value.message());
             }
             if (value.data() != null) {
-                out.write(",\"data\":");
+                out.writeComma();
+                out.write(DATA_CHARS, DATA_BYTES);
 
                 JsonCodec jsonCodec = ctx.codec(value.data().getClass());
                 if (jsonCodec == null) {
@@ -68,7 +79,7 @@ public class ErrorResponseJsonCodecBean extends BaseBean<ErrorResponseJsonCodecB
                 }
                 jsonCodec.write(value.data(), ctx);
             }
-            out.write('}');
+            out.writeEndObject();
         }
     }
 }
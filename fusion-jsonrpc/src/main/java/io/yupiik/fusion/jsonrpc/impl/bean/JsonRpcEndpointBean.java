@@ -27,6 +27,8 @@ import io.yupiik.fusion.jsonrpc.JsonRpcHandler;
 import java.util.List;
 import java.util.Map;
 
+import static java.util.Locale.ROOT;
+
 public class JsonRpcEndpointBean extends BaseBean<JsonRpcEndpoint> {
     public JsonRpcEndpointBean() {
         super(JsonRpcEndpoint.class, ApplicationScoped.class, 1000, Map.of());
@@ -39,7 +41,11 @@ public class JsonRpcEndpointBean extends BaseBean<JsonRpcEndpoint> {
                     lookup(container, JsonRpcHandler.class, dependents),
                     lookup(container, JsonMapper.class, dependents),
                     config.instance().get("fusion.jsonrpc.binding").orElse("/jsonrpc"),
-                    config.instance().get("fusion.jsonrpc.forceInputStreamUsage").map(Boolean::parseBoolean).orElse(false));
+                    config.instance().get("fusion.jsonrpc.forceInputStreamUsage").map(Boolean::parseBoolean).orElse(false),
+                    config.instance().get("fusion.jsonrpc.batch.streaming")
+                            .map(it -> JsonRpcEndpoint.BatchStreaming.valueOf(it.toUpperCase(ROOT)))
+                            .orElse(JsonRpcEndpoint.BatchStreaming.NONE),
+                    lookups(container, JsonRpcEndpoint.PayloadFormat.class, l -> l.stream().map(Instance::instance).toList(), dependents));
         }
     }
 }
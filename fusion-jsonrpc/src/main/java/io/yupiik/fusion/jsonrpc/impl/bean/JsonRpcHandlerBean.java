@@ -17,14 +17,24 @@ package io.yupiik.fusion.jsonrpc.impl.bean;
 
 import io.yupiik.fusion.framework.api.Instance;
 import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.Configuration;
 import io.yupiik.fusion.framework.api.container.bean.BaseBean;
 import io.yupiik.fusion.framework.api.scope.ApplicationScoped;
 import io.yupiik.fusion.json.JsonMapper;
 import io.yupiik.fusion.jsonrpc.JsonRpcHandler;
 import io.yupiik.fusion.jsonrpc.JsonRpcRegistry;
+import io.yupiik.fusion.jsonrpc.batch.DependentBatchExecutionStrategy;
+import io.yupiik.fusion.jsonrpc.batch.ParallelBatchExecutionStrategy;
+import io.yupiik.fusion.jsonrpc.batch.SequentialBatchExecutionStrategy;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JsonRpcHandlerBean extends BaseBean<JsonRpcHandler> {
     public JsonRpcHandlerBean() {
@@ -33,9 +43,54 @@ public class JsonRpcHandlerBean extends BaseBean<JsonRpcHandler> {
 
     @Override
     public JsonRpcHandler create(final RuntimeContainer container, final List<Instance<?>> dependents) {
-        return new JsonRpcHandler(
-                container,
-                lookup(container, JsonMapper.class, dependents),
-                lookup(container, JsonRpcRegistry.class, dependents));
+        try (final var config = container.lookup(Configuration.class)) {
+            final var configuration = config.instance();
+            final int maxConcurrency = configuration.get("fusion.jsonrpc.batch.maxConcurrency").map(Integer::parseInt).orElse(-1);
+            return new JsonRpcHandler(
+                    container,
+                    lookup(container, JsonMapper.class, dependents),
+                    lookup(container, JsonRpcRegistry.class, dependents),
+                    switch (configuration.get("fusion.jsonrpc.batch.strategy").orElse("parallel")) {
+                        case "sequential" -> new SequentialBatchExecutionStrategy();
+                        case "parallel" -> new ParallelBatchExecutionStrategy(createExecutor(configuration), maxConcurrency);
+                        case "dependent" -> new DependentBatchExecutionStrategy(createExecutor(configuration), maxConcurrency);
+                        default -> throw new IllegalArgumentException(
+                                "Unknown fusion.jsonrpc.batch.strategy, supported values are sequential, parallel and dependent");
+                    },
+                    configuration.get("fusion.jsonrpc.batch.maxRequests").map(Integer::parseInt).orElse(50),
+                    configuration.get("fusion.jsonrpc.readAsync").map(Boolean::parseBoolean).orElse(false));
+        }
+    }
+
+    @Override
+    public void destroy(final RuntimeContainer container, final JsonRpcHandler instance) {
+        instance.getBatchExecutionStrategy().close();
+    }
+
+    private Executor createExecutor(final Configuration configuration) {
+        if (configuration.get("fusion.jsonrpc.batch.virtualThreads").map(Boolean::parseBoolean).orElse(false)) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (final NoSuchMethodException e) {
+                throw new IllegalArgumentException("fusion.jsonrpc.batch.virtualThreads requires Java >= 21", e);
+            } catch (final IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        final int threads = configuration.get("fusion.jsonrpc.batch.threads").map(Integer::parseInt).orElse(0);
+        if (threads <= 0) { // calling thread
+            return null;
+        }
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final var thread = new Thread(r, "fusion-jsonrpc-batch-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 }
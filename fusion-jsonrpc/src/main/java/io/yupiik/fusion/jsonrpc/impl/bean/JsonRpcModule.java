@@ -25,7 +25,7 @@ public class JsonRpcModule implements FusionModule {
     public Stream<FusionBean<?>> beans() {
         return Stream.of(
                 new JsonRpcEndpointBean(),
-                new JsonRpcHandlerBean(), new JsonRpcRegistryBean(),
+                new JsonRpcHandlerBean(), new JsonRpcRegistryBean(), new ResponseCacheBean(), new SingleFlightBean(),
                 new ResponseJsonCodecBean(), new ErrorResponseJsonCodecBean());
     }
 }
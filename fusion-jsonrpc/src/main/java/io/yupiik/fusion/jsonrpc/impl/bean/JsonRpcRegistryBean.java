@@ -17,19 +17,30 @@ package io.yupiik.fusion.jsonrpc.impl.bean;
 
 import io.yupiik.fusion.framework.api.Instance;
 import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.Configuration;
 import io.yupiik.fusion.framework.api.container.Types;
 import io.yupiik.fusion.framework.api.container.bean.BaseBean;
 import io.yupiik.fusion.framework.api.scope.ApplicationScoped;
+import io.yupiik.fusion.json.JsonMapper;
 import io.yupiik.fusion.jsonrpc.JsonRpcRegistry;
 import io.yupiik.fusion.jsonrpc.bean.OpenRPCEndpoint;
+import io.yupiik.fusion.jsonrpc.cache.CachingJsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.cache.CallKeyExtension;
+import io.yupiik.fusion.jsonrpc.cache.CoalescingJsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.cache.ResponseCache;
+import io.yupiik.fusion.jsonrpc.cache.SingleFlight;
 import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+
 public class JsonRpcRegistryBean extends BaseBean<JsonRpcRegistry> {
     public JsonRpcRegistryBean() {
         super(JsonRpcRegistry.class, ApplicationScoped.class, 1000, Map.of());
@@ -52,6 +63,59 @@ public class JsonRpcRegistryBean extends BaseBean<JsonRpcRegistry> {
                     .toList();
         }
 
-        return new JsonRpcRegistry(methods);
+        return new JsonRpcRegistry(decorate(container, methods, dependents));
+    }
+
+    private List<JsonRpcMethod> decorate(final RuntimeContainer container, final List<JsonRpcMethod> methods,
+                                         final List<Instance<?>> dependents) {
+        try (final var config = container.lookup(Configuration.class)) {
+            final var configuration = config.instance();
+            final var cached = names(configuration, "fusion.jsonrpc.cache.methods");
+            final var coalesced = names(configuration, "fusion.jsonrpc.coalescing.methods");
+            if (cached.isEmpty() && coalesced.isEmpty()) {
+                return methods;
+            }
+
+            final var mapper = lookup(container, JsonMapper.class, dependents);
+            final var cache = cached.isEmpty() ? null : lookup(container, ResponseCache.class, dependents);
+            final var singleFlight = coalesced.isEmpty() ? null : lookup(container, SingleFlight.class, dependents);
+            final var keyExtension = keyExtension(lookups(
+                    container, CallKeyExtension.class, l -> l.stream().map(Instance::instance).toList(), dependents));
+            return methods.stream()
+                    .map(method -> {
+                        if (cached.contains(method.name())) { // the cache already coalesces the calls
+                            return new CachingJsonRpcMethod(
+                                    method, mapper, cache,
+                                    configuration.get("fusion.jsonrpc.cache." + method.name() + ".ttl")
+                                            .map(Long::parseLong)
+                                            .orElseGet(cache::getDefaultTtl),
+                                    keyExtension);
+                        }
+                        if (coalesced.contains(method.name())) {
+                            return new CoalescingJsonRpcMethod(
+                                    method,
+                                    configuration.get("fusion.jsonrpc.coalescing." + method.name() + ".serialize")
+                                            .map(Boolean::parseBoolean)
+                                            .orElse(true) ? mapper : null,
+                                    singleFlight, keyExtension);
+                        }
+                        return method;
+                    })
+                    .toList();
+        }
+    }
+
+    private CallKeyExtension keyExtension(final List<CallKeyExtension> extensions) {
+        return switch (extensions.size()) {
+            case 0 -> null;
+            case 1 -> extensions.get(0);
+            default -> context -> extensions.stream().map(it -> it.key(context)).map(String::valueOf).collect(joining("\0"));
+        };
+    }
+
+    private Set<String> names(final Configuration configuration, final String key) {
+        return configuration.get(key)
+                .map(it -> Stream.of(it.split(",")).map(String::strip).filter(m -> !m.isBlank()).collect(toSet()))
+                .orElse(Set.of());
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.impl.bean;
+
+import io.yupiik.fusion.framework.api.Instance;
+import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.Configuration;
+import io.yupiik.fusion.framework.api.container.bean.BaseBean;
+import io.yupiik.fusion.framework.api.scope.ApplicationScoped;
+import io.yupiik.fusion.jsonrpc.cache.ResponseCache;
+
+import java.util.List;
+import java.util.Map;
+
+public class ResponseCacheBean extends BaseBean<ResponseCache> {
+    public ResponseCacheBean() {
+        super(ResponseCache.class, ApplicationScoped.class, 1000, Map.of());
+    }
+
+    @Override
+    public ResponseCache create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+        try (final var config = container.lookup(Configuration.class)) {
+            final var configuration = config.instance();
+            return new ResponseCache(
+                    configuration.get("fusion.jsonrpc.cache.maxEntries").map(Integer::parseInt).orElse(1_000),
+                    configuration.get("fusion.jsonrpc.cache.ttl").map(Long::parseLong).orElse(5_000L));
+        }
+    }
+}
@@ -19,16 +19,18 @@ import io.yupiik.fusion.framework.api.Instance;
 import io.yupiik.fusion.framework.api.RuntimeContainer;
 import io.yupiik.fusion.framework.api.container.bean.BaseBean;
 import io.yupiik.fusion.framework.api.scope.DefaultScoped;
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.internal.codec.BaseJsonCodec;
 import io.yupiik.fusion.json.serialization.JsonCodec;
 import io.yupiik.fusion.jsonrpc.Response;
+import io.yupiik.fusion.jsonrpc.cache.SerializedResult;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class ResponseJsonCodecBean extends BaseBean<ResponseJsonCodecBean.Impl> {
     public ResponseJsonCodecBean() {
         super(Impl.class, DefaultScoped.class, 1000, Map.of());
@@ -40,6 +42,15 @@ public class ResponseJsonCodecBean extends BaseBean<ResponseJsonCodecBean.Impl>
     }
 
     public static class Impl extends BaseJsonCodec<Response> {
+        private static final char[] JSONRPC_CHARS = "\"jsonrpc\":".toCharArray();
+        private static final byte[] JSONRPC_BYTES = "\"jsonrpc\":".getBytes(UTF_8);
+        private static final char[] ID_CHARS = "\"id\":".toCharArray();
+        private static final byte[] ID_BYTES = "\"id\":".getBytes(UTF_8);
+        private static final char[] RESULT_CHARS = "\"result\":".toCharArray();
+        private static final byte[] RESULT_BYTES = "\"result\":".getBytes(UTF_8);
+        private static final char[] ERROR_CHARS = "\"error\":".toCharArray();
+        private static final byte[] ERROR_BYTES = "\"error\":".getBytes(UTF_8);
+
         public Impl() {
             super(Response.class);
         }
@@ -54,43 +65,47 @@ public class ResponseJsonCodecBean extends BaseBean<ResponseJsonCodecBean.Impl>
         public void write(final Response value, final SerializationContext ctx) throws IOException {
             boolean first = true;
             final var out = ctx.writer();
-            out.write('{');
+            out.writeStartObject();
             if (value.jsonrpc() != null) {
                 first = false;
-                out.write("\"jsonrpc\":");
-                out.write(JsonStrings.escape(value.jsonrpc()));
+                out.write(JSONRPC_CHARS, JSONRPC_BYTES);
+                out.writeString(value.jsonrpc());
             }
             if (value.id() != null) {
                 if (!first) {
-                    out.write(',');
+                    out.writeComma();
                 } else {
                     first = false;
                 }
-                out.write("\"id\":");
-                out.write(JsonStrings.escape(value.id()));
+                out.write(ID_CHARS, ID_BYTES);
+                out.writeString(value.id());
             }
             if (value.result() != null) {
                 if (!first) {
-                    out.write(',');
+                    out.writeComma();
                 } else {
                     first = false;
                 }
-                out.write("\"result\":");
+                out.write(RESULT_CHARS, RESULT_BYTES);
 
-                JsonCodec jsonCodec = ctx.codec(value.result().getClass());
-                if (jsonCodec == null) {
-                    jsonCodec = ctx.codec(Object.class);
+                if (value.result() instanceof SerializedResult serialized) {
+                    out.write(serialized.json(), serialized.utf8());
+                } else {
+                    JsonCodec jsonCodec = ctx.codec(value.result().getClass());
+                    if (jsonCodec == null) {
+                        jsonCodec = ctx.codec(Object.class);
+                    }
+                    jsonCodec.write(value.result(), ctx);
                 }
-                jsonCodec.write(value.result(), ctx);
             }
             if (value.error() != null) {
                 if (!first) {
-                    out.write(',');
+                    out.writeComma();
                 }
-                out.write("\"error\":");
+                out.write(ERROR_CHARS, ERROR_BYTES);
                 ctx.codec(Response.ErrorResponse.class).write(value.error(), ctx);
             }
-            out.write('}');
+            out.writeEndObject();
         }
     }
 }
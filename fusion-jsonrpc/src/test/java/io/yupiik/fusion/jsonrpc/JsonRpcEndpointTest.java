@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc;
+
+import io.yupiik.fusion.framework.api.ConfiguringContainer;
+import io.yupiik.fusion.framework.api.Instance;
+import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.container.bean.BaseBean;
+import io.yupiik.fusion.framework.api.scope.DefaultScoped;
+import io.yupiik.fusion.http.server.api.Request;
+import io.yupiik.fusion.http.server.impl.flow.BytesPublisher;
+import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.internal.framework.JsonModule;
+import io.yupiik.fusion.jsonrpc.batch.BatchExecutionStrategy;
+import io.yupiik.fusion.jsonrpc.impl.DefaultJsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
+import io.yupiik.fusion.jsonrpc.impl.bean.JsonRpcModule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonRpcEndpointTest {
+    private static final String BATCH = "[" +
+            "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"slow\",\"id\":\"1\"}," +
+            "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"fast\",\"id\":\"2\"}" +
+            "]";
+
+    @Test
+    void notStreamed() throws ExecutionException, InterruptedException, TimeoutException {
+        assertEquals(
+                "[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"slow\"},{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"fast\"}]",
+                run(JsonRpcEndpoint.BatchStreaming.NONE, BATCH));
+    }
+
+    @Test
+    void unordered() throws ExecutionException, InterruptedException, TimeoutException {
+        assertEquals( // fast is written before slow completes
+                "[{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"fast\"},{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"slow\"}]",
+                run(JsonRpcEndpoint.BatchStreaming.UNORDERED, BATCH));
+    }
+
+    @Test
+    void ordered() throws ExecutionException, InterruptedException, TimeoutException {
+        assertEquals(
+                "[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":\"slow\"},{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"fast\"}]",
+                run(JsonRpcEndpoint.BatchStreaming.ORDERED, BATCH));
+    }
+
+    @Test
+    void orderedFailedItem() throws ExecutionException, InterruptedException, TimeoutException {
+        assertEquals( // first item has no response, it must not block the second one nor truncate the array
+                "[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"error\":{\"code\":-32603,\"message\":\"oops\"}}," +
+                        "{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"fast\"}]",
+                run(JsonRpcEndpoint.BatchStreaming.ORDERED, BATCH, tasks -> tasks.get(1).invocation().get()
+                        .thenCompose(ignored -> failedFuture(new IllegalStateException("oops")))));
+    }
+
+    @Test
+    void singleRequest() throws ExecutionException, InterruptedException, TimeoutException {
+        assertEquals(
+                "{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":\"fast\"}",
+                run(JsonRpcEndpoint.BatchStreaming.UNORDERED, "{\"jsonrpc\":\"2.0\",\"method\":\"test\",\"params\":\"fast\",\"id\":\"2\"}"));
+    }
+
+    // in unordered mode "slow" method only completes once "fast" response was received by the client
+    private String run(final JsonRpcEndpoint.BatchStreaming streaming, final String payload)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        return run(streaming, payload, null);
+    }
+
+    private String run(final JsonRpcEndpoint.BatchStreaming streaming, final String payload, final BatchExecutionStrategy strategy)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        final var slow = new CompletableFuture<Object>();
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "test", ctx -> {
+                            if ("slow".equals(ctx.params())) {
+                                return slow;
+                            }
+                            if (streaming != JsonRpcEndpoint.BatchStreaming.UNORDERED) { // else the response is written first
+                                slow.complete("slow");
+                            }
+                            return completedFuture("fast");
+                        });
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class);
+             final var mapper = container.lookup(JsonMapper.class)) {
+            final var endpoint = new JsonRpcEndpoint(strategy == null ?
+                    handler.instance() :
+                    new JsonRpcHandler(container, mapper.instance(), container.lookup(JsonRpcRegistry.class).instance(), strategy, 50),
+                    mapper.instance(), "/jsonrpc", true, streaming);
+            final var response = endpoint.handle(request(payload)).toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+            final var body = new CompletableFuture<String>();
+            response.body().subscribe(new Flow.Subscriber<>() {
+                private final StringBuilder received = new StringBuilder();
+
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(final ByteBuffer item) {
+                    received.append(UTF_8.decode(item));
+                    if (!slow.isDone() && received.indexOf("fast") > 0) {
+                        slow.complete("slow");
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    body.completeExceptionally(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    body.complete(received.toString());
+                }
+            });
+            return body.get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static Request request(final String payload) {
+        final var attributes = new HashMap<String, Object>();
+        return (Request) Proxy.newProxyInstance(Request.class.getClassLoader(), new Class<?>[]{Request.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "method" -> "POST";
+            case "path" -> "/jsonrpc";
+            case "body" -> new BytesPublisher(payload);
+            case "attribute" -> attributes.get(args[0].toString());
+            case "setAttribute" -> attributes.put(args[0].toString(), args[1]);
+            default -> null;
+        });
+    }
+}
@@ -18,24 +18,35 @@ package io.yupiik.fusion.jsonrpc;
 import io.yupiik.fusion.framework.api.ConfiguringContainer;
 import io.yupiik.fusion.framework.api.Instance;
 import io.yupiik.fusion.framework.api.RuntimeContainer;
+import io.yupiik.fusion.framework.api.configuration.ConfigurationSource;
 import io.yupiik.fusion.framework.api.container.FusionListener;
 import io.yupiik.fusion.framework.api.container.bean.BaseBean;
 import io.yupiik.fusion.framework.api.scope.DefaultScoped;
+import io.yupiik.fusion.http.server.api.Request;
+import io.yupiik.fusion.json.JsonMapper;
 import io.yupiik.fusion.json.internal.framework.JsonModule;
+import io.yupiik.fusion.jsonrpc.cache.CallKeyExtension;
+import io.yupiik.fusion.jsonrpc.cache.ResponseCache;
+import io.yupiik.fusion.jsonrpc.cache.SingleFlight;
 import io.yupiik.fusion.jsonrpc.event.BeforeRequest;
 import io.yupiik.fusion.jsonrpc.impl.DefaultJsonRpcMethod;
 import io.yupiik.fusion.jsonrpc.impl.JsonRpcMethod;
 import io.yupiik.fusion.jsonrpc.impl.bean.JsonRpcModule;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JsonRpcHandlerTest {
@@ -76,4 +87,259 @@ class JsonRpcHandlerTest {
             assertEquals(List.of(request), events.get(0).requests());
         }
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batch() throws ExecutionException, InterruptedException {
+        final var order = new ArrayList<Object>();
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> switch (key) {
+                            case "fusion.jsonrpc.batch.strategy" -> "sequential";
+                            case "fusion.jsonrpc.batch.maxRequests" -> "2";
+                            default -> null;
+                        };
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "batch", ctx -> {
+                            order.add(ctx.params());
+                            return completedFuture(ctx.params());
+                        });
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class)) {
+            final var responses = (List<Response>) handler.instance()
+                    .execute(List.of(
+                            Map.of("jsonrpc", "2.0", "method", "batch", "id", "1", "params", "first"),
+                            Map.of("jsonrpc", "2.0", "method", "batch", "id", "2", "params", "second")), null)
+                    .toCompletableFuture()
+                    .get();
+            assertEquals(List.of("first", "second"), responses.stream().map(Response::result).toList());
+            assertEquals(List.of("first", "second"), order);
+            assertEquals(1, handler.instance().getBatchMetrics().getBatches());
+            assertEquals(2, handler.instance().getBatchMetrics().getRequests());
+
+            final var tooMuch = (Response) handler.instance()
+                    .execute(List.of(Map.of(), Map.of(), Map.of()), null)
+                    .toCompletableFuture()
+                    .get();
+            assertEquals(10_100, tooMuch.error().code());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void envelope() throws ExecutionException, InterruptedException {
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "envelope", ctx -> completedFuture(ctx.params()));
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class)) {
+            final var valid = handler.instance().envelope(Map.of("jsonrpc", "2.0", "method", "envelope", "id", 1, "params", "p"));
+            assertNull(valid.error());
+            assertEquals("1", valid.id());
+            assertEquals("envelope", valid.method());
+            assertEquals("p", valid.params());
+            assertEquals("envelope", valid.invoker().name());
+
+            assertError(handler.instance(), Map.of("method", "envelope"), -32600, "Missing jsonrpc");
+            assertError(handler.instance(), Map.of("jsonrpc", "", "method", "envelope"), -32600, "Empty jsonrpc");
+            assertError(handler.instance(), Map.of("jsonrpc", "1.0", "method", "envelope"), -32600, "invalid jsonrpc version");
+            assertError(handler.instance(), Map.of("jsonrpc", "2.0"), -32601, "Missing method");
+            assertError(handler.instance(), Map.of("jsonrpc", "2.0", "method", ""), -32601, "Empty method");
+            assertError(handler.instance(), Map.of("jsonrpc", "2.0", "method", "missing"), -32601, "Unknown method (missing)");
+
+            final var attributes = new HashMap<String, Object>();
+            final var request = (Request) Proxy.newProxyInstance(Request.class.getClassLoader(), new Class<?>[]{Request.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "attribute" -> attributes.get(args[0].toString());
+                case "setAttribute" -> attributes.put(args[0].toString(), args[1]);
+                default -> null;
+            });
+            final var responses = (List<Response>) handler.instance()
+                    .execute(List.of(
+                            Map.of("jsonrpc", "2.0", "method", "envelope", "id", "1", "params", "first"),
+                            Map.of("jsonrpc", "2.0", "method", "missing", "id", "2"),
+                            Map.of("jsonrpc", "2.0", "method", "envelope", "id", "3", "params", "third")), request)
+                    .toCompletableFuture()
+                    .get();
+            assertEquals(List.of("1", "2", "3"), responses.stream().map(Response::id).toList());
+            assertEquals(-32601, responses.get(1).error().code());
+            assertEquals("envelope,envelope", attributes.get("yupiik.jsonrpc.method"));
+        }
+    }
+
+    @Test
+    void overrides() throws ExecutionException, InterruptedException {
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "overrides", ctx -> completedFuture(ctx.params()));
+                    }
+                })
+                .start();
+             final var mapper = container.lookup(JsonMapper.class);
+             final var registry = container.lookup(JsonRpcRegistry.class)) {
+            final var batches = new AtomicInteger();
+            final var handler = new JsonRpcHandler(container, mapper.instance(), registry.instance()) {
+                @Override
+                protected CompletableFuture<List<Response>> handleRequests(final List<Tuple2<Map<String, Object>, Object>> requests,
+                                                                           final Request httpRequest) {
+                    batches.incrementAndGet();
+                    return super.handleRequests(requests, httpRequest);
+                }
+            };
+
+            handler.execute(List.of(Map.of("jsonrpc", "2.0", "method", "overrides", "id", "1")), null).toCompletableFuture().get();
+            assertEquals(1, batches.get());
+
+            // already validated so executed as is
+            assertEquals("p", handler.doHandle(Map.of("jsonrpc", "2.0", "method", "overrides", "id", "1", "params", "p"), null).get().result());
+        }
+    }
+
+    @Test
+    void cache() throws ExecutionException, InterruptedException {
+        final var calls = new AtomicInteger();
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> "fusion.jsonrpc.cache.methods".equals(key) ? "cached" : null;
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "cached", ctx -> completedFuture(Map.of("call", calls.incrementAndGet())));
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class);
+             final var mapper = container.lookup(JsonMapper.class);
+             final var cache = container.lookup(ResponseCache.class)) {
+            final var responses = new ArrayList<String>();
+            for (final var params : List.of(Map.of("a", 1, "b", 2), Map.of("b", 2, "a", 1), Map.of("a", 2))) {
+                responses.add(mapper.instance().toString(handler.instance()
+                        .execute(Map.of("jsonrpc", "2.0", "method", "cached", "id", "1", "params", params), null)
+                        .toCompletableFuture()
+                        .get()));
+            }
+            assertEquals(List.of(
+                    "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"call\":1}}",
+                    "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"call\":1}}",
+                    "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"call\":2}}"), responses);
+            assertEquals(1, cache.instance().getHits());
+            assertEquals(2, cache.instance().getMisses());
+        }
+    }
+
+    @Test
+    void cacheKeyExtension() throws ExecutionException, InterruptedException {
+        final var calls = new AtomicInteger();
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> "fusion.jsonrpc.cache.methods".equals(key) ? "user" : null;
+                    }
+                })
+                .register(new BaseBean<CallKeyExtension>(CallKeyExtension.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public CallKeyExtension create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return ctx -> ctx.request().header("user");
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "user", ctx -> completedFuture(
+                                ctx.request().header("user") + "#" + calls.incrementAndGet()));
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class)) {
+            final var results = new ArrayList<Object>();
+            for (final var user : List.of("alice", "bob", "alice")) {
+                final var request = (Request) Proxy.newProxyInstance(Request.class.getClassLoader(), new Class<?>[]{Request.class}, (proxy, method, args) ->
+                        "header".equals(method.getName()) && "user".equals(args[0]) ? user : null);
+                results.add(((Response) handler.instance()
+                        .execute(Map.of("jsonrpc", "2.0", "method", "user", "id", "1"), request)
+                        .toCompletableFuture()
+                        .get())
+                        .result()
+                        .toString());
+            }
+            assertEquals(List.of("\"alice#1\"", "\"bob#2\"", "\"alice#1\""), results);
+        }
+    }
+
+    @Test
+    void coalescing() throws ExecutionException, InterruptedException {
+        final var calls = new AtomicInteger();
+        final var pending = new CompletableFuture<Object>();
+        try (final var container = ConfiguringContainer.of()
+                .disableAutoDiscovery(true)
+                .register(new JsonModule(), new JsonRpcModule())
+                .register(new BaseBean<ConfigurationSource>(ConfigurationSource.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public ConfigurationSource create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return key -> "fusion.jsonrpc.coalescing.methods".equals(key) ? "coalesced" : null;
+                    }
+                })
+                .register(new BaseBean<JsonRpcMethod>(JsonRpcMethod.class, DefaultScoped.class, 0, Map.of()) {
+                    @Override
+                    public JsonRpcMethod create(final RuntimeContainer container, final List<Instance<?>> dependents) {
+                        return new DefaultJsonRpcMethod(0, "coalesced", ctx -> {
+                            calls.incrementAndGet();
+                            return pending;
+                        });
+                    }
+                })
+                .start();
+             final var handler = container.lookup(JsonRpcHandler.class);
+             final var mapper = container.lookup(JsonMapper.class);
+             final var singleFlight = container.lookup(SingleFlight.class)) {
+            final var first = handler.instance()
+                    .execute(Map.of("jsonrpc", "2.0", "method", "coalesced", "id", "1", "params", List.of("a")), null)
+                    .toCompletableFuture();
+            final var second = handler.instance()
+                    .execute(Map.of("jsonrpc", "2.0", "method", "coalesced", "id", "2", "params", List.of("a")), null)
+                    .toCompletableFuture();
+            assertEquals(1, calls.get());
+            assertEquals(1, singleFlight.instance().getCoalesced());
+
+            pending.complete(Map.of("value", "shared"));
+            assertEquals("{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":{\"value\":\"shared\"}}", mapper.instance().toString(first.get()));
+            assertEquals("{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"result\":{\"value\":\"shared\"}}", mapper.instance().toString(second.get()));
+            assertEquals(0, singleFlight.instance().getInFlight());
+        }
+    }
+
+    private void assertError(final JsonRpcHandler handler, final Map<String, Object> request, final int code, final String message) {
+        final var error = handler.envelope(request).error();
+        assertEquals(code, error.error().code());
+        assertEquals(message, error.error().message());
+        assertNull(handler.envelope(request).invoker());
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.batch;
+
+import io.yupiik.fusion.jsonrpc.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchExecutionStrategyTest {
+    @Test
+    void sequential() throws ExecutionException, InterruptedException {
+        final var tasks = new Tasks(3);
+        final var result = new SequentialBatchExecutionStrategy().execute(tasks.tasks()).toCompletableFuture();
+        assertEquals(List.of(0), tasks.started);
+        tasks.complete(0);
+        assertEquals(List.of(0, 1), tasks.started);
+        tasks.complete(1);
+        tasks.complete(2);
+        assertEquals(List.of("0", "1", "2"), ids(result.get()));
+    }
+
+    @Test
+    void boundedParallel() throws ExecutionException, InterruptedException {
+        final var tasks = new Tasks(5);
+        final var result = new ParallelBatchExecutionStrategy(null, 2).execute(tasks.tasks()).toCompletableFuture();
+        assertEquals(List.of(0, 1), tasks.started);
+        tasks.complete(1);
+        assertEquals(List.of(0, 1, 2), tasks.started);
+        tasks.complete(0);
+        tasks.complete(2);
+        assertEquals(List.of(0, 1, 2, 3, 4), tasks.started);
+        tasks.complete(4);
+        assertFalse(result.isDone());
+        tasks.complete(3);
+        assertEquals(List.of("0", "1", "2", "3", "4"), ids(result.get())); // batch order, not completion order
+    }
+
+    @Test
+    void executor() throws ExecutionException, InterruptedException, TimeoutException {
+        final var latch = new CountDownLatch(3);
+        final var tasks = IntStream.range(0, 3)
+                .mapToObj(i -> new BatchExecutionStrategy.Task(i, Map.of("id", i), () -> {
+                    latch.countDown();
+                    try { // blocking method, only completes if the 3 requests run concurrently
+                        assertTrue(latch.await(1, TimeUnit.MINUTES));
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return CompletableFuture.completedFuture(response(i));
+                }))
+                .toList();
+        try (final var strategy = new ParallelBatchExecutionStrategy(Executors.newFixedThreadPool(3), 3)) {
+            assertEquals(List.of("0", "1", "2"), ids(strategy.execute(tasks).toCompletableFuture().get(1, TimeUnit.MINUTES)));
+        }
+    }
+
+    @Test
+    void dependent() throws ExecutionException, InterruptedException {
+        final var tasks = new Tasks(4);
+        final var list = new ArrayList<>(tasks.tasks());
+        list.set(1, withRequest(list.get(1), Map.of("id", 1, "dependsOn", 0)));
+        list.set(3, withRequest(list.get(3), Map.of("id", 3, "dependsOn", List.of(1, 2))));
+        final var result = new DependentBatchExecutionStrategy(null, -1).execute(list).toCompletableFuture();
+        assertEquals(List.of(0, 2), tasks.started);
+        tasks.complete(0);
+        assertEquals(List.of(0, 2, 1), tasks.started);
+        tasks.complete(1);
+        assertEquals(List.of(0, 2, 1), tasks.started);
+        tasks.complete(2);
+        assertEquals(List.of(0, 2, 1, 3), tasks.started);
+        tasks.complete(3);
+        assertEquals(List.of("0", "1", "2", "3"), ids(result.get()));
+    }
+
+    @Test
+    void unknownDependency() throws ExecutionException, InterruptedException {
+        final var tasks = new Tasks(2);
+        final var list = new ArrayList<>(tasks.tasks());
+        list.set(0, withRequest(list.get(0), Map.of("id", 0, "dependsOn", 1))); // forward references are not allowed
+        final var result = new DependentBatchExecutionStrategy(null, -1).execute(list).toCompletableFuture();
+        tasks.complete(1);
+        final var responses = result.get();
+        assertEquals(-32600, responses.get(0).error().code());
+        assertEquals("1", responses.get(1).id());
+        assertEquals(List.of(1), tasks.started);
+    }
+
+    private static BatchExecutionStrategy.Task withRequest(final BatchExecutionStrategy.Task task, final Map<String, Object> request) {
+        return new BatchExecutionStrategy.Task(task.index(), request, task.invocation());
+    }
+
+    private static List<String> ids(final List<Response> responses) {
+        return responses.stream().map(Response::id).toList();
+    }
+
+    private static Response response(final int index) {
+        return new Response("2.0", Integer.toString(index), index, null);
+    }
+
+    private static class Tasks {
+        private final List<Integer> started = new ArrayList<>();
+        private final List<CompletableFuture<Response>> promises;
+
+        private Tasks(final int count) {
+            promises = IntStream.range(0, count).mapToObj(i -> new CompletableFuture<Response>()).toList();
+        }
+
+        private List<BatchExecutionStrategy.Task> tasks() {
+            return IntStream.range(0, promises.size())
+                    .mapToObj(i -> new BatchExecutionStrategy.Task(i, Map.<String, Object>of("id", i), () -> start(i)))
+                    .toList();
+        }
+
+        private CompletionStage<Response> start(final int index) {
+            started.add(index);
+            return promises.get(index);
+        }
+
+        private void complete(final int index) {
+            promises.get(index).complete(response(index));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+    @Test
+    void singleFlight() throws ExecutionException, InterruptedException {
+        final var cache = new ResponseCache(10, 60_000);
+        final var calls = new AtomicInteger();
+        final var pending = new CompletableFuture<Object>();
+
+        final var first = cache.get("k", 60_000, () -> {
+            calls.incrementAndGet();
+            return pending;
+        }).toCompletableFuture();
+        final var second = cache.get("k", 60_000, () -> {
+            calls.incrementAndGet();
+            return completedFuture(new SerializedResult("2"));
+        }).toCompletableFuture();
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        pending.complete(new SerializedResult("1"));
+        assertEquals("1", first.get().toString());
+        assertEquals("1", second.get().toString());
+        assertEquals("1", cache.get("k", 60_000, () -> {
+            throw new IllegalStateException("should be cached");
+        }).toCompletableFuture().get().toString());
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getCoalesced());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void ttl() throws ExecutionException, InterruptedException {
+        final var cache = new ResponseCache(10, 0);
+        final var calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            cache.get("k", 0, () -> completedFuture(new SerializedResult(Integer.toString(calls.incrementAndGet()))))
+                    .toCompletableFuture().get();
+        }
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void eviction() throws ExecutionException, InterruptedException {
+        final var cache = new ResponseCache(2, 60_000);
+        for (final var key : new String[]{"a", "b", "a", "c"}) { // "a" is used again so "b" is the least recently used
+            cache.get(key, 60_000, () -> completedFuture(new SerializedResult('"' + key + '"'))).toCompletableFuture().get();
+        }
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getHits());
+
+        cache.get("a", 60_000, () -> completedFuture(new SerializedResult("-"))).toCompletableFuture().get();
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void failuresAreNotCached() throws ExecutionException, InterruptedException {
+        final var cache = new ResponseCache(10, 60_000);
+        final var failed = cache.get("k", 60_000, () -> CompletableFuture.failedFuture(new IllegalArgumentException("oops")))
+                .toCompletableFuture();
+        assertTrue(assertThrows(ExecutionException.class, failed::get).getCause() instanceof IllegalArgumentException);
+        assertEquals("ok", cache.get("k", 60_000, () -> completedFuture("ok")).toCompletableFuture().get());
+        assertEquals(0, cache.getSize()); // not a serialized result
+        assertEquals(2, cache.getMisses());
+    }
+}
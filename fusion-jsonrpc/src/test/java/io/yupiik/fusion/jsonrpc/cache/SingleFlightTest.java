@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    @Test
+    void share() throws ExecutionException, InterruptedException {
+        final var singleFlight = new SingleFlight();
+        final var calls = new AtomicInteger();
+        final var pending = new CompletableFuture<Object>();
+
+        final var first = singleFlight.execute("k", () -> {
+            calls.incrementAndGet();
+            return pending;
+        }).toCompletableFuture();
+        final var second = singleFlight.execute("k", () -> {
+            calls.incrementAndGet();
+            return completedFuture("other");
+        }).toCompletableFuture();
+        final var otherKey = singleFlight.execute("k2", () -> {
+            calls.incrementAndGet();
+            return completedFuture("k2");
+        }).toCompletableFuture();
+        assertFalse(first.isDone());
+        assertEquals(1, singleFlight.getInFlight());
+        assertEquals("k2", otherKey.get());
+
+        pending.complete("shared");
+        assertEquals("shared", first.get());
+        assertEquals("shared", second.get());
+        assertEquals(0, singleFlight.getInFlight());
+
+        // completed flights are not reused
+        assertEquals("again", singleFlight.execute("k", () -> {
+            calls.incrementAndGet();
+            return completedFuture("again");
+        }).toCompletableFuture().get());
+
+        assertEquals(3, calls.get());
+        assertEquals(3, singleFlight.getExecutions());
+        assertEquals(1, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void failure() {
+        final var singleFlight = new SingleFlight();
+        final var pending = new CompletableFuture<Object>();
+        final var first = singleFlight.execute("k", () -> pending).toCompletableFuture();
+        final var second = singleFlight.execute("k", () -> completedFuture("unused")).toCompletableFuture();
+        pending.completeExceptionally(new IllegalArgumentException("oops"));
+        assertTrue(assertThrows(ExecutionException.class, first::get).getCause() instanceof IllegalArgumentException);
+        assertTrue(assertThrows(ExecutionException.class, second::get).getCause() instanceof IllegalArgumentException);
+        assertEquals(0, singleFlight.getInFlight());
+
+        assertThrows(ExecutionException.class, () -> singleFlight.execute("k", () -> {
+            throw new IllegalStateException("sync failure");
+        }).toCompletableFuture().get());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+}
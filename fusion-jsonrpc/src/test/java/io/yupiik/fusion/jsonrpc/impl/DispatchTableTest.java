@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022 - present - Yupiik SAS - https://www.yupiik.com
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.yupiik.fusion.jsonrpc.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DispatchTableTest {
+    @Test
+    void lookup() {
+        final var methods = new HashMap<String, JsonRpcMethod>();
+        IntStream.range(0, 200).forEach(i -> methods.put("method" + i, method("method" + i)));
+
+        final var table = new DispatchTable(methods);
+        methods.forEach((name, method) -> assertSame(method, table.get(name), name));
+        assertNull(table.get("missing"));
+        assertNull(table.get(""));
+    }
+
+    @Test
+    void perfect() {
+        final var method = method("a");
+        final var table = new DispatchTable(Map.of("a", method, "b", method("b")));
+        assertTrue(table.isPerfect());
+        assertSame(method, table.get("a"));
+    }
+
+    @Test
+    void collisions() {
+        // same hash code so no size can avoid the collision, it falls back on probing
+        final var first = method("Aa");
+        final var second = method("BB");
+        final var table = new DispatchTable(Map.of("Aa", first, "BB", second));
+        assertFalse(table.isPerfect());
+        assertSame(first, table.get("Aa"));
+        assertSame(second, table.get("BB"));
+        assertNull(table.get("C#"));
+    }
+
+    @Test
+    void empty() {
+        assertNull(new DispatchTable(Map.of()).get("any"));
+    }
+
+    private JsonRpcMethod method(final String name) {
+        return new DefaultJsonRpcMethod(0, name, ctx -> completedFuture(name));
+    }
+}
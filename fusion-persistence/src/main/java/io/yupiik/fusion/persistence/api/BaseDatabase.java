@@ -16,6 +16,7 @@
 package io.yupiik.fusion.persistence.api;
 
 import java.sql.ResultSet;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -33,4 +34,17 @@ public interface BaseDatabase {
     <T> T mapOne(Class<T> type, ResultSet resultSet);
 
     <T> List<T> mapAll(Class<T> type, ResultSet resultSet);
+
+    /**
+     * Same as {@link #mapAll(Class, ResultSet)} but maps the rows lazily, the result set must stay open while iterating.
+     * The default implementation is not lazy, it delegates to {@link #mapAll(Class, ResultSet)}.
+     *
+     * @param type      entity type.
+     * @param resultSet resultset to map (next() not yet called).
+     * @param <T>       entity type.
+     * @return an iterator over the mapped rows.
+     */
+    default <T> Iterator<T> iterate(final Class<T> type, final ResultSet resultSet) {
+        return mapAll(type, resultSet).iterator();
+    }
 }
@@ -16,6 +16,7 @@
 package io.yupiik.fusion.persistence.api;
 
 import java.sql.ResultSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Supplier;
 
@@ -24,5 +25,18 @@ public interface ResultSetWrapper extends Supplier<ResultSet> {
 
     <T> List<T> mapAll(SQLFunction<ResultSet, T> mapper);
 
+    /**
+     * Lazy flavor of {@link #mapAll(SQLFunction)}, rows are mapped one at a time while iterating
+     * (enables to stream them, for example with {@code JsonMapper#writeArray}).
+     * The default implementation is not lazy, it delegates to {@link #mapAll(SQLFunction)}.
+     *
+     * @param mapper the row mapper.
+     * @param <T>    the type of mapped rows.
+     * @return an iterator over the remaining rows.
+     */
+    default <T> Iterator<T> iterate(final SQLFunction<ResultSet, T> mapper) {
+        return mapAll(mapper).iterator();
+    }
+
     <T> T map(SQLFunction<ResultSet, T> mapper);
 }
@@ -21,6 +21,7 @@ import io.yupiik.fusion.persistence.api.PersistenceException;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -63,9 +64,19 @@ public class DefaultBaseDatabase implements BaseDatabase {
                 entity(type).mapper(resultSet).apply(resultSet);
     }
 
-    @SuppressWarnings("unchecked")
+    @Override
     public <T> List<T> mapAll(final Class<T> type, final ResultSet resultSet) {
-        final var provider = type == Map.class ?
+        return new ResultSetWrapperImpl(resultSet).mapAll(rowMapper(type, resultSet)::apply);
+    }
+
+    @Override
+    public <T> Iterator<T> iterate(final Class<T> type, final ResultSet resultSet) {
+        return new ResultSetWrapperImpl(resultSet).iterate(rowMapper(type, resultSet)::apply);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Function<ResultSet, T> rowMapper(final Class<T> type, final ResultSet resultSet) {
+        return type == Map.class ?
                 new Function<ResultSet, T>() {
                     private final List<String> names;
 
@@ -79,7 +90,6 @@ public class DefaultBaseDatabase implements BaseDatabase {
                     }
                 } :
                 entity(type).mapper(resultSet);
-        return new ResultSetWrapperImpl(resultSet).mapAll(provider::apply);
     }
 
     @SuppressWarnings("unchecked")
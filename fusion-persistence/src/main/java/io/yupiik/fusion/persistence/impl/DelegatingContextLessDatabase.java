@@ -138,6 +138,11 @@ public class DelegatingContextLessDatabase implements ContextLessDatabase, AutoC
         return database.mapAll(type, resultSet);
     }
 
+    @Override
+    public <T> Iterator<T> iterate(final Class<T> type, final ResultSet resultSet) {
+        return database.iterate(type, resultSet);
+    }
+
     @Override
     public <T, ID> Entity<T, ID> entity(final Class<T> type) {
         return database.entity(type);
@@ -23,6 +23,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static java.util.Spliterator.IMMUTABLE;
 import static java.util.Spliterators.spliteratorUnknownSize;
@@ -47,25 +48,39 @@ public class ResultSetWrapperImpl implements ResultSetWrapper {
 
     @Override
     public <T> List<T> mapAll(final SQLFunction<ResultSet, T> mapper) {
-        return stream(spliteratorUnknownSize(new Iterator<T>() {
+        return stream(spliteratorUnknownSize(iterate(mapper), IMMUTABLE), false).collect(toList());
+    }
+
+    @Override
+    public <T> Iterator<T> iterate(final SQLFunction<ResultSet, T> mapper) {
+        return new Iterator<>() {
+            private Boolean hasNext;
+
             @Override
             public boolean hasNext() {
-                try {
-                    return resultSet.next();
-                } catch (final SQLException e) {
-                    throw new PersistenceException(e);
+                if (hasNext == null) {
+                    try {
+                        hasNext = resultSet.next();
+                    } catch (final SQLException e) {
+                        throw new PersistenceException(e);
+                    }
                 }
+                return hasNext;
             }
 
             @Override
             public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
                 try {
                     return mapper.apply(resultSet);
                 } catch (final SQLException e) {
                     throw new PersistenceException(e);
                 }
             }
-        }, IMMUTABLE), false).collect(toList());
+        };
     }
 
     @Override
@@ -175,6 +175,34 @@ class DatabaseImplTest {
         assertEquals(entities, all);
     }
 
+    @Test
+    @EnableH2
+    void iterate(final DataSource dataSource) throws SQLException {
+        final var database = init(dataSource);
+
+        final var entities = new ArrayList<SimpleFlatEntity>();
+        for (int i = 0; i < 3; i++) { // seed data
+            entities.add(database.insert(new SimpleFlatEntity(null, "test_" + i, 0)));
+        }
+        // query
+        final var all = database.query(
+                "select name, id, SIMPLE_AGE from SIMPLE_FLAT_ENTITY order by name", StatementBinder.NONE,
+                r -> {
+                    final var it = database.iterate(SimpleFlatEntity.class, r.get());
+                    final var list = new ArrayList<SimpleFlatEntity>();
+                    while (it.hasNext() && it.hasNext()) { // hasNext is idempotent
+                        list.add(it.next());
+                    }
+                    return list;
+                });
+
+        // cleanup
+        entities.forEach(database::delete);
+
+        // asserts
+        assertEquals(entities, all);
+    }
+
     @Test
     @EnableH2
     void findWithBinding(final DataSource dataSource) throws SQLException {
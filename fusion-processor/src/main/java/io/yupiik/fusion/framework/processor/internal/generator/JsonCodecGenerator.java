@@ -22,7 +22,6 @@ import io.yupiik.fusion.framework.build.api.json.JsonProperty;
 import io.yupiik.fusion.framework.processor.internal.Elements;
 import io.yupiik.fusion.framework.processor.internal.ParsedType;
 import io.yupiik.fusion.framework.processor.internal.meta.JsonSchema;
-import io.yupiik.fusion.json.internal.JsonStrings;
 import io.yupiik.fusion.json.internal.codec.BaseJsonCodec;
 import io.yupiik.fusion.json.internal.codec.CollectionJsonCodec;
 import io.yupiik.fusion.json.internal.codec.MapJsonCodec;
@@ -33,10 +32,14 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -50,13 +53,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static javax.lang.model.element.ElementKind.RECORD;
 
@@ -167,6 +174,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     return paramType == ParamType.SET || paramType == ParamType.LIST;
                 })
                 .toList();
+        final var arrays = params.stream().filter(it -> it.types().paramType() == ParamType.ARRAY).toList();
         final var mapLists = params.stream().filter(it -> it.types().paramType() == ParamType.MAP_LIST).toList();
         final var maps = params.stream().filter(it -> it.types().paramType() == ParamType.MAP && !it.others()).toList();
         final var fallbacks = params.stream().filter(Param::others).toList();
@@ -179,7 +187,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                       if (firstAttribute) {
                         firstAttribute = false;
                       } else {
-                        writer.write(',');
+                        writer.writeComma();
                       }
                 """ :
                 "";
@@ -191,6 +199,8 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                         "}\n")
                 .orElse(null);
 
+        final var fallbackKey = "(key < 0 ? unknownKey : JSON_NAMES[key])";
+
         final var out = new StringBuilder();
         if (!packageName.isBlank()) {
             out.append("package ").append(packageName).append(";\n\n");
@@ -202,8 +212,17 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 .append(" extends ").append(BaseJsonCodec.class.getName())
                 .append('<').append(modelClass).append("> {\n");
         out.append(params.stream()
-                .map(p -> "  private static final char[] " + p.javaName() + "__CHAR_ARRAY = \"\\\"" + p.stringEscapedJsonName() + "\\\":\".toCharArray();")
-                .collect(joining("\n", "", "\n\n")));
+                .map(p -> "" +
+                        "  private static final char[] " + p.javaName() + "__CHAR_ARRAY = \"\\\"" + p.stringEscapedJsonName() + "\\\":\".toCharArray();\n" +
+                        "  private static final byte[] " + p.javaName() + "__BYTE_ARRAY = \"\\\"" + p.stringEscapedJsonName() + "\\\":\".getBytes(" +
+                        StandardCharsets.class.getName() + ".UTF_8);")
+                .collect(joining("\n", "", "\n")));
+        if (!fallbacks.isEmpty()) {
+            out.append(params.stream()
+                    .map(p -> '"' + p.stringEscapedJsonName() + '"')
+                    .collect(joining(", ", "  private static final String[] JSON_NAMES = {", "};\n")));
+        }
+        out.append("\n");
         out.append("  public ").append(className).append(SUFFIX).append("() {\n");
         out.append("    super(").append(modelClass).append(".class);\n");
         out.append("  }\n");
@@ -218,12 +237,20 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 .map(it -> "    " + it.type() + " param__" + it.javaName() + " = " + it.defaultValue() + ";\n")
                 .collect(joining()));
         out.append("\n");
-        out.append("    String key = null;\n");
+        out.append("    int key = -1;\n");
+        if (!fallbacks.isEmpty()) {
+            out.append("    String unknownKey = null;\n");
+        }
         out.append("    ").append(Parser.class.getName()).append(".Event event = null;\n");
         out.append("    while (parser.hasNext()) {\n");
         out.append("      event = parser.next();\n");
         out.append("      switch (event) {\n");
-        out.append("        case KEY_NAME: key = parser.getString(); break;\n");
+        out.append("        case KEY_NAME:\n");
+        out.append("          key = keyIndex(parser.getChars());\n");
+        if (!fallbacks.isEmpty()) { // only materialize unknown keys
+            out.append("          unknownKey = key < 0 ? parser.getString() : null;\n");
+        }
+        out.append("          break;\n");
         if (!strings.isEmpty() || !dates.isEmpty() || !fallbacks.isEmpty() || !genericObjects.isEmpty()) {
             out.append("        case VALUE_STRING:\n");
             out.append("          switch (key) {\n");
@@ -231,7 +258,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     .map(it -> {
                         final var assignment = "              param__" + it.javaName() + " = ";
                         return "" +
-                                "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                                "            case " + params.indexOf(it) + ":\n" +
                                 switch (it.types().paramTypeDef()) {
                                     case STRING -> assignment + "parser.getString();\n";
                                     case ENUM -> "              parser.rewind(event);\n" +
@@ -246,7 +273,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     .collect(joining()));
             out.append(dates.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = context.codec(" +
                             switch (it.types().paramTypeDef()) {
@@ -261,7 +288,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     .collect(joining()));
             out.append(genericObjects.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              param__" + it.javaName() + " = parser.getString();\n" +
                             "              break;\n")
                     .collect(joining()));
@@ -270,10 +297,10 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
             } else {
                 out.append("            default:\n");
                 out.append(createIfNullFallbackMap.indent(14));
-                out.append("              param__").append(fallbacks.get(0).javaName()).append(".put(key, parser.getString());\n");
+                out.append("              param__").append(fallbacks.get(0).javaName()).append(".put(" + fallbackKey + ", parser.getString());\n");
             }
             out.append("          }\n");
-            out.append("          key = null;\n");
+            out.append("          key = -1;\n");
             out.append("          break;\n");
         }
         if (!numbers.isEmpty() || !fallbacks.isEmpty() || !genericObjects.isEmpty()) {
@@ -281,7 +308,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
             out.append("          switch (key) {\n");
             out.append(numbers.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              param__" + it.javaName() + " = parser." +
                             switch (it.types().paramTypeDef()) {
                                 case INTEGER -> "getInt";
@@ -295,7 +322,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     .collect(joining()));
             out.append(genericObjects.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              param__" + it.javaName() + " = parser.getBigDecimal();\n" +
                             "              break;\n")
                     .collect(joining()));
@@ -304,10 +331,10 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
             } else {
                 out.append("            default:\n");
                 out.append(createIfNullFallbackMap.indent(14));
-                out.append("              param__").append(fallbacks.get(0).javaName()).append(".put(key, parser.getBigDecimal());\n");
+                out.append("              param__").append(fallbacks.get(0).javaName()).append(".put(" + fallbackKey + ", parser.getBigDecimal());\n");
             }
             out.append("          }\n");
-            out.append("          key = null;\n");
+            out.append("          key = -1;\n");
             out.append("          break;\n");
         }
         if (!booleans.isEmpty() || !fallbacks.isEmpty() || !genericObjects.isEmpty()) {
@@ -316,7 +343,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
             out.append("          switch (key) {\n");
             out.append(Stream.concat(booleans.stream(), genericObjects.stream())
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              param__" + it.javaName() + " = " + Parser.class.getName() + ".Event.VALUE_TRUE.equals(event);\n" +
                             "              break;\n")
                     .collect(joining()));
@@ -326,10 +353,10 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 out.append("            default:\n");
                 out.append(createIfNullFallbackMap.indent(14));
                 out.append("              param__").append(fallbacks.get(0).javaName())
-                        .append(".put(key, ").append(Parser.class.getName()).append(".Event.VALUE_TRUE.equals(event));\n");
+                        .append(".put(" + fallbackKey + ", ").append(Parser.class.getName()).append(".Event.VALUE_TRUE.equals(event));\n");
             }
             out.append("          }\n");
-            out.append("          key = null;\n");
+            out.append("          key = -1;\n");
             out.append("          break;\n");
         }
         if (!models.isEmpty() || !genericObjects.isEmpty() || !maps.isEmpty() || !mapLists.isEmpty() || !fallbacks.isEmpty()) {
@@ -337,21 +364,21 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
             out.append("          switch (key) {\n");
             out.append(models.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = context.codec(" + it.type() + ".class).read(context);\n" +
                             "              break;\n")
                     .collect(joining()));
             out.append(genericObjects.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = context.codec(" + Object.class.getName() + ".class).read(context);\n" +
                             "              break;\n")
                     .collect(joining()));
             out.append(maps.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = new " + MapJsonCodec.class.getName() + "<>(context.codec(" +
                             it.types().argTypeIfNotValue() + ".class)).read(context);\n" +
@@ -359,7 +386,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     .collect(joining()));
             out.append(mapLists.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = new " + MapJsonCodec.class.getName() + "<>(" +
                             "new " + CollectionJsonCodec.class.getName() + "<" +
@@ -376,40 +403,35 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 out.append(createIfNullFallbackMap.indent(14));
                 out.append("              parser.rewind(event);\n");
                 out.append("              param__").append(fallbacks.get(0).javaName())
-                        .append(".put(key, context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
+                        .append(".put(" + fallbackKey + ", context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
             }
             out.append("          }\n");
-            out.append("          key = null;\n");
+            out.append("          key = -1;\n");
             out.append("          break;\n");
         }
-        if (!collections.isEmpty() || !fallbacks.isEmpty() || !genericObjects.isEmpty()) {
+        if (!collections.isEmpty() || !arrays.isEmpty() || !fallbacks.isEmpty() || !genericObjects.isEmpty()) {
             out.append("        case START_ARRAY:\n");
             out.append("          switch (key) {\n");
+            out.append(arrays.stream()
+                    .map(it -> "" +
+                            "            case " + params.indexOf(it) + ":\n" +
+                            "              param__" + it.javaName() + " = read" + primitiveName(it) + "Array(parser);\n" +
+                            "              break;\n")
+                    .collect(joining()));
             out.append(collections.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
-                            "              parser.rewind(event);\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             switch (it.types().paramTypeDef()) {
-                                // todo: generate a codec?
-                                default ->
-                                        "              param__" + it.javaName() + " = new " + CollectionJsonCodec.class.getName() + "<>(" +
-                                                "context.codec(" + it.types().argTypeIfNotValue() + ".class), " + switch (it.types().paramType()) {
-                                            case LIST -> List.class.getName();
-                                            case SET -> Set.class.getName();
-                                            default ->
-                                                    throw new IllegalStateException("Unsupported parameter: " + it + " from " + element);
-                                        } + ".class, " + switch (it.types().paramType()) {
-                                            case LIST -> ArrayList.class.getName();
-                                            case SET -> HashSet.class.getName();
-                                            default ->
-                                                    throw new IllegalStateException("Unsupported parameter: " + it + " from " + element);
-                                        } + "::new).read(context);\n";
+                                case INTEGER, LONG -> isPrimitiveList(it) ?
+                                        "              param__" + it.javaName() + " = read" + primitiveName(it) + "List(parser);\n" :
+                                        readCollection(it);
+                                default -> readCollection(it);
                             } +
                             "              break;\n")
                     .collect(joining()));
             out.append(genericObjects.stream()
                     .map(it -> "" +
-                            "            case \"" + it.stringEscapedJsonName() + "\":\n" +
+                            "            case " + params.indexOf(it) + ":\n" +
                             "              parser.rewind(event);\n" +
                             "              param__" + it.javaName() + " = new " + CollectionJsonCodec.class.getName() + "<>(" +
                             "context.codec(java.lang.Object.class), " +
@@ -424,10 +446,10 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 out.append(createIfNullFallbackMap.indent(14));
                 out.append("              parser.rewind(event);\n");
                 out.append("              param__").append(fallbacks.get(0).javaName())
-                        .append(".put(key, context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
+                        .append(".put(" + fallbackKey + ", context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
             }
             out.append("          }\n");
-            out.append("          key = null;\n");
+            out.append("          key = -1;\n");
             out.append("          break;\n");
         }
         out.append("        case END_OBJECT: return new ").append(modelClass).append("(").append(params.stream()
@@ -443,7 +465,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                         .filter(Objects::nonNull)
                         .collect(joining(", ")))
                 .append(":\n");
-        out.append("          key = null;\n          break;\n");
+        out.append("          key = -1;\n          break;\n");
         if (models.isEmpty() && genericObjects.isEmpty() && maps.isEmpty() && mapLists.isEmpty()) {
             out.append("        case START_OBJECT:\n");
             if (fallbacks.isEmpty()) {
@@ -452,11 +474,11 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 out.append(createIfNullFallbackMap.indent(10));
                 out.append("          parser.rewind(event);\n");
                 out.append("          param__").append(fallbacks.get(0).javaName())
-                        .append(".put(key, context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
+                        .append(".put(" + fallbackKey + ", context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
             }
-            out.append("          key = null;\n          break;\n");
+            out.append("          key = -1;\n          break;\n");
         }
-        if (collections.isEmpty() && genericObjects.isEmpty()) {
+        if (collections.isEmpty() && arrays.isEmpty() && genericObjects.isEmpty()) {
             out.append("        case START_ARRAY:\n");
             if (fallbacks.isEmpty()) {
                 out.append("          parser.skipArray();\n");
@@ -464,9 +486,9 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 out.append(createIfNullFallbackMap.indent(10));
                 out.append("          parser.rewind(event);\n");
                 out.append("          param__").append(fallbacks.get(0).javaName())
-                        .append(".put(key, context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
+                        .append(".put(" + fallbackKey + ", context.codec(").append(Object.class.getName()).append(".class).read(context));\n");
             }
-            out.append("          key = null;\n          break;\n");
+            out.append("          key = -1;\n          break;\n");
         }
         out.append("        // case END_ARRAY: fallthrough\n");
         out.append("        default: throw new IllegalArgumentException(\"Unsupported event: \" + event);\n");
@@ -475,6 +497,8 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
         out.append("    throw new IllegalArgumentException(\"Object didn't end.\");\n");
         out.append("  }\n");
         out.append("\n");
+        out.append(generateKeyIndex(params));
+        out.append("\n");
         out.append("  @Override\n");
         out.append("  public void write(").append(className.replace('$', '.')).append(" instance, ")
                 .append(JsonCodec.SerializationContext.class.getName().replace('$', '.')).append(" context) throws ").append(IOException.class.getName()).append(" {\n");
@@ -482,7 +506,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
         if (params.size() > 1) {
             out.append("    boolean firstAttribute = true;\n");
         }
-        out.append("    writer.write('{');\n");
+        out.append("    writer.writeStartObject();\n");
 
         final var serializerPosition = new AtomicInteger();
         out.append(params.stream()
@@ -509,8 +533,8 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                         case VALUE -> switch (paramTypeDef) {
                             case INTEGER, LONG, DOUBLE, BOOLEAN -> {
                                 final var write = (paramPosition > 0 ? commaAppender : firstCommaHandler) +
-                                        "      writer.write(" + param.javaName() + "__CHAR_ARRAY);\n" +
-                                        "      writer.write(String.valueOf(instance." + param.javaName() + "()));\n";
+                                        "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
+                                        "      " + writeScalar(paramTypeDef, "instance." + param.javaName() + "()");
                                 if (param.type().toString().startsWith("java.lang.")) { // wrapper, can be null
                                     yield "    if (instance." + param.javaName() + "() != null) {\n" + write + "    }\n";
                                 }
@@ -519,32 +543,46 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             case STRING -> "" +
                                     "    if (instance." + param.javaName() + "() != null) {\n" +
                                     (paramPosition > 0 ? commaAppender : firstCommaHandler) +
-                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY);\n" +
-                                    "      writer.write(" + JsonStrings.class.getName() + ".escapeChars(instance." + param.javaName() + "()));\n" +
+                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
+                                    "      writer.writeString(instance." + param.javaName() + "());\n" +
                                     "    }\n";
                             case ENUM, LOCAL_DATE, LOCAL_DATE_TIME, OFFSET_DATE_TIME, ZONED_DATE_TIME, BIG_DECIMAL ->
                                     "" +
                                             "    if (instance." + param.javaName() + "() != null) {\n" +
                                             (paramPosition > 0 ? commaAppender : firstCommaHandler) +
-                                            "      writer.write(" + param.javaName() + "__CHAR_ARRAY);\n" +
+                                            "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
                                             "      context.codec(" + param.type().toString() + ".class).write(instance." + param.javaName() + "(), context);\n" +
                                             "    }\n";
                             case GENERIC_OBJECT -> "" +
                                     "    if (instance." + param.javaName() + "() != null) {\n" +
                                     (paramPosition > 0 ? commaAppender : firstCommaHandler) +
                                     "      final var codec = context.codec(" + Object.class.getName() + ".class);\n" +
-                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY);\n" +
+                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
                                     "      codec.write(instance." + param.javaName() + "(), context);\n" +
                                     "    }\n";
                             case MODEL -> "" +
                                     "    if (instance." + param.javaName() + "() != null) {\n" +
                                     (paramPosition > 0 ? commaAppender : firstCommaHandler) +
                                     "      final var codec = context.codec(" + param.type() + ".class);\n" +
-                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY);\n" +
+                                    "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
                                     "      codec.write(instance." + param.javaName() + "(), context);\n" +
                                     "    }\n";
                         };
+                        case ARRAY -> "" +
+                                "    if (instance." + param.javaName() + "() != null) {\n" +
+                                (paramPosition > 0 ? commaAppender : firstCommaHandler) +
+                                "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
+                                "      write" + primitiveName(param) + "Array(instance." + param.javaName() + "(), writer);\n" +
+                                "    }\n";
                         case SET, LIST -> {
+                            if (isPrimitiveList(param)) {
+                                yield "" +
+                                        "    if (instance." + param.javaName() + "() != null) {\n" +
+                                        (paramPosition > 0 ? commaAppender : firstCommaHandler) +
+                                        "      writer.write(" + param.javaName() + "__CHAR_ARRAY, " + param.javaName() + "__BYTE_ARRAY);\n" +
+                                        "      write" + primitiveName(param) + "List(instance." + param.javaName() + "(), writer);\n" +
+                                        "    }\n";
+                            }
                             final var structure = new StringBuilder();
                             structure.append("    if (instance.").append(param.javaName()).append("() != null) {\n");
                             if (paramPosition > 0) {
@@ -552,8 +590,9 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             } else {
                                 structure.append(firstCommaHandler);
                             }
-                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY);\n");
-                            structure.append("      writer.write('[');\n");
+                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY, ")
+                                    .append(param.javaName()).append("__BYTE_ARRAY);\n");
+                            structure.append("      writer.writeStartArray();\n");
                             structure.append("      final var it = instance.").append(param.javaName()).append("().iterator();\n");
                             if (needsCodec(paramTypeDef)) {
                                 structure.append("      final var codec = context.codec(").append(param.types().argTypeIfNotValue()).append(".class);\n");
@@ -563,22 +602,27 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             structure.append("      while (it.hasNext()) {\n");
                             structure.append("        final var next = it.next();\n");
                             structure.append((switch (paramTypeDef) {
-                                case INTEGER, LONG, DOUBLE, BOOLEAN -> "writer.write(String.valueOf(next));\n";
-                                case STRING -> "writer.write(next == null ? \"null\" : " +
-                                        JsonStrings.class.getName() + ".escapeChars(next));\n";
+                                case INTEGER, LONG, DOUBLE, BOOLEAN -> writeNullableScalar(paramTypeDef, "next");
+                                case STRING -> """
+                                        if (next == null) {
+                                          writer.writeNull();
+                                        } else {
+                                          writer.writeString(next);
+                                        }
+                                        """;
                                 default -> """
                                         if (next == null) {
-                                          writer.write(NULL);
+                                          writer.writeNull();
                                         } else {
                                           codec.write(next, context);
                                         }
                                         """;
                             }).indent(8));
                             structure.append("        if (it.hasNext()) {\n");
-                            structure.append("          writer.write(',');\n");
+                            structure.append("          writer.writeComma();\n");
                             structure.append("        }\n");
                             structure.append("      }\n");
-                            structure.append("      writer.write(']');\n");
+                            structure.append("      writer.writeEndArray();\n");
                             structure.append("    }\n");
                             yield structure.toString();
                         }
@@ -590,8 +634,9 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             } else {
                                 structure.append(firstCommaHandler);
                             }
-                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY);\n");
-                            structure.append("      writer.write('{');\n");
+                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY, ")
+                                    .append(param.javaName()).append("__BYTE_ARRAY);\n");
+                            structure.append("      writer.writeStartObject();\n");
                             structure.append("      final var it = instance.").append(param.javaName()).append("().entrySet().iterator();\n");
                             if (needsCodec(paramTypeDef)) {
                                 structure.append("      final var codec = context.codec(").append(param.types().argTypeIfNotValue()).append(".class);\n");
@@ -601,31 +646,30 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             structure.append("      while (it.hasNext()) {\n");
                             structure.append("        final var next = it.next();\n");
                             structure.append(("" +
-                                    "writer.write(" + JsonStrings.class.getName() + ".escapeChars(next.getKey()));\n" +
-                                    "writer.write(':');\n" +
+                                    "writer.writeString(next.getKey());\n" +
+                                    "writer.writeColon();\n" +
                                     switch (paramTypeDef) {
-                                        case INTEGER, LONG, DOUBLE, BOOLEAN ->
-                                                "writer.write(String.valueOf(next.getValue()));\n";
+                                        case INTEGER, LONG, DOUBLE, BOOLEAN -> writeNullableScalar(paramTypeDef, "next.getValue()");
                                         case STRING -> """
                                                 if (next.getValue() == null) {
-                                                  writer.write(NULL);
+                                                  writer.writeNull();
                                                 } else {
-                                                  writer.write(io.yupiik.fusion.json.internal.JsonStrings.escapeChars(next.getValue()));
+                                                  writer.writeString(next.getValue());
                                                 }
                                                 """;
                                         default -> """
                                                 if (next.getValue() == null) {
-                                                  writer.write(NULL);
+                                                  writer.writeNull();
                                                 } else {
                                                   codec.write(next.getValue(), context);
                                                 }
                                                 """;
                                     }).indent(8));
                             structure.append("        if (it.hasNext()) {\n");
-                            structure.append("          writer.write(',');\n");
+                            structure.append("          writer.writeComma();\n");
                             structure.append("        }\n");
                             structure.append("      }\n");
-                            structure.append("      writer.write('}');\n");
+                            structure.append("      writer.writeEndObject();\n");
                             structure.append("    }\n");
                             yield structure.toString();
                         }
@@ -637,8 +681,9 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             } else {
                                 structure.append(firstCommaHandler);
                             }
-                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY);\n");
-                            structure.append("      writer.write('{');\n");
+                            structure.append("      writer.write(").append(param.javaName()).append("__CHAR_ARRAY, ")
+                                    .append(param.javaName()).append("__BYTE_ARRAY);\n");
+                            structure.append("      writer.writeStartObject();\n");
                             structure.append("      final var it = instance.").append(param.javaName()).append("().entrySet().iterator();\n");
                             if (needsCodec(paramTypeDef)) {
                                 structure.append("      final var itemCodec = context.codec(").append(param.types().argTypeIfNotValue()).append(".class);\n");
@@ -651,47 +696,149 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                             structure.append("        if (rawNextValue == null) {\n"); // unlikely but possible
                             structure.append("          continue;\n");
                             structure.append("        }\n");
-                            structure.append("        writer.write(")
-                                    .append(JsonStrings.class.getName()).append(".escapeChars(next.getKey()));\n");
-                            structure.append("        writer.write(\":[\");\n");
+                            structure.append("        writer.writeString(next.getKey());\n");
+                            structure.append("        writer.writeColon();\n");
+                            structure.append("        writer.writeStartArray();\n");
                             structure.append("        final var nextValue = rawNextValue.iterator();\n");
                             structure.append("        while (nextValue.hasNext()) {\n");
                             structure.append("          final var value = nextValue.next();\n");
                             structure.append((switch (paramTypeDef) {
-                                case INTEGER, LONG, DOUBLE, BOOLEAN ->
-                                        "          writer.write(String.valueOf(value));\n";
-                                case STRING -> "          writer.write(next == null ? \"null\" : " +
-                                        JsonStrings.class.getName() + ".escapeChars(value));\n";
+                                case INTEGER, LONG, DOUBLE, BOOLEAN -> writeNullableScalar(paramTypeDef, "value");
+                                case STRING -> """
+                                        if (value == null) {
+                                          writer.writeNull();
+                                        } else {
+                                          writer.writeString(value);
+                                        }
+                                        """;
                                 default -> """
                                         if (value == null) {
-                                          writer.write(NULL);
+                                          writer.writeNull();
                                         } else {
                                           itemCodec.write(value, context);
                                         }
                                         """;
                             }).indent(10));
                             structure.append("          if (nextValue.hasNext()) {\n");
-                            structure.append("            writer.write(',');\n");
+                            structure.append("            writer.writeComma();\n");
                             structure.append("          }\n");
                             structure.append("        }\n");
-                            structure.append("        writer.write(']');\n");
+                            structure.append("        writer.writeEndArray();\n");
                             structure.append("        if (it.hasNext()) {\n");
-                            structure.append("          writer.write(',');\n");
+                            structure.append("          writer.writeComma();\n");
                             structure.append("        }\n");
                             structure.append("      }\n");
-                            structure.append("      writer.write('}');\n");
+                            structure.append("      writer.writeEndObject();\n");
                             structure.append("    }\n");
                             yield structure.toString();
                         }
                     };
                 })
                 .collect(joining()));
-        out.append("    writer.write('}');\n");
+        out.append("    writer.writeEndObject();\n");
         out.append("  }\n");
         out.append("}\n\n");
         return out;
     }
 
+    // numbers and booleans use the typed writer methods so non JSON writers (CBOR) get the value and not its JSON text
+    private String writeScalar(final ParamTypeDef type, final String value) {
+        return "writer." + (type == ParamTypeDef.BOOLEAN ? "writeBoolean" : "writeNumber") + "(" + value + ");\n";
+    }
+
+    private String writeNullableScalar(final ParamTypeDef type, final String value) {
+        return "" +
+                "if (" + value + " == null) {\n" +
+                "  writer.writeNull();\n" +
+                "} else {\n" +
+                "  " + writeScalar(type, value) +
+                "}\n";
+    }
+
+    // resolves the attribute index from parser.getChars() without creating a String:
+    // dispatch on the key length then on the most discriminating character before comparing the whole key
+    private String generateKeyIndex(final List<Param> params) {
+        final var out = new StringBuilder();
+        out.append("  private static int keyIndex(final ").append(CharBuffer.class.getName()).append(" key) {\n");
+        if (params.isEmpty()) {
+            out.append("    return -1;\n");
+            out.append("  }\n");
+            return out.toString();
+        }
+
+        out.append("    switch (key.length()) {\n");
+        params.stream()
+                .collect(groupingBy(p -> p.jsonName().length(), TreeMap::new, toList()))
+                .forEach((length, candidates) -> {
+                    out.append("      case ").append(length).append(":\n");
+                    if (candidates.size() == 1) {
+                        final var param = candidates.get(0);
+                        out.append("        return isKey(key, ").append(param.javaName()).append("__CHAR_ARRAY) ? ")
+                                .append(params.indexOf(param)).append(" : -1;\n");
+                        return;
+                    }
+
+                    final int position = IntStream.range(0, length)
+                            .boxed()
+                            .max(Comparator.comparing(i -> candidates.stream().map(p -> p.jsonName().charAt(i)).distinct().count()))
+                            .orElseThrow();
+                    out.append("        switch (key.charAt(").append(position).append(")) {\n");
+                    candidates.stream()
+                            .collect(groupingBy(p -> p.jsonName().charAt(position), LinkedHashMap::new, toList()))
+                            .forEach((c, matching) -> {
+                                out.append("          case ").append(Character.isLetterOrDigit(c) && c < 128 ? "'" + c + "'" : Integer.toString(c)).append(":\n");
+                                for (final var param : matching) {
+                                    out.append("            if (isKey(key, ").append(param.javaName()).append("__CHAR_ARRAY)) {\n");
+                                    out.append("              return ").append(params.indexOf(param)).append(";\n");
+                                    out.append("            }\n");
+                                }
+                                out.append("            return -1;\n");
+                            });
+                    out.append("          default:\n");
+                    out.append("            return -1;\n");
+                    out.append("        }\n");
+                });
+        out.append("      default:\n");
+        out.append("        return -1;\n");
+        out.append("    }\n");
+        out.append("  }\n");
+        return out.toString();
+    }
+
+    private String readCollection(final Param param) {
+        return "" +
+                "              parser.rewind(event);\n" +
+                "              param__" + param.javaName() + " = new " + CollectionJsonCodec.class.getName() + "<>(" +
+                "context.codec(" + param.types().argTypeIfNotValue() + ".class), " + switch (param.types().paramType()) {
+            case LIST -> List.class.getName();
+            case SET -> Set.class.getName();
+            default -> throw new IllegalStateException("Unsupported parameter: " + param + " from " + element);
+        } + ".class, " + switch (param.types().paramType()) {
+            case LIST -> ArrayList.class.getName();
+            case SET -> HashSet.class.getName();
+            default -> throw new IllegalStateException("Unsupported parameter: " + param + " from " + element);
+        } + "::new).read(context);\n";
+    }
+
+    // List<Integer>/List<Long> are read in a primitive array (see BaseJsonCodec) to avoid boxing
+    private boolean isPrimitiveList(final Param param) {
+        final var def = param.types().paramTypeDef();
+        return param.types().paramType() == ParamType.LIST &&
+                (def == ParamTypeDef.INTEGER || def == ParamTypeDef.LONG) &&
+                param.type().toString().startsWith(List.class.getName() + "<");
+    }
+
+    // suffix of the BaseJsonCodec read/write helpers for primitive arrays and lists
+    private String primitiveName(final Param param) {
+        return switch (param.types().paramTypeDef()) {
+            case INTEGER -> "Int";
+            case LONG -> "Long";
+            case DOUBLE -> "Double";
+            case BOOLEAN -> "Boolean";
+            default -> throw new IllegalStateException("Unsupported parameter: " + param + " from " + element);
+        };
+    }
+
     private boolean needsCodec(final ParamTypeDef paramTypeDef) {
         return paramTypeDef == ParamTypeDef.MODEL ||
                 paramTypeDef == ParamTypeDef.ENUM ||
@@ -703,6 +850,15 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
     }
 
     private ParamTypes typeOf(final String typeString, final TypeMirror raw) { // todo: enhance error cases
+        if (raw.getKind() == TypeKind.ARRAY) {
+            final var component = ((ArrayType) raw).getComponentType();
+            return switch (component.getKind()) {
+                case INT, LONG, DOUBLE, BOOLEAN ->
+                        new ParamTypes(ParamType.ARRAY, ParamTypeDef.of(component.toString(), null, models), component);
+                default ->
+                        throw new IllegalArgumentException("Unsupported type: '" + typeString + "', only int[], long[], double[] and boolean[] arrays are supported");
+            };
+        }
         if (typeString.startsWith(List.class.getName() + "<") && typeString.endsWith(">")) {
             final var arg = ((DeclaredType) raw).getTypeArguments().get(0);
             return new ParamTypes(ParamType.LIST, ParamTypeDef.of(
@@ -752,7 +908,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                     case BOOLEAN -> isWrapper() ? "null" : "false";
                     default -> "null";
                 };
-                case MAP, LIST, SET, MAP_LIST -> "null";
+                case MAP, LIST, SET, MAP_LIST, ARRAY -> "null";
             };
         }
 
@@ -778,7 +934,7 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
                 case MAP -> new JsonSchema(
                         null, null, "object", true, null, null,
                         valueSchema().asMap(), null, null);
-                case LIST, SET -> new JsonSchema(
+                case LIST, SET, ARRAY -> new JsonSchema(
                         null, null, "array", null, null, null,
                         null, null, valueSchema());
                 case MAP_LIST -> new JsonSchema(
@@ -837,7 +993,8 @@ public class JsonCodecGenerator extends BaseGenerator implements Supplier<BaseGe
         LIST,
         SET,
         MAP,
-        MAP_LIST // tolerated
+        MAP_LIST, // tolerated
+        ARRAY // primitive arrays
     }
 
     private enum ParamTypeDef { // a codec exists
@@ -417,8 +417,8 @@ public class JsonRpcEndpointGenerator extends BaseHttpEndpointGenerator implemen
                 case "long" -> "value == null ? 0L : ((java.lang.Number) value).longValue()";
                 case "java.lang.Long" -> "value == null ? null : ((java.lang.Number) value).longValue()";
                 case "java.lang.String" -> "(java.lang.String) value";
-                default -> // not the most sexy, todo: review if we can avoid a roundtrip
-                        "value == null ? null : jsonMapper.fromString(" + param.className() + ".class, jsonMapper.toString(value))";
+                default -> // bind the generic params value with the model codec
+                        "value == null ? null : jsonMapper.<" + param.className() + ">fromObject(" + param.className() + ".class, value)";
             };
             case PARAMETERIZED_TYPE -> switch (param.raw()) {
                 case "java.util.Collection", "java.util.List", "java.util.Set" -> {
@@ -454,10 +454,9 @@ public class JsonRpcEndpointGenerator extends BaseHttpEndpointGenerator implemen
                         case "java.lang.String" -> cast +
                                 "map(item -> (java.lang.String) item)." +
                                 collector;
-                        default -> // not the most sexy, todo: review if we can avoid a roundtrip
-                                "value == null ?" +
-                                        " null :" +
-                                        " jsonMapper.fromString(" + param.createParameterizedTypeImpl() + ", jsonMapper.toString(value))";
+                        default -> "value == null ?" +
+                                " null :" +
+                                " jsonMapper.fromObject(" + param.createParameterizedTypeImpl() + ", value)";
                     };
                 }
                 case "java.util.Map" -> {
@@ -491,10 +490,9 @@ public class JsonRpcEndpointGenerator extends BaseHttpEndpointGenerator implemen
                         case "java.lang.String" -> cast +
                                 ".map(item -> " + Map.class.getName() + ".entry(item.getKey(), (java.lang.String) item.getValue()))" +
                                 collector;
-                        default -> // not the most sexy, todo: review if we can avoid a roundtrip
-                                "value == null ?\n" +
-                                        "                                        null :\n" +
-                                        "                                        jsonMapper.fromString(" + param.createParameterizedTypeImpl() + ", jsonMapper.toString(value))";
+                        default -> "value == null ?\n" +
+                                "                                        null :\n" +
+                                "                                        jsonMapper.fromObject(" + param.createParameterizedTypeImpl() + ", value)";
                     };
                 }
                 case "java.util.Optional" -> switch (param.args().get(0)) {
@@ -507,10 +505,9 @@ public class JsonRpcEndpointGenerator extends BaseHttpEndpointGenerator implemen
                             Optional.class.getName() + ".ofNullable(value == null ? (" + Long.class.getName() + ") null : ((java.lang.Number) value).longValue())";
                     case "java.lang.String" ->
                             Optional.class.getName() + ".ofNullable(value == null ? (" + String.class.getName() + ")null : ((String) value))";
-                    default -> // not the most sexy, todo: review if we can avoid a roundtrip
-                            "value == null ? null : " +
-                                    Optional.class.getName() + ".ofNullable(value == null ? (" + param.args().get(0) + ") null : " +
-                                    "jsonMapper.fromString(" + param.args().get(0) + ".class, jsonMapper.toString(value)))";
+                    default -> "value == null ? null : " +
+                            Optional.class.getName() + ".ofNullable(value == null ? (" + param.args().get(0) + ") null : " +
+                            "jsonMapper.<" + param.args().get(0) + ">fromObject(" + param.args().get(0) + ".class, value))";
                 };
                 default ->
                         throw new IllegalArgumentException("For now generic parameterized type in JSON-RPC methods are not supported, only collections and optionals.");
@@ -60,6 +60,7 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -80,6 +81,7 @@ import java.util.stream.Stream;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -1102,6 +1104,43 @@ class FusionProcessorTest {
         });
     }
 
+    @Test
+    void jsonPrimitiveArrays(@TempDir final Path work) throws IOException {
+        new Compiler(work, "json.PrimitiveArrays").compileAndJsonAsserts((loader, mapper) -> {
+            final var recordType = loader.apply("test.p.json.PrimitiveArrays");
+            final var json = "{" +
+                    "\"doubles\":[1.5,-2.0],\"flags\":[true,false,true],\"intList\":[1,2,-3]," +
+                    "\"ints\":[0,-2147483648,2147483647],\"longList\":[9223372036854775807]," +
+                    "\"longs\":[-9223372036854775808,1234567890123],\"name\":\"metrics\"}";
+            final var instance = mapper.fromString(recordType, json);
+            assertEquals(json, mapper.toString(instance));
+            try {
+                assertArrayEquals(new int[]{0, Integer.MIN_VALUE, Integer.MAX_VALUE}, (int[]) recordType.getMethod("ints").invoke(instance));
+                assertArrayEquals(new long[]{Long.MIN_VALUE, 1234567890123L}, (long[]) recordType.getMethod("longs").invoke(instance));
+                assertArrayEquals(new double[]{1.5, -2.}, (double[]) recordType.getMethod("doubles").invoke(instance));
+                assertArrayEquals(new boolean[]{true, false, true}, (boolean[]) recordType.getMethod("flags").invoke(instance));
+                assertEquals(List.of(1, 2, -3), recordType.getMethod("intList").invoke(instance));
+                assertEquals(List.of(Long.MAX_VALUE), recordType.getMethod("longList").invoke(instance));
+
+                // lists stay mutable as the ArrayList they used to be
+                @SuppressWarnings("unchecked") final var intList = (List<Integer>) recordType.getMethod("intList").invoke(instance);
+                intList.set(0, 7);
+                intList.remove(1);
+                intList.add(8);
+                intList.add(null);
+                assertEquals(Arrays.asList(7, -3, 8, null), intList);
+                assertTrue(mapper.toString(instance).contains("\"intList\":[7,-3,8,null]"));
+            } catch (final ReflectiveOperationException e) {
+                fail(e);
+            }
+
+            // null items can't be in a primitive array but are kept in lists, empty arrays are supported
+            final var withNulls = mapper.fromString(recordType, "{\"intList\":[1,null,3],\"ints\":[]}");
+            assertEquals("{\"intList\":[1,null,3],\"ints\":[]}", mapper.toString(withNulls));
+            assertThrows(IllegalArgumentException.class, () -> mapper.fromString(recordType, "{\"ints\":[1,null]}"));
+        });
+    }
+
     @Test
     void jsonComplexNoJsonOthers(@TempDir final Path work) throws IOException {
         new Compiler(work, "JsonRecords").jsonRoundTripAsserts("test.p.JsonRecords$StrongTyping", "" +
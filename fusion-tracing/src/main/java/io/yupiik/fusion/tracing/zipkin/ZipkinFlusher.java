@@ -16,13 +16,13 @@
 package io.yupiik.fusion.tracing.zipkin;
 
 import io.yupiik.fusion.json.JsonMapper;
+import io.yupiik.fusion.json.serialization.Utf8BytesWriter;
 import io.yupiik.fusion.tracing.span.Span;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.function.Consumer;
 
@@ -46,7 +46,8 @@ public class ZipkinFlusher implements Consumer<Collection<Span>> {
         if (spans.isEmpty()) {
             return;
         }
-        final var payload = mapper.toBytes(spans);
+        final var payload = new Utf8BytesWriter(); // avoids to copy the payload in a byte[] of the exact size
+        mapper.write(spans, payload);
         final var error = new IllegalStateException("Can't send spans to zipkin");
         for (final var url : configuration.getUrls()) {
             final var requestBuilder = HttpRequest.newBuilder()
@@ -54,7 +55,7 @@ public class ZipkinFlusher implements Consumer<Collection<Span>> {
                     .uri(URI.create(url))
                     .header("accept", "application/json")
                     .header("content-type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofByteArray(payload));
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(payload.array(), 0, payload.size()));
             configuration.getHeaders().forEach(requestBuilder::header);
             try {
                 final var response = client.send(requestBuilder.build(), ofString());
@@ -69,7 +70,7 @@ public class ZipkinFlusher implements Consumer<Collection<Span>> {
         }
 
         // ensure it is "logged" somewhere if correctly wrapped or can be caught easily at least
-        error.addSuppressed(new JsonSpans(new String(payload, StandardCharsets.UTF_8)));
+        error.addSuppressed(new JsonSpans(payload.toString()));
         throw error;
     }
 